@@ -0,0 +1,404 @@
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves the empty units of each type at each location from immutable snapshots that
+ * every reader shares, and tells listeners when they change.
+ *
+ * Each (location, type) pair has a version, bumped whenever a unit of that type is
+ * rented or released; the empty units of any type have a version of their own,
+ * bumped by every rental and release.  A snapshot is taken the first time it is
+ * asked for after a change, under the location's lock, and then handed to every
+ * reader until the next change, so between changes a read takes no lock and builds
+ * nothing, however many readers there are.  A location is watched from the first
+ * time it is asked about until it is forgotten.
+ *
+ * Rather than polling, a front-end can add a listener, which is told the new version
+ * of each type that changes (see AvailabilityListener).
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class AvailabilityCache implements LocationListener {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of unit types */
+    private static final int TYPE_COUNT = StorageUnit.UnitType.values().length;
+    /** the slot, after those of the types, of each location's units of any type */
+    private static final int ANY_TYPE = TYPE_COUNT;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** runs the notifications to listeners */
+    private final Executor notifier;
+    /** the availability of each type at each watched location, by type and then any type */
+    private final ConcurrentMap<StorageLocation, Entry[]> entries;
+    /** the listeners told about changes */
+    private final List<AvailabilityListener> listeners;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * AvailabilityCache Constructor; notifies listeners on the common fork/join pool
+     */
+    public AvailabilityCache() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * AvailabilityCache Constructor
+     *
+     * @param   notifier    runs the notifications to listeners; must not be null
+     */
+    public AvailabilityCache(Executor notifier) {
+        if (notifier == null) {
+            throw new IllegalArgumentException("The notifier must not be null");
+        }
+        this.notifier = notifier;
+        entries = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves a snapshot of the empty units of one type at a location, watching the
+     * location from now on if it isn't watched yet
+     *
+     * @param   location    the location; must not be null
+     * @param   unitType    the type of units of interest; pass null for wildcard (any type of unit)
+     * @return              the current snapshot, shared with every other reader
+     */
+    public Availability getAvailability(StorageLocation location, StorageUnit.UnitType unitType) {
+        Entry entry = watch(location)[slotOf(unitType)];
+        Availability availability = entry.availability;
+        if (availability == null) {
+            // the location's lock keeps out rentals while the snapshot is taken, and
+            // makes the readers waiting on a change share the one snapshot
+            synchronized (location) {
+                availability = entry.availability;
+                if (availability == null) {
+                    BitSet free = (unitType == null) ? location.freeUnits
+                                                     : location.freeUnitsByType[unitType.ordinal()];
+                    availability = new Availability(location, unitType, entry.version, free.stream().toArray());
+                    entry.availability = availability;
+                }
+            }
+        }
+        return availability;
+    }
+
+    /**
+     * Retrieves the current version of the empty units of one type at a location,
+     * without taking a snapshot, watching the location from now on if it isn't watched yet
+     *
+     * @param   location    the location; must not be null
+     * @param   unitType    the type of units of interest; pass null for wildcard (any type of unit)
+     * @return              the version, which starts at 0 when the location is first watched
+     */
+    public long getVersion(StorageLocation location, StorageUnit.UnitType unitType) {
+        return watch(location)[slotOf(unitType)].version;
+    }
+
+    /**
+     * Finds whether a location is being watched
+     *
+     * @param   location    the location
+     * @return              true, if the location has been asked about and not forgotten since;
+     *                      false otherwise
+     */
+    public boolean isWatching(StorageLocation location) {
+        return location != null && entries.containsKey(location);
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Adds a listener, to be told about changes at every watched location
+     *
+     * @param   listener    the listener; must not be null
+     */
+    public void addListener(AvailabilityListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener; removing a listener that was never added has no effect
+     *
+     * @param   listener    the listener to remove
+     */
+    public void removeListener(AvailabilityListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops watching a location, dropping its snapshots; if it is asked about again,
+     * its versions start again at 0.  Forgetting a location not watched has no effect.
+     *
+     * @param   location    the location
+     */
+    public void forget(StorageLocation location) {
+        if (location == null) {
+            return;
+        }
+        synchronized (location) {
+            if (entries.remove(location) != null) {
+                location.removeListener(this);
+            }
+        }
+    }
+
+    @Override
+    public void unitRented(StorageLocation location, int locationIdx, int customerId,
+                           long rentalStartDay, long priceCents) {
+        unitChanged(location, locationIdx);
+    }
+
+    @Override
+    public void unitReleased(StorageLocation location, int locationIdx, int customerId,
+                             long rentalEndDay, long priceCents) {
+        unitChanged(location, locationIdx);
+    }
+
+    /**
+     * Finds the availability of each type at a location, watching the location if it
+     * isn't watched yet
+     *
+     * @param   location    the location; must not be null
+     * @return              the location's entries, by type and then any type
+     */
+    private Entry[] watch(StorageLocation location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        Entry[] locationEntries = entries.get(location);
+        if (locationEntries == null) {
+            // holding the location's lock, no rental can fall between creating and listening
+            synchronized (location) {
+                locationEntries = entries.get(location);
+                if (locationEntries == null) {
+                    StorageUnit.UnitType[] types = StorageUnit.UnitType.values();
+                    locationEntries = new Entry[TYPE_COUNT + 1];
+                    for (int slot = 0; slot <= TYPE_COUNT; slot++) {
+                        locationEntries[slot] = new Entry(location, (slot == ANY_TYPE) ? null : types[slot]);
+                    }
+                    entries.put(location, locationEntries);
+                    location.addListener(this);
+                }
+            }
+        }
+        return locationEntries;
+    }
+
+    /**
+     * Bumps the versions a rented or released unit changes, drops their snapshots, and
+     * sets a notification going; called with the location's lock held
+     *
+     * @param   location        the location
+     * @param   locationIdx     the unit's location index
+     */
+    private void unitChanged(StorageLocation location, int locationIdx) {
+        Entry[] locationEntries = entries.get(location);
+        if (locationEntries == null) {
+            return;
+        }
+        locationEntries[ANY_TYPE].invalidate();
+        Entry entry = locationEntries[location.getLayout().getType(locationIdx).ordinal()];
+        entry.invalidate();
+        // a notification already under way will pick up the new version itself
+        if (!listeners.isEmpty() && entry.notifying.compareAndSet(false, true)) {
+            notifier.execute(entry);
+        }
+    }
+
+    /**
+     * Finds the slot of a type in a location's entries
+     *
+     * @param   unitType    the type, or null for any type
+     * @return              the slot
+     */
+    private static int slotOf(StorageUnit.UnitType unitType) {
+        return (unitType == null) ? ANY_TYPE : unitType.ordinal();
+    }
+
+    //---------------------------------------------------------------------
+    //          ENTRIES
+    //---------------------------------------------------------------------
+    /**
+     * The version and latest snapshot of the empty units of one type at one location;
+     * run, it tells the listeners the latest version
+     */
+    private class Entry implements Runnable {
+        /** the location */
+        private final StorageLocation location;
+        /** the type of units, or null for any type */
+        private final StorageUnit.UnitType unitType;
+        /** the number of changes since the location was first watched; only bumped under the location's lock */
+        private volatile long version;
+        /** the snapshot of the current version, or null if none has been taken since the last change */
+        private volatile Availability availability;
+        /** true while a notification is waiting to run or running */
+        private final AtomicBoolean notifying = new AtomicBoolean();
+        /** the last version listeners were told of; only used by the one notification running */
+        private long notifiedVersion;
+
+        /**
+         * Entry Constructor
+         *
+         * @param   location    the location
+         * @param   unitType    the type of units, or null for any type
+         */
+        Entry(StorageLocation location, StorageUnit.UnitType unitType) {
+            this.location = location;
+            this.unitType = unitType;
+        }
+
+        /**
+         * Bumps the version and drops the snapshot, which no longer matches it
+         */
+        void invalidate() {
+            version++;
+            availability = null;
+        }
+
+        @Override
+        public void run() {
+            do {
+                long currentVersion = version;
+                try {
+                    // a version this notification's predecessor picked up needn't be told twice
+                    if (currentVersion != notifiedVersion) {
+                        notifiedVersion = currentVersion;
+                        for (AvailabilityListener listener : listeners) {
+                            listener.availabilityChanged(location, unitType, currentVersion);
+                        }
+                    }
+                } finally {
+                    notifying.set(false);
+                }
+                // changes made meanwhile left it to this notification to tell of them
+            } while (version != notifiedVersion && notifying.compareAndSet(false, true));
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          SNAPSHOTS
+    //---------------------------------------------------------------------
+    /**
+     * The empty units of one type at one location as of one version.  A snapshot never
+     * changes, so it can be shared freely; the units it hands out are live, though, so
+     * a unit may have been rented since the snapshot was taken.
+     */
+    public static class Availability {
+        /** the location */
+        private final StorageLocation location;
+        /** the type of units, or null for any type */
+        private final StorageUnit.UnitType unitType;
+        /** the version of the type's availability the snapshot was taken at */
+        private final long version;
+        /** the location indexes of the empty units, in row/space order */
+        private final int[] locationIdxs;
+
+        /**
+         * Availability Constructor
+         *
+         * @param   location        the location
+         * @param   unitType        the type of units, or null for any type
+         * @param   version         the version the snapshot is taken at
+         * @param   locationIdxs    the location indexes of the empty units, in order
+         */
+        Availability(StorageLocation location, StorageUnit.UnitType unitType, long version, int[] locationIdxs) {
+            this.location = location;
+            this.unitType = unitType;
+            this.version = version;
+            this.locationIdxs = locationIdxs;
+        }
+
+        /**
+         * Retrieves the location
+         *
+         * @return      the location the snapshot is of
+         */
+        public StorageLocation getLocation() {
+            return location;
+        }
+
+        /**
+         * Retrieves the type of units in the snapshot
+         *
+         * @return      the type, or null if the snapshot holds units of any type
+         */
+        public StorageUnit.UnitType getUnitType() {
+            return unitType;
+        }
+
+        /**
+         * Retrieves the version the snapshot was taken at
+         *
+         * @return      the version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Counts the empty units in the snapshot
+         *
+         * @return      the number of empty units
+         */
+        public int getUnitCount() {
+            return locationIdxs.length;
+        }
+
+        /**
+         * Retrieves one of the empty units in the snapshot
+         *
+         * @param   unitIdx     the unit's position in the snapshot, in row/space order;
+         *                      must be from 0 to getUnitCount() - 1
+         * @return              the unit
+         */
+        public StorageUnit getUnit(int unitIdx) {
+            if (unitIdx < 0 || unitIdx >= locationIdxs.length) {
+                throw new IndexOutOfBoundsException("No unit " + unitIdx + " in the snapshot");
+            }
+            return location.unitAt(locationIdxs[unitIdx]);
+        }
+
+        /**
+         * Retrieves a run of the empty units in the snapshot, such as one page of them
+         *
+         * @param   fromIdx     the position of the first unit wanted; must be from 0 to getUnitCount()
+         * @param   maxCount    the most units wanted; must not be negative
+         * @return              an array of the units from fromIdx on, up to maxCount of them
+         */
+        public StorageUnit[] getUnits(int fromIdx, int maxCount) {
+            if (fromIdx < 0 || fromIdx > locationIdxs.length) {
+                throw new IndexOutOfBoundsException("No unit " + fromIdx + " in the snapshot");
+            }
+            if (maxCount < 0) {
+                throw new IllegalArgumentException("maxCount must not be negative");
+            }
+            StorageUnit[] units = new StorageUnit[Math.min(maxCount, locationIdxs.length - fromIdx)];
+            for (int unitIdx = 0; unitIdx < units.length; unitIdx++) {
+                units[unitIdx] = location.unitAt(locationIdxs[fromIdx + unitIdx]);
+            }
+            return units;
+        }
+    }
+
+}
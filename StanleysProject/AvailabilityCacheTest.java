@@ -0,0 +1,277 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The test class AvailabilityCacheTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class AvailabilityCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 15);
+
+    private StorageLocation testLoc;
+    private Customer testCust;
+    private List<Runnable> pendingNotifications;
+    private AvailabilityCache testCache;
+
+    /**
+     * Default constructor for test class AvailabilityCacheTest
+     */
+    public AvailabilityCacheTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoc = new StorageLocation("WA12Kirkland");
+        testCust = new Customer("Pat Perkins", "425-555-1314");
+        testLoc.addCustomer(testCust);
+        // notifications wait here until a test runs them
+        pendingNotifications = new ArrayList<>();
+        testCache = new AvailabilityCache(pendingNotifications::add);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testSnapshotMatchesLocation() {
+        for (StorageUnit.UnitType unitType : new StorageUnit.UnitType[] { null, StorageUnit.UnitType.HUMIDITY }) {
+            AvailabilityCache.Availability availability = testCache.getAvailability(testLoc, unitType);
+            StorageUnit[] emptyUnits = testLoc.getEmptyUnits(unitType);
+            assertSame(testLoc, availability.getLocation());
+            assertEquals(unitType, availability.getUnitType());
+            assertEquals(0, availability.getVersion());
+            assertEquals(emptyUnits.length, availability.getUnitCount());
+            assertArrayEquals(emptyUnits, availability.getUnits(0, emptyUnits.length));
+            assertEquals(emptyUnits[7], availability.getUnit(7));
+            assertArrayEquals(Arrays.copyOfRange(emptyUnits, 5, 8), availability.getUnits(5, 3));
+            assertEquals(2, availability.getUnits(emptyUnits.length - 2, 10).length);
+            assertEquals(0, availability.getUnits(emptyUnits.length, 10).length);
+        }
+    }
+
+    @Test
+    public void testSnapshotSharedUntilChange() {
+        StorageUnit unit = testLoc.getStorageUnit(1, 5);
+        StorageUnit.UnitType unitType = unit.getType();
+        StorageUnit.UnitType otherType = (unitType == StorageUnit.UnitType.STANDARD) ? StorageUnit.UnitType.HUMIDITY
+                                                                                    : StorageUnit.UnitType.STANDARD;
+        AvailabilityCache.Availability before = testCache.getAvailability(testLoc, unitType);
+        AvailabilityCache.Availability otherBefore = testCache.getAvailability(testLoc, otherType);
+        AvailabilityCache.Availability anyBefore = testCache.getAvailability(testLoc, null);
+        assertSame(before, testCache.getAvailability(testLoc, unitType));
+        assertTrue(testCache.isWatching(testLoc));
+
+        unit.rent(testCust, START);
+        AvailabilityCache.Availability after = testCache.getAvailability(testLoc, unitType);
+        assertNotSame(before, after);
+        assertEquals(1, after.getVersion());
+        assertEquals(before.getUnitCount() - 1, after.getUnitCount());
+        assertFalse(Arrays.asList(after.getUnits(0, after.getUnitCount())).contains(unit));
+        assertEquals(1, testCache.getVersion(testLoc, null));
+        assertEquals(anyBefore.getUnitCount() - 1, testCache.getAvailability(testLoc, null).getUnitCount());
+        // other types are untouched, and old snapshots never change
+        assertSame(otherBefore, testCache.getAvailability(testLoc, otherType));
+        assertEquals(0, testCache.getVersion(testLoc, otherType));
+        assertEquals(after.getUnitCount() + 1, before.getUnitCount());
+        assertEquals(0, before.getVersion());
+
+        testLoc.releaseUnits(new StorageUnit[] { unit }, testCust);
+        assertEquals(2, testCache.getVersion(testLoc, unitType));
+        assertEquals(before.getUnitCount(), testCache.getAvailability(testLoc, unitType).getUnitCount());
+    }
+
+    @Test
+    public void testListenersNotified() {
+        List<String> heard = new ArrayList<>();
+        AvailabilityListener listener = (location, unitType, version) ->
+                heard.add(location.getDesignation() + " " + unitType + " " + version);
+        testCache.addListener(listener);
+        testCache.getAvailability(testLoc, null);
+
+        // three rentals of one type before the notifier gets to run make one notification
+        testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, 3, testCust, START, 9995);
+        testLoc.rentUnitsOfType(StorageUnit.UnitType.HUMIDITY, 1, testCust, START, 9995);
+        assertEquals(2, pendingNotifications.size());
+        runNotifications();
+        assertEquals(Arrays.asList("WA12Kirkland TEMPERATURE 3", "WA12Kirkland HUMIDITY 1"), heard);
+
+        // a change made while listeners are being told is told of straight after
+        heard.clear();
+        testCache.removeListener(listener);
+        testCache.addListener((location, unitType, version) -> {
+            heard.add(unitType + " " + version);
+            if (version == 4) {
+                testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, 1, testCust, START, 9995);
+            }
+        });
+        testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, 1, testCust, START, 9995);
+        runNotifications();
+        assertEquals(Arrays.asList("TEMPERATURE 4", "TEMPERATURE 5"), heard);
+        assertTrue(pendingNotifications.isEmpty());
+    }
+
+    @Test
+    public void testNoNotificationsWithoutListeners() {
+        testCache.getAvailability(testLoc, null);
+        testLoc.rentUnitsOfType(StorageUnit.UnitType.STANDARD, 2, testCust, START, 9995);
+        assertTrue(pendingNotifications.isEmpty());
+        assertEquals(2, testCache.getVersion(testLoc, StorageUnit.UnitType.STANDARD));
+    }
+
+    @Test
+    public void testForget() {
+        StorageUnit unit = testLoc.getStorageUnit(0, 0);
+        unit.rent(testCust, START);
+        // a location isn't watched until it is asked about, so its versions start later
+        assertFalse(testCache.isWatching(testLoc));
+        assertEquals(0, testCache.getVersion(testLoc, unit.getType()));
+        unit.release(START);
+        assertEquals(1, testCache.getVersion(testLoc, unit.getType()));
+
+        testCache.forget(testLoc);
+        assertFalse(testCache.isWatching(testLoc));
+        unit.rent(testCust, START);
+        assertFalse(testCache.isWatching(testLoc));
+        AvailabilityCache.Availability availability = testCache.getAvailability(testLoc, unit.getType());
+        assertEquals(0, availability.getVersion());
+        assertEquals(testLoc.getEmptyUnitCount(unit.getType()), availability.getUnitCount());
+        // forgetting twice has no effect
+        testCache.forget(testLoc);
+        testCache.forget(testLoc);
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriters() throws Exception {
+        ExecutorService notifier = Executors.newSingleThreadExecutor();
+        AvailabilityCache cache = new AvailabilityCache(notifier);
+        List<Throwable> failures = new ArrayList<>();
+        AtomicLong lastHeard = new AtomicLong(-1);
+        cache.addListener((location, unitType, version) -> {
+            // versions of one type arrive in increasing order
+            if (version <= lastHeard.getAndSet(version)) {
+                synchronized (failures) {
+                    failures.add(new AssertionError("Heard version " + version + " late"));
+                }
+            }
+        });
+        StorageUnit.UnitType unitType = StorageUnit.UnitType.STANDARD;
+        int emptyCount = testLoc.getEmptyUnitCount(unitType);
+        cache.getAvailability(testLoc, unitType);
+
+        int writerCount = 4;
+        int churnCount = 2000;
+        List<Thread> threads = new ArrayList<>();
+        for (int writerIdx = 0; writerIdx < writerCount; writerIdx++) {
+            Customer cust = new Customer("Writer " + writerIdx, "555-000" + writerIdx);
+            threads.add(new Thread(() -> {
+                for (int churn = 0; churn < churnCount; churn++) {
+                    StorageUnit[] rented = testLoc.rentUnitsOfType(unitType, 1, cust, START, 9995);
+                    testLoc.releaseUnits(rented, cust);
+                }
+            }));
+        }
+        for (int readerIdx = 0; readerIdx < 4; readerIdx++) {
+            threads.add(new Thread(() -> {
+                long lastVersion = -1;
+                for (int read = 0; read < churnCount; read++) {
+                    AvailabilityCache.Availability availability = cache.getAvailability(testLoc, unitType);
+                    // each version has its own count of empty units, which no rental can tear
+                    int rentedCount = emptyCount - availability.getUnitCount();
+                    if (availability.getVersion() < lastVersion || rentedCount < 0 || rentedCount > writerCount
+                            || availability.getUnits(0, availability.getUnitCount()).length != availability.getUnitCount()) {
+                        synchronized (failures) {
+                            failures.add(new AssertionError("Bad snapshot at version " + availability.getVersion()));
+                        }
+                    }
+                    lastVersion = availability.getVersion();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        notifier.shutdown();
+        assertTrue(notifier.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        long finalVersion = 2L * writerCount * churnCount;
+        assertEquals(finalVersion, cache.getVersion(testLoc, unitType));
+        assertEquals(emptyCount, cache.getAvailability(testLoc, unitType).getUnitCount());
+        assertEquals(finalVersion, lastHeard.get());
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullNotifier() {
+        new AvailabilityCache(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullLocation() {
+        testCache.getAvailability(null, null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullListener() {
+        testCache.addListener(null);
+    }
+
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testUnitOutOfRange() {
+        AvailabilityCache.Availability availability = testCache.getAvailability(testLoc, null);
+        availability.getUnit(availability.getUnitCount());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNegativeMaxCount() {
+        testCache.getAvailability(testLoc, null).getUnits(0, -1);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Runs the notifications waiting to run, and any they set going, in order
+     */
+    private void runNotifications() {
+        while (!pendingNotifications.isEmpty()) {
+            pendingNotifications.remove(0).run();
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+/**
+ * Receives word from an AvailabilityCache that the empty units of one type at a
+ * location have changed, so that a front-end can refresh what it shows instead of
+ * asking again and again.
+ *
+ * Notifications are sent from the cache's notifier, not from the thread that rented
+ * or released the unit, and no lock is held while they are sent, so a listener may
+ * call back into the cache or the location.  Changes that come in quick succession
+ * are folded into one notification carrying the latest version, so a listener may
+ * not hear of every version, but for any one location and type it hears of them in
+ * increasing order and always hears of the last.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public interface AvailabilityListener {
+
+    /**
+     * Called when the empty units of one type at a location have changed
+     *
+     * @param   location    the location
+     * @param   unitType    the type of the units that changed
+     * @param   version     the version of the type's availability after the change
+     */
+    void availabilityChanged(StorageLocation location, StorageUnit.UnitType unitType, long version);
+
+}
@@ -0,0 +1,383 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Micro-benchmarks for the hot paths of StorageLocation and StorageUnit
+ *
+ * Each benchmark is warmed up, then timed over several measurement rounds at a
+ * range of facility sizes, and the mean time per operation is printed along with
+ * its spread across rounds.  Run main with no arguments for the standard sizes,
+ * or pass the unit counts to try, e.g. "240 5000 100000".
+ *
+ * The main hot paths are also benchmarked under JMH, which forks a fresh JVM and
+ * keeps the JIT from discarding work; see jmh/benchmarks/LocationBenchmark.java.
+ *
+ * Like Main, this is a driver rather than supplier code, so it prints its results.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class Benchmark {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the facility sizes, in units, benchmarked by default */
+    public static final int[] DEFAULT_SIZES = { 240, 10000, 100000 };
+    /** the number of units in each row of a benchmark facility (except the standard one) */
+    public static final int UNITS_PER_ROW = 200;
+    /** the number of warm-up rounds run before measuring */
+    public static final int WARMUP_ROUNDS = 5;
+    /** the number of measured rounds */
+    public static final int MEASURE_ROUNDS = 5;
+    /** the target length of each round, in nanoseconds */
+    public static final long ROUND_NANOS = 200000000L;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** consumes benchmark results so the JIT can't discard the work that produced them */
+    private static volatile long sink;
+
+    //---------------------------------------------------------------------
+    //          BENCHMARK DRIVER
+    //---------------------------------------------------------------------
+    public static void main(String[] args) throws IOException {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int argIdx = 0; argIdx < args.length; argIdx++) {
+                sizes[argIdx] = Integer.parseInt(args[argIdx]);
+            }
+        }
+
+        System.out.printf("%-28s %8s %14s %10s%n", "Benchmark", "Units", "ns/op", "+/- %");
+        for (int size : sizes) {
+            runAll(size);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Runs every benchmark against a facility of the given size
+     *
+     * @param   size    the number of units in the facility
+     * @throws  IOException if the journal can't be written
+     */
+    private static void runAll(int size) throws IOException {
+        final StorageLocation loc = buildLocation(size);
+        final Customer busyCust = loc.getCustomer(0);
+        final StorageUnit churnUnit = loc.getEmptyUnits()[0];
+        final Customer churnCust = new Customer("Churn Customer", "555-0000");
+        final LocalDate today = LocalDate.now();
+
+        measure("getEmptyUnits()", size, () -> loc.getEmptyUnits().length);
+        measure("getEmptyUnits(TEMPERATURE)", size,
+                () -> loc.getEmptyUnits(StorageUnit.UnitType.TEMPERATURE).length);
+        measure("getEmptyUnitCount()", size, () -> loc.getEmptyUnitCount());
+        measure("findSmallestUnit", size,
+                () -> loc.findSmallestUnit(4, 8, 8, StorageUnit.UnitType.TEMPERATURE).getLocationIdx());
+        measure("findAdjacentUnits", size,
+                () -> loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 1).length);
+        measure("calcUnitSpecificPrice", size, () -> churnUnit.calcUnitSpecificPriceCents());
+        measure("findCheapestUnits", size,
+                () -> loc.findCheapestUnits(4, 8, 8, null, 20000, 1).length);
+        measure("getMetrics", size, () -> loc.getMetrics().getContractedRentCents());
+        measure("occupancy + rent by scan", size, () -> {
+            long rentCents = 0;
+            for (int locationIdx = 0; locationIdx < loc.getUnitCount(); locationIdx++) {
+                rentCents += loc.unitAt(locationIdx).getPriceCents();
+            }
+            return rentCents + loc.getEmptyUnits().length;
+        });
+        final LocalDate lastYear = today.minusYears(1);
+        measure("occupancy as of a date", size, () -> loc.getOccupiedUnitCount(lastYear, null)
+                                                       + loc.getContractedRentCents(lastYear));
+        measure("getCustomerUnits", size, () -> loc.getCustomerUnits(busyCust).length);
+        measure("chargeMonthlyRent", size, () -> loc.chargeMonthlyRentCents());
+        measure("rent + release", size, () -> {
+            churnUnit.rentForCents(churnCust, today, 9995);
+            return churnUnit.release() ? 1 : 0;
+        });
+        measure("rent + release + getMetrics", size, () -> {
+            churnUnit.rentForCents(churnCust, today, 9995);
+            churnUnit.release();
+            return loc.getMetrics().getOccupiedUnitCount();
+        });
+
+        // availability served from shared snapshots: unchanged, and re-taken after every change
+        final AvailabilityCache cache = new AvailabilityCache();
+        final StorageUnit.UnitType churnType = churnUnit.getType();
+        measure("getAvailability, cached", size, () -> cache.getAvailability(loc, churnType).getUnitCount());
+        measure("rent + release + cached read", size, () -> {
+            churnUnit.rentForCents(churnCust, today, 9995);
+            churnUnit.release();
+            return cache.getAvailability(loc, churnType).getUnitCount();
+        });
+        cache.forget(loc);
+
+        // the hot paths again with instrumentation on, to compare with the untimed runs above
+        loc.getInstrumentation().setEnabled(true);
+        measure("getEmptyUnits(), timed", size, () -> loc.getEmptyUnits().length);
+        measure("getCustomerUnits, timed", size, () -> loc.getCustomerUnits(busyCust).length);
+        measure("rent + release, timed", size, () -> {
+            churnUnit.rentForCents(churnCust, today, 9995);
+            return churnUnit.release() ? 1 : 0;
+        });
+        loc.getInstrumentation().setEnabled(false);
+
+        // the same churn with every change journaled, and a disk flush per thousand changes
+        Path journalDir = Files.createTempDirectory("bench-journal");
+        final RentalJournal journal = RentalJournal.create(loc, journalDir);
+        final long[] changeSeq = { 0 };
+        measure("rent + release, journaled", size, () -> {
+            churnUnit.rentForCents(churnCust, today, 9995);
+            boolean released = churnUnit.release();
+            if (++changeSeq[0] % 1000 == 0) {
+                journal.sync();
+            }
+            return released ? 1 : 0;
+        });
+        journal.close();
+        for (File file : journalDir.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(journalDir);
+
+        // whole-facility export and import in the compact binary format, of a fresh
+        // facility, as the churn above leaves millions of rentals in one unit's history
+        final StorageLocation exportLoc = buildLocation(size);
+        final ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        measure("FacilityCodec.write", size, () -> {
+            exported.reset();
+            FacilityCodec.write(exportLoc, Channels.newChannel(exported));
+            return exported.size();
+        });
+        final byte[] exportedBytes = exported.toByteArray();
+        measure("FacilityCodec.read", size, () -> FacilityCodec.read(Channels.newChannel(
+                                                      new ByteArrayInputStream(exportedBytes))).getUnitCount());
+
+        // bulk loading the same facility from CSV, parsed on every core and then on one
+        final String csv = toCsv(exportLoc);
+        final LocationLoader loader = new LocationLoader();
+        measure("LocationLoader.load", size, () -> loader.load(new StringReader(csv)).getRentalCount());
+        final ForkJoinPool onePool = new ForkJoinPool(1);
+        final LocationLoader oneThreadLoader = new LocationLoader(onePool);
+        measure("LocationLoader, 1 thread", size,
+                () -> oneThreadLoader.load(new StringReader(csv)).getRentalCount());
+        onePool.shutdown();
+
+        // read-only snapshots: writing one and querying it in place; opening isn't timed
+        // in a loop, as each open maps the file afresh until the snapshot is collected
+        final Path snapshotFile = Files.createTempFile("benchmark", ".snap");
+        measure("LocationSnapshot.write", size, () -> {
+            LocationSnapshot.write(exportLoc, snapshotFile);
+            return 1;
+        });
+        final LocationSnapshot snapshot = LocationSnapshot.open(snapshotFile);
+        measure("getEmptyUnits(), snapshot", size, () -> snapshot.getEmptyUnits().length);
+        measure("customer lookup, snapshot", size, () -> {
+            LocationSnapshot.CustomerView cust = snapshot.getCustomer(0);
+            return snapshot.getCustomerUnits(snapshot.findCustomerByPhone(cust.getPhone())).length;
+        });
+        Files.delete(snapshotFile);
+
+        // anniversary billing, a day at a time: each run bills only the rentals due that day
+        final BillingScheduler scheduler = new BillingScheduler(LocalDate.of(2020, 1, 1));
+        scheduler.addLocation(loc);
+        final LocalDate[] billDay = { LocalDate.of(2020, 1, 1) };
+        measure("BillingScheduler.runDay", size, () -> {
+            BillingReport report = scheduler.runDay(billDay[0]);
+            billDay[0] = billDay[0].plusDays(1);
+            return report.getChainTotalCents();
+        });
+
+        // delinquency: the customers 90 days behind, from the aging index and by looking at every balance
+        final DelinquencyMonitor monitor = new DelinquencyMonitor(LocalDate.of(2020, 1, 1), 60);
+        monitor.addLocation(loc);
+        measure("chargeMonthlyRent, monitored", size, () -> loc.chargeMonthlyRentCents());
+        // nine customers in ten pay up
+        for (int customerId = 0; customerId < loc.getCustomerCount(); customerId++) {
+            Customer cust = loc.getCustomer(customerId);
+            if (customerId % 10 != 0 && cust.getBalanceCents() > 0) {
+                cust.creditCents(cust.getBalanceCents());
+            }
+        }
+        monitor.advanceTo(LocalDate.of(2020, 4, 1));
+        measure("getDelinquentCustomers(90)", size, () -> monitor.getDelinquentCustomers(90).size());
+        measure("delinquent customers by scan", size, () -> {
+            int delinquentCount = 0;
+            for (int customerId = 0; customerId < loc.getCustomerCount(); customerId++) {
+                if (loc.getCustomer(customerId).getBalanceCents() > 0) {
+                    delinquentCount++;
+                }
+            }
+            return delinquentCount;
+        });
+        loc.removeListener(monitor);
+
+        // adding customers grows the location, so it gets a fresh one of its own, of the size being measured
+        final StorageLocation custLoc = buildLocation(size);
+        final long[] phoneSeq = { 0 };
+        measure("addCustomer", size,
+                () -> custLoc.addCustomer(new Customer("Bench Customer", "p" + phoneSeq[0]++)));
+    }
+
+    /**
+     * Builds a facility of the given size, with a third of its rows of each type
+     * and about half of its units rented, on rentals starting through the month; the standard layout is used for 240 units
+     *
+     * @param   size    the number of units in the facility
+     * @return          the benchmark facility
+     */
+    static StorageLocation buildLocation(int size) {
+        FacilityLayout layout;
+        if (size == StorageLocation.NUM_ROWS * StorageLocation.NUM_SPACES) {
+            layout = FacilityLayout.standardLayout();
+        } else {
+            layout = new FacilityLayout();
+            StorageUnit.UnitType[] types = StorageUnit.UnitType.values();
+            int rowCount = (size + UNITS_PER_ROW - 1) / UNITS_PER_ROW;
+            for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+                layout.addRow();
+                int rowUnits = Math.min(UNITS_PER_ROW, size - rowIdx * UNITS_PER_ROW);
+                layout.addUnits(rowUnits, 4 + 4 * (rowIdx % 3), 8, 8, types[rowIdx * types.length / rowCount]);
+            }
+        }
+        StorageLocation loc = new StorageLocation("WA99Benchmark", layout);
+
+        // one busy customer with a dozen units, then one customer per ten rented units
+        Customer busyCust = new Customer("Busy Customer", "555-1000");
+        loc.addCustomer(busyCust);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        Customer cust = busyCust;
+        int rented = 0;
+        for (int rowIdx = 0; rowIdx < loc.getRowCount(); rowIdx++) {
+            for (int spaceIdx = 1; spaceIdx < loc.getUnitsPerRowCount(rowIdx); spaceIdx += 2) {
+                if (rented >= 12 && rented % 10 == 2) {
+                    cust = new Customer("Customer " + rented, "555-2" + rented);
+                }
+                loc.getStorageUnit(rowIdx, spaceIdx).rentForCents(cust, start.plusDays(rented % 28), 
+                                                                  5000 + rented % 7000);
+                rented++;
+            }
+        }
+        return loc;
+    }
+
+    /**
+     * Writes a facility out in the form LocationLoader reads
+     *
+     * @param   loc     the facility
+     * @return          the facility's layout, customers and rentals, as CSV text
+     */
+    static String toCsv(StorageLocation loc) {
+        StringBuilder csv = new StringBuilder();
+        csv.append("location,").append(loc.getDesignation()).append(',')
+           .append(BigDecimal.valueOf(loc.getUnitBasePriceCents(), 2)).append(',')
+           .append(loc.getMultiUnitDiscount()).append('\n');
+        FacilityLayout layout = loc.getLayout();
+        for (int rowIdx = 0; rowIdx < layout.getRowCount(); rowIdx++) {
+            csv.append("row\n");
+            int rowEnd = layout.getLocationIdx(rowIdx, 0) + layout.getUnitsInRow(rowIdx);
+            int runStart = rowEnd - layout.getUnitsInRow(rowIdx);
+            while (runStart < rowEnd) {
+                int runEnd = runStart + 1;
+                while (runEnd < rowEnd && layout.getWidth(runEnd) == layout.getWidth(runStart)
+                       && layout.getLength(runEnd) == layout.getLength(runStart)
+                       && layout.getHeight(runEnd) == layout.getHeight(runStart)
+                       && layout.getType(runEnd) == layout.getType(runStart)) {
+                    runEnd++;
+                }
+                csv.append("units,").append(runEnd - runStart).append(',').append(layout.getWidth(runStart))
+                   .append(',').append(layout.getLength(runStart)).append(',').append(layout.getHeight(runStart))
+                   .append(',').append(layout.getType(runStart)).append('\n');
+                runStart = runEnd;
+            }
+        }
+        for (int customerId = 0; customerId < loc.getCustomerCount(); customerId++) {
+            Customer cust = loc.getCustomer(customerId);
+            csv.append("customer,\"").append(cust.getName().replace("\"", "\"\"")).append("\",")
+               .append(cust.getPhone()).append(',')
+               .append(BigDecimal.valueOf(cust.getBalanceCents(), 2)).append('\n');
+        }
+        for (int locationIdx = 0; locationIdx < loc.getUnitCount(); locationIdx++) {
+            StorageUnit unit = loc.unitAt(locationIdx);
+            if (unit.getCustomer() != null) {
+                csv.append("rental,").append(layout.getRowOf(locationIdx)).append(',')
+                   .append(layout.getSpaceOf(locationIdx)).append(',').append(unit.getCustomer().getPhone())
+                   .append(',').append(unit.getRentalStart()).append(',')
+                   .append(BigDecimal.valueOf(unit.getPriceCents(), 2)).append('\n');
+            }
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Warms up and then times one operation, printing the mean time per call
+     *
+     * @param   name        the benchmark's name
+     * @param   size        the size of the facility being used
+     * @param   operation   the operation to time
+     * @throws  IOException if the operation fails
+     */
+    private static void measure(String name, int size, Operation operation) throws IOException {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runRound(operation);
+        }
+        double[] nanosPerOp = new double[MEASURE_ROUNDS];
+        double mean = 0;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            nanosPerOp[round] = runRound(operation);
+            mean += nanosPerOp[round] / MEASURE_ROUNDS;
+        }
+        double variance = 0;
+        for (double roundNanos : nanosPerOp) {
+            variance += (roundNanos - mean) * (roundNanos - mean) / MEASURE_ROUNDS;
+        }
+        double spreadPct = (mean == 0) ? 0 : 100 * Math.sqrt(variance) / mean;
+        System.out.printf("%-28s %8d %14.1f %10.1f%n", name, size, mean, spreadPct);
+    }
+
+    /**
+     * Calls an operation repeatedly for about ROUND_NANOS
+     *
+     * @param   operation   the operation to time
+     * @return              the mean time per call, in nanoseconds
+     * @throws  IOException if the operation fails
+     */
+    private static double runRound(Operation operation) throws IOException {
+        long result = 0;
+        long calls = 0;
+        long batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (long call = 0; call < batch; call++) {
+                result += operation.run();
+            }
+            calls += batch;
+            batch = Math.min(batch * 2, 1 << 20);
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        sink += result;
+        return (double) elapsed / calls;
+    }
+
+    /** an operation to be timed; returns a value derived from its work */
+    interface Operation {
+        long run() throws IOException;
+    }
+
+}
@@ -0,0 +1,164 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs the monthly rent charge across many storage locations at once.
+ *
+ * Locations are billed in parallel on a fork/join pool, and large locations are
+ * further split into partitions of whole rows.  Totals are kept in exact cents, so
+ * they do not depend on the order in which the partitions finish.  Customer balances
+ * are updated atomically, so a customer renting at several locations is charged
+ * correctly for all of them.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BillingEngine {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of units below which a location is billed in a single task */
+    public static final int PARTITION_UNITS = 4096;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the pool on which billing tasks run */
+    private ForkJoinPool pool;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * BillingEngine Constructor; bills on the common fork/join pool
+     */
+    public BillingEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * BillingEngine Constructor
+     *
+     * @param   pool    the pool on which to run billing tasks; must not be null
+     */
+    public BillingEngine(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Charges all customers of the given locations their monthly rent
+     *
+     * @param   locations   the locations to bill; must not be null or contain null
+     * @return              the rent charged at each location, and in total
+     */
+    public BillingReport chargeMonthlyRent(StorageLocation[] locations) {
+        if (locations == null) {
+            throw new IllegalArgumentException("Locations must not be null");
+        }
+        for (StorageLocation location : locations) {
+            if (location == null) {
+                throw new IllegalArgumentException("Locations must not contain null");
+            }
+        }
+        long[] totals = new long[locations.length];
+        pool.invoke(new LocationsTask(locations, totals, 0, locations.length));
+        return new BillingReport(locations, totals);
+    }
+
+    //---------------------------------------------------------------------
+    //          TASKS
+    //---------------------------------------------------------------------
+    /**
+     * Bills a range of locations, splitting the range in half until one location remains
+     */
+    private static class LocationsTask extends RecursiveTask<Void> {
+        /** identifies this version of the class when serialized */
+        private static final long serialVersionUID = 1L;
+        /** the locations being billed */
+        private final StorageLocation[] locations;
+        /** receives the rent charged at each location, in cents */
+        private final long[] totals;
+        /** the first location in the range */
+        private final int from;
+        /** the location just past the range */
+        private final int to;
+
+        /**
+         * LocationsTask Constructor
+         *
+         * @param   locations   the locations being billed
+         * @param   totals      receives the rent charged at each location, in cents
+         * @param   from        the first location in the range
+         * @param   to          the location just past the range
+         */
+        LocationsTask(StorageLocation[] locations, long[] totals, int from, int to) {
+            this.locations = locations;
+            this.totals    = totals;
+            this.from      = from;
+            this.to        = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from == 1) {
+                StorageLocation location = locations[from];
+                totals[from] = new RowsTask(location, 0, location.getRowCount()).compute();
+            } else if (to > from) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new LocationsTask(locations, totals, from, mid),
+                          new LocationsTask(locations, totals, mid, to));
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Bills a range of rows within one location, splitting the range in half
+     * while it holds more than PARTITION_UNITS units
+     */
+    private static class RowsTask extends RecursiveTask<Long> {
+        /** identifies this version of the class when serialized */
+        private static final long serialVersionUID = 1L;
+        /** the location being billed */
+        private final StorageLocation location;
+        /** the first row in the range */
+        private final int fromRow;
+        /** the row just past the range */
+        private final int toRow;
+
+        /**
+         * RowsTask Constructor
+         *
+         * @param   location    the location being billed
+         * @param   fromRow     the first row in the range
+         * @param   toRow       the row just past the range
+         */
+        RowsTask(StorageLocation location, int fromRow, int toRow) {
+            this.location = location;
+            this.fromRow  = fromRow;
+            this.toRow    = toRow;
+        }
+
+        @Override
+        protected Long compute() {
+            FacilityLayout layout = location.getLayout();
+            int unitCount = layout.getRowStart(toRow) - layout.getRowStart(fromRow);
+            if (toRow - fromRow <= 1 || unitCount <= PARTITION_UNITS) {
+                return location.chargeMonthlyRentCents(fromRow, toRow);
+            }
+            int midRow = (fromRow + toRow) >>> 1;
+            RowsTask upper = new RowsTask(location, midRow, toRow);
+            upper.fork();
+            long lowerTotal = new RowsTask(location, fromRow, midRow).compute();
+            return Money.add(lowerTotal, upper.join());
+        }
+    }
+
+}
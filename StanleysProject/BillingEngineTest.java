@@ -0,0 +1,118 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The test class BillingEngineTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BillingEngineTest {
+
+    public static double DOLLAR_VARIANCE = 0.001;
+
+    private StorageLocation[] testLocs;
+    private Customer sharedCust;
+
+    /**
+     * Default constructor for test class BillingEngineTest
+     */
+    public BillingEngineTest() {
+    }
+
+    /**
+     * Sets up the test fixture: twenty standard locations plus one large one,
+     * with one customer renting a unit at every location
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        FacilityLayout large = new FacilityLayout();
+        for (int rowIdx = 0; rowIdx < 100; rowIdx++) {
+            large.addRow();
+            large.addUnits(200, 4, 8, 8, StorageUnit.UnitType.STANDARD);
+        }
+
+        sharedCust = new Customer("Pat Perkins", "425-555-1314");
+        testLocs = new StorageLocation[21];
+        for (int locIdx = 0; locIdx < 20; locIdx++) {
+            testLocs[locIdx] = new StorageLocation("WA" + (10 + locIdx) + "Issaquah");
+        }
+        testLocs[20] = new StorageLocation("OR99Portland", large);
+        for (StorageLocation loc : testLocs) {
+            loc.getStorageUnit(0, 0).rent(sharedCust, LocalDate.now(), 100.01);
+        }
+        // fill every other unit of the large location
+        for (int rowIdx = 0; rowIdx < 100; rowIdx++) {
+            Customer rowCust = new Customer("Row " + rowIdx, "555-" + rowIdx);
+            for (int spaceIdx = 1; spaceIdx < 200; spaceIdx += 2) {
+                testLocs[20].getStorageUnit(rowIdx, spaceIdx).rent(rowCust, LocalDate.now(), 0.10);
+            }
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testTotals() {
+        BillingReport report = new BillingEngine().chargeMonthlyRent(testLocs);
+        assertEquals(21, report.getLocationCount());
+        assertEquals("WA10Issaquah", report.getDesignation(0));
+        assertEquals(100.01, report.getLocationTotal(0), DOLLAR_VARIANCE);
+        assertEquals(100.01 + 100 * 100 * 0.10, report.getLocationTotal(20), DOLLAR_VARIANCE);
+        assertEquals(21 * 100.01 + 100 * 100 * 0.10, report.getChainTotal(), DOLLAR_VARIANCE);
+        assertEquals(21 * 100.01, sharedCust.getBalance(), DOLLAR_VARIANCE);
+        assertEquals(100 * 0.10, testLocs[20].getCustomer(1).getBalance(), DOLLAR_VARIANCE);
+    }
+
+    @Test
+    public void testDeterministic() {
+        BillingReport single = new BillingEngine(new ForkJoinPool(1)).chargeMonthlyRent(testLocs);
+        for (int run = 0; run < 5; run++) {
+            BillingReport parallel = new BillingEngine(new ForkJoinPool(8)).chargeMonthlyRent(testLocs);
+            assertEquals(single.getChainTotal(), parallel.getChainTotal(), 0.0);
+            for (int locIdx = 0; locIdx < testLocs.length; locIdx++) {
+                assertEquals(single.getLocationTotal(locIdx), parallel.getLocationTotal(locIdx), 0.0);
+            }
+        }
+        assertEquals(6 * 21 * 100.01, sharedCust.getBalance(), DOLLAR_VARIANCE);
+    }
+
+    @Test
+    public void testNoLocations() {
+        BillingReport report = new BillingEngine().chargeMonthlyRent(new StorageLocation[0]);
+        assertEquals(0, report.getLocationCount());
+        assertEquals(0.00, report.getChainTotal(), DOLLAR_VARIANCE);
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullLocations() {
+        new BillingEngine().chargeMonthlyRent(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullLocationEntry() {
+        new BillingEngine().chargeMonthlyRent(new StorageLocation[] { testLocs[0], null });
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Reports the rent charged by one billing run, per location and across the chain
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BillingReport {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the designations of the locations billed, in the order they were given */
+    private String[] designations;
+    /** the rent charged at each location, in cents */
+    private long[] totals;
+    /** the rent charged across all locations, in cents */
+    private long chainTotal;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * BillingReport Constructor
+     *
+     * @param   locations   the locations billed
+     * @param   totals      the rent charged at each location in cents, in the same order
+     */
+    BillingReport(StorageLocation[] locations, long[] totals) {
+        this.designations = new String[locations.length];
+        this.totals = totals.clone();
+        this.chainTotal = 0;
+        for (int locIdx = 0; locIdx < locations.length; locIdx++) {
+            designations[locIdx] = locations[locIdx].getDesignation();
+            chainTotal = Money.add(chainTotal, totals[locIdx]);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the number of locations billed
+     *
+     * @return      the location count
+     */
+    public int getLocationCount() {
+        return totals.length;
+    }
+
+    /**
+     * Retrieves the designation of a billed location
+     *
+     * @param   locIdx      the location's position in the array that was billed
+     * @return              the location's designation
+     */
+    public String getDesignation(int locIdx) {
+        return designations[locIdx];
+    }
+
+    /**
+     * Retrieves the rent charged at a billed location
+     *
+     * @param   locIdx      the location's position in the array that was billed
+     * @return              the total rent charged at that location
+     */
+    public double getLocationTotal(int locIdx) {
+        return Money.toDollars(totals[locIdx]);
+    }
+
+    /**
+     * Retrieves the rent charged at a billed location, in cents
+     *
+     * @param   locIdx      the location's position in the array that was billed
+     * @return              the total rent charged at that location, in cents
+     */
+    public long getLocationTotalCents(int locIdx) {
+        return totals[locIdx];
+    }
+
+    /**
+     * Retrieves the rent charged across all billed locations
+     *
+     * @return      the chain-wide total
+     */
+    public double getChainTotal() {
+        return Money.toDollars(chainTotal);
+    }
+
+    /**
+     * Retrieves the rent charged across all billed locations, in cents
+     *
+     * @return      the chain-wide total, in cents
+     */
+    public long getChainTotalCents() {
+        return chainTotal;
+    }
+
+}
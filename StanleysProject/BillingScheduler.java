@@ -0,0 +1,312 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bills each rental monthly on the anniversary of its start, one day at a time.
+ *
+ * A rental starting on the 15th is billed on the 15th of each following month for
+ * the month just ended; one starting on the 31st is billed on the last day of the
+ * shorter months.  When a rental ends part-way through a month, the part month is
+ * billed at the day's share of that month's rent on the next run.
+ *
+ * The scheduler listens to its locations and keeps each rental in a queue bucket
+ * for the day it next falls due, so a day's run visits only the rentals due that
+ * day (and any left over from days that were missed), rather than every unit in
+ * every location.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BillingScheduler implements LocationListener {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the locations billed, in the order they were added */
+    private List<StorageLocation> locations;
+    /** the current rental of each unit of each location, by location index (null if none) */
+    private Map<StorageLocation, Rental[]> rentalsByLocation;
+    /** the rentals due on each day, by epoch day; a rental moved to another day is skipped */
+    private TreeMap<Long, List<Rental>> dueByDay;
+    /** the first epoch day not yet billed */
+    private long nextRunDay;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * BillingScheduler Constructor; creates a scheduler with no locations
+     *
+     * @param   firstDay    the first day the scheduler will bill; must not be null
+     */
+    public BillingScheduler(LocalDate firstDay) {
+        if (firstDay == null) {
+            throw new IllegalArgumentException("The first day must not be null");
+        }
+        locations = new ArrayList<>();
+        rentalsByLocation = new IdentityHashMap<>();
+        dueByDay = new TreeMap<>();
+        nextRunDay = firstDay.toEpochDay();
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the first day not yet billed
+     *
+     * @return      the day the next run should bill
+     */
+    public synchronized LocalDate getNextRunDate() {
+        return LocalDate.ofEpochDay(nextRunDay);
+    }
+
+    /**
+     * Counts the rentals due to be billed on or before a day
+     *
+     * @param   day     the day of interest; must not be null
+     * @return          the number of rentals that a run for that day would bill
+     */
+    public synchronized int getDueCount(LocalDate day) {
+        if (day == null) {
+            throw new IllegalArgumentException("The day must not be null");
+        }
+        int dueCount = 0;
+        for (Map.Entry<Long, List<Rental>> bucket : dueByDay.headMap(day.toEpochDay(), true).entrySet()) {
+            for (Rental rental : bucket.getValue()) {
+                if (rental.dueDay == bucket.getKey()) {
+                    dueCount++;
+                }
+            }
+        }
+        return dueCount;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Starts billing a location's rentals.  Rentals already running are billed from
+     * their first anniversary on or after the next run day.
+     *
+     * @param   location    the location to bill; must not be null; must not already be billed
+     */
+    public void addLocation(StorageLocation location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        // the location's lock first, as when it calls the listener methods
+        synchronized (location) {
+            synchronized (this) {
+                if (rentalsByLocation.containsKey(location)) {
+                    throw new IllegalArgumentException("The location is already being billed");
+                }
+                Rental[] rentals = new Rental[location.getUnitCount()];
+                rentalsByLocation.put(location, rentals);
+                locations.add(location);
+                for (int locationIdx = 0; locationIdx < rentals.length; locationIdx++) {
+                    int customerId = location.indexedCustomerIds[locationIdx];
+                    if (customerId != UnitStore.NO_CUSTOMER) {
+                        StorageUnit unit = location.unitAt(locationIdx);
+                        Rental rental = new Rental(location, location.getCustomerRegistry().getCustomer(customerId),
+                                                   unit.getRentalStart().toEpochDay(),
+                                                   location.indexedPriceCents[locationIdx]);
+                        while (rental.periodEnd < nextRunDay) {
+                            rental.nextPeriod();
+                        }
+                        rentals[locationIdx] = rental;
+                        schedule(rental, rental.periodEnd);
+                    }
+                }
+                location.addListener(this);
+            }
+        }
+    }
+
+    /**
+     * Bills every rental due on or before a day: a month's rent for each anniversary
+     * reached, and the part month of each rental that has ended.  Days skipped since
+     * the last run are caught up.
+     *
+     * @param   day     the day to bill; must not be null; must not be before the next run day
+     * @return          the rent charged at each location, and in total
+     */
+    public synchronized BillingReport runDay(LocalDate day) {
+        if (day == null) {
+            throw new IllegalArgumentException("The day must not be null");
+        }
+        long runDay = day.toEpochDay();
+        if (runDay < nextRunDay) {
+            throw new IllegalArgumentException("The day has already been billed");
+        }
+        Map<StorageLocation, Integer> locationNos = new IdentityHashMap<>();
+        for (StorageLocation location : locations) {
+            locationNos.put(location, locationNos.size());
+        }
+        long[] totals = new long[locations.size()];
+        // billing only ever schedules rentals after the run day, so this reaches an end
+        while (!dueByDay.isEmpty() && dueByDay.firstKey() <= runDay) {
+            Map.Entry<Long, List<Rental>> bucket = dueByDay.pollFirstEntry();
+            long bucketDay = bucket.getKey();
+            for (Rental rental : bucket.getValue()) {
+                if (rental.dueDay != bucketDay) {
+                    continue;
+                }
+                long cents = bill(rental, runDay);
+                if (cents > 0) {
+                    rental.customer.chargeCents(cents);
+                    int locationNo = locationNos.get(rental.location);
+                    totals[locationNo] = Money.add(totals[locationNo], cents);
+                }
+            }
+        }
+        nextRunDay = runDay + 1;
+        return new BillingReport(locations.toArray(new StorageLocation[locations.size()]), totals);
+    }
+
+    /**
+     * Works out what a due rental owes, and schedules its next bill
+     *
+     * @param   rental      the rental due
+     * @param   runDay      the epoch day being billed
+     * @return              the amount owed, in cents
+     */
+    private long bill(Rental rental, long runDay) {
+        long owedCents = 0;
+        while (rental.dueDay <= runDay) {
+            long periodStart = rental.periodStart;
+            long periodEnd = rental.periodEnd;
+            if (rental.endDay < periodEnd) {
+                // ended part-way through the month: bill the days it was rented (a release
+                // dated back into a month already billed isn't refunded)
+                long daysRented = Math.max(0, rental.endDay - periodStart);
+                owedCents += prorate(rental.priceCents, daysRented, periodEnd - periodStart);
+                rental.dueDay = Long.MAX_VALUE;
+                return owedCents;
+            }
+            owedCents += rental.priceCents;
+            rental.nextPeriod();
+            if (rental.endDay == periodEnd) {
+                rental.dueDay = Long.MAX_VALUE;
+                return owedCents;
+            }
+            rental.dueDay = Math.min(rental.periodEnd, rental.endDay);
+        }
+        schedule(rental, rental.dueDay);
+        return owedCents;
+    }
+
+    /**
+     * Puts a rental in the queue bucket for the day it is next due
+     *
+     * @param   rental      the rental
+     * @param   dueDay      the epoch day it is next due
+     */
+    private void schedule(Rental rental, long dueDay) {
+        rental.dueDay = dueDay;
+        List<Rental> bucket = dueByDay.get(dueDay);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            dueByDay.put(dueDay, bucket);
+        }
+        bucket.add(rental);
+    }
+
+    /**
+     * Works out a share of a month's rent, rounding to the nearest cent
+     *
+     * @param   monthCents  the month's rent, in cents
+     * @param   days        the number of days rented
+     * @param   monthDays   the number of days in the month
+     * @return              the rent for the days rented, in cents
+     */
+    static long prorate(long monthCents, long days, long monthDays) {
+        return (Math.multiplyExact(monthCents, days) + monthDays / 2) / monthDays;
+    }
+
+    @Override
+    public synchronized void unitRented(StorageLocation location, int locationIdx, int customerId,
+                                        long rentalStartDay, long priceCents) {
+        Rental rental = new Rental(location, location.getCustomerRegistry().getCustomer(customerId),
+                                   rentalStartDay, priceCents);
+        rentalsByLocation.get(location)[locationIdx] = rental;
+        schedule(rental, rental.periodEnd);
+    }
+
+    @Override
+    public synchronized void unitReleased(StorageLocation location, int locationIdx, int customerId,
+                                          long rentalEndDay, long priceCents) {
+        Rental[] rentals = rentalsByLocation.get(location);
+        Rental rental = rentals[locationIdx];
+        if (rental == null) {
+            return;
+        }
+        rentals[locationIdx] = null;
+        rental.endDay = Math.max(rental.startDay, rentalEndDay);
+        if (rental.endDay < rental.dueDay) {
+            schedule(rental, rental.endDay);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          RENTALS
+    //---------------------------------------------------------------------
+    /**
+     * One rental being billed
+     */
+    private static class Rental {
+        /** the location of the rented unit */
+        final StorageLocation location;
+        /** the renting customer */
+        final Customer customer;
+        /** the epoch day the rental started */
+        final long startDay;
+        /** the monthly rent, in cents */
+        final long priceCents;
+        /** the number of whole months billed */
+        int periodsBilled;
+        /** the epoch day the month not yet billed starts */
+        long periodStart;
+        /** the epoch day the month not yet billed ends, the rental's next anniversary */
+        long periodEnd;
+        /** the epoch day the rental ended, or Long.MAX_VALUE while it runs */
+        long endDay;
+        /** the epoch day the rental is next due, or Long.MAX_VALUE once fully billed */
+        long dueDay;
+
+        /**
+         * Rental Constructor; nothing has been billed yet
+         *
+         * @param   location        the location of the rented unit
+         * @param   customer        the renting customer
+         * @param   startDay        the epoch day the rental started
+         * @param   priceCents      the monthly rent, in cents
+         */
+        Rental(StorageLocation location, Customer customer, long startDay, long priceCents) {
+            this.location = location;
+            this.customer = customer;
+            this.startDay = startDay;
+            this.priceCents = priceCents;
+            this.periodsBilled = 0;
+            this.periodStart = startDay;
+            this.periodEnd = LocalDate.ofEpochDay(startDay).plusMonths(1).toEpochDay();
+            this.endDay = Long.MAX_VALUE;
+            this.dueDay = Long.MAX_VALUE;
+        }
+
+        /**
+         * Moves on to the next month, once the current one has been billed
+         */
+        void nextPeriod() {
+            periodsBilled++;
+            periodStart = periodEnd;
+            // from the start day each time, so a rental from the 31st comes back to the 31st
+            periodEnd = LocalDate.ofEpochDay(startDay).plusMonths(periodsBilled + 1L).toEpochDay();
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+
+/**
+ * The test class BillingSchedulerTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BillingSchedulerTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    private StorageLocation testLoc;
+    private BillingScheduler testScheduler;
+    private Customer pat;
+    private Customer chris;
+
+    /**
+     * Default constructor for test class BillingSchedulerTest
+     */
+    public BillingSchedulerTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoc = new StorageLocation("WA12Kirkland");
+        testScheduler = new BillingScheduler(FIRST_DAY);
+        testScheduler.addLocation(testLoc);
+        pat   = new Customer("Pat Perkins",   "425-555-1314");
+        chris = new Customer("Chris Connoly", "425-555-3141");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testBillsOnAnniversary() {
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.of(2026, 1, 15), 10000);
+        testLoc.getStorageUnit(0, 1).rentForCents(chris, LocalDate.of(2026, 1, 20), 5000);
+        assertEquals(0, runDays(FIRST_DAY, LocalDate.of(2026, 2, 14)));
+        assertEquals(1, testScheduler.getDueCount(LocalDate.of(2026, 2, 15)));
+
+        BillingReport report = testScheduler.runDay(LocalDate.of(2026, 2, 15));
+        assertEquals(10000, report.getLocationTotalCents(0));
+        assertEquals(10000, pat.getBalanceCents());
+        assertEquals(0, chris.getBalanceCents());
+        assertEquals(LocalDate.of(2026, 2, 16), testScheduler.getNextRunDate());
+
+        assertEquals(5000, runDays(LocalDate.of(2026, 2, 16), LocalDate.of(2026, 3, 14)));
+        assertEquals(10000, testScheduler.runDay(LocalDate.of(2026, 3, 15)).getChainTotalCents());
+        assertEquals(20000, pat.getBalanceCents());
+    }
+
+    @Test
+    public void testMonthEndAnniversary() {
+        // a rental from the 31st falls due on the last day of the shorter months
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.of(2026, 1, 31), 10000);
+        assertEquals(0, testScheduler.getDueCount(LocalDate.of(2026, 2, 27)));
+        assertEquals(1, testScheduler.getDueCount(LocalDate.of(2026, 2, 28)));
+        testScheduler.runDay(LocalDate.of(2026, 2, 28));
+        assertEquals(0, testScheduler.getDueCount(LocalDate.of(2026, 3, 30)));
+        assertEquals(1, testScheduler.getDueCount(LocalDate.of(2026, 3, 31)));
+    }
+
+    @Test
+    public void testProratedRelease() {
+        StorageUnit unit = testLoc.getStorageUnit(0, 0);
+        unit.rentForCents(pat, LocalDate.of(2026, 1, 15), 2800);
+        testScheduler.runDay(LocalDate.of(2026, 2, 15));
+        assertEquals(2800, pat.getBalanceCents());
+
+        // 14 of the 28 days from February 15th to March 15th
+        unit.release(LocalDate.of(2026, 3, 1));
+        assertEquals(1, testScheduler.getDueCount(LocalDate.of(2026, 3, 1)));
+        assertEquals(1400, testScheduler.runDay(LocalDate.of(2026, 3, 1)).getChainTotalCents());
+        assertEquals(4200, pat.getBalanceCents());
+        assertEquals(0, runDays(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 5, 1)));
+    }
+
+    @Test
+    public void testReleaseOnAnniversary() {
+        StorageUnit unit = testLoc.getStorageUnit(0, 0);
+        unit.rentForCents(pat, LocalDate.of(2026, 1, 15), 10000);
+        unit.release(LocalDate.of(2026, 3, 15));
+        // the same unit rented again doesn't disturb the first rental's billing
+        unit.rentForCents(chris, LocalDate.of(2026, 3, 15), 7500);
+        assertEquals(20000, testScheduler.runDay(LocalDate.of(2026, 3, 20)).getChainTotalCents());
+        assertEquals(20000, pat.getBalanceCents());
+        assertEquals(7500, testScheduler.runDay(LocalDate.of(2026, 4, 15)).getChainTotalCents());
+        assertEquals(20000, pat.getBalanceCents());
+        assertEquals(7500, chris.getBalanceCents());
+    }
+
+    @Test
+    public void testSkippedDaysCaughtUp() {
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.of(2026, 1, 15), 10000);
+        assertEquals(30000, testScheduler.runDay(LocalDate.of(2026, 4, 20)).getChainTotalCents());
+        assertEquals(0, testScheduler.getDueCount(LocalDate.of(2026, 5, 14)));
+        assertEquals(1, testScheduler.getDueCount(LocalDate.of(2026, 5, 15)));
+    }
+
+    @Test
+    public void testExistingRentals() {
+        StorageLocation loc = new StorageLocation("OR03Salem");
+        loc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.of(2025, 6, 10), 10000);
+        loc.getStorageUnit(0, 1).rentForCents(chris, LocalDate.of(2025, 12, 28), 5000);
+        BillingScheduler scheduler = new BillingScheduler(FIRST_DAY);
+        scheduler.addLocation(loc);
+        assertEquals(0, scheduler.getDueCount(LocalDate.of(2026, 1, 9)));
+        assertEquals(1, scheduler.getDueCount(LocalDate.of(2026, 1, 10)));
+        assertEquals(2, scheduler.getDueCount(LocalDate.of(2026, 1, 28)));
+        assertEquals(15000, scheduler.runDay(LocalDate.of(2026, 1, 31)).getChainTotalCents());
+    }
+
+    @Test
+    public void testSeveralLocations() {
+        StorageLocation loc = new StorageLocation("OR03Salem");
+        testScheduler.addLocation(loc);
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.of(2026, 1, 5), 10000);
+        loc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.of(2026, 1, 5), 6000);
+        BillingReport report = testScheduler.runDay(LocalDate.of(2026, 2, 5));
+        assertEquals(2, report.getLocationCount());
+        assertEquals("OR03Salem", report.getDesignation(1));
+        assertEquals(6000, report.getLocationTotalCents(1));
+        assertEquals(16000, report.getChainTotalCents());
+        assertEquals(16000, pat.getBalanceCents());
+    }
+
+    @Test
+    public void testProrate() {
+        assertEquals(1000, BillingScheduler.prorate(3100, 10, 31));
+        assertEquals(3333, BillingScheduler.prorate(10000, 10, 30));
+        assertEquals(0, BillingScheduler.prorate(10000, 0, 30));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testRunDayAlreadyBilled() {
+        testScheduler.runDay(LocalDate.of(2026, 1, 10));
+        testScheduler.runDay(LocalDate.of(2026, 1, 10));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddLocationTwice() {
+        testScheduler.addLocation(testLoc);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testConstrFirstDayNull() {
+        new BillingScheduler(null);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Runs the test scheduler for each day of a range
+     *
+     * @param   from    the first day to run
+     * @param   to      the last day to run
+     * @return          the total charged over the days, in cents
+     */
+    private long runDays(LocalDate from, LocalDate to) {
+        long totalCents = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            totalCents += testScheduler.runDay(day).getChainTotalCents();
+        }
+        return totalCents;
+    }
+
+}
@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for BookingService: starts the service on a chain of locations, then has
+ * many clients send it a mix of availability searches, rentals, releases and customer
+ * lookups for a while, and prints the throughput and the spread of response times.
+ *
+ * Each client is a thread sending one request at a time over a keep-alive connection,
+ * so the number of clients is the number of connections the service holds open.
+ * Run main with no arguments for the defaults, or pass the number of clients, the
+ * seconds to measure for, and the units at each location, e.g. "2000 30 100000".
+ *
+ * Like Main, this is a driver rather than supplier code, so it prints its results.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BookingLoadDriver {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of clients run by default */
+    public static final int DEFAULT_CLIENTS = 256;
+    /** the number of seconds measured by default */
+    public static final int DEFAULT_SECONDS = 10;
+    /** the number of units at each location by default */
+    public static final int DEFAULT_UNITS = 10000;
+    /** the number of seconds the service is warmed up before measuring */
+    public static final int WARMUP_SECONDS = 3;
+    /** the designations of the locations served */
+    public static final String[] DESIGNATIONS = { "WA12Kirkland", "WA23Issaquah", "OR03Salem", "OR07Eugene" };
+    /** the percentiles printed */
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the response times of the requests sent */
+    private static final LatencyHistogram latencies = new LatencyHistogram();
+    /** the number of requests answered with a 2xx status */
+    private static final LongAdder okCount = new LongAdder();
+    /** the number of rentals turned away because the unit was taken (409) */
+    private static final LongAdder conflictCount = new LongAdder();
+    /** the number of requests answered with any other status, or not answered */
+    private static final LongAdder errorCount = new LongAdder();
+    /** true while the clients should keep sending */
+    private static volatile boolean running = true;
+
+    //---------------------------------------------------------------------
+    //          LOAD DRIVER
+    //---------------------------------------------------------------------
+    public static void main(String[] args) throws Exception {
+        int clientCount = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int unitCount = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_UNITS;
+
+        // keep a connection per client alive between requests, rather than the default 5
+        System.setProperty("http.maxConnections", String.valueOf(clientCount));
+        // send each response without waiting on the client's delayed ACK (see BookingService),
+        // unless the command line already chose; set before the service's server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        StorageChain chain = new StorageChain();
+        for (String designation : DESIGNATIONS) {
+            chain.addLocation(new StorageLocation(designation, buildLayout(unitCount)));
+        }
+        BookingService service = new BookingService(chain);
+        service.start(0);
+        String baseUrl = "http://localhost:" + service.getPort();
+        System.out.printf("Serving %d locations of %d units on port %d; %d clients%n",
+                          DESIGNATIONS.length, unitCount, service.getPort(), clientCount);
+
+        List<Thread> clients = new ArrayList<>();
+        for (int clientIdx = 0; clientIdx < clientCount; clientIdx++) {
+            Client client = new Client(baseUrl, clientIdx, unitCount);
+            Thread thread = new Thread(client::run, "client-" + clientIdx);
+            thread.setDaemon(true);
+            clients.add(thread);
+            thread.start();
+        }
+
+        Thread.sleep(WARMUP_SECONDS * 1000L);
+        latencies.reset();
+        okCount.reset();
+        conflictCount.reset();
+        errorCount.reset();
+        long startNanos = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        LatencyHistogram.Snapshot stats = latencies.snapshot();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        running = false;
+        for (Thread thread : clients) {
+            thread.join(5000);
+        }
+        service.stop();
+
+        System.out.printf("Requests       : %,d in %.1f s%n", stats.getCount(), elapsedNanos / 1e9);
+        System.out.printf("Throughput     : %,.0f requests/s%n", stats.getCount() * 1e9 / elapsedNanos);
+        System.out.printf("OK / 409 / err : %,d / %,d / %,d%n", okCount.sum(), conflictCount.sum(), errorCount.sum());
+        System.out.printf("Mean           : %,10.1f us%n", stats.getMeanNanos() / 1000);
+        for (double percentile : PERCENTILES) {
+            String name = (percentile == Math.rint(percentile)) ? "p" + (long) percentile : "p" + percentile;
+            System.out.printf("%-14s : %,10.1f us%n", name, stats.getPercentileNanos(percentile) / 1000.0);
+        }
+        System.out.printf("Max            : %,10.1f us%n", stats.getMaxNanos() / 1000.0);
+        System.out.printf("Rented units   : %,d of %,d%n",
+                          DESIGNATIONS.length * (long) unitCount - chain.getEmptyUnitCount(),
+                          DESIGNATIONS.length * (long) unitCount);
+    }
+
+    /**
+     * Builds the layout of a load test location, with a third of its rows of each type
+     *
+     * @param   unitCount   the number of units at the location
+     * @return              the layout
+     */
+    private static FacilityLayout buildLayout(int unitCount) {
+        FacilityLayout layout = new FacilityLayout();
+        StorageUnit.UnitType[] types = StorageUnit.UnitType.values();
+        int rowCount = (unitCount + Benchmark.UNITS_PER_ROW - 1) / Benchmark.UNITS_PER_ROW;
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+            layout.addRow();
+            int rowUnits = Math.min(Benchmark.UNITS_PER_ROW, unitCount - rowIdx * Benchmark.UNITS_PER_ROW);
+            layout.addUnits(rowUnits, 4 + 4 * (rowIdx % 3), 8, 8, types[rowIdx * types.length / rowCount]);
+        }
+        return layout;
+    }
+
+    //---------------------------------------------------------------------
+    //          CLIENTS
+    //---------------------------------------------------------------------
+    /**
+     * Sends requests one after another until told to stop: mostly availability searches,
+     * with rentals of random units, releases of units it rented, and customer lookups
+     */
+    private static class Client {
+
+        /** the service's address */
+        private final String baseUrl;
+        /** the phone number this client rents under */
+        private final String phone;
+        /** the number of units at each location */
+        private final int unitCount;
+        /** the units this client rents, as "designation/row/space" */
+        private final List<String> rented;
+
+        /**
+         * Client Constructor
+         *
+         * @param   baseUrl     the service's address
+         * @param   clientIdx   the client's number
+         * @param   unitCount   the number of units at each location
+         */
+        Client(String baseUrl, int clientIdx, int unitCount) {
+            this.baseUrl = baseUrl;
+            this.phone = "555-" + (100000 + clientIdx);
+            this.unitCount = unitCount;
+            this.rented = new ArrayList<>();
+        }
+
+        /**
+         * Sends requests until the driver stops the clients
+         */
+        void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            StorageUnit.UnitType[] types = StorageUnit.UnitType.values();
+            while (running) {
+                String designation = DESIGNATIONS[random.nextInt(DESIGNATIONS.length)];
+                int choice = random.nextInt(100);
+                if (choice < 60) {
+                    send("GET", "/locations/" + designation + "/units?limit=20&type="
+                                + types[random.nextInt(types.length)], null);
+                } else if (choice < 70) {
+                    send("GET", "/locations?type=" + types[random.nextInt(types.length)], null);
+                } else if (choice < 85 || rented.isEmpty()) {
+                    int locationIdx = random.nextInt(unitCount);
+                    int rowIdx = locationIdx / Benchmark.UNITS_PER_ROW;
+                    int spaceIdx = locationIdx % Benchmark.UNITS_PER_ROW;
+                    int status = send("POST", "/locations/" + designation + "/rentals",
+                                      "{\"row\":" + rowIdx + ",\"space\":" + spaceIdx + ",\"phone\":\"" + phone
+                                      + "\",\"name\":\"Load Client\"}");
+                    if (status == 201) {
+                        rented.add(designation + "/rentals/" + rowIdx + "/" + spaceIdx);
+                    }
+                } else if (choice < 95) {
+                    String unit = rented.remove(random.nextInt(rented.size()));
+                    send("DELETE", "/locations/" + unit + "?phone=" + phone, null);
+                } else {
+                    // look the client up where it rents, as it is unknown elsewhere
+                    String unit = rented.get(random.nextInt(rented.size()));
+                    send("GET", "/locations/" + unit.substring(0, unit.indexOf('/'))
+                                + "/customers?phone=" + phone, null);
+                }
+            }
+        }
+
+        /**
+         * Sends one request, timing it and counting its outcome
+         *
+         * @param   method  the request's method
+         * @param   path    the request's path and query
+         * @param   body    the request's body, or null for none
+         * @return          the response status, or -1 if the request failed
+         */
+        private int send(String method, String path, String body) {
+            long startNanos = System.nanoTime();
+            int status = -1;
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+                connection.setRequestMethod(method);
+                if (body != null) {
+                    connection.setDoOutput(true);
+                    try (OutputStream out = connection.getOutputStream()) {
+                        out.write(body.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                status = connection.getResponseCode();
+                // read the whole body, so the connection can be kept for the next request
+                byte[] buffer = new byte[4096];
+                try (InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+                    while (in.read(buffer) >= 0) {
+                    }
+                }
+            } catch (IOException e) {
+                status = -1;
+            }
+            latencies.record(System.nanoTime() - startNanos);
+            if (status >= 200 && status < 300) {
+                okCount.increment();
+            } else if (status == 409) {
+                conflictCount.increment();
+            } else {
+                errorCount.increment();
+            }
+            return status;
+        }
+    }
+
+}
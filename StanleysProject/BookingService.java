@@ -0,0 +1,723 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves bookings for a chain of storage locations over HTTP, with JSON bodies.
+ *
+ * Endpoints (designations, phone numbers and dates as path or query values are
+ * URL-encoded; dates are yyyy-mm-dd; money is in cents):
+ *
+ *   GET    /locations?state=WA&type=HUMIDITY           empty unit counts at each location
+ *   GET    /locations/{designation}/units?type=&offset=&limit=   a page of the empty units at a location
+ *   POST   /locations/{designation}/rentals              rent a unit, from a body like
+ *          {"row":1,"space":5,"phone":"425-555-1314","name":"Pat Perkins","start":"2026-10-18"}
+ *   DELETE /locations/{designation}/rentals/{row}/{space}?phone=&end=   release a unit
+ *   GET    /locations/{designation}/customers?phone=     a customer, their balance and units
+ *   POST   /billing?month=2026-10&state=WA               charge a month's rent
+ *
+ * Each location is charged for a month only once: billing a month again at a
+ * location already charged for it is refused with 409, and charges nothing.
+ *
+ * Connections are served by the JDK's built-in server, which watches every open
+ * connection from a single selector thread and only hands a request to a handler
+ * thread once it has arrived, so thousands of idle keep-alive connections cost no
+ * threads.  Handlers touch nothing but memory, so a handler pool about the size of
+ * the machine keeps it busy.
+ *
+ * Launch with -Dsun.net.httpserver.nodelay=true: the JDK's server writes a
+ * response's headers and body separately, so without it each response waits out
+ * the client's delayed ACK (about 40 ms).  The server reads the setting once, when
+ * the first server in the JVM is created, so it belongs on the command line (or at
+ * the top of a driver's main) rather than here.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BookingService {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of empty units listed when a request doesn't give a limit */
+    public static final int DEFAULT_UNIT_LIMIT = 100;
+    /** the most empty units listed in one response */
+    public static final int MAX_UNIT_LIMIT = 1000;
+    /** the largest request body accepted, in bytes */
+    public static final int MAX_BODY_BYTES = 8192;
+    /** the number of connections the operating system may queue before they are accepted */
+    public static final int ACCEPT_BACKLOG = 4096;
+
+    /** where failures the client isn't told the details of are recorded */
+    private static final Logger LOG = Logger.getLogger(BookingService.class.getName());
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the locations served */
+    private final StorageChain chain;
+    /** the engine used to charge rent */
+    private final BillingEngine billing;
+    /** the designations of the locations charged for each month billed; guarded by itself */
+    private final Map<YearMonth, Set<String>> billedDesignations = new HashMap<>();
+    /** the snapshots of empty units that searches are answered from */
+    private final AvailabilityCache availability;
+    /** the number of threads running request handlers */
+    private final int handlerThreads;
+    /** the running server, or null if not started */
+    private HttpServer server;
+    /** the threads running request handlers, or null if not started */
+    private ExecutorService handlers;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * BookingService Constructor; bills on the common fork/join pool and runs a
+     * handler thread per processor
+     *
+     * @param   chain   the locations to serve; must not be null
+     */
+    public BookingService(StorageChain chain) {
+        this(chain, new BillingEngine(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * BookingService Constructor
+     *
+     * @param   chain           the locations to serve; must not be null
+     * @param   billing         the engine used to charge rent; must not be null
+     * @param   handlerThreads  the number of threads running request handlers; must be over 0
+     */
+    public BookingService(StorageChain chain, BillingEngine billing, int handlerThreads) {
+        if (chain == null) {
+            throw new IllegalArgumentException("The chain must not be null");
+        }
+        if (billing == null) {
+            throw new IllegalArgumentException("The billing engine must not be null");
+        }
+        if (handlerThreads <= 0) {
+            throw new IllegalArgumentException("The handler thread count must be > 0");
+        }
+        this.chain = chain;
+        this.billing = billing;
+        availability = new AvailabilityCache();
+        this.handlerThreads = handlerThreads;
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the port on which the service is listening
+     *
+     * @return      the port, or -1 if the service isn't running
+     */
+    public synchronized int getPort() {
+        return (server == null) ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Retrieves the cache that searches for empty units are answered from, so that a
+     * front-end can listen for changes to availability rather than search again
+     *
+     * @return      the availability cache
+     */
+    public AvailabilityCache getAvailabilityCache() {
+        return availability;
+    }
+
+    /**
+     * Finds whether the service is running
+     *
+     * @return      true, if started and not yet stopped; false otherwise
+     */
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Starts serving on the loopback address
+     *
+     * @param   port    the port to listen on, from 0 to 65535; 0 picks a free port,
+     *                  which getPort then tells
+     * @throws  IOException     if the port can't be listened on
+     */
+    public void start(int port) throws IOException {
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Starts serving on a given address
+     *
+     * @param   address     the address and port to listen on; must not be null
+     * @throws  IOException     if the address can't be listened on
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException("The address must not be null");
+        }
+        if (server != null) {
+            throw new IllegalStateException("The service is already running");
+        }
+        HttpServer newServer = HttpServer.create(address, ACCEPT_BACKLOG);
+        AtomicInteger threadNo = new AtomicInteger();
+        handlers = Executors.newFixedThreadPool(handlerThreads, task -> {
+            Thread thread = new Thread(task, "booking-handler-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        newServer.setExecutor(handlers);
+        newServer.createContext("/", this::handle);
+        newServer.start();
+        server = newServer;
+    }
+
+    /**
+     * Stops serving, closing every connection at once, so that responses to requests
+     * still being handled are lost; stopping a service that isn't running has no effect
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdown();
+            server = null;
+            handlers = null;
+        }
+    }
+
+    /**
+     * Handles one request, answering it with a JSON body
+     *
+     * @param   exchange    the request and its response
+     * @throws  IOException     if the response can't be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String body;
+        try {
+            String[] path = splitPath(exchange.getRequestURI().getPath());
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            StringBuilder json = new StringBuilder();
+            status = route(exchange, path, query, json);
+            body = json.toString();
+        } catch (RequestException e) {
+            status = e.status;
+            body = errorBody(e.getMessage());
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            status = 400;
+            body = errorBody(e.getMessage());
+        } catch (RuntimeException e) {
+            // the details stay in the log; the client only learns that something broke
+            LOG.log(Level.SEVERE, "Request " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed", e);
+            status = 500;
+            body = errorBody("Internal server error");
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Sends a request to the code for its endpoint
+     *
+     * @param   exchange    the request
+     * @param   path        the segments of the request's path
+     * @param   query       the request's query parameters
+     * @param   json        receives the response body
+     * @return              the response status
+     * @throws  IOException         if the request body can't be read
+     * @throws  RequestException    if the request can't be carried out
+     */
+    private int route(HttpExchange exchange, String[] path, Map<String, String> query, StringBuilder json)
+            throws IOException, RequestException {
+        String method = exchange.getRequestMethod();
+        if (path.length == 1 && path[0].equals("billing")) {
+            checkMethod(method, "POST");
+            return chargeRent(query, json);
+        }
+        if (path.length == 0 || !path[0].equals("locations")) {
+            throw new RequestException(404, "No such endpoint");
+        }
+        if (path.length == 1) {
+            checkMethod(method, "GET");
+            return listLocations(query, json);
+        }
+        StorageLocation location = chain.getLocation(path[1]);
+        if (location == null) {
+            throw new RequestException(404, "No location " + path[1]);
+        }
+        String resource = (path.length > 2) ? path[2] : "";
+        if (path.length == 3 && resource.equals("units")) {
+            checkMethod(method, "GET");
+            return listEmptyUnits(location, query, json);
+        }
+        if (path.length == 3 && resource.equals("rentals")) {
+            checkMethod(method, "POST");
+            return rent(location, Json.parseObject(readBody(exchange)), json);
+        }
+        if (path.length == 5 && resource.equals("rentals")) {
+            checkMethod(method, "DELETE");
+            return release(location, Integer.parseInt(path[3]), Integer.parseInt(path[4]), query, json);
+        }
+        if (path.length == 3 && resource.equals("customers")) {
+            checkMethod(method, "GET");
+            return findCustomer(location, query, json);
+        }
+        throw new RequestException(404, "No such endpoint");
+    }
+
+    //---------------------------------------------------------------------
+    //          ENDPOINTS
+    //---------------------------------------------------------------------
+    /**
+     * Counts the empty units at each location, optionally of one state and one type
+     *
+     * @param   query   the state and type wanted, if any
+     * @param   json    receives the counts
+     * @return          the response status
+     */
+    private int listLocations(Map<String, String> query, StringBuilder json) {
+        StorageUnit.UnitType unitType = parseUnitType(query.get("type"));
+        String state = query.get("state");
+        StorageLocation[] locations = (state == null) ? chain.getLocations() : chain.getLocations(state);
+        json.append("{\"locations\":[");
+        for (int locIdx = 0; locIdx < locations.length; locIdx++) {
+            if (locIdx > 0) {
+                json.append(',');
+            }
+            json.append("{\"designation\":");
+            Json.appendString(json, locations[locIdx].getDesignation());
+            json.append(",\"unitCount\":").append(locations[locIdx].getUnitCount())
+                .append(",\"emptyUnitCount\":").append(locations[locIdx].getEmptyUnitCount(unitType))
+                .append('}');
+        }
+        json.append("]}");
+        return 200;
+    }
+
+    /**
+     * Lists a page of the empty units at a location, with their current quotes and the
+     * version of the availability they were listed from
+     *
+     * @param   location    the location
+     * @param   query       the type wanted, if any, the position of the first unit to
+     *                      list, and the most units to list
+     * @param   json        receives the units
+     * @return              the response status
+     */
+    private int listEmptyUnits(StorageLocation location, Map<String, String> query, StringBuilder json) {
+        StorageUnit.UnitType unitType = parseUnitType(query.get("type"));
+        int limit = DEFAULT_UNIT_LIMIT;
+        if (query.containsKey("limit")) {
+            limit = Integer.parseInt(query.get("limit"));
+            if (limit < 0 || limit > MAX_UNIT_LIMIT) {
+                throw new IllegalArgumentException("The limit must be from 0 to " + MAX_UNIT_LIMIT);
+            }
+        }
+        int offset = query.containsKey("offset") ? Integer.parseInt(query.get("offset")) : 0;
+        AvailabilityCache.Availability snapshot = availability.getAvailability(location, unitType);
+        if (offset < 0 || offset > snapshot.getUnitCount()) {
+            throw new IllegalArgumentException("The offset must be from 0 to " + snapshot.getUnitCount());
+        }
+        StorageUnit[] units = snapshot.getUnits(offset, limit);
+        json.append("{\"location\":");
+        Json.appendString(json, location.getDesignation());
+        json.append(",\"version\":").append(snapshot.getVersion())
+            .append(",\"emptyUnitCount\":").append(snapshot.getUnitCount())
+            .append(",\"units\":[");
+        for (int unitIdx = 0; unitIdx < units.length; unitIdx++) {
+            if (unitIdx > 0) {
+                json.append(',');
+            }
+            appendUnit(json, location, units[unitIdx], units[unitIdx].calcUnitSpecificPriceCents());
+        }
+        json.append("]}");
+        return 200;
+    }
+
+    /**
+     * Rents a unit at its quoted price, adding the customer to the location if the
+     * location doesn't know their phone number yet
+     *
+     * @param   location    the location
+     * @param   request     the unit's row and space, the customer's phone and (for a
+     *                      new customer) name, and optionally the rental's start
+     * @param   json        receives the rented unit
+     * @return              the response status
+     * @throws  RequestException    if the unit is already rented
+     */
+    private int rent(StorageLocation location, Map<String, String> request, StringBuilder json)
+            throws RequestException {
+        StorageUnit unit = location.getStorageUnit(parseInt(request, "row"), parseInt(request, "space"));
+        String phone = required(request, "phone");
+        LocalDate start = request.containsKey("start") ? LocalDate.parse(required(request, "start"))
+                                                       : LocalDate.now();
+        Customer customer;
+        // the location's lock, so that two first bookings by one phone number add one customer
+        synchronized (location) {
+            customer = location.findCustomerByPhone(phone);
+            if (customer == null) {
+                customer = new Customer(required(request, "name"), phone);
+                location.addCustomer(customer);
+            }
+        }
+        if (!unit.rent(customer, start)) {
+            throw new RequestException(409, "The unit is already rented");
+        }
+        json.append("{\"location\":");
+        Json.appendString(json, location.getDesignation());
+        json.append(",\"unit\":");
+        appendUnit(json, location, unit, unit.getPriceCents());
+        json.append('}');
+        return 201;
+    }
+
+    /**
+     * Releases a customer's unit, today or on a given day
+     *
+     * @param   location    the location
+     * @param   rowIdx      the unit's row
+     * @param   spaceIdx    the unit's space
+     * @param   query       the renting customer's phone, and optionally the rental's end
+     * @param   json        receives the released unit's position
+     * @return              the response status
+     * @throws  RequestException    if the customer is unknown or doesn't rent the unit
+     */
+    private int release(StorageLocation location, int rowIdx, int spaceIdx, Map<String, String> query,
+                        StringBuilder json) throws RequestException {
+        StorageUnit[] batch = { location.getStorageUnit(rowIdx, spaceIdx) };
+        Customer customer = location.findCustomerByPhone(required(query, "phone"));
+        if (customer == null) {
+            throw new RequestException(404, "No customer with that phone number");
+        }
+        boolean released = query.containsKey("end")
+                           ? location.releaseUnits(batch, customer, LocalDate.parse(query.get("end")))
+                           : location.releaseUnits(batch, customer);
+        if (!released) {
+            throw new RequestException(409, "The unit isn't rented by that customer");
+        }
+        json.append("{\"location\":");
+        Json.appendString(json, location.getDesignation());
+        json.append(",\"row\":").append(rowIdx).append(",\"space\":").append(spaceIdx).append('}');
+        return 200;
+    }
+
+    /**
+     * Describes a customer of a location and the units they rent there
+     *
+     * @param   location    the location
+     * @param   query       the customer's phone
+     * @param   json        receives the customer
+     * @return              the response status
+     * @throws  RequestException    if the customer is unknown
+     */
+    private int findCustomer(StorageLocation location, Map<String, String> query, StringBuilder json)
+            throws RequestException {
+        Customer customer = location.findCustomerByPhone(required(query, "phone"));
+        if (customer == null) {
+            throw new RequestException(404, "No customer with that phone number");
+        }
+        StorageUnit[] units = location.getCustomerUnits(customer);
+        json.append("{\"name\":");
+        Json.appendString(json, customer.getName());
+        json.append(",\"phone\":");
+        Json.appendString(json, customer.getPhone());
+        json.append(",\"balanceCents\":").append(customer.getBalanceCents())
+            .append(",\"locked\":").append(location.isCustomerLocked(customer))
+            .append(",\"units\":[");
+        for (int unitIdx = 0; unitIdx < units.length; unitIdx++) {
+            if (unitIdx > 0) {
+                json.append(',');
+            }
+            appendUnit(json, location, units[unitIdx], units[unitIdx].getPriceCents());
+        }
+        json.append("]}");
+        return 200;
+    }
+
+    /**
+     * Charges a month's rent at every location, or at every location in one state,
+     * unless any of those locations has been charged for the month already
+     *
+     * @param   query   the month to bill, and the state to bill, if any
+     * @param   json    receives the amounts charged
+     * @return          the response status
+     * @throws  RequestException    if a location has already been charged for the month
+     */
+    private int chargeRent(Map<String, String> query, StringBuilder json) throws RequestException {
+        YearMonth month = YearMonth.parse(required(query, "month"));
+        String state = query.get("state");
+        StorageLocation[] locations = (state == null) ? chain.getLocations() : chain.getLocations(state);
+        claimMonth(month, locations);
+        BillingReport report;
+        try {
+            report = billing.chargeMonthlyRent(locations);
+        } catch (RuntimeException e) {
+            releaseMonth(month, locations);
+            throw e;
+        }
+        json.append("{\"totalCents\":").append(report.getChainTotalCents()).append(",\"locations\":[");
+        for (int locIdx = 0; locIdx < report.getLocationCount(); locIdx++) {
+            if (locIdx > 0) {
+                json.append(',');
+            }
+            json.append("{\"designation\":");
+            Json.appendString(json, report.getDesignation(locIdx));
+            json.append(",\"totalCents\":").append(report.getLocationTotalCents(locIdx)).append('}');
+        }
+        json.append("]}");
+        return 200;
+    }
+
+    //---------------------------------------------------------------------
+    //          HELPERS
+    //---------------------------------------------------------------------
+    /**
+     * Appends a unit as a JSON object
+     *
+     * @param   json        the JSON being built
+     * @param   location    the unit's location
+     * @param   unit        the unit
+     * @param   priceCents  the unit's price to show: its quote if empty, its rent if rented
+     */
+    private static void appendUnit(StringBuilder json, StorageLocation location, StorageUnit unit, long priceCents) {
+        FacilityLayout layout = location.getLayout();
+        int locationIdx = unit.getLocationIdx();
+        json.append("{\"row\":").append(layout.getRowOf(locationIdx))
+            .append(",\"space\":").append(layout.getSpaceOf(locationIdx))
+            .append(",\"width\":").append(unit.getWidth())
+            .append(",\"length\":").append(unit.getLength())
+            .append(",\"height\":").append(unit.getHeight())
+            .append(",\"type\":\"").append(unit.getType()).append('"')
+            .append(",\"priceCents\":").append(priceCents);
+        LocalDate rentalStart = unit.getRentalStart();
+        if (rentalStart != null) {
+            json.append(",\"rentalStart\":\"").append(rentalStart).append('"');
+        }
+        json.append('}');
+    }
+
+    /**
+     * Builds the body of an error response
+     *
+     * @param   message     what went wrong; may be null
+     * @return              the body
+     */
+    private static String errorBody(String message) {
+        return Json.appendString(new StringBuilder("{\"error\":"),
+                                 (message == null) ? "Bad request" : message).append('}').toString();
+    }
+
+    /**
+     * Checks that a request uses the one method its endpoint supports
+     *
+     * @param   method      the request's method
+     * @param   allowed     the endpoint's method
+     * @throws  RequestException    if the methods differ
+     */
+    private static void checkMethod(String method, String allowed) throws RequestException {
+        if (!method.equals(allowed)) {
+            throw new RequestException(405, "Use " + allowed + " here");
+        }
+    }
+
+    /**
+     * Reads a request's body as UTF-8 text
+     *
+     * @param   exchange    the request
+     * @return              the body
+     * @throws  IOException         if the body can't be read
+     * @throws  RequestException    if the body is over MAX_BODY_BYTES long
+     */
+    private static String readBody(HttpExchange exchange) throws IOException, RequestException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        try (InputStream in = exchange.getRequestBody()) {
+            for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+                body.write(buffer, 0, count);
+                if (body.size() > MAX_BODY_BYTES) {
+                    throw new RequestException(413, "The request body is over " + MAX_BODY_BYTES + " bytes");
+                }
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits a request's path into its non-empty segments
+     *
+     * @param   path    the decoded path, e.g. "/locations/WA12Kirkland/units"
+     * @return          its segments, e.g. { "locations", "WA12Kirkland", "units" }
+     */
+    private static String[] splitPath(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    /**
+     * Reads a request's query parameters
+     *
+     * @param   rawQuery    the query, still URL-encoded, or null if there is none
+     * @return              the decoded values by name; a name given twice keeps its last value
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        try {
+            for (String pair : rawQuery.split("&")) {
+                if (!pair.isEmpty()) {
+                    int eqIdx = pair.indexOf('=');
+                    String name = (eqIdx < 0) ? pair : pair.substring(0, eqIdx);
+                    String value = (eqIdx < 0) ? "" : pair.substring(eqIdx + 1);
+                    query.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+                }
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError("UTF-8 is always supported", e);
+        }
+        return query;
+    }
+
+    /**
+     * Records locations as charged for a month, all of them or none
+     *
+     * @param   month       the month being billed
+     * @param   locations   the locations being charged
+     * @throws  RequestException    if any of the locations has already been charged for the month
+     */
+    private void claimMonth(YearMonth month, StorageLocation[] locations) throws RequestException {
+        synchronized (billedDesignations) {
+            Set<String> billed = billedDesignations.get(month);
+            if (billed == null) {
+                billed = new HashSet<>();
+                billedDesignations.put(month, billed);
+            }
+            for (StorageLocation location : locations) {
+                if (billed.contains(location.getDesignation())) {
+                    throw new RequestException(409, location.getDesignation()
+                                                    + " has already been billed for " + month);
+                }
+            }
+            for (StorageLocation location : locations) {
+                billed.add(location.getDesignation());
+            }
+        }
+    }
+
+    /**
+     * Forgets that locations were charged for a month, after charging them failed
+     *
+     * @param   month       the month that was being billed
+     * @param   locations   the locations that were being charged
+     */
+    private void releaseMonth(YearMonth month, StorageLocation[] locations) {
+        synchronized (billedDesignations) {
+            Set<String> billed = billedDesignations.get(month);
+            for (StorageLocation location : locations) {
+                billed.remove(location.getDesignation());
+            }
+        }
+    }
+
+    /**
+     * Reads a unit type
+     *
+     * @param   name    the type's name in any case, or null for any type
+     * @return          the type, or null for any type
+     */
+    private static StorageUnit.UnitType parseUnitType(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        try {
+            return StorageUnit.UnitType.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("No unit type " + name);
+        }
+    }
+
+    /**
+     * Retrieves a value a request must give
+     *
+     * @param   values  the request's values
+     * @param   name    the value's name
+     * @return          the value
+     */
+    private static String required(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("The " + name + " must be given");
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves a whole number a request must give
+     *
+     * @param   values  the request's values
+     * @param   name    the number's name
+     * @return          the number
+     */
+    private static int parseInt(Map<String, String> values, String name) {
+        try {
+            return Integer.parseInt(required(values, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The " + name + " must be a whole number");
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ERRORS
+    //---------------------------------------------------------------------
+    /**
+     * Signals a request that can't be carried out, and the status to answer it with
+     */
+    private static class RequestException extends Exception {
+        /** identifies this version of the class when serialized */
+        private static final long serialVersionUID = 1L;
+
+        /** the response status */
+        private final int status;
+
+        /**
+         * RequestException Constructor
+         *
+         * @param   status      the response status
+         * @param   message     why the request can't be carried out
+         */
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+}
@@ -0,0 +1,328 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The test class BookingServiceTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class BookingServiceTest {
+
+    private StorageChain testChain;
+    private StorageLocation testLoc;
+    private BookingService testService;
+
+    /**
+     * Default constructor for test class BookingServiceTest
+     */
+    public BookingServiceTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testChain = new StorageChain();
+        testLoc = new StorageLocation("WA12Kirkland");
+        testChain.addLocation(testLoc);
+        testChain.addLocation(new StorageLocation("OR03Salem"));
+        testService = new BookingService(testChain);
+        testService.start(0);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+        testService.stop();
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testStartAndStop() {
+        assertTrue(testService.isRunning());
+        assertTrue(testService.getPort() > 0);
+        testService.stop();
+        assertFalse(testService.isRunning());
+        assertEquals(-1, testService.getPort());
+        // stopping twice has no effect
+        testService.stop();
+    }
+
+    @Test
+    public void testListLocations() throws IOException {
+        Response response = request("GET", "/locations?state=WA&type=humidity", null);
+        assertEquals(200, response.status);
+        int emptyCount = testLoc.getEmptyUnitCount(StorageUnit.UnitType.HUMIDITY);
+        assertEquals("{\"locations\":[{\"designation\":\"WA12Kirkland\",\"unitCount\":240,"
+                     + "\"emptyUnitCount\":" + emptyCount + "}]}", response.body);
+
+        response = request("GET", "/locations", null);
+        assertTrue(response.body.contains("\"OR03Salem\""));
+        assertTrue(response.body.contains("\"WA12Kirkland\""));
+    }
+
+    @Test
+    public void testListEmptyUnits() throws IOException {
+        testLoc.getStorageUnit(0, 0).rent(new Customer("Pat Perkins", "425-555-1314"), LocalDate.now());
+        Response response = request("GET", "/locations/WA12Kirkland/units?limit=2", null);
+        assertEquals(200, response.status);
+        StorageUnit unit = testLoc.getStorageUnit(0, 1);
+        assertTrue(response.body, response.body.startsWith("{\"location\":\"WA12Kirkland\",\"version\":0,"
+                                                           + "\"emptyUnitCount\":239,"
+                                                           + "\"units\":[{\"row\":0,\"space\":1,"));
+        assertTrue(response.body.contains("\"priceCents\":" + unit.calcUnitSpecificPriceCents()));
+        assertEquals(2, count(response.body, "\"row\":"));
+
+        // the next page, and the same page again after a rental, from a new version
+        response = request("GET", "/locations/WA12Kirkland/units?offset=2&limit=2", null);
+        assertTrue(response.body, response.body.contains("\"units\":[{\"row\":0,\"space\":3,"));
+        testLoc.getStorageUnit(0, 1).rent(new Customer("Chris Connoly", "425-555-3141"), LocalDate.now());
+        response = request("GET", "/locations/WA12Kirkland/units?offset=2&limit=2", null);
+        assertTrue(response.body, response.body.startsWith("{\"location\":\"WA12Kirkland\",\"version\":1,"
+                                                           + "\"emptyUnitCount\":238,"
+                                                           + "\"units\":[{\"row\":0,\"space\":4,"));
+
+        response = request("GET", "/locations/WA12Kirkland/units?type=TEMPERATURE&limit=1000", null);
+        assertEquals(testLoc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE), count(response.body, "\"row\":"));
+        assertEquals(0, count(response.body, "\"STANDARD\""));
+    }
+
+    @Test
+    public void testRentAndRelease() throws IOException {
+        StorageUnit unit = testLoc.getStorageUnit(1, 5);
+        long quoteCents = unit.calcUnitSpecificPriceCents();
+        Response response = request("POST", "/locations/WA12Kirkland/rentals",
+                                    "{\"row\":1, \"space\":5, \"phone\":\"425-555-1314\", "
+                                    + "\"name\":\"Pat Perkins\", \"start\":\"2026-10-18\"}");
+        assertEquals(201, response.status);
+        assertTrue(response.body.contains("\"priceCents\":" + quoteCents));
+        assertTrue(response.body.contains("\"rentalStart\":\"2026-10-18\""));
+        Customer pat = testLoc.findCustomerByPhone("425-555-1314");
+        assertEquals("Pat Perkins", pat.getName());
+        assertEquals(pat, unit.getCustomer());
+
+        // a returning customer needn't give a name; a rented unit can't be rented again
+        assertEquals(201, request("POST", "/locations/WA12Kirkland/rentals",
+                                  "{\"row\":1,\"space\":6,\"phone\":\"425-555-1314\"}").status);
+        assertEquals(2, testLoc.getCustomerUnitCount(pat));
+        assertEquals(1, testLoc.getCustomerCount());
+        assertEquals(409, request("POST", "/locations/WA12Kirkland/rentals",
+                                  "{\"row\":1,\"space\":5,\"phone\":\"425-555-3141\",\"name\":\"Chris\"}").status);
+
+        assertEquals(409, request("DELETE", "/locations/WA12Kirkland/rentals/1/5?phone=425-555-3141", null).status);
+        assertEquals(200, request("DELETE", "/locations/WA12Kirkland/rentals/1/5?phone=425-555-1314", null).status);
+        assertNull(unit.getCustomer());
+        assertEquals(409, request("DELETE", "/locations/WA12Kirkland/rentals/1/5?phone=425-555-1314", null).status);
+        assertEquals(404, request("DELETE", "/locations/WA12Kirkland/rentals/1/6?phone=555-0000", null).status);
+    }
+
+    @Test
+    public void testFindCustomer() throws IOException {
+        Customer pat = new Customer("Pat \"PJ\" Perkins", "425-555-1314");
+        testLoc.addCustomer(pat);
+        testLoc.getStorageUnit(2, 3).rentForCents(pat, LocalDate.of(2026, 1, 15), 9995);
+        Response response = request("GET", "/locations/WA12Kirkland/customers?phone=425-555-1314", null);
+        assertEquals(200, response.status);
+        assertTrue(response.body, response.body.startsWith("{\"name\":\"Pat \\\"PJ\\\" Perkins\","
+                                                           + "\"phone\":\"425-555-1314\",\"balanceCents\":0,"
+                                                           + "\"locked\":false,\"units\":[{\"row\":2,\"space\":3,"));
+        assertTrue(response.body.contains("\"priceCents\":9995,\"rentalStart\":\"2026-01-15\"}]}"));
+
+        assertEquals(404, request("GET", "/locations/WA12Kirkland/customers?phone=555-0000", null).status);
+        assertEquals(400, request("GET", "/locations/WA12Kirkland/customers", null).status);
+    }
+
+    @Test
+    public void testChargeRent() throws IOException {
+        Customer pat = new Customer("Pat Perkins", "425-555-1314");
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, LocalDate.now(), 9995);
+        StorageLocation salem = testChain.getLocation("OR03Salem");
+        salem.getStorageUnit(0, 0).rentForCents(new Customer("Chris Connoly", "425-555-3141"), LocalDate.now(), 5000);
+
+        Response response = request("POST", "/billing?month=2026-10&state=WA", "");
+        assertEquals(200, response.status);
+        assertEquals("{\"totalCents\":9995,\"locations\":[{\"designation\":\"WA12Kirkland\",\"totalCents\":9995}]}",
+                     response.body);
+        assertEquals(9995, pat.getBalanceCents());
+
+        // Kirkland has had October's rent, so the whole chain can't be billed for it
+        assertEquals(409, request("POST", "/billing?month=2026-10", "").status);
+        assertEquals(409, request("POST", "/billing?month=2026-10&state=WA", "").status);
+        assertEquals(9995, pat.getBalanceCents());
+        assertEquals(0, salem.getCustomer(0).getBalanceCents());
+
+        response = request("POST", "/billing?month=2026-10&state=OR", "");
+        assertEquals(200, response.status);
+        assertTrue(response.body.startsWith("{\"totalCents\":5000,"));
+
+        response = request("POST", "/billing?month=2026-11", "");
+        assertTrue(response.body.startsWith("{\"totalCents\":14995,"));
+        assertEquals(19990, pat.getBalanceCents());
+    }
+
+    @Test
+    public void testBadRequests() throws IOException {
+        assertEquals(404, request("GET", "/", null).status);
+        assertEquals(404, request("GET", "/locations/WA99Nowhere/units", null).status);
+        assertEquals(404, request("GET", "/locations/WA12Kirkland/widgets", null).status);
+        assertEquals(405, request("DELETE", "/locations", null).status);
+        assertEquals(400, request("GET", "/locations?type=FREEZER", null).status);
+        assertEquals(400, request("GET", "/locations/WA12Kirkland/units?limit=1001", null).status);
+        assertEquals(400, request("GET", "/locations/WA12Kirkland/units?limit=ten", null).status);
+        assertEquals(400, request("GET", "/locations/WA12Kirkland/units?offset=241", null).status);
+        assertEquals(400, request("DELETE", "/locations/WA12Kirkland/rentals/1/99?phone=1", null).status);
+        assertEquals(400, request("POST", "/billing", "").status);
+        assertEquals(400, request("POST", "/billing?month=October", "").status);
+
+        String path = "/locations/WA12Kirkland/rentals";
+        assertEquals(400, request("POST", path, "{\"row\":1,\"space\":5,\"phone\":").status);
+        assertEquals(400, request("POST", path, "{\"row\":1,\"space\":5,\"phone\":[\"555\"]}").status);
+        assertEquals(400, request("POST", path, "{\"row\":1.5,\"space\":5,\"phone\":\"555\"}").status);
+        assertEquals(400, request("POST", path, "{\"row\":1,\"space\":5,\"phone\":\"555\"}").status);
+        assertEquals(400, request("POST", path, "{\"row\":1,\"space\":5,\"phone\":\"555\",\"name\":\"Pat\","
+                                                + "\"start\":\"next week\"}").status);
+        Response response = request("POST", path, "{\"row\":1,\"space\":5}");
+        assertEquals("{\"error\":\"The phone must be given\"}", response.body);
+        assertEquals(0, testLoc.getCustomerCount());
+
+        StringBuilder huge = new StringBuilder("{\"name\":\"");
+        while (huge.length() <= BookingService.MAX_BODY_BYTES) {
+            huge.append("Pat Perkins ");
+        }
+        assertEquals(413, request("POST", path, huge.append("\"}").toString()).status);
+    }
+
+    @Test
+    public void testConcurrentRentsOfOneUnit() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int clientIdx = 0; clientIdx < 8; clientIdx++) {
+                String body = "{\"row\":3,\"space\":7,\"phone\":\"555-10" + clientIdx + "\",\"name\":\"Client\"}";
+                Callable<Integer> rent = () -> request("POST", "/locations/WA12Kirkland/rentals", body).status;
+                statuses.add(clients.submit(rent));
+            }
+            int rentedCount = 0;
+            for (Future<Integer> status : statuses) {
+                if (status.get() == 201) {
+                    rentedCount++;
+                } else {
+                    assertEquals(409, (int) status.get());
+                }
+            }
+            assertEquals(1, rentedCount);
+            assertEquals(239, testLoc.getEmptyUnitCount());
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullChain() {
+        new BookingService(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNoHandlerThreads() {
+        new BookingService(testChain, new BillingEngine(), 0);
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void testStartTwice() throws IOException {
+        testService.start(0);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * A response's status and body
+     */
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Sends a request to the service under test
+     *
+     * @param   method  the request's method
+     * @param   path    the request's path and query
+     * @param   body    the request's body, or null for none
+     * @return          the response
+     */
+    private Response request(String method, String path, String body) throws IOException {
+        URL url = new URL("http://localhost:" + testService.getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        try (InputStream responseBody = in) {
+            for (int count = responseBody.read(buffer); count >= 0; count = responseBody.read(buffer)) {
+                bytes.write(buffer, 0, count);
+            }
+        }
+        return new Response(status, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Counts the times a piece of text appears in another
+     *
+     * @param   text    the text to search
+     * @param   piece   the piece to count
+     * @return          the number of times it appears
+     */
+    private static int count(String text, String piece) {
+        int count = 0;
+        for (int at = text.indexOf(piece); at >= 0; at = text.indexOf(piece, at + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+}
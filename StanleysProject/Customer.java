@@ -1,3 +1,5 @@
+import java.util.Arrays;
+import java.util.function.LongConsumer;
 
 /**
  * Represents a single customer of the storage facility
@@ -11,8 +13,17 @@ public class Customer  {
     private String name;
     /** the customer's phone number */
     private String phone;
-    /** the customer's balance */
-    private double balance;
+    /** held while the balance changes and the registries are told, and while a registry
+     *  joins, so each change is either in the balance a registry starts from or told to it */
+    private final Object balanceLock = new Object();
+    /** the customer's balance, in cents; changed only while holding balanceLock */
+    private volatile long balanceCents;
+    /** the registries in which this customer is filed, or null if none */
+    private volatile CustomerRegistry[] registries;
+    /** the customer's id in each of the registries, in the same order; written before registries */
+    private volatile int[] registryIds;
+    /** the first registry belonging to a location in which this customer was filed, or null */
+    private volatile CustomerRegistry homeRegistry;
     
     /**
      * Customer Constructor
@@ -23,7 +34,6 @@ public class Customer  {
     public Customer(String name, String phone) {
         setName(name);
         setPhone(phone);
-        this.balance = 0.00;
     }
     
     /**
@@ -50,7 +60,16 @@ public class Customer  {
      * @return  the customer's current balance
      */
     public double getBalance() {
-        return balance;
+        return Money.toDollars(balanceCents);
+    }
+
+    /**
+     * Retrieves the customer balance in cents
+     *
+     * @return  the customer's current balance, in cents
+     */
+    public long getBalanceCents() {
+        return balanceCents;
     }
     
     /**
@@ -62,23 +81,44 @@ public class Customer  {
         if (name == null || name.isEmpty() ) {
             throw new IllegalArgumentException("Name must be non-null and non-empty");
         }
+        String oldName = this.name;
         this.name = name;
+        CustomerRegistry[] joined = registries;
+        if (joined != null) {
+            for (CustomerRegistry registry : joined) {
+                registry.nameChanged(this, oldName);
+            }
+        }
     }
     
     /**
      * Assigns a new phone number to the customer
      *
-     * @param   phone    the updated customer phone number; must not be null or empty
+     * @param   phone    the updated customer phone number; must not be null or empty; 
+     *                   must not belong to another customer in the same registry
      */
     public void setPhone(String phone) {
         if (phone == null || phone.isEmpty()) {
             throw new IllegalArgumentException("Phone must be non-null and non-empty");
         }
+        CustomerRegistry[] joined = registries;
+        if (joined != null) {
+            for (CustomerRegistry registry : joined) {
+                registry.checkPhoneAvailable(this, phone);
+            }
+        }
+        String oldPhone = this.phone;
         this.phone = phone;
+        if (joined != null) {
+            for (CustomerRegistry registry : joined) {
+                registry.phoneChanged(this, oldPhone);
+            }
+        }
     }
     
     /**
-     * Charges the customer the specified amount, increasing the customer balance
+     * Charges the customer the specified amount, rounded to the nearest cent, increasing
+     * the customer balance; safe to call from several threads at once
      *
      * @param   amount      the amount to charge; must not be negative
      * @return              the new balance after the charge has been made
@@ -87,12 +127,26 @@ public class Customer  {
         if (amount < 0) {
             throw new IllegalArgumentException("Amounts must be non-negative");
         }
-        balance += amount;
-        return balance;
+        return Money.toDollars(chargeCents(Money.toCents(amount)));
+    }
+
+    /**
+     * Charges the customer the specified amount in cents, increasing the customer 
+     * balance; safe to call from several threads at once
+     *
+     * @param   cents       the amount to charge, in cents; must not be negative
+     * @return              the new balance after the charge has been made, in cents
+     */
+    public long chargeCents(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("Amounts must be non-negative");
+        }
+        return adjustBalance(cents);
     }
     
     /**
-     * Credits the customer the specified amount, decreasing the customer balance
+     * Credits the customer the specified amount, rounded to the nearest cent, decreasing
+     * the customer balance; safe to call from several threads at once
      *
      * @param   amount      the amount to charge; must not be negative
      * @return              the new balance after the credit has been made
@@ -101,8 +155,96 @@ public class Customer  {
         if (amount < 0) {
             throw new IllegalArgumentException("Amounts must be non-negative");
         }
-        balance -= amount;
-        return balance;
+        return Money.toDollars(creditCents(Money.toCents(amount)));
+    }
+
+    /**
+     * Credits the customer the specified amount in cents, decreasing the customer 
+     * balance; safe to call from several threads at once
+     *
+     * @param   cents       the amount to credit, in cents; must not be negative
+     * @return              the new balance after the credit has been made, in cents
+     */
+    public long creditCents(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("Amounts must be non-negative");
+        }
+        return adjustBalance(-cents);
+    }
+
+    /**
+     * Adds an amount to the balance and tells the registries the customer is filed in.
+     * Changes to one customer's balance are made one at a time, each told to the
+     * registries before the next is made; changes to different customers don't wait
+     * for each other.
+     *
+     * @param   deltaCents      the amount to add, in cents (negative to subtract)
+     * @return                  the new balance, in cents
+     */
+    private long adjustBalance(long deltaCents) {
+        synchronized (balanceLock) {
+            long newCents = Money.add(balanceCents, deltaCents);
+            balanceCents = newCents;
+            CustomerRegistry[] joined = registries;
+            if (joined != null) {
+                int[] ids = registryIds;
+                for (int regIdx = 0; regIdx < joined.length; regIdx++) {
+                    joined[regIdx].balanceChanged(ids[regIdx], deltaCents);
+                }
+            }
+            return newCents;
+        }
+    }
+
+    /**
+     * Runs an action with the customer's balance held still: no charge or credit is
+     * made, or told to the registries, until the action returns
+     *
+     * @param   action      given the customer's balance, in cents
+     */
+    void holdBalance(LongConsumer action) {
+        synchronized (balanceLock) {
+            action.accept(balanceCents);
+        }
+    }
+
+    /**
+     * Retrieves the registry of the location where this customer's balance is
+     * looked after: the first location at which the customer was registered
+     *
+     * @return      the customer's home registry, or null if no location has registered
+     *              the customer
+     */
+    CustomerRegistry getHomeRegistry() {
+        return homeRegistry;
+    }
+
+    /**
+     * Records that this customer has been filed in a registry, so the registry
+     * can be kept up to date when the customer's name, phone number or balance changes;
+     * the registry is told of every change to the balance made after whenJoined
+     * returns, and of none made before
+     *
+     * @param   registry        the registry holding this customer
+     * @param   customerId      the customer's id in that registry
+     * @param   whenJoined      given the balance, in cents, from which the registry
+     *                          is told of changes; run with the balance held still
+     */
+    void joinRegistry(CustomerRegistry registry, int customerId, LongConsumer whenJoined) {
+        synchronized (balanceLock) {
+            int joinedCount = (registries == null) ? 0 : registries.length;
+            int[] ids = (registries == null) ? new int[1] : Arrays.copyOf(registryIds, joinedCount + 1);
+            ids[joinedCount] = customerId;
+            registryIds = ids;
+            CustomerRegistry[] joined = (registries == null) ? new CustomerRegistry[1] 
+                                                             : Arrays.copyOf(registries, joinedCount + 1);
+            joined[joinedCount] = registry;
+            registries = joined;
+            if (homeRegistry == null && registry.getLocation() != null) {
+                homeRegistry = registry;
+            }
+            whenJoined.accept(balanceCents);
+        }
     }
 
 }
@@ -0,0 +1,77 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Stress tests for charging and crediting one customer from many threads at once.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class CustomerConcurrencyTest {
+
+    public static int THREAD_COUNT = 8;
+    public static int ROUNDS = 50000;
+
+    private Customer testCust;
+
+    /**
+     * Default constructor for test class CustomerConcurrencyTest
+     */
+    public CustomerConcurrencyTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testCust = new Customer("Dana Danzig", "915-555-1212");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      Stress Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testNoLostCharges() throws InterruptedException {
+        StressRunner.runTogether(THREAD_COUNT, new StressRunner.ThreadJob() {
+            public void run(int threadIdx) {
+                for (int round = 0; round < ROUNDS; round++) {
+                    testCust.charge(2.00);
+                }
+            }
+        });
+        assertEquals(THREAD_COUNT * ROUNDS * 2.00, testCust.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testNoLostChargesOrCredits() throws InterruptedException {
+        // even threads charge, odd threads credit half as much
+        StressRunner.runTogether(THREAD_COUNT, new StressRunner.ThreadJob() {
+            public void run(int threadIdx) {
+                for (int round = 0; round < ROUNDS; round++) {
+                    if (threadIdx % 2 == 0) {
+                        testCust.charge(2.00);
+                    } else {
+                        testCust.credit(1.00);
+                    }
+                }
+            }
+        });
+        assertEquals((THREAD_COUNT / 2) * ROUNDS * 1.00, testCust.getBalance(), 0.001);
+    }
+
+}
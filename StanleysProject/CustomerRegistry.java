@@ -0,0 +1,309 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the customers of a storage location, indexed for the front desk.
+ *
+ * Each customer receives a stable id (the order in which it was registered, starting
+ * at 0) and can be found in constant time by that id or by phone number, or by a
+ * prefix of its name.  Customers are held in fixed-size chunks, so the registry grows
+ * without ever copying the customers it already holds.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class CustomerRegistry {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of customers held in each chunk; a power of two */
+    private static final int CHUNK_SIZE  = 1024;
+    /** the shift converting a customer id into its chunk number */
+    private static final int CHUNK_SHIFT = 10;
+    /** separates the name and the id in a name key, sorting below any real character */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the location this registry belongs to, or null if it stands alone */
+    private StorageLocation location;
+    /** false if the registry only hands out ids, without indexing or joining its customers */
+    private final boolean indexed;
+    /** the registered customers, in chunks of CHUNK_SIZE, by id; volatile so that
+     *  getPublishedCustomer can read it without the lock */
+    private volatile Customer[][] chunks;
+    /** the number of customers registered */
+    private int customerCount;
+    /** the id of each registered customer */
+    private Map<Customer, Integer> idsByCustomer;
+    /** the registered customers by phone number */
+    private Map<String, Customer> customersByPhone;
+    /** the registered customers by name key (lower-case name, separator, id) */
+    private TreeMap<String, Customer> customersByName;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * CustomerRegistry Constructor; creates an empty registry
+     */
+    public CustomerRegistry() {
+        this(null, true);
+    }
+
+    /**
+     * CustomerRegistry Constructor; creates an empty registry belonging to a location,
+     * which is told about new customers and changes to them
+     *
+     * @param   location    the owning location, or null if the registry stands alone
+     */
+    CustomerRegistry(StorageLocation location) {
+        this(location, true);
+    }
+
+    /**
+     * CustomerRegistry Constructor; creates an empty registry
+     *
+     * @param   location    the owning location, or null if the registry stands alone
+     * @param   indexed     true to index customers by phone and name and keep them up
+     *                      to date as they change; false to only hand out ids
+     */
+    private CustomerRegistry(StorageLocation location, boolean indexed) {
+        this.location = location;
+        this.indexed  = indexed;
+        chunks = new Customer[1][];
+        customerCount = 0;
+        idsByCustomer = new IdentityHashMap<>();
+        customersByPhone = new HashMap<>();
+        customersByName = new TreeMap<>();
+    }
+
+    /**
+     * Creates the registry of a stand-alone unit, which only hands out ids to its
+     * renters.  Its customers aren't told of it, so a customer renting many short-lived
+     * units doesn't keep every one of them reachable; nor can it be searched by phone
+     * or name, and renters needn't have phone numbers distinct from earlier renters.
+     *
+     * @return      the new registry
+     */
+    static CustomerRegistry forStandAloneUnit() {
+        return new CustomerRegistry(null, false);
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the location this registry belongs to
+     *
+     * @return      the owning location, or null if the registry stands alone
+     */
+    StorageLocation getLocation() {
+        return location;
+    }
+
+    /**
+     * Counts the registered customers
+     *
+     * @return      the number of registered customers
+     */
+    public synchronized int getCustomerCount() {
+        return customerCount;
+    }
+
+    /**
+     * Retrieves a customer by id
+     *
+     * @param   customerId      the id assigned when the customer was registered
+     * @return                  the customer with that id, or null if there is none
+     */
+    public synchronized Customer getCustomer(int customerId) {
+        if (customerId < 0 || customerId >= customerCount) {
+            return null;
+        }
+        return chunks[customerId >>> CHUNK_SHIFT][customerId & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Retrieves a customer by an id the caller learned after the customer was
+     * registered, such as one read from a unit's published customer id, without
+     * taking the registry's lock; sweeps over many units use this so as not to
+     * queue behind registrations
+     *
+     * @param   customerId      an id already assigned by this registry
+     * @return                  the customer with that id
+     */
+    Customer getPublishedCustomer(int customerId) {
+        return chunks[customerId >>> CHUNK_SHIFT][customerId & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Retrieves the id of a registered customer
+     *
+     * @param   customer    the customer of interest
+     * @return              the customer's id, or -1 if the customer isn't registered here
+     */
+    public synchronized int getCustomerId(Customer customer) {
+        Integer customerId = idsByCustomer.get(customer);
+        return (customerId == null) ? -1 : customerId;
+    }
+
+    /**
+     * Retrieves a customer by phone number
+     *
+     * @param   phone       the phone number to look up
+     * @return              the customer with that phone number, or null if there is none
+     */
+    public synchronized Customer findByPhone(String phone) {
+        return customersByPhone.get(phone);
+    }
+
+    /**
+     * Finds the customers whose names start with the given text, ignoring case,
+     * in alphabetical order
+     *
+     * @param   prefix          the start of the name; must not be null
+     * @param   maxResults      the most customers to return; must not be negative
+     * @return                  an array of (at most maxResults) matching customers
+     */
+    public synchronized Customer[] findByNamePrefix(String prefix, int maxResults) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix must not be null");
+        }
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Result limit must not be negative");
+        }
+        String from = prefix.toLowerCase();
+        List<Customer> matches = new ArrayList<>();
+        for (Map.Entry<String, Customer> entry : customersByName.tailMap(from, true).entrySet()) {
+            if (matches.size() == maxResults || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            matches.add(entry.getValue());
+        }
+        return matches.toArray(new Customer[matches.size()]);
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Registers a customer, assigning it the next id; registering a customer
+     * a second time has no effect
+     *
+     * @param   customer    the customer to register; must not be null; must not share
+     *                      a phone number with another registered customer
+     * @return              the customer's id
+     */
+    public synchronized int addCustomer(Customer customer) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer reference must not be null");
+        }
+        Integer existingId = idsByCustomer.get(customer);
+        if (existingId != null) {
+            return existingId;
+        }
+        if (indexed) {
+            checkPhoneAvailable(customer, customer.getPhone());
+        }
+
+        int customerId = customerCount;
+        int chunkIdx = customerId >>> CHUNK_SHIFT;
+        if (chunkIdx == chunks.length) {
+            // only the chunk references are copied, never the customers themselves
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunkIdx] == null) {
+            chunks[chunkIdx] = new Customer[CHUNK_SIZE];
+        }
+        chunks[chunkIdx][customerId & (CHUNK_SIZE - 1)] = customer;
+        customerCount++;
+
+        idsByCustomer.put(customer, customerId);
+        if (!indexed) {
+            return customerId;
+        }
+        customersByPhone.put(customer.getPhone(), customer);
+        customersByName.put(nameKey(customer.getName(), customerId), customer);
+        customer.joinRegistry(this, customerId, balanceCents -> {
+            if (location != null) {
+                location.customerAdded(customerId, customer, balanceCents);
+            }
+        });
+        return customerId;
+    }
+
+    /**
+     * Verifies that no other registered customer already uses a phone number
+     *
+     * @param   customer    the customer who wants the number
+     * @param   phone       the phone number wanted
+     */
+    synchronized void checkPhoneAvailable(Customer customer, String phone) {
+        Customer holder = customersByPhone.get(phone);
+        if (holder != null && holder != customer) {
+            throw new IllegalArgumentException("Phone " + phone + " already belongs to another customer");
+        }
+    }
+
+    /**
+     * Re-indexes a registered customer whose name has changed
+     *
+     * @param   customer    the renamed customer
+     * @param   oldName     the customer's previous name
+     */
+    synchronized void nameChanged(Customer customer, String oldName) {
+        int customerId = idsByCustomer.get(customer);
+        customersByName.remove(nameKey(oldName, customerId));
+        customersByName.put(nameKey(customer.getName(), customerId), customer);
+        if (location != null) {
+            location.customerUpdated(customerId, customer);
+        }
+    }
+
+    /**
+     * Re-indexes a registered customer whose phone number has changed
+     *
+     * @param   customer    the customer with the new number
+     * @param   oldPhone    the customer's previous phone number
+     */
+    synchronized void phoneChanged(Customer customer, String oldPhone) {
+        customersByPhone.remove(oldPhone);
+        customersByPhone.put(customer.getPhone(), customer);
+        if (location != null) {
+            location.customerUpdated(idsByCustomer.get(customer), customer);
+        }
+    }
+
+    /**
+     * Passes on a change to a registered customer's balance to the owning location;
+     * takes no lock, as charges are made from many threads at once
+     *
+     * @param   customerId      the id of the customer charged or credited
+     * @param   deltaCents      the change to the customer's balance, in cents
+     */
+    void balanceChanged(int customerId, long deltaCents) {
+        if (location != null) {
+            location.customerBalanceChanged(customerId, deltaCents);
+        }
+    }
+
+    /**
+     * Builds the key under which a customer is filed by name
+     *
+     * @param   name            the customer's name
+     * @param   customerId      the customer's id, keeping same-named customers apart
+     * @return                  the name key
+     */
+    private static String nameKey(String name, int customerId) {
+        return name.toLowerCase() + KEY_SEPARATOR + customerId;
+    }
+
+}
@@ -0,0 +1,122 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class CustomerRegistryTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class CustomerRegistryTest {
+
+    private CustomerRegistry testRegistry;
+    private Customer pat;
+    private Customer patricia;
+    private Customer chris;
+
+    /**
+     * Default constructor for test class CustomerRegistryTest
+     */
+    public CustomerRegistryTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testRegistry = new CustomerRegistry();
+        pat      = new Customer("Pat Perkins",      "425-555-1314");
+        patricia = new Customer("Patricia Parker",  "425-555-2718");
+        chris    = new Customer("Chris Connoly",    "425-555-3141");
+        testRegistry.addCustomer(pat);
+        testRegistry.addCustomer(patricia);
+        testRegistry.addCustomer(chris);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testIdsAndLookups() {
+        assertEquals(3, testRegistry.getCustomerCount());
+        assertEquals(1, testRegistry.getCustomerId(patricia));
+        assertEquals(patricia, testRegistry.getCustomer(1));
+        assertEquals(chris,    testRegistry.findByPhone("425-555-3141"));
+        assertNull(testRegistry.findByPhone("206-555-1212"));
+        assertNull(testRegistry.getCustomer(3));
+        assertEquals(-1, testRegistry.getCustomerId(new Customer("Dana Danzig", "915-555-1212")));
+    }
+
+    @Test
+    public void testAddTwice() {
+        assertEquals(0, testRegistry.addCustomer(pat));
+        assertEquals(3, testRegistry.getCustomerCount());
+    }
+
+    @Test
+    public void testNamePrefix() {
+        Customer[] found = testRegistry.findByNamePrefix("pat", 10);
+        assertEquals(2, found.length);
+        assertEquals(pat,      found[0]);
+        assertEquals(patricia, found[1]);
+        assertEquals(1, testRegistry.findByNamePrefix("PAT", 1).length);
+        assertEquals(0, testRegistry.findByNamePrefix("Zed", 10).length);
+        assertEquals(3, testRegistry.findByNamePrefix("", 10).length);
+    }
+
+    @Test
+    public void testChangesReindexed() {
+        pat.setName("Kelly Perkins");
+        pat.setPhone("206-555-0000");
+        assertEquals(1,   testRegistry.findByNamePrefix("pat", 10).length);
+        assertEquals(pat, testRegistry.findByNamePrefix("kel", 10)[0]);
+        assertNull(testRegistry.findByPhone("425-555-1314"));
+        assertEquals(pat, testRegistry.findByPhone("206-555-0000"));
+    }
+
+    @Test
+    public void testGrowth() {
+        CustomerRegistry registry = new CustomerRegistry();
+        for (int custIdx = 0; custIdx < 5000; custIdx++) {
+            registry.addCustomer(new Customer("Customer " + custIdx, "555-" + custIdx));
+        }
+        assertEquals(5000, registry.getCustomerCount());
+        assertEquals("Customer 4321", registry.getCustomer(4321).getName());
+        assertEquals(4321, registry.getCustomerId(registry.findByPhone("555-4321")));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddNull() {
+        testRegistry.addCustomer(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddDuplicatePhone() {
+        testRegistry.addCustomer(new Customer("Dana Danzig", "425-555-1314"));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testSetDuplicatePhone() {
+        chris.setPhone("425-555-1314");
+    }
+
+}
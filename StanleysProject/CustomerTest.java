@@ -65,10 +65,36 @@ public class CustomerTest {
         assertEquals(64.11, testCust.getBalance(),      0.001);
     }
 
+    @Test
+    public void testChargeAndCreditCents() {
+        Customer testCust = new Customer("Dana Danzig", "915-555-1212");
+        assertEquals(12345, testCust.chargeCents(12345));
+        assertEquals(6410,  testCust.creditCents(5935));
+        assertEquals(64.10, testCust.getBalance(), 0.0);
+        // a dime charged a thousand times is exactly a hundred dollars
+        for (int chargeIdx = 0; chargeIdx < 1000; chargeIdx++) {
+            testCust.charge(0.10);
+        }
+        assertEquals(6410 + 10000, testCust.getBalanceCents());
+    }
+
     //--------------------------------------------------------------
     //      Precondition Tests
     //--------------------------------------------------------------
 
+    @Test (expected = IllegalArgumentException.class)
+    public void testChargeNegativeCents() {
+        Customer testCust = new Customer("Chris Campos", "999-999-9999");
+        testCust.chargeCents(-1);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testChargeTinyNegative() {
+        // rounds to zero cents, but is still a negative charge
+        Customer testCust = new Customer("Chris Campos", "999-999-9999");
+        testCust.charge(-0.004);
+    }
+
     @Test (expected = IllegalArgumentException.class)
     public void testConstrNameNull() {
         Customer testCust = new Customer(null, "999-999-9999");
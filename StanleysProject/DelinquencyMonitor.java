@@ -0,0 +1,550 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Watches the charges and credits made to the customers of a set of locations, ages
+ * what each customer owes, and locks the units of customers who fall too far behind.
+ *
+ * Each customer's charges are kept oldest first, and credits pay off the oldest
+ * charges first, so a customer is as far behind as their oldest unpaid charge is
+ * old.  Customers are indexed by the day of that charge, which only moves when
+ * they're charged or credited, so the customers 30, 60 or 90 days behind are found
+ * by reading the index up to a day rather than by looking at every customer.
+ *
+ * The monitor works a day at a time: charges and credits are dated the monitor's
+ * current day, and moving on to a later day locks the units of the customers whose
+ * oldest unpaid charge has just reached the lock-out age.  A customer whose units
+ * are locked can't rent any more at those locations, and their units are unlocked
+ * as soon as a credit leaves them less far behind than that.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class DelinquencyMonitor implements LocationListener {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the account of each customer of each location, by customer id (null if none) */
+    private Map<StorageLocation, List<Account>> accountsByLocation;
+    /** the account of each customer watched */
+    private Map<Customer, Account> accounts;
+    /** the accounts owing anything, by the epoch day of their oldest unpaid charge */
+    private TreeMap<Long, Set<Account>> accountsByOldestDay;
+    /** the unpaid part of all the charges made each day, in cents; by epoch day */
+    private TreeMap<Long, long[]> unpaidCentsByDay;
+    /** the epoch day charges and credits are dated */
+    private long today;
+    /** the age in days at which a customer's oldest unpaid charge gets their units locked */
+    private int lockDays;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * DelinquencyMonitor Constructor; creates a monitor with no locations
+     *
+     * @param   firstDay        the day the monitor starts on; must not be null
+     * @param   lockAfterDays   the number of days a charge may go unpaid before the
+     *                          customer's units are locked; must be positive
+     */
+    public DelinquencyMonitor(LocalDate firstDay, int lockAfterDays) {
+        if (firstDay == null) {
+            throw new IllegalArgumentException("The first day must not be null");
+        }
+        if (lockAfterDays <= 0) {
+            throw new IllegalArgumentException("The lock-out age must be positive");
+        }
+        accountsByLocation = new IdentityHashMap<>();
+        accounts = new IdentityHashMap<>();
+        accountsByOldestDay = new TreeMap<>();
+        unpaidCentsByDay = new TreeMap<>();
+        today = firstDay.toEpochDay();
+        lockDays = lockAfterDays;
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the monitor's current day
+     *
+     * @return      the day new charges and credits are dated
+     */
+    public synchronized LocalDate getCurrentDate() {
+        return LocalDate.ofEpochDay(today);
+    }
+
+    /**
+     * Finds the customers whose oldest unpaid charge is at least a given age
+     *
+     * @param   minDaysOverdue  the least age of interest, in days; must not be negative;
+     *                          0 finds every customer owing anything
+     * @return                  the customers, those furthest behind first
+     */
+    public synchronized List<Customer> getDelinquentCustomers(int minDaysOverdue) {
+        if (minDaysOverdue < 0) {
+            throw new IllegalArgumentException("The age must not be negative");
+        }
+        List<Customer> delinquents = new ArrayList<>();
+        for (Set<Account> bucket : accountsByOldestDay.headMap(today - minDaysOverdue, true).values()) {
+            for (Account account : bucket) {
+                delinquents.add(account.customer);
+            }
+        }
+        return delinquents;
+    }
+
+    /**
+     * Works out how far behind a customer is
+     *
+     * @param   customer    the customer of interest; must not be null
+     * @return              the age of the customer's oldest unpaid charge, in days;
+     *                      0 if the customer owes nothing
+     */
+    public synchronized int getDaysOverdue(Customer customer) {
+        Account account = accountOf(customer);
+        if (account == null || account.isPaidUp()) {
+            return 0;
+        }
+        return (int) (today - account.oldestDay());
+    }
+
+    /**
+     * Adds up what a customer owes from charges at least a given age
+     *
+     * @param   customer        the customer of interest; must not be null
+     * @param   minDaysOverdue  the least age of the charges to count, in days; must not
+     *                          be negative; 0 counts everything the customer owes
+     * @return                  the unpaid part of those charges, in cents
+     */
+    public synchronized long getOverdueCents(Customer customer, int minDaysOverdue) {
+        if (minDaysOverdue < 0) {
+            throw new IllegalArgumentException("The age must not be negative");
+        }
+        Account account = accountOf(customer);
+        long overdueCents = 0;
+        if (account != null) {
+            for (int lotIdx = account.firstLot; lotIdx < account.lotEnd
+                                                && account.lotDays[lotIdx] <= today - minDaysOverdue; lotIdx++) {
+                overdueCents = Money.add(overdueCents, account.lotCents[lotIdx]);
+            }
+        }
+        return overdueCents;
+    }
+
+    /**
+     * Adds up what every customer owes from charges at least a given age; the
+     * differences between 30, 60 and 90 days give the usual aging report
+     *
+     * @param   minDaysOverdue  the least age of the charges to count, in days; must not
+     *                          be negative; 0 counts everything owed
+     * @return                  the unpaid part of those charges, in cents
+     */
+    public synchronized long getOverdueCents(int minDaysOverdue) {
+        if (minDaysOverdue < 0) {
+            throw new IllegalArgumentException("The age must not be negative");
+        }
+        long overdueCents = 0;
+        for (long[] unpaid : unpaidCentsByDay.headMap(today - minDaysOverdue, true).values()) {
+            overdueCents = Money.add(overdueCents, unpaid[0]);
+        }
+        return overdueCents;
+    }
+
+    /**
+     * Finds whether a customer's units have been locked
+     *
+     * @param   customer    the customer of interest; must not be null
+     * @return              true, if the customer's units are locked; false otherwise
+     */
+    public synchronized boolean isLocked(Customer customer) {
+        Account account = accountOf(customer);
+        return account != null && account.locked;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Starts watching a location's customers.  A customer's balance when the location
+     * is added is taken to be charged (or credited) on the monitor's current day.
+     * The location's customers may be charged and credited while this runs.
+     *
+     * @param   location    the location to watch; must not be null; must not already be watched
+     */
+    public void addLocation(StorageLocation location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        synchronized (this) {
+            if (accountsByLocation.containsKey(location)) {
+                throw new IllegalArgumentException("The location is already being watched");
+            }
+            accountsByLocation.put(location, new ArrayList<Account>());
+        }
+        // not holding this monitor's lock, which the location's locks come before;
+        // the location introduces its customers through customerAdded
+        location.addListenerWithCustomers(this);
+    }
+
+    /**
+     * Moves the monitor on to a later day, locking the units of every customer whose
+     * oldest unpaid charge reaches the lock-out age on the way
+     *
+     * @param   day     the new current day; must not be null; must not be before the current day
+     * @return          the customers whose units were locked, those furthest behind first
+     */
+    public synchronized List<Customer> advanceTo(LocalDate day) {
+        if (day == null) {
+            throw new IllegalArgumentException("The day must not be null");
+        }
+        long newDay = day.toEpochDay();
+        if (newDay < today) {
+            throw new IllegalArgumentException("The monitor can't go back to an earlier day");
+        }
+        // the customers behind since before the old lock-out day are already locked
+        List<Customer> newlyLocked = new ArrayList<>();
+        for (Set<Account> bucket : accountsByOldestDay.subMap(today - lockDays, false,
+                                                              newDay - lockDays, true).values()) {
+            for (Account account : bucket) {
+                if (!account.locked) {
+                    setLocked(account, true);
+                    newlyLocked.add(account.customer);
+                }
+            }
+        }
+        today = newDay;
+        return newlyLocked;
+    }
+
+    @Override
+    public synchronized void customerAdded(StorageLocation location, int customerId, Customer customer,
+                                           long balanceCents) {
+        if (accountsByLocation.containsKey(location)) {
+            fileCustomer(location, customerId, customer, balanceCents);
+        }
+    }
+
+    @Override
+    public synchronized void customerCharged(StorageLocation location, int customerId, long cents) {
+        Account account = reportedAccount(location, customerId);
+        if (account != null) {
+            charge(account, cents);
+        }
+    }
+
+    @Override
+    public synchronized void customerCredited(StorageLocation location, int customerId, long cents) {
+        Account account = reportedAccount(location, customerId);
+        if (account != null) {
+            credit(account, cents);
+        }
+    }
+
+    /**
+     * Notes one of a location's customers, opening an account for them from their
+     * balance if they aren't already watched at another location
+     *
+     * @param   location        the location
+     * @param   customerId      the customer's id at the location
+     * @param   customer        the customer
+     * @param   balanceCents    the customer's balance, from which the location reports
+     *                          its charges and credits
+     */
+    private void fileCustomer(StorageLocation location, int customerId, Customer customer,
+                              long balanceCents) {
+        List<Account> byId = accountsByLocation.get(location);
+        while (byId.size() <= customerId) {
+            byId.add(null);
+        }
+        if (byId.get(customerId) != null) {
+            return;
+        }
+        Account account = accounts.get(customer);
+        if (account == null) {
+            account = new Account(customer, location);
+            accounts.put(customer, account);
+            if (balanceCents > 0) {
+                charge(account, balanceCents);
+            } else {
+                account.creditCents = -balanceCents;
+            }
+        }
+        account.fileAt(location, customerId);
+        byId.set(customerId, account);
+        if (account.locked) {
+            location.setCustomerLocked(customerId, true);
+        }
+    }
+
+    /**
+     * Finds the account a balance change reported by a location applies to.  A customer
+     * of several locations has each change reported by each of them, so only the reports
+     * from the location the customer was first watched at are counted.
+     *
+     * @param   location        the reporting location
+     * @param   customerId      the customer's id at the location
+     * @return                  the customer's account, or null if the report isn't counted
+     */
+    private Account reportedAccount(StorageLocation location, int customerId) {
+        List<Account> byId = accountsByLocation.get(location);
+        if (byId == null || customerId < 0 || customerId >= byId.size()) {
+            return null;
+        }
+        Account account = byId.get(customerId);
+        return (account == null || account.reportingLocation != location) ? null : account;
+    }
+
+    /**
+     * Finds a customer's account
+     *
+     * @param   customer    the customer; must not be null
+     * @return              the customer's account, or null if the customer isn't watched
+     */
+    private Account accountOf(Customer customer) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer reference must not be null");
+        }
+        return accounts.get(customer);
+    }
+
+    /**
+     * Adds a charge dated today to an account, using up any credit first
+     *
+     * @param   account     the account charged
+     * @param   cents       the amount charged, in cents
+     */
+    private void charge(Account account, long cents) {
+        long fromCredit = Math.min(account.creditCents, cents);
+        account.creditCents -= fromCredit;
+        cents -= fromCredit;
+        if (cents == 0) {
+            return;
+        }
+        boolean wasPaidUp = account.isPaidUp();
+        account.addLot(today, cents);
+        addUnpaid(today, cents);
+        if (wasPaidUp) {
+            index(account, today);
+        }
+    }
+
+    /**
+     * Pays off an account's charges with a credit, oldest first, keeping any left
+     * over for later charges; unlocks the customer's units once they're no longer
+     * too far behind
+     *
+     * @param   account     the account credited
+     * @param   cents       the amount credited, in cents
+     */
+    private void credit(Account account, long cents) {
+        if (account.isPaidUp()) {
+            account.creditCents = Money.add(account.creditCents, cents);
+            return;
+        }
+        long oldDay = account.oldestDay();
+        while (cents > 0 && !account.isPaidUp()) {
+            int lotIdx = account.firstLot;
+            long paid = Math.min(cents, account.lotCents[lotIdx]);
+            account.lotCents[lotIdx] -= paid;
+            addUnpaid(account.lotDays[lotIdx], -paid);
+            cents -= paid;
+            if (account.lotCents[lotIdx] == 0) {
+                account.firstLot++;
+            }
+        }
+        account.creditCents = Money.add(account.creditCents, cents);
+        if (account.isPaidUp() || account.oldestDay() != oldDay) {
+            unindex(account, oldDay);
+            if (!account.isPaidUp()) {
+                index(account, account.oldestDay());
+            }
+        }
+        if (account.locked && (account.isPaidUp() || account.oldestDay() > today - lockDays)) {
+            setLocked(account, false);
+        }
+    }
+
+    /**
+     * Files an account in the aging index
+     *
+     * @param   account     the account
+     * @param   oldestDay   the epoch day of its oldest unpaid charge
+     */
+    private void index(Account account, long oldestDay) {
+        Set<Account> bucket = accountsByOldestDay.get(oldestDay);
+        if (bucket == null) {
+            bucket = new LinkedHashSet<>();
+            accountsByOldestDay.put(oldestDay, bucket);
+        }
+        bucket.add(account);
+    }
+
+    /**
+     * Takes an account out of the aging index
+     *
+     * @param   account     the account
+     * @param   oldestDay   the epoch day under which it was filed
+     */
+    private void unindex(Account account, long oldestDay) {
+        Set<Account> bucket = accountsByOldestDay.get(oldestDay);
+        bucket.remove(account);
+        if (bucket.isEmpty()) {
+            accountsByOldestDay.remove(oldestDay);
+        }
+    }
+
+    /**
+     * Changes the unpaid total of one day's charges
+     *
+     * @param   day             the epoch day of the charges
+     * @param   deltaCents      the change to their unpaid total, in cents
+     */
+    private void addUnpaid(long day, long deltaCents) {
+        long[] unpaid = unpaidCentsByDay.get(day);
+        if (unpaid == null) {
+            unpaid = new long[1];
+            unpaidCentsByDay.put(day, unpaid);
+        }
+        unpaid[0] = Money.add(unpaid[0], deltaCents);
+        if (unpaid[0] == 0) {
+            unpaidCentsByDay.remove(day);
+        }
+    }
+
+    /**
+     * Locks or unlocks a customer's units at every location the customer is watched at
+     *
+     * @param   account     the customer's account
+     * @param   locked      true to lock the units, false to unlock them
+     */
+    private void setLocked(Account account, boolean locked) {
+        account.locked = locked;
+        for (int filedIdx = 0; filedIdx < account.filedCount; filedIdx++) {
+            account.filedAt[filedIdx].setCustomerLocked(account.filedIds[filedIdx], locked);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCOUNTS
+    //---------------------------------------------------------------------
+    /**
+     * What one customer owes, as charges by day, oldest first
+     */
+    private static class Account {
+        /** the customer */
+        final Customer customer;
+        /** the location whose reports of the customer's charges and credits are counted */
+        final StorageLocation reportingLocation;
+        /** the watched locations the customer is filed at */
+        StorageLocation[] filedAt;
+        /** the customer's id at each of filedAt */
+        int[] filedIds;
+        /** the number of locations in filedAt */
+        int filedCount;
+        /** the epoch day of each charge, oldest first; one charge per day */
+        long[] lotDays;
+        /** the unpaid part of each charge, in cents */
+        long[] lotCents;
+        /** the index of the oldest charge not yet paid off */
+        int firstLot;
+        /** the index just past the newest charge */
+        int lotEnd;
+        /** the credit not yet used up by charges, in cents */
+        long creditCents;
+        /** whether the customer's units are locked */
+        boolean locked;
+
+        /**
+         * Account Constructor; the customer owes nothing
+         *
+         * @param   customer            the customer
+         * @param   reportingLocation   the location whose reports are counted
+         */
+        Account(Customer customer, StorageLocation reportingLocation) {
+            this.customer = customer;
+            this.reportingLocation = reportingLocation;
+            this.filedAt = new StorageLocation[1];
+            this.filedIds = new int[1];
+            this.filedCount = 0;
+            this.lotDays = new long[2];
+            this.lotCents = new long[2];
+            this.firstLot = 0;
+            this.lotEnd = 0;
+            this.creditCents = 0;
+            this.locked = false;
+        }
+
+        /**
+         * Finds whether the customer owes nothing
+         *
+         * @return      true, if every charge has been paid off
+         */
+        boolean isPaidUp() {
+            return firstLot == lotEnd;
+        }
+
+        /**
+         * Finds the day of the oldest unpaid charge; the customer must owe something
+         *
+         * @return      the charge's epoch day
+         */
+        long oldestDay() {
+            return lotDays[firstLot];
+        }
+
+        /**
+         * Adds a charge, after all the others
+         *
+         * @param   day         the epoch day of the charge; not before any other
+         * @param   cents       the amount charged, in cents
+         */
+        void addLot(long day, long cents) {
+            if (lotEnd > firstLot && lotDays[lotEnd - 1] == day) {
+                lotCents[lotEnd - 1] = Money.add(lotCents[lotEnd - 1], cents);
+                return;
+            }
+            if (lotEnd == lotDays.length) {
+                // drop the paid-off charges before making room for more
+                int lotCount = lotEnd - firstLot;
+                int capacity = (lotCount * 2 > lotDays.length) ? lotDays.length * 2 : lotDays.length;
+                long[] keptDays = new long[capacity];
+                long[] keptCents = new long[capacity];
+                System.arraycopy(lotDays, firstLot, keptDays, 0, lotCount);
+                System.arraycopy(lotCents, firstLot, keptCents, 0, lotCount);
+                lotDays = keptDays;
+                lotCents = keptCents;
+                firstLot = 0;
+                lotEnd = lotCount;
+            }
+            lotDays[lotEnd] = day;
+            lotCents[lotEnd] = cents;
+            lotEnd++;
+        }
+
+        /**
+         * Notes a watched location the customer is filed at
+         *
+         * @param   location        the location
+         * @param   customerId      the customer's id there
+         */
+        void fileAt(StorageLocation location, int customerId) {
+            if (filedCount == filedAt.length) {
+                filedAt = Arrays.copyOf(filedAt, filedCount * 2);
+                filedIds = Arrays.copyOf(filedIds, filedCount * 2);
+            }
+            filedAt[filedCount] = location;
+            filedIds[filedCount] = customerId;
+            filedCount++;
+        }
+    }
+
+}
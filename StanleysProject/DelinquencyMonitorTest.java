@@ -0,0 +1,372 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The test class DelinquencyMonitorTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class DelinquencyMonitorTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    private StorageLocation testLoc;
+    private DelinquencyMonitor testMonitor;
+    private Customer pat;
+    private Customer chris;
+    private StorageUnit patUnit;
+
+    /**
+     * Default constructor for test class DelinquencyMonitorTest
+     */
+    public DelinquencyMonitorTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoc = new StorageLocation("WA12Kirkland");
+        testMonitor = new DelinquencyMonitor(FIRST_DAY, 60);
+        testMonitor.addLocation(testLoc);
+        pat   = new Customer("Pat Perkins",   "425-555-1314");
+        chris = new Customer("Chris Connoly", "425-555-3141");
+        patUnit = testLoc.getStorageUnit(0, 0);
+        patUnit.rentForCents(pat, FIRST_DAY, 10000);
+        testLoc.getStorageUnit(0, 1).rentForCents(chris, FIRST_DAY, 5000);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testAgingAndLock() {
+        pat.chargeCents(10000);
+        assertEquals(0, testMonitor.advanceTo(day(30)).size());
+        assertEquals(30, testMonitor.getDaysOverdue(pat));
+        assertEquals(Arrays.asList(pat), testMonitor.getDelinquentCustomers(30));
+        assertEquals(0, testMonitor.getDelinquentCustomers(31).size());
+        assertFalse(patUnit.isLocked());
+
+        assertEquals(0, testMonitor.advanceTo(day(59)).size());
+        assertEquals(Arrays.asList(pat), testMonitor.advanceTo(day(60)));
+        assertTrue(testMonitor.isLocked(pat));
+        assertTrue(patUnit.isLocked());
+        assertTrue(testLoc.isCustomerLocked(pat));
+        assertFalse(testLoc.isCustomerLocked(chris));
+        assertFalse(testLoc.getStorageUnit(0, 1).isLocked());
+        // already locked, so not locked again
+        assertEquals(0, testMonitor.advanceTo(day(90)).size());
+    }
+
+    @Test
+    public void testCreditsPayOldestFirst() {
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(30));
+        pat.chargeCents(5000);
+        testMonitor.advanceTo(day(45));
+        pat.creditCents(12000);
+        assertEquals(15, testMonitor.getDaysOverdue(pat));
+        assertEquals(3000, testMonitor.getOverdueCents(pat, 0));
+        assertEquals(0, testMonitor.getOverdueCents(pat, 16));
+        pat.creditCents(3000);
+        assertEquals(0, testMonitor.getDaysOverdue(pat));
+        assertEquals(0, testMonitor.getDelinquentCustomers(0).size());
+    }
+
+    @Test
+    public void testCreditUnlocks() {
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(30));
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(60));
+        assertTrue(patUnit.isLocked());
+
+        // the oldest unpaid charge is now only 30 days old
+        pat.creditCents(10000);
+        assertFalse(testMonitor.isLocked(pat));
+        assertFalse(patUnit.isLocked());
+        assertEquals(Arrays.asList(pat), testMonitor.advanceTo(day(90)));
+        assertTrue(patUnit.isLocked());
+    }
+
+    @Test
+    public void testPartialCreditStaysLocked() {
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(60));
+        pat.creditCents(9999);
+        assertTrue(patUnit.isLocked());
+        assertEquals(1, testMonitor.getOverdueCents(pat, 60));
+        pat.creditCents(1);
+        assertFalse(patUnit.isLocked());
+    }
+
+    @Test
+    public void testCreditCarriedForward() {
+        pat.creditCents(8000);
+        pat.chargeCents(10000);
+        assertEquals(2000, testMonitor.getOverdueCents(pat, 0));
+        chris.creditCents(5000);
+        chris.chargeCents(5000);
+        assertEquals(Arrays.asList(pat), testMonitor.getDelinquentCustomers(0));
+    }
+
+    @Test
+    public void testAgingReport() {
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(40));
+        chris.chargeCents(5000);
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(95));
+        assertEquals(25000, testMonitor.getOverdueCents(0));
+        assertEquals(15000, testMonitor.getOverdueCents(30) - testMonitor.getOverdueCents(90));
+        assertEquals(10000, testMonitor.getOverdueCents(90));
+        assertEquals(Arrays.asList(pat, chris), testMonitor.getDelinquentCustomers(30));
+    }
+
+    @Test
+    public void testRentingAgainOnceUnlocked() {
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(60));
+        StorageUnit secondUnit = testLoc.getStorageUnit(0, 2);
+        try {
+            secondUnit.rentForCents(pat, day(60), 10000);
+            fail("a locked customer rented a unit");
+        } catch (IllegalArgumentException e) {
+            assertNull(secondUnit.getCustomer());
+        }
+        // the lock only keeps pat from renting more; others still can
+        assertTrue(testLoc.getStorageUnit(0, 3).rentForCents(chris, day(60), 5000));
+
+        pat.creditCents(10000);
+        assertTrue(secondUnit.rentForCents(pat, day(60), 10000));
+        assertFalse(secondUnit.isLocked());
+    }
+
+    @Test
+    public void testExistingBalances() {
+        StorageLocation loc = new StorageLocation("OR03Salem");
+        Customer sam = new Customer("Sam Samuels", "503-555-2718");
+        loc.getStorageUnit(0, 0).rentForCents(sam, FIRST_DAY, 10000);
+        sam.chargeCents(10000);
+        testMonitor.advanceTo(day(10));
+        testMonitor.addLocation(loc);
+        // a balance from before the location was watched is dated the day it was added
+        assertEquals(0, testMonitor.getDaysOverdue(sam));
+        assertEquals(10000, testMonitor.getOverdueCents(sam, 0));
+        assertEquals(Arrays.asList(sam), testMonitor.advanceTo(day(70)));
+        assertTrue(loc.getStorageUnit(0, 0).isLocked());
+    }
+
+    @Test
+    public void testCustomerAtSeveralLocations() {
+        StorageLocation loc = new StorageLocation("OR03Salem");
+        testMonitor.addLocation(loc);
+        StorageUnit salemUnit = loc.getStorageUnit(0, 0);
+        salemUnit.rentForCents(pat, FIRST_DAY, 6000);
+        // each location reports the charge, but it is only counted once
+        pat.chargeCents(16000);
+        assertEquals(16000, testMonitor.getOverdueCents(pat, 0));
+        assertEquals(16000, testMonitor.getOverdueCents(0));
+
+        testMonitor.advanceTo(day(60));
+        assertTrue(patUnit.isLocked());
+        assertTrue(salemUnit.isLocked());
+        pat.creditCents(16000);
+        assertFalse(patUnit.isLocked());
+        assertFalse(salemUnit.isLocked());
+    }
+
+    @Test
+    public void testMatchesReplay() {
+        // random charges and credits, checked against working out each customer's
+        // oldest unpaid charge from the whole list of changes
+        Random random = new Random(20);
+        Customer[] custs = new Customer[20];
+        List<List<long[]>> changes = new ArrayList<>();
+        for (int custIdx = 0; custIdx < custs.length; custIdx++) {
+            custs[custIdx] = new Customer("Customer " + custIdx, "555-01" + custIdx);
+            testLoc.addCustomer(custs[custIdx]);
+            changes.add(new ArrayList<long[]>());
+        }
+        for (int dayNo = 0; dayNo < 200; dayNo += 1 + random.nextInt(5)) {
+            testMonitor.advanceTo(day(dayNo));
+            for (int change = 0; change < 5; change++) {
+                int custIdx = random.nextInt(custs.length);
+                long cents = 100 * (1 + random.nextInt(50));
+                if (random.nextBoolean()) {
+                    custs[custIdx].chargeCents(cents);
+                } else {
+                    custs[custIdx].creditCents(cents);
+                    cents = -cents;
+                }
+                changes.get(custIdx).add(new long[] { dayNo, cents });
+            }
+            for (int custIdx = 0; custIdx < custs.length; custIdx++) {
+                long oldestDay = replayOldestDay(changes.get(custIdx));
+                int expected = (oldestDay < 0) ? 0 : (int) (dayNo - oldestDay);
+                assertEquals(expected, testMonitor.getDaysOverdue(custs[custIdx]));
+                assertEquals(expected >= 60, testMonitor.isLocked(custs[custIdx]));
+            }
+        }
+    }
+
+    @Test
+    public void testChargedWhileWatchStarts() throws Exception {
+        // each charge must count once, whether made before or after the location is watched
+        StorageLocation loc = new StorageLocation("WA14Redmond");
+        Customer[] custs = new Customer[100];
+        for (int custIdx = 0; custIdx < custs.length; custIdx++) {
+            custs[custIdx] = new Customer("Renter " + custIdx, String.format("425-555-%04d", custIdx));
+            loc.addCustomer(custs[custIdx]);
+        }
+        AtomicBoolean billing = new AtomicBoolean(true);
+        Thread[] chargers = new Thread[4];
+        for (int threadIdx = 0; threadIdx < chargers.length; threadIdx++) {
+            int firstIdx = threadIdx;
+            chargers[threadIdx] = new Thread(() -> {
+                for (int custIdx = firstIdx; billing.get(); custIdx = (custIdx + 7) % custs.length) {
+                    custs[custIdx].chargeCents(1);
+                }
+            });
+            chargers[threadIdx].start();
+        }
+        DelinquencyMonitor monitor = new DelinquencyMonitor(FIRST_DAY, 60);
+        monitor.addLocation(loc);
+        billing.set(false);
+        for (Thread charger : chargers) {
+            charger.join();
+        }
+
+        long totalCents = 0;
+        for (Customer cust : custs) {
+            assertEquals(cust.getBalanceCents(), monitor.getOverdueCents(cust, 0));
+            totalCents += cust.getBalanceCents();
+        }
+        assertEquals(totalCents, monitor.getOverdueCents(0));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAdvanceBackwards() {
+        testMonitor.advanceTo(day(10));
+        testMonitor.advanceTo(day(9));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAdvanceNull() {
+        testMonitor.advanceTo(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNegativeAge() {
+        testMonitor.getDelinquentCustomers(-1);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddLocationTwice() {
+        testMonitor.addLocation(testLoc);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testLockedRentUnits() {
+        lockPat();
+        testLoc.rentUnits(new StorageUnit[] { testLoc.getStorageUnit(0, 2) }, pat, day(60));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testLockedRentUnitsForCents() {
+        lockPat();
+        testLoc.rentUnits(new StorageUnit[] { testLoc.getStorageUnit(0, 2) }, pat, day(60), 10000);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testLockedRentUnitsOfType() {
+        lockPat();
+        testLoc.rentUnitsOfType(patUnit.getType(), 1, pat, day(60), 10000);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testConstrFirstDayNull() {
+        new DelinquencyMonitor(null, 60);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testConstrLockDaysZero() {
+        new DelinquencyMonitor(FIRST_DAY, 0);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Leaves pat 60 days behind on their rent, so their units are locked
+     */
+    private void lockPat() {
+        pat.chargeCents(10000);
+        testMonitor.advanceTo(day(60));
+        assertTrue(testLoc.isCustomerLocked(pat));
+    }
+
+    /**
+     * Works out a day of the test
+     *
+     * @param   dayNo   the number of days after the first day
+     * @return          the day
+     */
+    private static LocalDate day(int dayNo) {
+        return FIRST_DAY.plusDays(dayNo);
+    }
+
+    /**
+     * Works out a customer's oldest unpaid charge by paying off the charges in
+     * order with everything credited, however late it was credited
+     *
+     * @param   changes     the customer's changes, as day number then cents (negative for credits)
+     * @return              the day number of the oldest charge not fully paid, or -1 if none
+     */
+    private static long replayOldestDay(List<long[]> changes) {
+        long credited = 0;
+        for (long[] change : changes) {
+            if (change[1] < 0) {
+                credited -= change[1];
+            }
+        }
+        for (long[] change : changes) {
+            if (change[1] > 0) {
+                if (credited < change[1]) {
+                    return change[0];
+                }
+                credited -= change[1];
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,647 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a whole storage location (its layout, pricing, customers, rentals and rental
+ * history) to a compact binary form, and reads it back.
+ *
+ * Numbers are written as variable-length integers (seven bits a byte), so most take
+ * one to three bytes.  Unit dimensions are written in their 4- and 2-foot steps, and
+ * the layout as runs of identical units; unit types are written once, by name, and
+ * then referred to by their place in that list, so reordering UnitType doesn't
+ * break old files.  Customers are referred to by id, rented units by the gap from
+ * the last rented unit, and dates by the difference from the last date written.
+ *
+ * A file starts with a magic number and a format version, and ends with a CRC-32
+ * of everything before it, so a file from a later version, a truncated file or a
+ * damaged one is refused rather than half-loaded.  Both directions stream through a
+ * fixed-size buffer, so any channel will do: a file, a socket or a pipe.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class FacilityCodec {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the size of the buffer through which a location is written or read */
+    public static final int BUFFER_BYTES = 64 * 1024;
+    /** the most units a location may have to be written; a damaged count read back
+        can't ask for more memory than a location this size needs */
+    public static final int MAX_UNIT_COUNT = 1 << 22;
+
+    /** identifies a facility file */
+    private static final int MAGIC = 0x53534643;
+    /** the version of the format written */
+    private static final int FORMAT_VERSION = 1;
+    /** the most bytes a variable-length long can take */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * FacilityCodec Constructor; not used, as every method is static
+     */
+    private FacilityCodec() {
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Writes a location to a file, replacing anything already there
+     *
+     * @param   location    the location to write; must not be null; must not have more
+     *                      than MAX_UNIT_COUNT units
+     * @param   path        the file to write; must not be null
+     * @throws  IOException if the file can't be written
+     */
+    public static void write(StorageLocation location, Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(location, channel);
+        }
+    }
+
+    /**
+     * Writes a location to a channel.  The location is copied under its lock and then
+     * written, so it isn't held up while the channel is slow; the channel is left open.
+     *
+     * @param   location    the location to write; must not be null; must not have more
+     *                      than MAX_UNIT_COUNT units
+     * @param   channel     the channel to write to; must not be null
+     * @throws  IOException if the channel can't be written
+     */
+    public static void write(StorageLocation location, WritableByteChannel channel) throws IOException {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel must not be null");
+        }
+        FacilityLayout layout = location.getLayout();
+        int unitCount = layout.getUnitCount();
+        if (unitCount > MAX_UNIT_COUNT) {
+            throw new IllegalArgumentException("A location of more than " + MAX_UNIT_COUNT + " units can't be written");
+        }
+        LocationState state = new LocationState(location, true);
+        Customer[] customers  = state.customers;
+        int[] unitCustomerIds = state.unitCustomerIds;
+        long[] unitStartDays  = state.unitStartDays;
+        long[] unitPriceCents = state.unitPriceCents;
+        long[][] histories    = state.histories;
+
+        Encoder out = new Encoder(channel);
+        out.putInt(MAGIC);
+        out.putVarLong(FORMAT_VERSION);
+        out.putString(location.getDesignation());
+        out.putVarLong(state.basePriceCents);
+        out.putVarLong(state.discountBasisPoints);
+        writeLayout(out, layout);
+
+        out.putVarLong(customers.length);
+        for (Customer customer : customers) {
+            out.putString(customer.getName());
+            out.putString(customer.getPhone());
+            out.putSignedVarLong(customer.getBalanceCents());
+        }
+
+        out.putVarLong(state.getRentedCount());
+        int lastIdx = -1;
+        long lastDay = 0;
+        for (int locationIdx = 0; locationIdx < unitCount; locationIdx++) {
+            if (unitCustomerIds[locationIdx] >= 0) {
+                out.putVarLong(locationIdx - lastIdx - 1);
+                out.putVarLong(unitCustomerIds[locationIdx]);
+                out.putSignedVarLong(unitStartDays[locationIdx] - lastDay);
+                out.putVarLong(unitPriceCents[locationIdx]);
+                lastIdx = locationIdx;
+                lastDay = unitStartDays[locationIdx];
+            }
+        }
+
+        int historyCount = 0;
+        for (long[] records : histories) {
+            if (records != null) {
+                historyCount++;
+            }
+        }
+        out.putVarLong(historyCount);
+        lastIdx = -1;
+        for (int locationIdx = 0; locationIdx < unitCount; locationIdx++) {
+            long[] records = histories[locationIdx];
+            if (records != null) {
+                out.putVarLong(locationIdx - lastIdx - 1);
+                out.putVarLong(records.length / 4);
+                for (int dataIdx = 0; dataIdx < records.length; dataIdx += 4) {
+                    out.putVarLong(records[dataIdx]);
+                    out.putSignedVarLong(records[dataIdx + 1] - lastDay);
+                    out.putVarLong(records[dataIdx + 2] - records[dataIdx + 1]);
+                    out.putVarLong(records[dataIdx + 3]);
+                    lastDay = records[dataIdx + 1];
+                }
+                lastIdx = locationIdx;
+            }
+        }
+        out.finish();
+    }
+
+    /**
+     * Reads a location from a file
+     *
+     * @param   path        the file written by write; must not be null
+     * @return              the location, without listeners
+     * @throws  IOException if the file can't be read, or isn't a whole facility file
+     *                      of a version this class reads
+     */
+    public static StorageLocation read(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Reads a location from a channel, leaving the channel open
+     *
+     * @param   channel     the channel to read from; must not be null
+     * @return              the location, without listeners
+     * @throws  IOException if the channel can't be read, or doesn't hold a whole
+     *                      facility file of a version this class reads
+     */
+    public static StorageLocation read(ReadableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel must not be null");
+        }
+        Decoder in = new Decoder(channel);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a facility file");
+        }
+        long version = in.getVarLong();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported facility file version " + version);
+        }
+        try {
+            String designation = in.getString();
+            long basePriceCents = in.getVarLong();
+            long discountBasisPoints = in.getVarLong();
+            StorageLocation location = new StorageLocation(designation, readLayout(in));
+            location.pricing.setBasePriceCents(basePriceCents);
+            location.pricing.setDiscountBasisPoints(discountBasisPoints);
+
+            int customerCount = in.getCount();
+            for (int customerId = 0; customerId < customerCount; customerId++) {
+                Customer customer = new Customer(in.getString(), in.getString());
+                RentalJournal.setBalance(customer, in.getSignedVarLong());
+                if (location.addCustomer(customer) != customerId) {
+                    throw new IOException("Customer " + customerId + " appears twice");
+                }
+            }
+
+            int unitCount = location.getUnitCount();
+            int rentedCount = in.getCount();
+            // rented straight in the unit store, with the indexes built once at the end
+            BitSet rented = new BitSet(unitCount);
+            int locationIdx = -1;
+            long day = 0;
+            for (int rentalIdx = 0; rentalIdx < rentedCount; rentalIdx++) {
+                locationIdx = checkIndex(locationIdx + 1 + in.getCount(), unitCount);
+                Customer customer = location.getCustomer(checkIndex(in.getCount(), customerCount));
+                day += in.getSignedVarLong();
+                location.units.rent(locationIdx, customer, LocalDate.ofEpochDay(day), in.getVarLong());
+                rented.set(locationIdx);
+            }
+            location.unitsChanged(rented);
+
+            RentalHistory history = location.units.getHistory();
+            int historyCount = in.getCount();
+            locationIdx = -1;
+            for (int unitNo = 0; unitNo < historyCount; unitNo++) {
+                locationIdx = checkIndex(locationIdx + 1 + in.getCount(), unitCount);
+                int recordCount = in.getCount();
+                for (int recordIdx = 0; recordIdx < recordCount; recordIdx++) {
+                    int customerId = checkIndex(in.getCount(), customerCount);
+                    day += in.getSignedVarLong();
+                    long endDay = day + in.getVarLong();
+                    long cents = in.getVarLong();
+                    history.rentalStarted(locationIdx, day, cents);
+                    history.rentalEnded(locationIdx, customerId, day, endDay, cents);
+                }
+            }
+            in.finish();
+            return location;
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            // a value that made it past the checksum of a damaged file, or written by hand
+            throw new IOException("Invalid facility file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a layout as rows of runs of identical units
+     *
+     * @param   out         the encoder
+     * @param   layout      the layout to write
+     * @throws  IOException if the layout can't be written
+     */
+    private static void writeLayout(Encoder out, FacilityLayout layout) throws IOException {
+        StorageUnit.UnitType[] types = StorageUnit.UnitType.values();
+        out.putVarLong(types.length);
+        for (StorageUnit.UnitType type : types) {
+            out.putString(type.name());
+        }
+        out.putVarLong(layout.getRowCount());
+        int segIdx = 0;
+        for (int rowIdx = 0; rowIdx < layout.getRowCount(); rowIdx++) {
+            int rowEnd = layout.getRowStart(rowIdx + 1);
+            // a segment may run on from one row into the next, so cut it at the row's end
+            List<int[]> runs = new ArrayList<>();
+            int runStart = layout.getRowStart(rowIdx);
+            while (runStart < rowEnd) {
+                while (layout.getSegmentEnd(segIdx) <= runStart) {
+                    segIdx++;
+                }
+                int runEnd = Math.min(rowEnd, layout.getSegmentEnd(segIdx));
+                runs.add(new int[] { runStart, runEnd - runStart });
+                runStart = runEnd;
+            }
+            out.putVarLong(runs.size());
+            for (int[] run : runs) {
+                out.putVarLong(run[1]);
+                out.putVarLong(layout.getWidth(run[0]) / 4);
+                out.putVarLong(layout.getLength(run[0]) / 4);
+                out.putVarLong(layout.getHeight(run[0]) / 2);
+                out.putVarLong(layout.getType(run[0]).ordinal());
+            }
+        }
+    }
+
+    /**
+     * Reads a layout written by writeLayout
+     *
+     * @param   in          the decoder
+     * @return              the layout, not yet sealed
+     * @throws  IOException if the layout can't be read
+     */
+    private static FacilityLayout readLayout(Decoder in) throws IOException {
+        // grown as the names are read, so a damaged count runs out of file, not memory
+        int typeCount = in.getCount();
+        List<StorageUnit.UnitType> types = new ArrayList<>();
+        for (int typeIdx = 0; typeIdx < typeCount; typeIdx++) {
+            String name = in.getString();
+            try {
+                types.add(StorageUnit.UnitType.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown unit type " + name, e);
+            }
+        }
+        FacilityLayout layout = new FacilityLayout();
+        int rowCount = in.getCount();
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+            layout.addRow();
+            int runCount = in.getCount();
+            for (int runIdx = 0; runIdx < runCount; runIdx++) {
+                int count  = in.getCount();
+                int width  = Math.multiplyExact(in.getCount(), 4);
+                int length = Math.multiplyExact(in.getCount(), 4);
+                int height = Math.multiplyExact(in.getCount(), 2);
+                if (count > MAX_UNIT_COUNT - layout.getUnitCount()) {
+                    throw new IOException("Facility file has more than " + MAX_UNIT_COUNT + " units");
+                }
+                layout.addUnits(count, width, length, height, types.get(checkIndex(in.getCount(), types.size())));
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Checks an index read from a file
+     *
+     * @param   idx         the index
+     * @param   limit       the number of things indexed
+     * @return              the index
+     * @throws  IOException if the index is out of range
+     */
+    private static int checkIndex(int idx, int limit) throws IOException {
+        if (idx < 0 || idx >= limit) {
+            throw new IOException("Index " + idx + " out of range");
+        }
+        return idx;
+    }
+
+    //---------------------------------------------------------------------
+    //          ENCODING
+    //---------------------------------------------------------------------
+    /**
+     * Writes numbers and strings to a channel through a buffer, keeping a CRC-32
+     * of everything written
+     */
+    private static class Encoder {
+        /** the channel written to */
+        private final WritableByteChannel channel;
+        /** the bytes not yet written to the channel */
+        private final ByteBuffer buffer;
+        /** the checksum of the bytes written so far */
+        private final CRC32 crc;
+
+        /**
+         * Encoder Constructor
+         *
+         * @param   channel     the channel to write to
+         */
+        Encoder(WritableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            this.crc = new CRC32();
+        }
+
+        /**
+         * Writes a fixed four-byte int
+         *
+         * @param   value       the value
+         * @throws  IOException if the channel can't be written
+         */
+        void putInt(int value) throws IOException {
+            makeRoom(4);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes a long seven bits a byte, low bits first; best for values that
+         * are never negative
+         *
+         * @param   value       the value
+         * @throws  IOException if the channel can't be written
+         */
+        void putVarLong(long value) throws IOException {
+            makeRoom(MAX_VARINT_BYTES);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Writes a long that may be negative, folding the sign into the lowest bit
+         * so small negative values stay short
+         *
+         * @param   value       the value
+         * @throws  IOException if the channel can't be written
+         */
+        void putSignedVarLong(long value) throws IOException {
+            putVarLong((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes a string as its UTF-8 length and bytes
+         *
+         * @param   value       the string
+         * @throws  IOException if the channel can't be written
+         */
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length);
+            int written = 0;
+            while (written < bytes.length) {
+                makeRoom(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, chunk);
+                written += chunk;
+            }
+        }
+
+        /**
+         * Writes the checksum and everything still buffered
+         *
+         * @throws  IOException if the channel can't be written
+         */
+        void finish() throws IOException {
+            drain();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes out the buffer if it has less than a given amount of room left
+         *
+         * @param   bytes       the room needed
+         * @throws  IOException if the channel can't be written
+         */
+        private void makeRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        /**
+         * Adds the buffered bytes to the checksum and writes them out
+         *
+         * @throws  IOException if the channel can't be written
+         */
+        private void drain() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads numbers and strings from a channel through a buffer, keeping a CRC-32
+     * of everything read
+     */
+    private static class Decoder {
+        /** the channel read from */
+        private final ReadableByteChannel channel;
+        /** the bytes read from the channel; between reads, the bytes not yet used */
+        private final ByteBuffer buffer;
+        /** the checksum of the bytes used so far, up to checkedTo */
+        private final CRC32 crc;
+        /** the position in the buffer up to which the checksum has been taken */
+        private int checkedTo;
+
+        /**
+         * Decoder Constructor
+         *
+         * @param   channel     the channel to read from
+         */
+        Decoder(ReadableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            this.buffer.flip();
+            this.crc = new CRC32();
+            this.checkedTo = 0;
+        }
+
+        /**
+         * Reads a fixed four-byte int
+         *
+         * @return              the value
+         * @throws  IOException if the channel can't be read or ends too soon
+         */
+        int getInt() throws IOException {
+            fill(4);
+            return buffer.getInt();
+        }
+
+        /**
+         * Reads a long written by putVarLong
+         *
+         * @return              the value
+         * @throws  IOException if the channel can't be read, ends too soon, or
+         *                      holds an overlong number
+         */
+        long getVarLong() throws IOException {
+            if (buffer.remaining() < MAX_VARINT_BYTES) {
+                fillUpTo(MAX_VARINT_BYTES);
+            }
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (!buffer.hasRemaining()) {
+                    throw new EOFException("Facility file ends part-way through");
+                }
+                byte next = buffer.get();
+                value |= (long) (next & 0x7F) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed number in facility file");
+        }
+
+        /**
+         * Reads a long written by putSignedVarLong
+         *
+         * @return              the value
+         * @throws  IOException if the channel can't be read or ends too soon
+         */
+        long getSignedVarLong() throws IOException {
+            long folded = getVarLong();
+            return (folded >>> 1) ^ -(folded & 1);
+        }
+
+        /**
+         * Reads a count or index, which must fit in an int
+         *
+         * @return              the value
+         * @throws  IOException if the channel can't be read, ends too soon, or
+         *                      holds a number too big for an int
+         */
+        int getCount() throws IOException {
+            long value = getVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IOException("Count out of range in facility file");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads a string written by putString
+         *
+         * @return              the string
+         * @throws  IOException if the channel can't be read or ends too soon
+         */
+        String getString() throws IOException {
+            int length = getCount();
+            // grown as the bytes arrive, so a damaged length runs out of file, not memory
+            byte[] bytes = new byte[Math.min(length, BUFFER_BYTES)];
+            int read = 0;
+            while (read < length) {
+                fill(1);
+                if (read == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+                }
+                int chunk = Math.min(buffer.remaining(), bytes.length - read);
+                buffer.get(bytes, read, chunk);
+                read += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads the checksum and checks it against everything read before it, and
+         * that nothing follows it
+         *
+         * @throws  IOException if the checksum doesn't match, or the channel can't be read
+         */
+        void finish() throws IOException {
+            check();
+            int expected = (int) crc.getValue();
+            fill(4);
+            if (buffer.getInt() != expected) {
+                throw new IOException("Facility file is damaged: checksum doesn't match");
+            }
+            if (buffer.hasRemaining() || channel.read(ByteBuffer.allocate(1)) > 0) {
+                throw new IOException("Facility file has data after its end");
+            }
+        }
+
+        /**
+         * Reads until the buffer holds at least a given number of unused bytes
+         *
+         * @param   bytes       the number of bytes needed
+         * @throws  IOException if the channel can't be read or ends first
+         */
+        private void fill(int bytes) throws IOException {
+            if (buffer.remaining() < bytes && fillUpTo(bytes) < bytes) {
+                throw new EOFException("Facility file ends part-way through");
+            }
+        }
+
+        /**
+         * Reads until the buffer holds a given number of unused bytes, or the channel ends
+         *
+         * @param   bytes       the number of bytes wanted
+         * @return              the number of unused bytes in the buffer
+         * @throws  IOException if the channel can't be read
+         */
+        private int fillUpTo(int bytes) throws IOException {
+            check();
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            checkedTo = 0;
+            return buffer.remaining();
+        }
+
+        /**
+         * Adds the bytes used since the last call to the checksum
+         */
+        private void check() {
+            crc.update(buffer.array(), checkedTo, buffer.position() - checkedTo);
+            checkedTo = buffer.position();
+        }
+    }
+
+}
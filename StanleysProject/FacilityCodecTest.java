@@ -0,0 +1,219 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The test class FacilityCodecTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class FacilityCodecTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 15);
+
+    private StorageLocation testLoc;
+    private Customer pat;
+    private Customer chris;
+
+    /**
+     * Default constructor for test class FacilityCodecTest
+     */
+    public FacilityCodecTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoc = new StorageLocation(StorageLocationTest.DESIGNATION);
+        pat   = new Customer("Pat Perkins",   "425-555-1314");
+        chris = new Customer("Chris Connoly", "425-555-3141");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testEmptyLocation() throws IOException {
+        byte[] bytes = encode(testLoc);
+        // the standard layout's 240 units come to a little over a hundred bytes
+        assertTrue(bytes.length < 200);
+        StorageLocation copy = decode(bytes);
+        assertEquals(StorageLocationTest.DESIGNATION, copy.getDesignation());
+        LocationAssert.assertSameState(testLoc, copy);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        testLoc.addCustomer(new Customer(StorageLocationTest.CUST_NAME, StorageLocationTest.CUST_PHONE));
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, START, 9995);
+        testLoc.getStorageUnit(0, 1).rentForCents(chris, START.minusYears(3), 12000);
+        testLoc.getStorageUnit(11, 19).rentForCents(pat, START.plusMonths(1), 15050);
+        testLoc.getStorageUnit(5, 5).rentForCents(chris, START, 5000);
+        testLoc.getStorageUnit(5, 5).release(START.plusDays(40));
+        testLoc.getStorageUnit(5, 5).rentForCents(pat, START.plusDays(40), 5500);
+        testLoc.chargeMonthlyRentCents();
+        pat.creditCents(100000);
+        testLoc.setUnitBasePrice(87.50);
+        testLoc.setMultiUnitDiscount(0.15);
+
+        StorageLocation copy = decode(encode(testLoc));
+        LocationAssert.assertSameState(testLoc, copy);
+        assertTrue(copy.getCustomer(1).getBalanceCents() < 0);
+        assertEquals(87.50, copy.getUnitBasePrice(), StorageLocationTest.DOLLAR_VARIANCE);
+        assertEquals(0.15, copy.getMultiUnitDiscount(), StorageLocationTest.DOLLAR_VARIANCE);
+        assertEquals(testLoc.getOccupiedUnitCount(START.plusDays(20), null),
+                     copy.getOccupiedUnitCount(START.plusDays(20), null));
+        assertEquals(testLoc.getContractedRentCents(START.plusDays(20)),
+                     copy.getContractedRentCents(START.plusDays(20)));
+    }
+
+    @Test
+    public void testCustomLayout() throws IOException {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(3, 8, 8, 8, StorageUnit.UnitType.STANDARD);
+        layout.addRow();
+        layout.addUnits(2, 8, 8, 8, StorageUnit.UnitType.STANDARD);
+        layout.addUnits(4, 12, 16, 10, StorageUnit.UnitType.TEMPERATURE);
+        StorageLocation loc = new StorageLocation("OR03Salem", layout);
+        loc.getStorageUnit(1, 4).rentForCents(pat, START, 20000);
+
+        StorageLocation copy = decode(encode(loc));
+        FacilityLayout copied = copy.getLayout();
+        assertEquals(2, copied.getRowCount());
+        assertEquals(3, copied.getUnitsInRow(0));
+        assertEquals(6, copied.getUnitsInRow(1));
+        assertEquals(StorageUnit.UnitType.TEMPERATURE, copied.getType(copied.getLocationIdx(1, 2)));
+        assertEquals(16, copied.getLength(copied.getLocationIdx(1, 5)));
+        assertEquals(10, copied.getHeight(copied.getLocationIdx(1, 5)));
+        LocationAssert.assertSameState(loc, copy);
+    }
+
+    @Test
+    public void testFileRoundTrip() throws IOException {
+        Path file = Files.createTempFile("facility", ".bin");
+        try {
+            testLoc.getStorageUnit(3, 7).rentForCents(pat, START, 9995);
+            FacilityCodec.write(testLoc, file);
+            LocationAssert.assertSameState(testLoc, FacilityCodec.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLargeLocation() throws IOException {
+        StorageLocation loc = Benchmark.buildLocation(20000);
+        StorageLocation copy = decode(encode(loc));
+        LocationAssert.assertSameState(loc, copy);
+        assertEquals(loc.getMetrics().getContractedRentCents(), copy.getMetrics().getContractedRentCents());
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IOException.class)
+    public void testDamagedFile() throws IOException {
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, START, 9995);
+        byte[] bytes = encode(testLoc);
+        bytes[bytes.length / 2] ^= 0x10;
+        decode(bytes);
+    }
+
+    @Test (expected = IOException.class)
+    public void testTruncatedFile() throws IOException {
+        byte[] bytes = encode(testLoc);
+        decode(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test (expected = IOException.class)
+    public void testLaterVersion() throws IOException {
+        byte[] bytes = encode(testLoc);
+        bytes[4] = 2;
+        decode(bytes);
+    }
+
+    @Test (expected = IOException.class)
+    public void testNotAFacilityFile() throws IOException {
+        decode(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+    }
+
+    @Test (expected = IOException.class)
+    public void testHugeStringLength() throws IOException {
+        // a designation claiming to be 2 GB long, in a file of a few bytes
+        decode(new byte[] { 0x53, 0x53, 0x46, 0x43, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 7, 'W', 'A' });
+    }
+
+    @Test (expected = IOException.class)
+    public void testHugeUnitCount() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] designation = StorageLocationTest.DESIGNATION.getBytes(StandardCharsets.UTF_8);
+        bytes.write(new byte[] { 0x53, 0x53, 0x46, 0x43, 1, (byte) designation.length });
+        bytes.write(designation);
+        // prices, one type, then one row of 2^31 - 1 units of it
+        bytes.write(new byte[] { 0, 0, 1, 8 });
+        bytes.write("STANDARD".getBytes(StandardCharsets.UTF_8));
+        bytes.write(new byte[] { 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 7, 1, 2, 4, 0 });
+        decode(bytes.toByteArray());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testWriteLocationNull() throws IOException {
+        FacilityCodec.write(null, Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Writes a location to an array of bytes
+     *
+     * @param   location    the location
+     * @return              the bytes written
+     * @throws  IOException if the location can't be written
+     */
+    private static byte[] encode(StorageLocation location) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FacilityCodec.write(location, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a location from an array of bytes
+     *
+     * @param   bytes       the bytes written by encode
+     * @return              the location read
+     * @throws  IOException if the location can't be read
+     */
+    private static StorageLocation decode(byte[] bytes) throws IOException {
+        return FacilityCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+}
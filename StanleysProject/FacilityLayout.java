@@ -0,0 +1,440 @@
+import java.util.Arrays;
+
+/**
+ * Describes the physical arrangement of units in a storage location: a list of rows,
+ * each made up of runs ("segments") of identical units.  Rows may differ in length,
+ * and a single row may mix unit sizes and types.
+ *
+ * The layout stores one entry per segment rather than one object per unit, so even
+ * very large sites are described by a handful of small primitive arrays.  Once a
+ * layout has been handed to a StorageLocation it is sealed, and may then be shared
+ * safely by any number of locations built to the same plan.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class FacilityLayout {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the initial capacity of the row and segment arrays */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** the unit types, by ordinal; values() copies its array on every call */
+    private static final StorageUnit.UnitType[] UNIT_TYPES = StorageUnit.UnitType.values();
+
+    /** the classic layout: NUM_ROWS rows of NUM_SPACES 4x8x8 units, banded by type */
+    private static final FacilityLayout STANDARD_LAYOUT = buildStandardLayout();
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the location index of the first unit in each row */
+    private int[] rowStart;
+    /** the number of rows defined so far */
+    private int rowCount;
+    /** the location index of the first unit in each segment */
+    private int[] segStart;
+    /** the width of each segment's units */
+    private int[] segWidth;
+    /** the length of each segment's units */
+    private int[] segLength;
+    /** the height of each segment's units */
+    private int[] segHeight;
+    /** the type of each segment's units, as a unit type ordinal */
+    private byte[] segType;
+    /** the number of segments defined so far */
+    private int segCount;
+    /** the total number of units defined so far */
+    private int unitCount;
+    /** true, once the layout is in use and may no longer change */
+    private boolean sealed;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * FacilityLayout Constructor; creates an empty layout with no rows
+     */
+    public FacilityLayout() {
+        rowStart  = new int[INITIAL_CAPACITY];
+        segStart  = new int[INITIAL_CAPACITY];
+        segWidth  = new int[INITIAL_CAPACITY];
+        segLength = new int[INITIAL_CAPACITY];
+        segHeight = new int[INITIAL_CAPACITY];
+        segType   = new byte[INITIAL_CAPACITY];
+        rowCount  = 0;
+        segCount  = 0;
+        unitCount = 0;
+        sealed    = false;
+    }
+
+    /**
+     * Retrieves the company's classic layout: NUM_ROWS rows of NUM_SPACES 4x8x8 units,
+     * with standard, humidity and temperature bands starting at the ROW_START_* rows
+     *
+     * @return      the (sealed, shared) standard layout
+     */
+    public static FacilityLayout standardLayout() {
+        return STANDARD_LAYOUT;
+    }
+
+    /**
+     * Builds the classic layout
+     *
+     * @return      the sealed standard layout
+     */
+    private static FacilityLayout buildStandardLayout() {
+        FacilityLayout layout = new FacilityLayout();
+        for (int rowIdx = 0; rowIdx < StorageLocation.NUM_ROWS; rowIdx++) {
+            layout.addRow();
+            if (rowIdx >= StorageLocation.ROW_START_TMP) {
+                layout.addUnits(StorageLocation.NUM_SPACES, 4, 8, 8, StorageUnit.UnitType.TEMPERATURE);
+            } else if (rowIdx >= StorageLocation.ROW_START_HUM) {
+                layout.addUnits(StorageLocation.NUM_SPACES, 4, 8, 8, StorageUnit.UnitType.HUMIDITY);
+            } else {
+                layout.addUnits(StorageLocation.NUM_SPACES, 4, 8, 8, StorageUnit.UnitType.STANDARD);
+            }
+        }
+        layout.seal();
+        return layout;
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the number of rows in the layout
+     *
+     * @return      the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Retrieves the number of units in a given row
+     *
+     * @param   rowIdx      the row of interest
+     * @return              the number of units in that row
+     */
+    public int getUnitsInRow(int rowIdx) {
+        checkRow(rowIdx);
+        int rowEnd = (rowIdx + 1 < rowCount) ? rowStart[rowIdx + 1] : unitCount;
+        return rowEnd - rowStart[rowIdx];
+    }
+
+    /**
+     * Retrieves the total number of units in the layout
+     *
+     * @return      the number of units across all rows
+     */
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * Indicates whether the layout has been sealed against further changes
+     *
+     * @return      true, if the layout can no longer be changed
+     */
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Converts a row/space position to a location index (the unit's position
+     * counting across rows, in row-major order)
+     *
+     * @param   rowIdx      the row on which the unit sits
+     * @param   spaceIdx    the space the unit occupies within the row
+     * @return              the unit's location index
+     */
+    public int getLocationIdx(int rowIdx, int spaceIdx) {
+        if (spaceIdx < 0 || spaceIdx >= getUnitsInRow(rowIdx)) {
+            throw new IndexOutOfBoundsException("No space " + spaceIdx + " in row " + rowIdx);
+        }
+        return rowStart[rowIdx] + spaceIdx;
+    }
+
+    /**
+     * Retrieves the row holding the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the row on which the unit sits
+     */
+    public int getRowOf(int locationIdx) {
+        checkUnit(locationIdx);
+        int rowIdx = Arrays.binarySearch(rowStart, 0, rowCount, locationIdx);
+        if (rowIdx < 0) {
+            return -rowIdx - 2;
+        }
+        // skip past any empty rows sharing the same start
+        while (rowIdx + 1 < rowCount && rowStart[rowIdx + 1] == locationIdx) {
+            rowIdx++;
+        }
+        return rowIdx;
+    }
+
+    /**
+     * Retrieves the space, within its row, of the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the space the unit occupies within its row
+     */
+    public int getSpaceOf(int locationIdx) {
+        return locationIdx - rowStart[getRowOf(locationIdx)];
+    }
+
+    /**
+     * Retrieves the width of the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the unit's width, in feet
+     */
+    public int getWidth(int locationIdx) {
+        return segWidth[segmentOf(locationIdx)];
+    }
+
+    /**
+     * Retrieves the length of the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the unit's length, in feet
+     */
+    public int getLength(int locationIdx) {
+        return segLength[segmentOf(locationIdx)];
+    }
+
+    /**
+     * Retrieves the height of the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the unit's height, in feet
+     */
+    public int getHeight(int locationIdx) {
+        return segHeight[segmentOf(locationIdx)];
+    }
+
+    /**
+     * Retrieves the type of the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the unit's type
+     */
+    public StorageUnit.UnitType getType(int locationIdx) {
+        return UNIT_TYPES[segType[segmentOf(locationIdx)]];
+    }
+
+    /**
+     * Retrieves the location index of the first unit in a row
+     *
+     * @param   rowIdx      the row of interest; the row count gives the end of the last row
+     * @return              the location index of the row's first unit
+     */
+    int getRowStart(int rowIdx) {
+        return (rowIdx == rowCount) ? unitCount : rowStart[rowIdx];
+    }
+
+    /**
+     * Retrieves the number of segments (runs of identical units) in the layout
+     *
+     * @return      the number of segments
+     */
+    int getSegmentCount() {
+        return segCount;
+    }
+
+    /**
+     * Retrieves the location index of the first unit in a segment
+     *
+     * @param   segIdx      the segment of interest
+     * @return              the location index of the segment's first unit
+     */
+    int getSegmentStart(int segIdx) {
+        return segStart[segIdx];
+    }
+
+    /**
+     * Retrieves the location index just past the last unit in a segment
+     *
+     * @param   segIdx      the segment of interest
+     * @return              the location index following the segment's last unit
+     */
+    int getSegmentEnd(int segIdx) {
+        return (segIdx + 1 < segCount) ? segStart[segIdx + 1] : unitCount;
+    }
+
+    /**
+     * Finds the segment holding the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the index of the unit's segment
+     */
+    int getSegmentOf(int locationIdx) {
+        return segmentOf(locationIdx);
+    }
+
+    /**
+     * Retrieves the type of a segment's units
+     *
+     * @param   segIdx      the segment of interest
+     * @return              the type shared by the segment's units
+     */
+    StorageUnit.UnitType getSegmentType(int segIdx) {
+        return UNIT_TYPES[segType[segIdx]];
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Starts a new, empty row at the end of the layout; units are added to it with addUnits
+     *
+     * @return      the index of the new row
+     */
+    public int addRow() {
+        checkNotSealed();
+        if (rowCount == rowStart.length) {
+            rowStart = Arrays.copyOf(rowStart, rowCount * 2);
+        }
+        rowStart[rowCount] = unitCount;
+        return rowCount++;
+    }
+
+    /**
+     * Appends a run of identical units to the end of the last row
+     *
+     * @param   count       the number of units to add; must be over 0
+     * @param   width       the units' width, in feet; must be over 0 and evenly divisible by 4
+     * @param   length      the units' length, in feet; must be over 0 and evenly divisible by 4
+     * @param   height      the units' height, in feet; must be over 0 and evenly divisible by 2
+     * @param   type        the units' type; must not be null
+     */
+    public void addUnits(int count, int width, int length, int height, StorageUnit.UnitType type) {
+        checkNotSealed();
+        if (rowCount == 0) {
+            throw new IllegalStateException("A row must be added before units can be added");
+        }
+        checkUnits(count, width, length, height, type);
+        if (count > Integer.MAX_VALUE - unitCount) {
+            throw new IllegalArgumentException("Too many units for one layout");
+        }
+
+        // extend the previous segment when the new units match it
+        int last = segCount - 1;
+        if (last >= 0 && segWidth[last] == width && segLength[last] == length
+                && segHeight[last] == height && segType[last] == type.ordinal()) {
+            unitCount += count;
+            return;
+        }
+
+        if (segCount == segStart.length) {
+            int capacity = segCount * 2;
+            segStart  = Arrays.copyOf(segStart,  capacity);
+            segWidth  = Arrays.copyOf(segWidth,  capacity);
+            segLength = Arrays.copyOf(segLength, capacity);
+            segHeight = Arrays.copyOf(segHeight, capacity);
+            segType   = Arrays.copyOf(segType,   capacity);
+        }
+        segStart[segCount]  = unitCount;
+        segWidth[segCount]  = width;
+        segLength[segCount] = length;
+        segHeight[segCount] = height;
+        segType[segCount]   = (byte) type.ordinal();
+        segCount++;
+        unitCount += count;
+    }
+
+    /**
+     * Seals the layout, trimming its arrays; a sealed layout can no longer be changed.
+     * Sealing an already-sealed layout has no effect.
+     */
+    public void seal() {
+        if (sealed) {
+            return;
+        }
+        if (unitCount == 0) {
+            throw new IllegalStateException("A layout must contain at least one unit");
+        }
+        rowStart  = Arrays.copyOf(rowStart,  rowCount);
+        segStart  = Arrays.copyOf(segStart,  segCount);
+        segWidth  = Arrays.copyOf(segWidth,  segCount);
+        segLength = Arrays.copyOf(segLength, segCount);
+        segHeight = Arrays.copyOf(segHeight, segCount);
+        segType   = Arrays.copyOf(segType,   segCount);
+        sealed = true;
+    }
+
+    /**
+     * Checks the size and type given for a run of units, as addUnits does
+     *
+     * @param   count       the number of units; must be over 0
+     * @param   width       the units' width, in feet; must be over 0 and evenly divisible by 4
+     * @param   length      the units' length, in feet; must be over 0 and evenly divisible by 4
+     * @param   height      the units' height, in feet; must be over 0 and evenly divisible by 2
+     * @param   type        the units' type; must not be null
+     */
+    static void checkUnits(int count, int width, int length, int height, StorageUnit.UnitType type) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Unit count must be > 0");
+        }
+        if (width <= 0 || length <= 0 || height <= 0) {
+            throw new IllegalArgumentException("All dimensions must be > 0");
+        }
+        if (width % 4 != 0 || length % 4 != 0) {
+            throw new IllegalArgumentException("width and length must be a multiple of 4");
+        }
+        if (height % 2 != 0) {
+            throw new IllegalArgumentException("height must be a multiple of 2");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("type must be non-null");
+        }
+    }
+
+    /**
+     * Finds the segment holding the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the index of the unit's segment
+     */
+    private int segmentOf(int locationIdx) {
+        checkUnit(locationIdx);
+        int segIdx = Arrays.binarySearch(segStart, 0, segCount, locationIdx);
+        return (segIdx >= 0) ? segIdx : -segIdx - 2;
+    }
+
+    /**
+     * Verifies that a row index is within the layout
+     *
+     * @param   rowIdx      the row index to check
+     */
+    private void checkRow(int rowIdx) {
+        if (rowIdx < 0 || rowIdx >= rowCount) {
+            throw new IndexOutOfBoundsException("No row " + rowIdx);
+        }
+    }
+
+    /**
+     * Verifies that a location index is within the layout
+     *
+     * @param   locationIdx     the location index to check
+     */
+    private void checkUnit(int locationIdx) {
+        if (locationIdx < 0 || locationIdx >= unitCount) {
+            throw new IndexOutOfBoundsException("No unit at location index " + locationIdx);
+        }
+    }
+
+    /**
+     * Verifies that the layout may still be changed
+     */
+    private void checkNotSealed() {
+        if (sealed) {
+            throw new IllegalStateException("The layout is sealed and can no longer be changed");
+        }
+    }
+
+}
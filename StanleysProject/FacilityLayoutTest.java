@@ -0,0 +1,142 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class FacilityLayoutTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class FacilityLayoutTest {
+
+    private FacilityLayout testLayout;
+
+    /**
+     * Default constructor for test class FacilityLayoutTest
+     */
+    public FacilityLayoutTest() {
+    }
+
+    /**
+     * Sets up the test fixture: a short first row of mixed units, an empty row,
+     * and a longer row of temperature units
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLayout = new FacilityLayout();
+        testLayout.addRow();
+        testLayout.addUnits(3, 4, 8, 8,   StorageUnit.UnitType.STANDARD);
+        testLayout.addUnits(2, 8, 12, 10, StorageUnit.UnitType.HUMIDITY);
+        testLayout.addRow();
+        testLayout.addRow();
+        testLayout.addUnits(7, 4, 4, 8,   StorageUnit.UnitType.TEMPERATURE);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testRowsAndCounts() {
+        assertEquals(3,  testLayout.getRowCount());
+        assertEquals(5,  testLayout.getUnitsInRow(0));
+        assertEquals(0,  testLayout.getUnitsInRow(1));
+        assertEquals(7,  testLayout.getUnitsInRow(2));
+        assertEquals(12, testLayout.getUnitCount());
+    }
+
+    @Test
+    public void testUnitLookup() {
+        int locationIdx = testLayout.getLocationIdx(0, 3);
+        assertEquals(8,  testLayout.getWidth(locationIdx));
+        assertEquals(12, testLayout.getLength(locationIdx));
+        assertEquals(10, testLayout.getHeight(locationIdx));
+        assertEquals(StorageUnit.UnitType.HUMIDITY, testLayout.getType(locationIdx));
+        assertEquals(StorageUnit.UnitType.STANDARD, testLayout.getType(testLayout.getLocationIdx(0, 2)));
+
+        locationIdx = testLayout.getLocationIdx(2, 0);
+        assertEquals(5, locationIdx);
+        assertEquals(2, testLayout.getRowOf(locationIdx));
+        assertEquals(0, testLayout.getSpaceOf(locationIdx));
+        assertEquals(StorageUnit.UnitType.TEMPERATURE, testLayout.getType(locationIdx));
+        assertEquals(0, testLayout.getRowOf(4));
+        assertEquals(4, testLayout.getSpaceOf(4));
+    }
+
+    @Test
+    public void testStandardLayout() {
+        FacilityLayout standard = FacilityLayout.standardLayout();
+        assertTrue(standard.isSealed());
+        assertEquals(StorageLocation.NUM_ROWS, standard.getRowCount());
+        assertEquals(StorageLocation.NUM_ROWS * StorageLocation.NUM_SPACES, standard.getUnitCount());
+        assertEquals(StorageUnit.UnitType.STANDARD,
+                     standard.getType(standard.getLocationIdx(StorageLocation.ROW_START_HUM - 1, 19)));
+        assertEquals(StorageUnit.UnitType.HUMIDITY,
+                     standard.getType(standard.getLocationIdx(StorageLocation.ROW_START_HUM, 0)));
+        assertEquals(StorageUnit.UnitType.TEMPERATURE,
+                     standard.getType(standard.getLocationIdx(StorageLocation.ROW_START_TMP, 0)));
+    }
+
+    @Test
+    public void testLargeLayout() {
+        FacilityLayout large = new FacilityLayout();
+        for (int rowIdx = 0; rowIdx < 500; rowIdx++) {
+            large.addRow();
+            large.addUnits(150, 4, 8, 8,  StorageUnit.UnitType.STANDARD);
+            large.addUnits(50,  8, 8, 10, StorageUnit.UnitType.TEMPERATURE);
+        }
+        assertEquals(100000, large.getUnitCount());
+        assertEquals(499,    large.getRowOf(99999));
+        assertEquals(199,    large.getSpaceOf(99999));
+        assertEquals(StorageUnit.UnitType.TEMPERATURE, large.getType(99999));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalStateException.class)
+    public void testSealedLayoutUnchangeable() {
+        testLayout.seal();
+        testLayout.addRow();
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void testUnitsBeforeRow() {
+        new FacilityLayout().addUnits(1, 4, 8, 8, StorageUnit.UnitType.STANDARD);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testUnitsWidthMult4() {
+        testLayout.addUnits(1, 6, 8, 8, StorageUnit.UnitType.STANDARD);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testUnitsHeightMult2() {
+        testLayout.addUnits(1, 4, 8, 3, StorageUnit.UnitType.STANDARD);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testUnitsTypeNull() {
+        testLayout.addUnits(1, 4, 8, 8, null);
+    }
+
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testSpaceOutOfRange() {
+        testLayout.getLocationIdx(0, 5);
+    }
+
+}
@@ -0,0 +1,225 @@
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Indexes the runs of side-by-side available units at a location, so a block of
+ * adjacent units can be found without scanning the rows.
+ *
+ * A run is a longest stretch of available units of one type, next to each other in
+ * one row.  Runs are kept by start (to find the runs either side of a unit as it is
+ * rented or released) and, for each type, by length then start (to find the shortest
+ * run long enough for a request).  Renting a unit splits its run in two, and releasing
+ * one joins it to the runs either side, each in logarithmic time.
+ *
+ * The index isn't thread-safe; its location guards it with its own lock.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class FreeRunIndex {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the layout whose units are indexed */
+    private FacilityLayout layout;
+    /** the location index just past the end of each run, by the run's start */
+    private TreeMap<Integer, Integer> runEndsByStart;
+    /** the runs of each type, as run keys ordered by length then start; by type ordinal */
+    private TreeSet<Long>[] runsByLength;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * FreeRunIndex Constructor; every unit starts out free
+     *
+     * @param   layout      the (sealed) layout of the units to index
+     */
+    FreeRunIndex(FacilityLayout layout) {
+        this.layout = layout;
+        runEndsByStart = new TreeMap<>();
+        runsByLength = newRunSets();
+        // each row starts as one run per stretch of same-typed segments
+        int segIdx = 0;
+        for (int rowIdx = 0; rowIdx < layout.getRowCount(); rowIdx++) {
+            int rowEnd = layout.getRowStart(rowIdx + 1);
+            int runStart = layout.getRowStart(rowIdx);
+            while (runStart < rowEnd) {
+                while (layout.getSegmentEnd(segIdx) <= runStart) {
+                    segIdx++;
+                }
+                StorageUnit.UnitType runType = layout.getSegmentType(segIdx);
+                int runEnd = runStart;
+                while (runEnd < rowEnd && layout.getSegmentType(segIdx) == runType) {
+                    runEnd = Math.min(rowEnd, layout.getSegmentEnd(segIdx));
+                    if (runEnd < rowEnd) {
+                        segIdx++;
+                    }
+                }
+                addRun(runStart, runEnd, runType);
+                runStart = runEnd;
+            }
+        }
+    }
+
+    /**
+     * FreeRunIndex Constructor; builds the runs of a layout's free units all at once
+     *
+     * @param   layout      the (sealed) layout of the units to index
+     * @param   free        the free units, by location index
+     */
+    FreeRunIndex(FacilityLayout layout, BitSet free) {
+        this.layout = layout;
+        runEndsByStart = new TreeMap<>();
+        runsByLength = newRunSets();
+        // each run ends at the first rented unit, the end of its row or a change of type
+        int segIdx = 0;
+        for (int rowIdx = 0; rowIdx < layout.getRowCount(); rowIdx++) {
+            int rowEnd = layout.getRowStart(rowIdx + 1);
+            int runStart = free.nextSetBit(layout.getRowStart(rowIdx));
+            while (runStart >= 0 && runStart < rowEnd) {
+                while (layout.getSegmentEnd(segIdx) <= runStart) {
+                    segIdx++;
+                }
+                StorageUnit.UnitType runType = layout.getSegmentType(segIdx);
+                int runEnd = Math.min(free.nextClearBit(runStart), rowEnd);
+                int typeSegIdx = segIdx;
+                while (layout.getSegmentEnd(typeSegIdx) < runEnd && layout.getSegmentType(typeSegIdx + 1) == runType) {
+                    typeSegIdx++;
+                }
+                runEnd = Math.min(runEnd, layout.getSegmentEnd(typeSegIdx));
+                addRun(runStart, runEnd, runType);
+                runStart = free.nextSetBit(runEnd);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Finds the shortest run of at least a number of free units of one type
+     *
+     * @param   unitType    the type of unit wanted
+     * @param   count       the number of adjacent units wanted; must be over 0
+     * @return              the location index of the run's first unit, or -1 if
+     *                      no run is long enough
+     */
+    int findRun(StorageUnit.UnitType unitType, int count) {
+        Long runKey = runsByLength[unitType.ordinal()].ceiling(runKey(0, count));
+        return (runKey == null) ? -1 : (int) (runKey & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Records that a unit has been rented, splitting its run
+     *
+     * @param   locationIdx     the rented unit's location index
+     */
+    void unitRented(int locationIdx) {
+        Map.Entry<Integer, Integer> run = runEndsByStart.floorEntry(locationIdx);
+        if (run == null || run.getValue() <= locationIdx) {
+            return;
+        }
+        int runStart = run.getKey();
+        int runEnd = run.getValue();
+        StorageUnit.UnitType runType = layout.getType(locationIdx);
+        removeRun(runStart, runEnd, runType);
+        if (runStart < locationIdx) {
+            addRun(runStart, locationIdx, runType);
+        }
+        if (locationIdx + 1 < runEnd) {
+            addRun(locationIdx + 1, runEnd, runType);
+        }
+    }
+
+    /**
+     * Records that a unit has been released, joining it to the runs either side
+     *
+     * @param   locationIdx     the released unit's location index
+     */
+    void unitReleased(int locationIdx) {
+        Map.Entry<Integer, Integer> before = runEndsByStart.floorEntry(locationIdx);
+        if (before != null && before.getValue() > locationIdx) {
+            return;
+        }
+        StorageUnit.UnitType unitType = layout.getType(locationIdx);
+        int rowIdx = layout.getRowOf(locationIdx);
+        int runStart = locationIdx;
+        int runEnd = locationIdx + 1;
+        if (before != null && before.getValue() == locationIdx && joins(locationIdx - 1, rowIdx, unitType)) {
+            runStart = before.getKey();
+            removeRun(runStart, locationIdx, unitType);
+        }
+        Integer afterEnd = runEndsByStart.get(locationIdx + 1);
+        if (afterEnd != null && joins(locationIdx + 1, rowIdx, unitType)) {
+            runEnd = afterEnd;
+            removeRun(locationIdx + 1, runEnd, unitType);
+        }
+        addRun(runStart, runEnd, unitType);
+    }
+
+    /**
+     * Decides whether a neighbouring unit can share a run with a unit
+     *
+     * @param   neighbourIdx    the neighbour's location index
+     * @param   rowIdx          the unit's row
+     * @param   unitType        the unit's type
+     * @return                  true, if the neighbour is in the same row and of the same type
+     */
+    private boolean joins(int neighbourIdx, int rowIdx, StorageUnit.UnitType unitType) {
+        return layout.getRowOf(neighbourIdx) == rowIdx && layout.getType(neighbourIdx) == unitType;
+    }
+
+    /**
+     * Adds a run to the index
+     *
+     * @param   runStart    the location index of the run's first unit
+     * @param   runEnd      the location index just past the run's last unit
+     * @param   runType     the type of the run's units
+     */
+    private void addRun(int runStart, int runEnd, StorageUnit.UnitType runType) {
+        runEndsByStart.put(runStart, runEnd);
+        runsByLength[runType.ordinal()].add(runKey(runStart, runEnd - runStart));
+    }
+
+    /**
+     * Removes a run from the index
+     *
+     * @param   runStart    the location index of the run's first unit
+     * @param   runEnd      the location index just past the run's last unit
+     * @param   runType     the type of the run's units
+     */
+    private void removeRun(int runStart, int runEnd, StorageUnit.UnitType runType) {
+        runEndsByStart.remove(runStart);
+        runsByLength[runType.ordinal()].remove(runKey(runStart, runEnd - runStart));
+    }
+
+    /**
+     * Creates the empty sets of runs by length, one per unit type
+     *
+     * @return      the sets, by type ordinal
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static TreeSet<Long>[] newRunSets() {
+        TreeSet<Long>[] runSets = new TreeSet[StorageUnit.UnitType.values().length];
+        for (int typeIdx = 0; typeIdx < runSets.length; typeIdx++) {
+            runSets[typeIdx] = new TreeSet<>();
+        }
+        return runSets;
+    }
+
+    /**
+     * Builds the key that orders runs by length, then by start
+     *
+     * @param   runStart    the location index of the run's first unit
+     * @param   runLength   the number of units in the run
+     * @return              the run's key
+     */
+    private static long runKey(int runStart, int runLength) {
+        return ((long) runLength << 32) | runStart;
+    }
+
+}
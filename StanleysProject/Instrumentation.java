@@ -0,0 +1,218 @@
+import java.util.Locale;
+
+/**
+ * Times a location's busiest operations, when switched on.
+ *
+ * Each location has its own instrumentation, off to begin with.  While it is on, every
+ * call to one of the timed operations records how long it took in a latency histogram
+ * for that operation, without taking any locks.  While it is off, an operation pays
+ * for one read of the on/off flag and nothing else: callers check isEnabled once and,
+ * if timing is off, run the operation exactly as they would without instrumentation.
+ * The figures can be read one at a time, or exported together as plain text or JSON.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class Instrumentation {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the operations timed */
+    public enum Operation {
+        RENT, RELEASE, GET_EMPTY_UNITS, GET_CUSTOMER_UNITS, CHARGE_MONTHLY_RENT;
+
+        /**
+         * Retrieves the operation's name as it appears in exports
+         *
+         * @return      the name, e.g. "getEmptyUnits"
+         */
+        public String getExportName() {
+            StringBuilder name = new StringBuilder();
+            for (String word : name().toLowerCase().split("_")) {
+                name.append(name.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+            }
+            return name.toString();
+        }
+    }
+
+    /** the percentiles given in exports */
+    public static final double[] EXPORT_PERCENTILES = { 50, 90, 99, 99.9 };
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the designation of the location timed */
+    private String designation;
+    /** true, while operations are being timed */
+    private volatile boolean enabled;
+    /** the times taken by each operation; indexed by operation ordinal */
+    private LatencyHistogram[] histograms;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * Instrumentation Constructor; timing starts out off
+     *
+     * @param   designation     the designation of the location timed
+     */
+    Instrumentation(String designation) {
+        this.designation = designation;
+        this.enabled = false;
+        histograms = new LatencyHistogram[Operation.values().length];
+        for (int opIdx = 0; opIdx < histograms.length; opIdx++) {
+            histograms[opIdx] = new LatencyHistogram();
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Checks whether operations are being timed
+     *
+     * @return      true, if timing is on
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts the timed calls to an operation
+     *
+     * @param   operation   the operation of interest
+     * @return              the number of calls timed since the last reset
+     */
+    public long getCount(Operation operation) {
+        return histograms[operation.ordinal()].snapshot().getCount();
+    }
+
+    /**
+     * Retrieves the mean time taken by an operation
+     *
+     * @param   operation   the operation of interest
+     * @return              the mean time in nanoseconds, or 0 if no calls were timed
+     */
+    public double getMeanNanos(Operation operation) {
+        return histograms[operation.ordinal()].snapshot().getMeanNanos();
+    }
+
+    /**
+     * Retrieves the time within which a percentage of an operation's calls finished
+     *
+     * @param   operation   the operation of interest
+     * @param   percentile  the percentage of calls, from 0 to 100
+     * @return              the time in nanoseconds, to within 12.5%, or 0 if no calls were timed
+     */
+    public long getPercentileNanos(Operation operation, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be from 0 to 100");
+        }
+        return histograms[operation.ordinal()].snapshot().getPercentileNanos(percentile);
+    }
+
+    /**
+     * Retrieves the longest time taken by an operation
+     *
+     * @param   operation   the operation of interest
+     * @return              the longest time in nanoseconds, or 0 if no calls were timed
+     */
+    public long getMaxNanos(Operation operation) {
+        return histograms[operation.ordinal()].snapshot().getMaxNanos();
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Switches timing on or off; times already recorded are kept
+     *
+     * @param   enabled     true, to time operations; false, to stop
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Forgets every recorded time
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Exports the figures for every operation as plain text, one line per operation,
+     * e.g. "WA12Kirkland rent count=10 mean=812.4 p50=767 ... max=4095", in nanoseconds
+     *
+     * @return      the exported figures
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram.Snapshot stats = histograms[operation.ordinal()].snapshot();
+            text.append(designation).append(' ').append(operation.getExportName())
+                .append(" count=").append(stats.getCount())
+                .append(" mean=").append(String.format(Locale.ROOT, "%.1f", stats.getMeanNanos()));
+            for (double percentile : EXPORT_PERCENTILES) {
+                text.append(' ').append(percentileName(percentile)).append('=')
+                    .append(stats.getPercentileNanos(percentile));
+            }
+            text.append(" max=").append(stats.getMaxNanos()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Exports the figures for every operation as a JSON object, with times in nanoseconds,
+     * e.g. {"location":"WA12Kirkland","enabled":true,"operations":{"rent":{"count":10,...}}}
+     *
+     * @return      the exported figures
+     */
+    public String toJson() {
+        // designations are letters, digits and spaces, so need no escaping
+        StringBuilder json = new StringBuilder();
+        json.append("{\"location\":\"").append(designation)
+            .append("\",\"enabled\":").append(enabled)
+            .append(",\"operations\":{");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram.Snapshot stats = histograms[operation.ordinal()].snapshot();
+            if (operation.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"').append(operation.getExportName()).append("\":{")
+                .append("\"count\":").append(stats.getCount())
+                .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", stats.getMeanNanos()));
+            for (double percentile : EXPORT_PERCENTILES) {
+                json.append(",\"").append(percentileName(percentile)).append("\":")
+                    .append(stats.getPercentileNanos(percentile));
+            }
+            json.append(",\"max\":").append(stats.getMaxNanos()).append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Records how long a timed call to an operation took, up to now; called only
+     * by operations that found timing on when they began
+     *
+     * @param   operation       the operation called
+     * @param   startNanos      the System.nanoTime when the call began
+     */
+    void record(Operation operation, long startNanos) {
+        histograms[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Names a percentile for export, e.g. "p99" or "p99.9"
+     *
+     * @param   percentile  the percentile
+     * @return              its name
+     */
+    private static String percentileName(double percentile) {
+        return (percentile == Math.rint(percentile)) ? "p" + (long) percentile : "p" + percentile;
+    }
+
+}
@@ -0,0 +1,165 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+
+/**
+ * The test class InstrumentationTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class InstrumentationTest {
+
+    private StorageLocation testLoc;
+    private Instrumentation testInst;
+    private Customer testCust;
+
+    /**
+     * Default constructor for test class InstrumentationTest
+     */
+    public InstrumentationTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoc = new StorageLocation("WA12Kirkland");
+        testInst = testLoc.getInstrumentation();
+        testCust = new Customer("Pat Perkins", "425-555-1314");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testOffByDefault() {
+        assertFalse(testInst.isEnabled());
+        useLocation();
+        for (Instrumentation.Operation operation : Instrumentation.Operation.values()) {
+            assertEquals(0, testInst.getCount(operation));
+            assertEquals(0, testInst.getMaxNanos(operation));
+        }
+    }
+
+    @Test
+    public void testCountsOperations() {
+        testInst.setEnabled(true);
+        useLocation();
+        assertEquals(2, testInst.getCount(Instrumentation.Operation.RENT));
+        assertEquals(2, testInst.getCount(Instrumentation.Operation.RELEASE));
+        assertEquals(2, testInst.getCount(Instrumentation.Operation.GET_EMPTY_UNITS));
+        assertEquals(1, testInst.getCount(Instrumentation.Operation.GET_CUSTOMER_UNITS));
+        assertEquals(1, testInst.getCount(Instrumentation.Operation.CHARGE_MONTHLY_RENT));
+
+        long p50 = testInst.getPercentileNanos(Instrumentation.Operation.GET_EMPTY_UNITS, 50);
+        long max = testInst.getMaxNanos(Instrumentation.Operation.GET_EMPTY_UNITS);
+        assertTrue(p50 > 0);
+        assertTrue(p50 <= max);
+        assertEquals(max, testInst.getPercentileNanos(Instrumentation.Operation.GET_EMPTY_UNITS, 100));
+
+        // switching off stops the counting but keeps what was counted
+        testInst.setEnabled(false);
+        useLocation();
+        assertEquals(2, testInst.getCount(Instrumentation.Operation.RENT));
+        testInst.reset();
+        assertEquals(0, testInst.getCount(Instrumentation.Operation.RENT));
+    }
+
+    @Test
+    public void testStandAloneUnitsNotTimed() {
+        StorageUnit unit = new StorageUnit(4, 8, 8, StorageUnit.UnitType.STANDARD);
+        assertTrue(unit.rent(testCust, LocalDate.now(), 50.00));
+        assertTrue(unit.release());
+        assertFalse(unit.release());
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        // every time lands in a bucket that holds it, within an eighth of its size
+        long[] times = { 0, 1, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE };
+        for (long nanos : times) {
+            int bucketIdx = LatencyHistogram.bucketOf(nanos);
+            assertTrue(bucketIdx < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(LatencyHistogram.highestIn(bucketIdx) >= nanos);
+            assertTrue(LatencyHistogram.highestIn(bucketIdx) - nanos <= nanos / LatencyHistogram.SUB_BUCKETS);
+            if (bucketIdx > 0) {
+                assertTrue(LatencyHistogram.highestIn(bucketIdx - 1) < nanos);
+            }
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos);
+        }
+        LatencyHistogram.Snapshot stats = histogram.snapshot();
+        assertEquals(1000, stats.getCount());
+        assertEquals(500.5, stats.getMeanNanos(), 0.001);
+        assertEquals(1000, stats.getMaxNanos());
+        assertEquals(500, stats.getPercentileNanos(50), 500 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(990, stats.getPercentileNanos(99), 990 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(1000, stats.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testExports() {
+        testInst.setEnabled(true);
+        useLocation();
+        String text = testInst.toText();
+        assertEquals(Instrumentation.Operation.values().length, text.split("\n").length);
+        assertTrue(text.startsWith("WA12Kirkland rent count=2 mean="));
+        assertTrue(text.contains("WA12Kirkland getCustomerUnits count=1 "));
+        assertTrue(text.contains(" p99.9="));
+
+        String json = testInst.toJson();
+        assertTrue(json.startsWith("{\"location\":\"WA12Kirkland\",\"enabled\":true,\"operations\":{\"rent\":{\"count\":2,"));
+        assertTrue(json.contains("\"chargeMonthlyRent\":{\"count\":1,"));
+        assertTrue(json.endsWith("}}}"));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testPercentileOver100() {
+        testInst.getPercentileNanos(Instrumentation.Operation.RENT, 100.1);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Calls each of the timed operations on the test location
+     */
+    private void useLocation() {
+        testLoc.getStorageUnit(0, 0).rent(testCust, LocalDate.now(), 100.00);
+        testLoc.getStorageUnit(0, 1).rent(testCust, LocalDate.now(), 100.00);
+        testLoc.getStorageUnit(0, 1).release();
+        testLoc.getEmptyUnits();
+        testLoc.getEmptyUnits(StorageUnit.UnitType.HUMIDITY);
+        testLoc.getCustomerUnits(testCust);
+        testLoc.chargeMonthlyRent();
+        testLoc.getStorageUnit(0, 0).release();
+    }
+
+}
@@ -0,0 +1,238 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes JSON strings and reads the flat JSON objects that the booking service
+ * takes as request bodies.
+ *
+ * Only what the service needs is supported: an object whose values are strings,
+ * numbers, true, false or null.  Nested objects and arrays are rejected rather than
+ * skipped, so a client sending them learns its request wasn't understood.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class Json {
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * Json Constructor; not used, as every method is static
+     */
+    private Json() {
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Appends a string as a quoted JSON string, escaping what JSON requires
+     *
+     * @param   json    the JSON being built
+     * @param   text    the string to append; must not be null
+     * @return          json, for chaining
+     */
+    static StringBuilder appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int charIdx = 0; charIdx < text.length(); charIdx++) {
+            char ch = text.charAt(charIdx);
+            switch (ch) {
+                case '"':   json.append("\\\""); break;
+                case '\\':  json.append("\\\\"); break;
+                case '\n':  json.append("\\n");  break;
+                case '\r':  json.append("\\r");  break;
+                case '\t':  json.append("\\t");  break;
+                default:
+                    if (ch < 0x20) {
+                        json.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        json.append(ch);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Reads a flat JSON object
+     *
+     * @param   text    the JSON text; must not be null
+     * @return          the object's values by name; strings are unquoted, numbers and
+     *                  true/false are kept as written, and null values map to null
+     */
+    static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> values = new HashMap<>();
+        parser.expect('{');
+        if (!parser.skipIf('}')) {
+            do {
+                String name = parser.readString();
+                parser.expect(':');
+                values.put(name, parser.readValue());
+            } while (parser.skipIf(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return values;
+    }
+
+    //---------------------------------------------------------------------
+    //          PARSER
+    //---------------------------------------------------------------------
+    /**
+     * Walks through the text of a JSON object, skipping white space between tokens
+     */
+    private static class Parser {
+
+        /** the text being read */
+        private final String text;
+        /** the position of the next character to read */
+        private int pos;
+
+        /**
+         * Parser Constructor
+         *
+         * @param   text    the text to read
+         */
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Reads past a character that must come next
+         *
+         * @param   ch      the character expected
+         */
+        void expect(char ch) {
+            if (!skipIf(ch)) {
+                throw error("Expected '" + ch + "'");
+            }
+        }
+
+        /**
+         * Reads past a character if it comes next
+         *
+         * @param   ch      the character wanted
+         * @return          true, if it came next and was read; false otherwise
+         */
+        boolean skipIf(char ch) {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Checks that nothing but white space is left
+         */
+        void expectEnd() {
+            skipSpace();
+            if (pos < text.length()) {
+                throw error("Unexpected text after the object");
+            }
+        }
+
+        /**
+         * Reads a value: a string, a number, true, false or null
+         *
+         * @return      the value, unquoted if it was a string, or null for null
+         */
+        String readValue() {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == '"') {
+                return readString();
+            }
+            int start = pos;
+            while (pos < text.length() && "{}[],:\" \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String token = text.substring(start, pos);
+            if (token.equals("null")) {
+                return null;
+            }
+            if (token.equals("true") || token.equals("false") || isNumber(token)) {
+                return token;
+            }
+            pos = start;
+            throw error("Expected a string, number, true, false or null");
+        }
+
+        /**
+         * Reads a quoted string, undoing its escapes
+         *
+         * @return      the string
+         */
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char ch = text.charAt(pos++);
+                if (ch == '"') {
+                    return value.toString();
+                }
+                if (ch != '\\') {
+                    value.append(ch);
+                } else if (pos < text.length()) {
+                    char escaped = text.charAt(pos++);
+                    switch (escaped) {
+                        case '"':
+                        case '\\':
+                        case '/':   value.append(escaped); break;
+                        case 'b':   value.append('\b');    break;
+                        case 'f':   value.append('\f');    break;
+                        case 'n':   value.append('\n');    break;
+                        case 'r':   value.append('\r');    break;
+                        case 't':   value.append('\t');    break;
+                        case 'u':
+                            if (pos + 4 > text.length()) {
+                                throw error("Incomplete \\u escape");
+                            }
+                            try {
+                                value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw error("Bad \\u escape");
+                            }
+                            pos += 4;
+                            break;
+                        default:
+                            throw error("Bad escape '\\" + escaped + "'");
+                    }
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        /**
+         * Skips any white space
+         */
+        private void skipSpace() {
+            while (pos < text.length() && " \t\r\n".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+        }
+
+        /**
+         * Builds the exception for malformed text at the current position
+         *
+         * @param   message     what was wrong
+         * @return              the exception to throw
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at character " + pos + " of the JSON");
+        }
+
+        /**
+         * Tells whether a token is a JSON number
+         *
+         * @param   token   the token
+         * @return          true, if it is a number; false otherwise
+         */
+        private static boolean isNumber(String token) {
+            return token.matches("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how long an operation takes, in buckets whose width grows with the time.
+ *
+ * Like an HDR histogram, each power of two is split into SUB_BUCKETS equal buckets, so
+ * any recorded time is known to within 1 part in SUB_BUCKETS (12.5%) however long it
+ * was, from nanoseconds up to hours, with a fixed few hundred counters.  Recording
+ * takes no locks: each bucket is its own atomic counter, and the total and maximum are
+ * kept in adders that spread contending threads over separate cells.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class LatencyHistogram {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of bits of a time kept exactly, after its leading one */
+    static final int SUB_BUCKET_BITS = 3;
+    /** the number of buckets each power of two is split into */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** the number of buckets, enough for any non-negative long */
+    static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the number of times recorded in each bucket */
+    private AtomicLongArray counts;
+    /** the sum of the recorded times, in nanoseconds */
+    private LongAdder totalNanos;
+    /** the longest recorded time, in nanoseconds */
+    private LongAccumulator maxNanos;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LatencyHistogram Constructor; creates an empty histogram
+     */
+    LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKET_COUNT);
+        totalNanos = new LongAdder();
+        maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Records one time
+     *
+     * @param   nanos   the time taken, in nanoseconds; negative times count as zero
+     */
+    void record(long nanos) {
+        long time = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(time));
+        totalNanos.add(time);
+        maxNanos.accumulate(time);
+    }
+
+    /**
+     * Forgets every recorded time.  Times recorded while this runs may or may not be kept.
+     */
+    void reset() {
+        for (int bucketIdx = 0; bucketIdx < BUCKET_COUNT; bucketIdx++) {
+            counts.set(bucketIdx, 0);
+        }
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Copies the recorded times, so that statistics can be worked out from a copy
+     * that doesn't change underneath them
+     *
+     * @return      a snapshot of the histogram
+     */
+    Snapshot snapshot() {
+        long[] countsCopy = new long[BUCKET_COUNT];
+        for (int bucketIdx = 0; bucketIdx < BUCKET_COUNT; bucketIdx++) {
+            countsCopy[bucketIdx] = counts.get(bucketIdx);
+        }
+        return new Snapshot(countsCopy, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Finds the bucket that holds a time
+     *
+     * @param   nanos   the time, in nanoseconds; must not be negative
+     * @return          the bucket's index
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the longest time a bucket holds
+     *
+     * @param   bucketIdx   the bucket's index
+     * @return              the bucket's highest time, in nanoseconds
+     */
+    static long highestIn(int bucketIdx) {
+        if (bucketIdx < SUB_BUCKETS) {
+            return bucketIdx;
+        }
+        int exponent = bucketIdx / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowest = (SUB_BUCKETS + bucketIdx % SUB_BUCKETS) * width;
+        return lowest + (width - 1);
+    }
+
+    //---------------------------------------------------------------------
+    //          SNAPSHOTS
+    //---------------------------------------------------------------------
+    /**
+     * The times recorded in a histogram at one moment
+     */
+    static class Snapshot {
+        /** the number of times in each bucket */
+        private final long[] counts;
+        /** the number of times recorded */
+        private final long count;
+        /** the sum of the recorded times, in nanoseconds */
+        private final long totalNanos;
+        /** the longest recorded time, in nanoseconds */
+        private final long maxNanos;
+
+        /**
+         * Snapshot Constructor
+         *
+         * @param   counts          the number of times in each bucket
+         * @param   totalNanos      the sum of the recorded times, in nanoseconds
+         * @param   maxNanos        the longest recorded time, in nanoseconds
+         */
+        Snapshot(long[] counts, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            long count = 0;
+            for (long bucketCount : counts) {
+                count += bucketCount;
+            }
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Counts the recorded times
+         *
+         * @return      the number of times recorded
+         */
+        long getCount() {
+            return count;
+        }
+
+        /**
+         * Works out the mean of the recorded times
+         *
+         * @return      the mean time in nanoseconds, or 0 if none were recorded
+         */
+        double getMeanNanos() {
+            return (count == 0) ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Retrieves the longest recorded time
+         *
+         * @return      the longest time in nanoseconds, or 0 if none were recorded
+         */
+        long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Finds the time within which a percentage of the operations finished
+         *
+         * @param   percentile  the percentage of interest, from 0 to 100
+         * @return              the time in nanoseconds, to within the bucket width,
+         *                      or 0 if none were recorded
+         */
+        long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long wanted = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int bucketIdx = 0; bucketIdx < counts.length; bucketIdx++) {
+                seen += counts[bucketIdx];
+                if (seen >= wanted) {
+                    return Math.min(highestIn(bucketIdx), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+
+}
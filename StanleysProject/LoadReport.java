@@ -0,0 +1,211 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the outcome of a bulk load: the location built, what was loaded into it,
+ * and the lines that were turned away and why
+ *
+ * Only the first MAX_REPORTED_ERRORS rejected lines are kept, so that a file with
+ * an error on every line can't fill the heap; every rejected line is counted.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LoadReport {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the most rejected lines kept for the report */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the location loaded, or null if its layout couldn't be built */
+    private StorageLocation location;
+    /** the number of lines read */
+    private long lineCount;
+    /** the number of customers added */
+    private int customerCount;
+    /** the number of rentals made */
+    private int rentalCount;
+    /** the number of lines rejected */
+    private long errorCount;
+    /** the line numbers of the first rejected lines */
+    private List<Long> errorLineNos;
+    /** why each of the first rejected lines was rejected */
+    private List<String> errorMessages;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LoadReport Constructor; for a load just starting
+     */
+    LoadReport() {
+        errorLineNos = new ArrayList<>();
+        errorMessages = new ArrayList<>();
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the location loaded
+     *
+     * @return      the location, or null if no location could be built, because
+     *              the location line or a line of its layout was rejected
+     */
+    public StorageLocation getLocation() {
+        return location;
+    }
+
+    /**
+     * Retrieves the number of lines read, including blank lines and comments
+     *
+     * @return      the line count
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Retrieves the number of customers added to the location
+     *
+     * @return      the customer count
+     */
+    public int getCustomerCount() {
+        return customerCount;
+    }
+
+    /**
+     * Retrieves the number of rentals made at the location
+     *
+     * @return      the rental count
+     */
+    public int getRentalCount() {
+        return rentalCount;
+    }
+
+    /**
+     * Retrieves the number of lines rejected
+     *
+     * @return      the error count
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Retrieves the number of rejected lines kept for the report
+     *
+     * @return      the number of errors that can be looked at, at most MAX_REPORTED_ERRORS
+     */
+    public int getReportedErrorCount() {
+        return errorLineNos.size();
+    }
+
+    /**
+     * Retrieves the line number of a rejected line
+     *
+     * @param   errorIdx    the error of interest, in file order
+     * @return              the line's number, counting from 1
+     */
+    public long getErrorLineNo(int errorIdx) {
+        return errorLineNos.get(errorIdx);
+    }
+
+    /**
+     * Retrieves why a line was rejected
+     *
+     * @param   errorIdx    the error of interest, in file order
+     * @return              the reason
+     */
+    public String getErrorMessage(int errorIdx) {
+        return errorMessages.get(errorIdx);
+    }
+
+    /**
+     * Tells whether every line was loaded
+     *
+     * @return      true, if no line was rejected; false otherwise
+     */
+    public boolean isClean() {
+        return errorCount == 0;
+    }
+
+    /**
+     * Describes the load, listing the rejected lines kept
+     *
+     * @return      the description
+     */
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        description.append((location == null) ? "No location" : location.getDesignation())
+                   .append(": ").append(lineCount).append(" lines, ")
+                   .append(customerCount).append(" customers, ")
+                   .append(rentalCount).append(" rentals, ")
+                   .append(errorCount).append(" errors");
+        for (int errorIdx = 0; errorIdx < errorLineNos.size(); errorIdx++) {
+            description.append(System.lineSeparator()).append("  line ").append(errorLineNos.get(errorIdx))
+                       .append(": ").append(errorMessages.get(errorIdx));
+        }
+        if (errorCount > errorLineNos.size()) {
+            description.append(System.lineSeparator()).append("  and ")
+                       .append(errorCount - errorLineNos.size()).append(" more");
+        }
+        return description.toString();
+    }
+
+    //---------------------------------------------------------------------
+    //          MUTATORS
+    //---------------------------------------------------------------------
+    /**
+     * Records the location loaded
+     *
+     * @param   location    the location
+     */
+    void setLocation(StorageLocation location) {
+        this.location = location;
+    }
+
+    /**
+     * Records the number of lines read
+     *
+     * @param   lineCount   the line count
+     */
+    void setLineCount(long lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Counts a customer added
+     */
+    void customerAdded() {
+        customerCount++;
+    }
+
+    /**
+     * Counts a rental made
+     */
+    void rentalMade() {
+        rentalCount++;
+    }
+
+    /**
+     * Records a rejected line
+     *
+     * @param   lineNo      the line's number
+     * @param   message     why it was rejected
+     */
+    void lineRejected(long lineNo, String message) {
+        errorCount++;
+        if (errorLineNos.size() < MAX_REPORTED_ERRORS) {
+            errorLineNos.add(lineNo);
+            errorMessages.add(message);
+        }
+    }
+
+}
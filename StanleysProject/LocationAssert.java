@@ -0,0 +1,87 @@
+import static org.junit.Assert.*;
+
+/**
+ * Assertions shared by the tests of the classes that save and restore a whole
+ * storage location (FacilityCodec, RentalJournal and the like).
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LocationAssert {
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LocationAssert Constructor; not used, as every method is static
+     */
+    private LocationAssert() {
+    }
+
+    //---------------------------------------------------------------------
+    //          ASSERTIONS
+    //---------------------------------------------------------------------
+    /**
+     * Checks that a restored location matches the original: its designation,
+     * pricing and layout, its customers and their balances, every unit's current
+     * rental, and every unit's rental history
+     *
+     * @param   expected    the original location
+     * @param   actual      the restored location
+     */
+    public static void assertSameState(StorageLocation expected, StorageLocation actual) {
+        assertEquals(expected.getDesignation(), actual.getDesignation());
+        assertEquals(expected.getUnitBasePriceCents(), actual.getUnitBasePriceCents());
+        assertEquals(expected.getMultiUnitDiscount(), actual.getMultiUnitDiscount(), 0.0);
+        assertEquals(expected.getUnitCount(), actual.getUnitCount());
+        assertEquals(expected.getCustomerCount(), actual.getCustomerCount());
+        for (int customerId = 0; customerId < expected.getCustomerCount(); customerId++) {
+            Customer expectedCust = expected.getCustomer(customerId);
+            Customer actualCust = actual.getCustomer(customerId);
+            assertEquals(expectedCust.getName(), actualCust.getName());
+            assertEquals(expectedCust.getPhone(), actualCust.getPhone());
+            assertEquals(expectedCust.getBalanceCents(), actualCust.getBalanceCents());
+            assertEquals(expected.getCustomerUnitCount(expectedCust), actual.getCustomerUnitCount(actualCust));
+        }
+        for (int locationIdx = 0; locationIdx < expected.getUnitCount(); locationIdx++) {
+            StorageUnit expectedUnit = expected.unitAt(locationIdx);
+            StorageUnit actualUnit = actual.unitAt(locationIdx);
+            assertEquals(expectedUnit.getWidth(), actualUnit.getWidth());
+            assertEquals(expectedUnit.getLength(), actualUnit.getLength());
+            assertEquals(expectedUnit.getHeight(), actualUnit.getHeight());
+            assertEquals(expectedUnit.getType(), actualUnit.getType());
+            assertEquals(expectedUnit.getRentalStart(), actualUnit.getRentalStart());
+            assertEquals(expectedUnit.getPriceCents(), actualUnit.getPriceCents());
+            assertSameCustomer(expectedUnit.getCustomer(), actualUnit.getCustomer());
+
+            RentalRecord[] expectedHistory = expectedUnit.getRentalHistory();
+            RentalRecord[] actualHistory = actualUnit.getRentalHistory();
+            assertEquals(expectedHistory.length, actualHistory.length);
+            for (int recordIdx = 0; recordIdx < expectedHistory.length; recordIdx++) {
+                RentalRecord expectedRecord = expectedHistory[recordIdx];
+                RentalRecord actualRecord = actualHistory[recordIdx];
+                assertEquals(expectedRecord.getRentalStart(), actualRecord.getRentalStart());
+                assertEquals(expectedRecord.getRentalEnd(), actualRecord.getRentalEnd());
+                assertEquals(expectedRecord.getPriceCents(), actualRecord.getPriceCents());
+                assertSameCustomer(expectedRecord.getCustomer(), actualRecord.getCustomer());
+            }
+        }
+        assertEquals(expected.getEmptyUnitCount(), actual.getEmptyUnitCount());
+    }
+
+    /**
+     * Checks that a restored customer stands for the original (restored customers
+     * are new objects, so they're matched by phone number)
+     *
+     * @param   expected    the original customer, or null
+     * @param   actual      the restored customer, or null
+     */
+    private static void assertSameCustomer(Customer expected, Customer actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertEquals(expected.getPhone(), actual.getPhone());
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Receives the changes made to a storage location, in the order the location
+ * applies them to its own indexes.
+ *
+ * Listeners should record what they need and return quickly, and must not call back
+ * into the location.  Each method is called by the thread making the change, so a
+ * listener may be called from several threads at once.  unitRented, unitReleased and
+ * pricingChanged are called while the location holds its lock, and customerAdded and
+ * customerUpdated while its customer registry holds its lock (customers added by
+ * renting them a unit are reported without the location's lock).  customerCharged and
+ * customerCredited are called holding neither lock, only the customer's own balance
+ * held still, so calls for different customers may come at the same time as each
+ * other and as any other method.  The calls for one customer come one at a time, in
+ * the order the changes were made, and never overlap that customer's customerAdded.
+ *
+ * Every method does nothing by default, so a listener need only implement the
+ * changes it cares about.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public interface LocationListener {
+
+    /**
+     * Called when a customer is added to the location
+     *
+     * @param   location        the location
+     * @param   customerId      the id the customer was given
+     * @param   customer        the customer
+     * @param   balanceCents    the customer's balance, in cents; its charges and
+     *                          credits from then on are reported to customerCharged
+     *                          and customerCredited, and none made before
+     */
+    default void customerAdded(StorageLocation location, int customerId, Customer customer, long balanceCents) {
+    }
+
+    /**
+     * Called when one of the location's customers changes name or phone number
+     *
+     * @param   location        the location
+     * @param   customerId      the customer's id
+     * @param   customer        the customer, with its new details
+     */
+    default void customerUpdated(StorageLocation location, int customerId, Customer customer) {
+    }
+
+    /**
+     * Called when one of the location's units is rented
+     *
+     * @param   location            the location
+     * @param   locationIdx         the unit's location index
+     * @param   customerId          the id of the renting customer
+     * @param   rentalStartDay      the start of the rental, as an epoch day
+     * @param   priceCents          the monthly price of the rental, in cents
+     */
+    default void unitRented(StorageLocation location, int locationIdx, int customerId, 
+                            long rentalStartDay, long priceCents) {
+    }
+
+    /**
+     * Called when one of the location's units is released
+     *
+     * @param   location            the location
+     * @param   locationIdx         the unit's location index
+     * @param   customerId          the id of the customer who was renting the unit
+     * @param   rentalEndDay        the end of the rental, as an epoch day
+     * @param   priceCents          the monthly price the unit was rented at, in cents
+     */
+    default void unitReleased(StorageLocation location, int locationIdx, int customerId,
+                              long rentalEndDay, long priceCents) {
+    }
+
+    /**
+     * Called when the location's prices change
+     *
+     * @param   location                the location
+     * @param   basePriceCents          the monthly price of a standard unit, in cents
+     * @param   discountBasisPoints     the multi-unit discount, in basis points
+     */
+    default void pricingChanged(StorageLocation location, long basePriceCents, long discountBasisPoints) {
+    }
+
+    /**
+     * Called when one of the location's customers is charged
+     *
+     * @param   location        the location
+     * @param   customerId      the customer's id
+     * @param   cents           the amount charged, in cents
+     */
+    default void customerCharged(StorageLocation location, int customerId, long cents) {
+    }
+
+    /**
+     * Called when one of the location's customers is credited
+     *
+     * @param   location        the location
+     * @param   customerId      the customer's id
+     * @param   cents           the amount credited, in cents
+     */
+    default void customerCredited(StorageLocation location, int customerId, long cents) {
+    }
+
+}
@@ -0,0 +1,618 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads a whole location (its layout, customers and current rentals) from a CSV
+ * file, as when taking on a facility from another company
+ *
+ * The file holds one record per line, named by its first field, in this order:
+ * <pre>
+ *     location,WA12Kirkland,100.00,0.10        designation, then optionally the base
+ *                                              price and multi-unit discount
+ *     row                                      starts a row of units
+ *     units,20,4,8,8,STANDARD                  count, width, length, height, type
+ *     customer,Pat Perkins,425-555-1314,25.00  name, phone, then optionally the balance
+ *     rental,0,3,425-555-1314,2026-01-15,99.95 row, space, customer's phone, start, price
+ * </pre>
+ * Fields holding commas may be quoted, with doubled quotes inside; blank lines and
+ * lines starting with # are skipped.
+ *
+ * The file is read in chunks of lines, which are parsed and checked on a fork/join
+ * pool while the loader applies the chunks already parsed, in file order; only a
+ * few chunks are held at once, so a file of any length loads in little more memory
+ * than the location itself.  Rentals are made straight in the location's unit
+ * store and its indexes are brought up to date once, at the end.
+ *
+ * A line that fails the checks the location's own classes make (the designation's
+ * pattern, unit dimensions in multiples of 4 and 2, a customer's name and phone
+ * number) or that can't be applied (a unit already rented, a customer who isn't
+ * known) is left out and reported, and loading carries on.  If the location line or
+ * any line of the layout is rejected, no location is built, but the rest of the
+ * file is still checked so every error is reported in one pass.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LocationLoader {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of lines parsed as one task */
+    public static final int LINES_PER_CHUNK = 4096;
+    /** the number of chunks per pool thread that may be read ahead of the loader */
+    public static final int CHUNKS_AHEAD_PER_THREAD = 2;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the pool on which lines are parsed */
+    private ForkJoinPool pool;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LocationLoader Constructor; parses on the common fork/join pool
+     */
+    public LocationLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * LocationLoader Constructor
+     *
+     * @param   pool    the pool on which to parse lines; must not be null
+     */
+    public LocationLoader(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Loads a location from a UTF-8 CSV file
+     *
+     * @param   path    the file; must not be null
+     * @return          the location loaded and the lines rejected
+     * @throws  IOException if the file can't be read
+     */
+    public LoadReport load(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null");
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Loads a location from CSV text; the reader is read to its end but not closed
+     *
+     * @param   reader  the text; must not be null
+     * @return          the location loaded and the lines rejected
+     * @throws  IOException if the text can't be read
+     */
+    public LoadReport load(Reader reader) throws IOException {
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader must not be null");
+        }
+        BufferedReader lines = (reader instanceof BufferedReader) ? (BufferedReader) reader
+                                                                  : new BufferedReader(reader);
+        int maxAhead = CHUNKS_AHEAD_PER_THREAD * pool.getParallelism();
+        Deque<ForkJoinTask<Line[]>> parsing = new ArrayDeque<>();
+        Load load = new Load();
+        long lineCount = 0;
+        String[] chunk = new String[LINES_PER_CHUNK];
+        int chunkSize = 0;
+        String text;
+        do {
+            text = lines.readLine();
+            if (text != null) {
+                chunk[chunkSize++] = text;
+                lineCount++;
+            }
+            if (chunkSize == LINES_PER_CHUNK || (text == null && chunkSize > 0)) {
+                final String[] texts = (chunkSize == LINES_PER_CHUNK) ? chunk 
+                                                                      : Arrays.copyOf(chunk, chunkSize);
+                final long firstLineNo = lineCount - chunkSize + 1;
+                parsing.addLast(pool.submit(() -> parseChunk(texts, firstLineNo)));
+                chunk = new String[LINES_PER_CHUNK];
+                chunkSize = 0;
+                if (parsing.size() > maxAhead) {
+                    load.apply(parsing.removeFirst().join());
+                }
+            }
+        } while (text != null);
+        while (!parsing.isEmpty()) {
+            load.apply(parsing.removeFirst().join());
+        }
+        return load.finish(lineCount);
+    }
+
+    /**
+     * Parses and checks a chunk of lines, on a pool thread
+     *
+     * @param   texts           the lines
+     * @param   firstLineNo     the number of the first line
+     * @return                  the parsed lines, in the same order
+     */
+    private static Line[] parseChunk(String[] texts, long firstLineNo) {
+        Line[] parsed = new Line[texts.length];
+        for (int lineIdx = 0; lineIdx < texts.length; lineIdx++) {
+            parsed[lineIdx] = parseLine(texts[lineIdx], firstLineNo + lineIdx);
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses and checks one line
+     *
+     * @param   text        the line
+     * @param   lineNo      its number
+     * @return              the parsed line, holding the reason if it was rejected
+     */
+    private static Line parseLine(String text, long lineNo) {
+        Line line = new Line(lineNo);
+        String trimmed = text.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return line;
+        }
+        try {
+            List<String> fields = splitFields(text);
+            line.kind = Kind.named(fields.get(0));
+            switch (line.kind) {
+                case LOCATION:
+                    checkFieldCount(fields, 2, 4);
+                    StorageLocation.checkDesignation(fields.get(1));
+                    line.designation = fields.get(1);
+                    line.priceCents = (fields.size() > 2) ? cents(fields.get(2), "Base price")
+                                                          : Money.toCents(StorageLocation.DEFAULT_UNIT_BASE_PRICE);
+                    if (line.priceCents < 0) {
+                        throw new IllegalArgumentException("The base price must not be negative");
+                    }
+                    line.discount = (fields.size() > 3) ? number(fields.get(3), "Discount")
+                                                        : StorageLocation.DEFAULT_MULTI_UNIT_DISCOUNT;
+                    if (!(line.discount >= 0 && line.discount <= 1)) {
+                        throw new IllegalArgumentException("The discount must be from 0 to 1");
+                    }
+                    break;
+                case ROW:
+                    checkFieldCount(fields, 1, 1);
+                    break;
+                case UNITS:
+                    checkFieldCount(fields, 6, 6);
+                    line.count  = wholeNumber(fields.get(1), "Unit count");
+                    line.width  = wholeNumber(fields.get(2), "Width");
+                    line.length = wholeNumber(fields.get(3), "Length");
+                    line.height = wholeNumber(fields.get(4), "Height");
+                    line.type   = unitType(fields.get(5));
+                    FacilityLayout.checkUnits(line.count, line.width, line.length, line.height, line.type);
+                    break;
+                case CUSTOMER:
+                    checkFieldCount(fields, 3, 4);
+                    line.customer = new Customer(fields.get(1), fields.get(2));
+                    line.priceCents = (fields.size() > 3) ? cents(fields.get(3), "Balance") : 0;
+                    break;
+                case RENTAL:
+                    checkFieldCount(fields, 6, 6);
+                    line.rowIdx   = wholeNumber(fields.get(1), "Row");
+                    line.spaceIdx = wholeNumber(fields.get(2), "Space");
+                    line.phone    = fields.get(3);
+                    if (line.phone.isEmpty()) {
+                        throw new IllegalArgumentException("Phone must be non-null and non-empty");
+                    }
+                    line.start = LocalDate.parse(fields.get(4));
+                    line.priceCents = cents(fields.get(5), "Price");
+                    if (line.priceCents < 0) {
+                        throw new IllegalArgumentException("The price must not be negative");
+                    }
+                    break;
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            line.error = e.getMessage();
+        }
+        return line;
+    }
+
+    /**
+     * Splits a CSV line into fields, unquoting quoted fields and trimming the rest
+     *
+     * @param   text    the line
+     * @return          its fields
+     */
+    private static List<String> splitFields(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int charIdx = 0;
+        while (true) {
+            while (charIdx < text.length() && text.charAt(charIdx) == ' ') {
+                charIdx++;
+            }
+            field.setLength(0);
+            if (charIdx < text.length() && text.charAt(charIdx) == '"') {
+                charIdx++;
+                while (true) {
+                    if (charIdx >= text.length()) {
+                        throw new IllegalArgumentException("A quoted field isn't closed");
+                    }
+                    char ch = text.charAt(charIdx++);
+                    if (ch != '"') {
+                        field.append(ch);
+                    } else if (charIdx < text.length() && text.charAt(charIdx) == '"') {
+                        field.append('"');
+                        charIdx++;
+                    } else {
+                        break;
+                    }
+                }
+                while (charIdx < text.length() && text.charAt(charIdx) == ' ') {
+                    charIdx++;
+                }
+                if (charIdx < text.length() && text.charAt(charIdx) != ',') {
+                    throw new IllegalArgumentException("Text follows a quoted field");
+                }
+                fields.add(field.toString());
+            } else {
+                int fieldEnd = text.indexOf(',', charIdx);
+                fields.add(text.substring(charIdx, (fieldEnd < 0) ? text.length() : fieldEnd).trim());
+                charIdx = (fieldEnd < 0) ? text.length() : fieldEnd;
+            }
+            if (charIdx >= text.length()) {
+                return fields;
+            }
+            // skip the comma
+            charIdx++;
+        }
+    }
+
+    /**
+     * Checks that a line has a number of fields
+     *
+     * @param   fields      the line's fields, including its record name
+     * @param   min         the fewest fields allowed
+     * @param   max         the most fields allowed
+     */
+    private static void checkFieldCount(List<String> fields, int min, int max) {
+        if (fields.size() < min || fields.size() > max) {
+            String expected = (min == max) ? String.valueOf(min) : min + " to " + max;
+            throw new IllegalArgumentException("A " + fields.get(0) + " line has " + expected
+                                               + " fields, not " + fields.size());
+        }
+    }
+
+    /**
+     * Reads a whole number from a field
+     *
+     * @param   field   the field
+     * @param   what    what the field holds, for the error message
+     * @return          the number
+     */
+    private static int wholeNumber(String field, String what) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " must be a whole number, not \"" + field + "\"");
+        }
+    }
+
+    /**
+     * Reads a number from a field
+     *
+     * @param   field   the field
+     * @param   what    what the field holds, for the error message
+     * @return          the number
+     */
+    private static double number(String field, String what) {
+        try {
+            double value = Double.parseDouble(field);
+            if (!Double.isInfinite(value) && !Double.isNaN(value)) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(what + " must be a number, not \"" + field + "\"");
+    }
+
+    /**
+     * Reads an amount of dollars from a field
+     *
+     * @param   field   the field
+     * @param   what    what the field holds, for the error message
+     * @return          the amount, in cents
+     */
+    private static long cents(String field, String what) {
+        return Money.toCents(number(field, what));
+    }
+
+    /**
+     * Reads a unit type from a field
+     *
+     * @param   field   the field, holding a type's name in any case
+     * @return          the type
+     */
+    private static StorageUnit.UnitType unitType(String field) {
+        for (StorageUnit.UnitType type : StorageUnit.UnitType.values()) {
+            if (type.name().equalsIgnoreCase(field)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown unit type \"" + field + "\"");
+    }
+
+    //---------------------------------------------------------------------
+    //          RECORDS
+    //---------------------------------------------------------------------
+    /**
+     * The kinds of line in a location file
+     */
+    private enum Kind {
+        LOCATION, ROW, UNITS, CUSTOMER, RENTAL;
+
+        /**
+         * Finds the kind of line named by a line's first field
+         *
+         * @param   name    the first field
+         * @return          the kind of line
+         */
+        static Kind named(String name) {
+            for (Kind kind : values()) {
+                if (kind.name().equalsIgnoreCase(name)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown record \"" + name + "\"");
+        }
+    }
+
+    /**
+     * One parsed line; the fields used depend on its kind
+     */
+    private static final class Line {
+        /** the line's number */
+        final long lineNo;
+        /** the kind of line, or null for a blank line, a comment or an unknown record */
+        Kind kind;
+        /** why the line was rejected, or null if it wasn't */
+        String error;
+        /** the designation, for a location line */
+        String designation;
+        /** the base price (location), balance (customer) or monthly price (rental), in cents */
+        long priceCents;
+        /** the multi-unit discount, for a location line */
+        double discount;
+        /** the unit count and dimensions, for a units line */
+        int count, width, length, height;
+        /** the unit type, for a units line */
+        StorageUnit.UnitType type;
+        /** the customer, for a customer line */
+        Customer customer;
+        /** the unit's row and space, for a rental line */
+        int rowIdx, spaceIdx;
+        /** the customer's phone number, for a rental line */
+        String phone;
+        /** the rental start, for a rental line */
+        LocalDate start;
+
+        /**
+         * Line Constructor
+         *
+         * @param   lineNo      the line's number
+         */
+        Line(long lineNo) {
+            this.lineNo = lineNo;
+        }
+    }
+
+    /**
+     * Applies parsed lines to the location being loaded, in file order
+     */
+    private static final class Load {
+        /** the outcome of the load */
+        private final LoadReport report = new LoadReport();
+        /** the layout, built from the row and units lines */
+        private final FacilityLayout layout = new FacilityLayout();
+        /** the units rented, to be indexed at the end */
+        private final BitSet rented = new BitSet();
+        /** the location line, or null until it is read (or if it was rejected) */
+        private Line locationLine;
+        /** true once a location line has been read, whether or not it was rejected */
+        private boolean locationSeen;
+        /** true once the location line or a line of the layout has been rejected */
+        private boolean layoutRejected;
+        /** true once the layout is finished (at the first customer or rental) */
+        private boolean layoutDone;
+        /** the location, once the layout is finished; null if it couldn't be built */
+        private StorageLocation location;
+
+        /**
+         * Applies a chunk of parsed lines
+         *
+         * @param   lines   the lines, in file order
+         */
+        void apply(Line[] lines) {
+            for (Line line : lines) {
+                locationSeen |= (line.kind == Kind.LOCATION);
+                if (line.error != null) {
+                    report.lineRejected(line.lineNo, line.error);
+                    if (!layoutDone && (line.kind == Kind.LOCATION || line.kind == Kind.ROW
+                                        || line.kind == Kind.UNITS)) {
+                        layoutRejected = true;
+                    }
+                } else if (line.kind != null) {
+                    apply(line);
+                }
+            }
+        }
+
+        /**
+         * Applies one line that passed its checks
+         *
+         * @param   line    the line
+         */
+        private void apply(Line line) {
+            switch (line.kind) {
+                case LOCATION:
+                    if (locationLine != null || layoutRejected || layout.getRowCount() > 0 || layoutDone) {
+                        reject(line, "The location line must come first, and only once");
+                    } else {
+                        locationLine = line;
+                    }
+                    break;
+                case ROW:
+                case UNITS:
+                    applyLayout(line);
+                    break;
+                case CUSTOMER:
+                    finishLayout(line.lineNo);
+                    if (location != null) {
+                        try {
+                            RentalJournal.setBalance(line.customer, line.priceCents);
+                            location.addCustomer(line.customer);
+                            report.customerAdded();
+                        } catch (IllegalArgumentException e) {
+                            reject(line, e.getMessage());
+                        }
+                    }
+                    break;
+                case RENTAL:
+                    finishLayout(line.lineNo);
+                    if (location != null) {
+                        applyRental(line);
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * Applies a row or units line
+         *
+         * @param   line    the line
+         */
+        private void applyLayout(Line line) {
+            if (layoutDone) {
+                reject(line, "Rows and units must come before customers and rentals");
+                return;
+            }
+            if (locationLine == null) {
+                // after a rejected location line, its layout is only checked
+                if (!locationSeen) {
+                    reject(line, "The location line must come first");
+                }
+                layoutRejected = true;
+                return;
+            }
+            if (line.kind == Kind.ROW) {
+                layout.addRow();
+            } else if (layout.getRowCount() == 0) {
+                layoutRejected = true;
+                reject(line, "Units must follow a row line");
+            } else {
+                try {
+                    layout.addUnits(line.count, line.width, line.length, line.height, line.type);
+                } catch (IllegalArgumentException e) {
+                    layoutRejected = true;
+                    reject(line, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Applies a rental line, renting the unit straight in the unit store
+         *
+         * @param   line    the line
+         */
+        private void applyRental(Line line) {
+            Customer customer = location.findCustomerByPhone(line.phone);
+            if (customer == null) {
+                reject(line, "No customer has phone number " + line.phone);
+                return;
+            }
+            int locationIdx;
+            try {
+                locationIdx = layout.getLocationIdx(line.rowIdx, line.spaceIdx);
+            } catch (IndexOutOfBoundsException e) {
+                reject(line, "No unit at row " + line.rowIdx + ", space " + line.spaceIdx);
+                return;
+            }
+            if (!location.units.rent(locationIdx, customer, line.start, line.priceCents)) {
+                reject(line, "The unit at row " + line.rowIdx + ", space " + line.spaceIdx + " is already rented");
+                return;
+            }
+            rented.set(locationIdx);
+            report.rentalMade();
+        }
+
+        /**
+         * Builds the location from the layout read so far, the first time it is called
+         *
+         * @param   lineNo      the line that ends the layout, for the error message
+         */
+        private void finishLayout(long lineNo) {
+            if (layoutDone) {
+                return;
+            }
+            layoutDone = true;
+            if (layoutRejected) {
+                return;
+            }
+            if (locationLine == null) {
+                report.lineRejected(lineNo, "No location line came before line " + lineNo);
+                return;
+            }
+            try {
+                location = new StorageLocation(locationLine.designation, layout,
+                                               Money.toDollars(locationLine.priceCents));
+                location.setMultiUnitDiscount(locationLine.discount);
+            } catch (IllegalStateException e) {
+                report.lineRejected(locationLine.lineNo, "The location has no units");
+            }
+        }
+
+        /**
+         * Finishes the load, indexing every rental made at once
+         *
+         * @param   lineCount   the number of lines read
+         * @return              the outcome of the load
+         */
+        LoadReport finish(long lineCount) {
+            finishLayout(lineCount);
+            if (location != null) {
+                location.unitsChanged(rented);
+                report.setLocation(location);
+            }
+            report.setLineCount(lineCount);
+            return report;
+        }
+
+        /**
+         * Rejects a line
+         *
+         * @param   line        the line
+         * @param   message     why
+         */
+        private void reject(Line line, String message) {
+            report.lineRejected(line.lineNo, message);
+        }
+    }
+
+}
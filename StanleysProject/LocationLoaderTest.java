@@ -0,0 +1,285 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The test class LocationLoaderTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LocationLoaderTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 15);
+
+    private LocationLoader testLoader;
+
+    /**
+     * Default constructor for test class LocationLoaderTest
+     */
+    public LocationLoaderTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoader = new LocationLoader();
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testLoad() throws IOException {
+        LoadReport report = load("# an acquired facility",
+                                 "location,OR03Salem,80.00,0.15",
+                                 "row",
+                                 "units,3,4,8,8,STANDARD",
+                                 "units,2,8,8,8,standard",
+                                 "",
+                                 "row",
+                                 "units,4,12,16,10,TEMPERATURE",
+                                 "customer,\"Perkins, Pat\",425-555-1314,25.50",
+                                 "customer, Chris Connoly , 425-555-3141",
+                                 "rental,0,4,425-555-1314,2026-01-15,99.95",
+                                 "rental,1,0,425-555-1314,2025-11-01,150",
+                                 "rental,1,3,425-555-3141,2026-01-15,150");
+        assertTrue(report.toString(), report.isClean());
+        assertEquals(13, report.getLineCount());
+        assertEquals(2, report.getCustomerCount());
+        assertEquals(3, report.getRentalCount());
+
+        StorageLocation loc = report.getLocation();
+        assertEquals("OR03Salem", loc.getDesignation());
+        assertEquals(80.00, loc.getUnitBasePrice(), StorageLocationTest.DOLLAR_VARIANCE);
+        assertEquals(0.15, loc.getMultiUnitDiscount(), StorageLocationTest.DOLLAR_VARIANCE);
+        assertEquals(2, loc.getRowCount());
+        assertEquals(5, loc.getUnitsPerRowCount(0));
+        assertEquals(8, loc.getStorageUnit(0, 4).getWidth());
+        assertEquals(16, loc.getStorageUnit(1, 2).getLength());
+
+        Customer pat = loc.findCustomerByPhone("425-555-1314");
+        assertEquals("Perkins, Pat", pat.getName());
+        assertEquals(2550, pat.getBalanceCents());
+        assertEquals("Chris Connoly", loc.getCustomer(1).getName());
+        assertEquals(Arrays.asList(loc.getStorageUnit(0, 4), loc.getStorageUnit(1, 0)),
+                     Arrays.asList(loc.getCustomerUnits(pat)));
+        assertEquals(LocalDate.of(2025, 11, 1), loc.getStorageUnit(1, 0).getRentalStart());
+        assertEquals(9995, loc.getStorageUnit(0, 4).getPriceCents());
+        assertEquals(6, loc.getEmptyUnitCount());
+        assertEquals(2, loc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(39995, loc.getMetrics().getContractedRentCents());
+        assertEquals(3, loc.getOccupiedUnitCount(START, null));
+    }
+
+    @Test
+    public void testIndexesAfterLoad() throws IOException {
+        LoadReport report = load("location,OR03Salem",
+                                 "row",
+                                 "units,6,4,8,8,STANDARD",
+                                 "customer,Pat Perkins,425-555-1314",
+                                 "rental,0,1,425-555-1314,2026-01-15,100",
+                                 "rental,0,4,425-555-1314,2026-01-15,100");
+        StorageLocation loc = report.getLocation();
+        Customer chris = new Customer("Chris Connoly", "425-555-3141");
+        // the runs of free units are 0, 2-3 and 5, so two side by side come from 2-3
+        StorageUnit[] rented = loc.rentUnitsOfType(StorageUnit.UnitType.STANDARD, 2, chris, START, 5000);
+        assertEquals(Arrays.asList(loc.getStorageUnit(0, 2), loc.getStorageUnit(0, 3)), Arrays.asList(rented));
+        assertEquals(0, loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 2).length);
+        assertTrue(loc.getStorageUnit(0, 1).release(START.plusDays(10)));
+        assertEquals(2, loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 2).length);
+        assertEquals(1, loc.getStorageUnit(0, 1).getRentalHistory().length);
+    }
+
+    @Test
+    public void testRejectedLines() throws IOException {
+        LoadReport report = load("location,OR03Salem",
+                                 "row",
+                                 "units,4,4,8,8,STANDARD",
+                                 "customer,Pat Perkins,425-555-1314",
+                                 "customer,,425-555-0001",
+                                 "customer,Pat Again,425-555-1314",
+                                 "rental,0,0,425-555-9999,2026-01-15,100",
+                                 "rental,0,9,425-555-1314,2026-01-15,100",
+                                 "rental,0,1,425-555-1314,2026-02-30,100",
+                                 "rental,0,1,425-555-1314,2026-01-15,-5",
+                                 "rental,0,1,425-555-1314,2026-01-15,100",
+                                 "rental,0,1,425-555-1314,2026-01-15,100",
+                                 "rental,0,2,425-555-1314,2026-01-15",
+                                 "lease,0,2",
+                                 "row",
+                                 "customer,\"Sam,503-555-2718");
+        assertFalse(report.isClean());
+        assertEquals(11, report.getErrorCount());
+        assertEquals(11, report.getReportedErrorCount());
+        assertEquals(1, report.getCustomerCount());
+        assertEquals(1, report.getRentalCount());
+        long[] lineNos = new long[report.getReportedErrorCount()];
+        for (int errorIdx = 0; errorIdx < lineNos.length; errorIdx++) {
+            lineNos[errorIdx] = report.getErrorLineNo(errorIdx);
+        }
+        assertArrayEquals(new long[] { 5, 6, 7, 8, 9, 10, 12, 13, 14, 15, 16 }, lineNos);
+        assertEquals("Name must be non-null and non-empty", report.getErrorMessage(0));
+        assertTrue(report.getErrorMessage(2).contains("425-555-9999"));
+        assertTrue(report.getErrorMessage(6).contains("already rented"));
+        assertTrue(report.getErrorMessage(9).contains("before customers"));
+        assertTrue(report.toString().contains("line 8: No unit at row 0, space 9"));
+
+        StorageLocation loc = report.getLocation();
+        assertEquals(1, loc.getCustomerCount());
+        assertEquals(3, loc.getEmptyUnitCount());
+    }
+
+    @Test
+    public void testRejectedLayout() throws IOException {
+        LoadReport report = load("location,OR03Salem",
+                                 "row",
+                                 "units,4,5,8,8,STANDARD",
+                                 "units,4,4,8,7,STANDARD",
+                                 "units,4,4,8,8,CLIMATE",
+                                 "customer,Pat Perkins,425-555-1314",
+                                 "customer,,425-555-0001",
+                                 "rental,0,0,425-555-1314,2026-01-15,100");
+        assertNull(report.getLocation());
+        assertEquals(4, report.getErrorCount());
+        assertEquals("width and length must be a multiple of 4", report.getErrorMessage(0));
+        assertEquals("height must be a multiple of 2", report.getErrorMessage(1));
+        assertTrue(report.getErrorMessage(2).contains("CLIMATE"));
+        assertEquals(7, report.getErrorLineNo(3));
+        assertEquals(0, report.getRentalCount());
+    }
+
+    @Test
+    public void testRejectedDesignation() throws IOException {
+        LoadReport report = load("location,Salem",
+                                 "row",
+                                 "units,4,4,8,8,STANDARD");
+        assertNull(report.getLocation());
+        assertEquals(1, report.getErrorCount());
+        assertEquals("Designation doesn't match required pattern", report.getErrorMessage(0));
+    }
+
+    @Test
+    public void testMissingLocationLine() throws IOException {
+        LoadReport report = load("row",
+                                 "units,4,4,8,8,STANDARD");
+        assertNull(report.getLocation());
+        assertEquals(2, report.getErrorCount());
+        assertEquals(1, report.getErrorLineNo(0));
+    }
+
+    @Test
+    public void testReportedErrorsCapped() throws IOException {
+        StringBuilder csv = new StringBuilder("location,OR03Salem\nrow\nunits,4,4,8,8,STANDARD\n");
+        for (int lineIdx = 0; lineIdx < LoadReport.MAX_REPORTED_ERRORS + 500; lineIdx++) {
+            csv.append("customer,Customer ").append(lineIdx).append(",\n");
+        }
+        LoadReport report = testLoader.load(new StringReader(csv.toString()));
+        assertEquals(LoadReport.MAX_REPORTED_ERRORS + 500, report.getErrorCount());
+        assertEquals(LoadReport.MAX_REPORTED_ERRORS, report.getReportedErrorCount());
+        assertEquals(4, report.getErrorLineNo(0));
+        assertTrue(report.toString().endsWith("and 500 more"));
+    }
+
+    @Test
+    public void testLargeLocationRoundTrip() throws IOException {
+        // enough lines for several chunks, parsed on a pool of four
+        StorageLocation original = Benchmark.buildLocation(20000);
+        original.chargeMonthlyRentCents();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        LoadReport report = new LocationLoader(pool).load(new StringReader(Benchmark.toCsv(original)));
+        pool.shutdown();
+        assertTrue(report.toString(), report.isClean());
+
+        StorageLocation loc = report.getLocation();
+        assertEquals(original.getUnitCount(), loc.getUnitCount());
+        assertEquals(original.getCustomerCount(), loc.getCustomerCount());
+        assertEquals(original.getEmptyUnitCount(), loc.getEmptyUnitCount());
+        assertEquals(original.getMetrics().getContractedRentCents(), loc.getMetrics().getContractedRentCents());
+        for (int customerId = 0; customerId < original.getCustomerCount(); customerId++) {
+            Customer originalCust = original.getCustomer(customerId);
+            Customer cust = loc.getCustomer(customerId);
+            assertEquals(originalCust.getPhone(), cust.getPhone());
+            assertEquals(originalCust.getBalanceCents(), cust.getBalanceCents());
+            assertEquals(original.getCustomerUnitCount(originalCust), loc.getCustomerUnitCount(cust));
+        }
+        for (int locationIdx = 0; locationIdx < original.getUnitCount(); locationIdx++) {
+            assertEquals(original.unitAt(locationIdx).getRentalStart(), loc.unitAt(locationIdx).getRentalStart());
+            assertEquals(original.unitAt(locationIdx).getPriceCents(), loc.unitAt(locationIdx).getPriceCents());
+        }
+        assertEquals(original.findAdjacentUnits(StorageUnit.UnitType.HUMIDITY, 1).length,
+                     loc.findAdjacentUnits(StorageUnit.UnitType.HUMIDITY, 1).length);
+    }
+
+    @Test
+    public void testLoadFile() throws IOException {
+        Path file = Files.createTempFile("location", ".csv");
+        try {
+            Files.write(file, Arrays.asList("location,OR03Salem", "row", "units,4,4,8,8,STANDARD",
+                                            "customer,Zo\u00eb Perkins,425-555-1314"), StandardCharsets.UTF_8);
+            LoadReport report = testLoader.load(file);
+            assertTrue(report.isClean());
+            assertEquals("Zo\u00eb Perkins", report.getLocation().getCustomer(0).getName());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testLoadReaderNull() throws IOException {
+        testLoader.load((StringReader) null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testLoadPathNull() throws IOException {
+        testLoader.load((Path) null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testConstrPoolNull() {
+        new LocationLoader(null);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Loads a location from lines of CSV
+     *
+     * @param   lines   the lines
+     * @return          the outcome of the load
+     * @throws  IOException if the lines can't be read
+     */
+    private LoadReport load(String... lines) throws IOException {
+        return testLoader.load(new StringReader(String.join("\n", lines)));
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * A snapshot of a location's occupancy and contracted rent, taken at one moment.
+ *
+ * The location keeps these figures up to date as units are rented and released, so
+ * taking a snapshot never visits the units.  A snapshot doesn't change afterwards;
+ * ask the location for a new one to see later rentals.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LocationMetrics {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the designation of the location measured */
+    private String designation;
+    /** the number of units of each type; indexed by unit type ordinal */
+    private int[] unitCountByType;
+    /** the number of rented units of each type; indexed by unit type ordinal */
+    private int[] occupiedCountByType;
+    /** the monthly rent of all rented units, in cents */
+    private long contractedRentCents;
+    /** the number of customers renting at least one unit */
+    private int rentingCustomerCount;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LocationMetrics Constructor
+     *
+     * @param   designation             the designation of the location measured
+     * @param   unitCountByType         the number of units of each type
+     * @param   occupiedCountByType     the number of rented units of each type
+     * @param   contractedRentCents     the monthly rent of all rented units, in cents
+     * @param   rentingCustomerCount    the number of customers renting at least one unit
+     */
+    LocationMetrics(String designation, int[] unitCountByType, int[] occupiedCountByType,
+                    long contractedRentCents, int rentingCustomerCount) {
+        this.designation = designation;
+        this.unitCountByType = unitCountByType.clone();
+        this.occupiedCountByType = occupiedCountByType.clone();
+        this.contractedRentCents = contractedRentCents;
+        this.rentingCustomerCount = rentingCustomerCount;
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the designation of the location measured
+     *
+     * @return      the location's designation
+     */
+    public String getDesignation() {
+        return designation;
+    }
+
+    /**
+     * Counts the location's units
+     *
+     * @return      the number of units
+     */
+    public int getUnitCount() {
+        return sum(unitCountByType);
+    }
+
+    /**
+     * Counts the location's units of one type
+     *
+     * @param   unitType    the type of unit of interest
+     * @return              the number of units of that type
+     */
+    public int getUnitCount(StorageUnit.UnitType unitType) {
+        return unitCountByType[unitType.ordinal()];
+    }
+
+    /**
+     * Counts the location's rented units
+     *
+     * @return      the number of rented units
+     */
+    public int getOccupiedUnitCount() {
+        return sum(occupiedCountByType);
+    }
+
+    /**
+     * Counts the location's rented units of one type
+     *
+     * @param   unitType    the type of unit of interest
+     * @return              the number of rented units of that type
+     */
+    public int getOccupiedUnitCount(StorageUnit.UnitType unitType) {
+        return occupiedCountByType[unitType.ordinal()];
+    }
+
+    /**
+     * Retrieves the share of the location's units that are rented
+     *
+     * @return      the occupancy, from 0.0 (empty) to 1.0 (full); 0.0 if there are no units
+     */
+    public double getOccupancy() {
+        return share(getOccupiedUnitCount(), getUnitCount());
+    }
+
+    /**
+     * Retrieves the share of the location's units of one type that are rented
+     *
+     * @param   unitType    the type of unit of interest
+     * @return              the occupancy, from 0.0 (empty) to 1.0 (full); 0.0 if
+     *                      there are no units of that type
+     */
+    public double getOccupancy(StorageUnit.UnitType unitType) {
+        return share(getOccupiedUnitCount(unitType), getUnitCount(unitType));
+    }
+
+    /**
+     * Retrieves the monthly rent of all rented units
+     *
+     * @return      the contracted monthly rent
+     */
+    public double getContractedRent() {
+        return Money.toDollars(contractedRentCents);
+    }
+
+    /**
+     * Retrieves the monthly rent of all rented units, in cents
+     *
+     * @return      the contracted monthly rent, in cents
+     */
+    public long getContractedRentCents() {
+        return contractedRentCents;
+    }
+
+    /**
+     * Counts the customers renting at least one unit
+     *
+     * @return      the number of renting customers
+     */
+    public int getRentingCustomerCount() {
+        return rentingCustomerCount;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Adds up per-type counts
+     *
+     * @param   countByType     the count for each type
+     * @return                  the total count
+     */
+    private static int sum(int[] countByType) {
+        int total = 0;
+        for (int count : countByType) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Works out a part's share of a whole
+     *
+     * @param   part    the part
+     * @param   whole   the whole
+     * @return          the share, or 0.0 if the whole is zero
+     */
+    private static double share(int part, int whole) {
+        return (whole == 0) ? 0.0 : (double) part / whole;
+    }
+
+}
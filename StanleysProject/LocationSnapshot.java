@@ -0,0 +1,858 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A read-only copy of a storage location's units and customers, kept in a file and
+ * queried where it lies, for reports that only need to read a location.
+ *
+ * The file is laid out in fixed-size records (one per unit and one per customer)
+ * followed by ready-made indexes: the empty units of each type, each customer's
+ * units, and the customers in phone number order.  Opening a snapshot maps the file
+ * into memory and checks its header, nothing more, so it costs the same whatever
+ * the location's size, and every process reading the same file shares a single
+ * copy of it in the operating system's page cache.  Units and customers come back
+ * as small views onto the file, built when asked for.
+ *
+ * A snapshot is written to a temporary file and then moved into place, so a report
+ * opening the file while a new snapshot is being written sees the old one or the new
+ * one, never a mixture; a report already holding a snapshot keeps reading the copy
+ * it opened.  Files are limited to 2 GB, which allows about 30 million units.
+ *
+ * Each open maps the file afresh, and the mapping is only let go once the snapshot
+ * is garbage collected, so a report should open a snapshot once and share it between
+ * its threads rather than open it for each query.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LocationSnapshot {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** identifies a snapshot file */
+    private static final int MAGIC = 0x53534C53;
+    /** the version of the format written; ordinals of UnitType are written, so
+     *  changing that enum means a new version */
+    private static final int FORMAT_VERSION = 2;
+    /** the unit types by ordinal, so views needn't copy values() each time they are asked */
+    private static final StorageUnit.UnitType[] UNIT_TYPES = StorageUnit.UnitType.values();
+    /** the size of the file header */
+    private static final int HEADER_BYTES = 64;
+    /** the size of each unit's record: width, length, height, type and customer id
+     *  (ints), four unused bytes, then start epoch day and price in cents (longs) */
+    private static final int UNIT_BYTES = 40;
+    /** the size of each customer's record: name and phone string offsets (ints)
+     *  and balance in cents (long) */
+    private static final int CUSTOMER_BYTES = 16;
+
+    // where each header field sits
+    private static final int UNIT_COUNT_AT       = 8;
+    private static final int ROW_COUNT_AT        = 12;
+    private static final int CUSTOMER_COUNT_AT   = 16;
+    private static final int TYPE_COUNT_AT       = 20;
+    private static final int RENT_CENTS_AT       = 24;
+    private static final int DESIGNATION_AT      = 32;
+    private static final int ROW_STARTS_AT       = 36;
+    private static final int UNITS_AT            = 40;
+    private static final int FREE_LISTS_AT       = 44;
+    private static final int CUSTOMER_UNITS_AT   = 48;
+    private static final int CUSTOMERS_AT        = 52;
+    private static final int PHONE_INDEX_AT      = 56;
+    private static final int TYPE_COUNTS_AT      = 60;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the mapped file; only ever read at absolute positions, so it can be shared by threads */
+    private final ByteBuffer file;
+    /** the location's designation */
+    private final String designation;
+    /** the number of units */
+    private final int unitCount;
+    /** the number of rows */
+    private final int rowCount;
+    /** the number of customers */
+    private final int customerCount;
+    /** where each section of the file starts */
+    private final int rowStartsAt, unitsAt, freeListsAt, customerUnitsAt, customersAt, phoneIndexAt, typeCountsAt;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LocationSnapshot Constructor; reads and checks the header of a mapped file
+     *
+     * @param   file    the mapped snapshot file
+     * @throws  IOException if the file isn't a snapshot this class reads
+     */
+    private LocationSnapshot(ByteBuffer file) throws IOException {
+        this.file = file;
+        if (file.capacity() < HEADER_BYTES || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a location snapshot");
+        }
+        if (file.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported location snapshot version " + file.getInt(4));
+        }
+        if (file.getInt(TYPE_COUNT_AT) != UNIT_TYPES.length) {
+            throw new IOException("Location snapshot written with other unit types");
+        }
+        unitCount       = file.getInt(UNIT_COUNT_AT);
+        rowCount        = file.getInt(ROW_COUNT_AT);
+        customerCount   = file.getInt(CUSTOMER_COUNT_AT);
+        rowStartsAt     = checkOffset(file.getInt(ROW_STARTS_AT));
+        unitsAt         = checkOffset(file.getInt(UNITS_AT));
+        freeListsAt     = checkOffset(file.getInt(FREE_LISTS_AT));
+        customerUnitsAt = checkOffset(file.getInt(CUSTOMER_UNITS_AT));
+        customersAt     = checkOffset(file.getInt(CUSTOMERS_AT));
+        phoneIndexAt    = checkOffset(file.getInt(PHONE_INDEX_AT));
+        typeCountsAt    = checkOffset(file.getInt(TYPE_COUNTS_AT));
+        designation     = stringAt(checkOffset(file.getInt(DESIGNATION_AT)));
+    }
+
+    /**
+     * Opens a snapshot file, mapping it into memory
+     *
+     * @param   path    the file written by write; must not be null
+     * @return          the snapshot
+     * @throws  IOException if the file can't be read, or isn't a snapshot this class reads
+     */
+    public static LocationSnapshot open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LocationSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Writes a snapshot of a location to a file, replacing any snapshot already there.
+     * The location is copied under its lock, then written.
+     *
+     * @param   location    the location; must not be null
+     * @param   path        the file to write; must not be null
+     * @throws  IOException if the file can't be written, or the location is too big
+     */
+    public static void write(StorageLocation location, Path path) throws IOException {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null");
+        }
+        LocationState state = new LocationState(location, false);
+        FacilityLayout layout = location.getLayout();
+        int units = layout.getUnitCount();
+        int customers = state.customers.length;
+        int typeCount = UNIT_TYPES.length;
+
+        // the free units, all together and then by type, each in location index order
+        int[] freeStarts = new int[typeCount + 2];
+        int[] typeCounts = new int[typeCount];
+        for (int locationIdx = 0; locationIdx < units; locationIdx++) {
+            int typeIdx = layout.getType(locationIdx).ordinal();
+            typeCounts[typeIdx]++;
+            if (state.unitCustomerIds[locationIdx] < 0) {
+                freeStarts[1]++;
+                freeStarts[typeIdx + 2]++;
+            }
+        }
+        for (int listIdx = 1; listIdx < freeStarts.length; listIdx++) {
+            freeStarts[listIdx] += freeStarts[listIdx - 1];
+        }
+        // each customer's units, in location index order
+        int[] customerStarts = new int[customers + 1];
+        for (int customerId : state.unitCustomerIds) {
+            if (customerId >= 0) {
+                customerStarts[customerId + 1]++;
+            }
+        }
+        for (int customerId = 0; customerId < customers; customerId++) {
+            customerStarts[customerId + 1] += customerStarts[customerId];
+        }
+        byte[][] names  = new byte[customers][];
+        byte[][] phones = new byte[customers][];
+        String[] phoneStrings = new String[customers];
+        long stringBytes = 4 + designationBytes(location).length;
+        for (int customerId = 0; customerId < customers; customerId++) {
+            phoneStrings[customerId] = state.customers[customerId].getPhone();
+            names[customerId]  = state.customers[customerId].getName().getBytes(StandardCharsets.UTF_8);
+            phones[customerId] = phoneStrings[customerId].getBytes(StandardCharsets.UTF_8);
+            stringBytes += 8 + names[customerId].length + phones[customerId].length;
+        }
+        Integer[] byPhone = new Integer[customers];
+        for (int customerId = 0; customerId < customers; customerId++) {
+            byPhone[customerId] = customerId;
+        }
+        Arrays.sort(byPhone, Comparator.comparing((Integer customerId) -> phoneStrings[customerId]));
+
+        long rowStartsAt     = HEADER_BYTES;
+        long unitsAt         = rowStartsAt + 4L * (layout.getRowCount() + 1);
+        long freeListsAt     = unitsAt + (long) UNIT_BYTES * units;
+        long customerUnitsAt = freeListsAt + 4L * (freeStarts.length + freeStarts[typeCount + 1]);
+        long customersAt     = customerUnitsAt + 4L * (customers + 1 + customerStarts[customers]);
+        long phoneIndexAt    = customersAt + (long) CUSTOMER_BYTES * customers;
+        long typeCountsAt    = phoneIndexAt + 4L * customers;
+        long stringsAt       = typeCountsAt + 4L * typeCount;
+        long fileBytes       = stringsAt + stringBytes;
+        if (fileBytes > Integer.MAX_VALUE) {
+            throw new IOException("The location is too big for a snapshot");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) fileBytes);
+        out.position((int) stringsAt);
+        int designationAt = putString(out, designationBytes(location));
+        out.putInt(0, MAGIC).putInt(4, FORMAT_VERSION);
+        out.putInt(UNIT_COUNT_AT, units).putInt(ROW_COUNT_AT, layout.getRowCount());
+        out.putInt(CUSTOMER_COUNT_AT, customers).putInt(TYPE_COUNT_AT, typeCount);
+        out.putInt(DESIGNATION_AT, designationAt);
+        out.putInt(ROW_STARTS_AT, (int) rowStartsAt).putInt(UNITS_AT, (int) unitsAt);
+        out.putInt(FREE_LISTS_AT, (int) freeListsAt).putInt(CUSTOMER_UNITS_AT, (int) customerUnitsAt);
+        out.putInt(CUSTOMERS_AT, (int) customersAt).putInt(PHONE_INDEX_AT, (int) phoneIndexAt);
+        out.putInt(TYPE_COUNTS_AT, (int) typeCountsAt);
+
+        for (int rowIdx = 0; rowIdx <= layout.getRowCount(); rowIdx++) {
+            out.putInt((int) rowStartsAt + 4 * rowIdx, layout.getRowStart(rowIdx));
+        }
+        long rentCents = 0;
+        int[] freeFill = Arrays.copyOf(freeStarts, freeStarts.length);
+        int[] customerFill = Arrays.copyOf(customerStarts, customerStarts.length);
+        int freeIdxsAt = (int) freeListsAt + 4 * freeStarts.length;
+        int customerIdxsAt = (int) customerUnitsAt + 4 * (customers + 1);
+        for (int locationIdx = 0; locationIdx < units; locationIdx++) {
+            int unitAt = (int) unitsAt + UNIT_BYTES * locationIdx;
+            int customerId = state.unitCustomerIds[locationIdx];
+            int typeIdx = layout.getType(locationIdx).ordinal();
+            out.putInt(unitAt, layout.getWidth(locationIdx));
+            out.putInt(unitAt + 4, layout.getLength(locationIdx));
+            out.putInt(unitAt + 8, layout.getHeight(locationIdx));
+            out.putInt(unitAt + 12, typeIdx);
+            out.putInt(unitAt + 16, customerId);
+            if (customerId >= 0) {
+                out.putLong(unitAt + 24, state.unitStartDays[locationIdx]);
+                out.putLong(unitAt + 32, state.unitPriceCents[locationIdx]);
+                rentCents = Money.add(rentCents, state.unitPriceCents[locationIdx]);
+                out.putInt(customerIdxsAt + 4 * customerFill[customerId]++, locationIdx);
+            } else {
+                out.putInt(freeIdxsAt + 4 * freeFill[0]++, locationIdx);
+                out.putInt(freeIdxsAt + 4 * freeFill[typeIdx + 1]++, locationIdx);
+            }
+        }
+        out.putLong(RENT_CENTS_AT, rentCents);
+        for (int listIdx = 0; listIdx < freeStarts.length; listIdx++) {
+            out.putInt((int) freeListsAt + 4 * listIdx, freeStarts[listIdx]);
+        }
+        for (int customerId = 0; customerId <= customers; customerId++) {
+            out.putInt((int) customerUnitsAt + 4 * customerId, customerStarts[customerId]);
+        }
+        for (int customerId = 0; customerId < customers; customerId++) {
+            int customerAt = (int) customersAt + CUSTOMER_BYTES * customerId;
+            out.putInt(customerAt, putString(out, names[customerId]));
+            out.putInt(customerAt + 4, putString(out, phones[customerId]));
+            out.putLong(customerAt + 8, state.customers[customerId].getBalanceCents());
+            out.putInt((int) phoneIndexAt + 4 * customerId, byPhone[customerId]);
+        }
+        for (int typeIdx = 0; typeIdx < typeCount; typeIdx++) {
+            out.putInt((int) typeCountsAt + 4 * typeIdx, typeCounts[typeIdx]);
+        }
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.clear();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the location's designation
+     *
+     * @return      the designation
+     */
+    public String getDesignation() {
+        return designation;
+    }
+
+    /**
+     * Retrieves the number of rows of units
+     *
+     * @return      the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Retrieves the number of units in a row
+     *
+     * @param   rowIdx      the row of interest
+     * @return              the number of units in that row
+     */
+    public int getUnitsPerRowCount(int rowIdx) {
+        if (rowIdx < 0 || rowIdx >= rowCount) {
+            throw new IndexOutOfBoundsException("No row " + rowIdx);
+        }
+        return rowStart(rowIdx + 1) - rowStart(rowIdx);
+    }
+
+    /**
+     * Retrieves the number of units
+     *
+     * @return      the unit count
+     */
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * Retrieves the unit at a row and space
+     *
+     * @param   rowIdx      the row on which the unit sits
+     * @param   spaceIdx    the space the unit occupies within the row
+     * @return              the unit
+     */
+    public UnitView getStorageUnit(int rowIdx, int spaceIdx) {
+        if (spaceIdx < 0 || spaceIdx >= getUnitsPerRowCount(rowIdx)) {
+            throw new IndexOutOfBoundsException("No space " + spaceIdx + " in row " + rowIdx);
+        }
+        return new UnitView(this, rowStart(rowIdx) + spaceIdx);
+    }
+
+    /**
+     * Retrieves the number of customers
+     *
+     * @return      the customer count
+     */
+    public int getCustomerCount() {
+        return customerCount;
+    }
+
+    /**
+     * Retrieves a customer by id
+     *
+     * @param   customerId  the customer's id at the location
+     * @return              the customer, or null if there is no such customer
+     */
+    public CustomerView getCustomer(int customerId) {
+        if (customerId < 0 || customerId >= customerCount) {
+            return null;
+        }
+        return new CustomerView(this, customerId);
+    }
+
+    /**
+     * Retrieves a customer by phone number
+     *
+     * @param   phone       the phone number to look up
+     * @return              the customer with that phone number, or null if there is none
+     */
+    public CustomerView findCustomerByPhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        int low = 0;
+        int high = customerCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int customerId = file.getInt(phoneIndexAt + 4 * mid);
+            int comparison = phoneOf(customerId).compareTo(phone);
+            if (comparison == 0) {
+                return new CustomerView(this, customerId);
+            } else if (comparison < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the units rented by a customer
+     *
+     * @param   customer    a customer of this snapshot; must not be null
+     * @return              the customer's units, in location index order
+     */
+    public UnitView[] getCustomerUnits(CustomerView customer) {
+        checkCustomer(customer);
+        int start = file.getInt(customerUnitsAt + 4 * customer.customerId);
+        int end = file.getInt(customerUnitsAt + 4 * (customer.customerId + 1));
+        return unitList(customerUnitsAt + 4 * (customerCount + 1), start, end);
+    }
+
+    /**
+     * Counts the units rented by a customer
+     *
+     * @param   customer    a customer of this snapshot; must not be null
+     * @return              the number of units the customer rents
+     */
+    public int getCustomerUnitCount(CustomerView customer) {
+        checkCustomer(customer);
+        return file.getInt(customerUnitsAt + 4 * (customer.customerId + 1))
+               - file.getInt(customerUnitsAt + 4 * customer.customerId);
+    }
+
+    /**
+     * Retrieves the empty units
+     *
+     * @return      the empty units, in location index order
+     */
+    public UnitView[] getEmptyUnits() {
+        return getEmptyUnits(null);
+    }
+
+    /**
+     * Retrieves the empty units of a type
+     *
+     * @param   unitType    the type of unit wanted, or null for every type
+     * @return              the empty units, in location index order
+     */
+    public UnitView[] getEmptyUnits(StorageUnit.UnitType unitType) {
+        int listIdx = (unitType == null) ? 0 : unitType.ordinal() + 1;
+        int listCount = UNIT_TYPES.length + 2;
+        return unitList(freeListsAt + 4 * listCount, file.getInt(freeListsAt + 4 * listIdx),
+                        file.getInt(freeListsAt + 4 * (listIdx + 1)));
+    }
+
+    /**
+     * Counts the empty units
+     *
+     * @return      the number of empty units
+     */
+    public int getEmptyUnitCount() {
+        return getEmptyUnitCount(null);
+    }
+
+    /**
+     * Counts the empty units of a type
+     *
+     * @param   unitType    the type of unit of interest, or null for every type
+     * @return              the number of empty units of that type
+     */
+    public int getEmptyUnitCount(StorageUnit.UnitType unitType) {
+        int listIdx = (unitType == null) ? 0 : unitType.ordinal() + 1;
+        return file.getInt(freeListsAt + 4 * (listIdx + 1)) - file.getInt(freeListsAt + 4 * listIdx);
+    }
+
+    /**
+     * Counts the rented units of a type
+     *
+     * @param   unitType    the type of unit of interest, or null for every type
+     * @return              the number of rented units of that type
+     */
+    public int getOccupiedUnitCount(StorageUnit.UnitType unitType) {
+        int typeUnits = (unitType == null) ? unitCount : file.getInt(typeCountsAt + 4 * unitType.ordinal());
+        return typeUnits - getEmptyUnitCount(unitType);
+    }
+
+    /**
+     * Adds up the monthly rent of the rented units
+     *
+     * @return      the contracted monthly rent
+     */
+    public double getContractedRent() {
+        return Money.toDollars(getContractedRentCents());
+    }
+
+    /**
+     * Adds up the monthly rent of the rented units, in cents
+     *
+     * @return      the contracted monthly rent, in cents
+     */
+    public long getContractedRentCents() {
+        return file.getLong(RENT_CENTS_AT);
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Builds views of a run of units listed in the file
+     *
+     * @param   listAt      where the list's location indexes start
+     * @param   start       the first entry of the run
+     * @param   end         the entry just past the run
+     * @return              the units
+     */
+    private UnitView[] unitList(int listAt, int start, int end) {
+        UnitView[] unitViews = new UnitView[end - start];
+        for (int entry = start; entry < end; entry++) {
+            unitViews[entry - start] = new UnitView(this, file.getInt(listAt + 4 * entry));
+        }
+        return unitViews;
+    }
+
+    /**
+     * Finds where a row starts
+     *
+     * @param   rowIdx      the row, or rowCount for the end of the last row
+     * @return              the location index of the row's first unit
+     */
+    private int rowStart(int rowIdx) {
+        return file.getInt(rowStartsAt + 4 * rowIdx);
+    }
+
+    /**
+     * Reads a customer's phone number
+     *
+     * @param   customerId  the customer's id
+     * @return              the phone number
+     */
+    private String phoneOf(int customerId) {
+        return stringAt(file.getInt(customersAt + CUSTOMER_BYTES * customerId + 4));
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string from the file
+     *
+     * @param   stringAt    where the string's length is
+     * @return              the string
+     */
+    private String stringAt(int stringAt) {
+        ByteBuffer view = file.duplicate();
+        view.position(stringAt);
+        byte[] bytes = new byte[view.getInt()];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks that an offset read from the header lies within the file
+     *
+     * @param   offset      the offset
+     * @return              the offset
+     * @throws  IOException if it doesn't
+     */
+    private int checkOffset(int offset) throws IOException {
+        if (offset < HEADER_BYTES || offset > file.capacity()) {
+            throw new IOException("Location snapshot is damaged");
+        }
+        return offset;
+    }
+
+    /**
+     * Checks that a customer view belongs to this snapshot
+     *
+     * @param   customer    the customer
+     */
+    private void checkCustomer(CustomerView customer) {
+        if (customer == null || customer.snapshot != this) {
+            throw new IllegalArgumentException("The customer must belong to this snapshot");
+        }
+    }
+
+    /**
+     * Writes a length-prefixed string at the buffer's position
+     *
+     * @param   out     the buffer
+     * @param   bytes   the string's UTF-8 bytes
+     * @return          where the string was written
+     */
+    private static int putString(ByteBuffer out, byte[] bytes) {
+        int stringAt = out.position();
+        out.putInt(bytes.length);
+        out.put(bytes);
+        return stringAt;
+    }
+
+    /**
+     * Encodes a location's designation
+     *
+     * @param   location    the location
+     * @return              the designation's UTF-8 bytes
+     */
+    private static byte[] designationBytes(StorageLocation location) {
+        return location.getDesignation().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //---------------------------------------------------------------------
+    //          VIEWS
+    //---------------------------------------------------------------------
+    /**
+     * One unit of a snapshot
+     */
+    public static final class UnitView {
+        /** the snapshot holding the unit */
+        private final LocationSnapshot snapshot;
+        /** the unit's location index */
+        private final int locationIdx;
+
+        /**
+         * UnitView Constructor
+         *
+         * @param   snapshot        the snapshot holding the unit
+         * @param   locationIdx     the unit's location index
+         */
+        UnitView(LocationSnapshot snapshot, int locationIdx) {
+            this.snapshot = snapshot;
+            this.locationIdx = locationIdx;
+        }
+
+        /**
+         * Retrieves the row on which the unit sits
+         *
+         * @return      the unit's row
+         */
+        public int getRowIdx() {
+            int low = 0;
+            int high = snapshot.rowCount - 1;
+            // the last row starting at or before the unit, skipping empty rows
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (snapshot.rowStart(mid) <= locationIdx) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Retrieves the space the unit occupies within its row
+         *
+         * @return      the unit's space
+         */
+        public int getSpaceIdx() {
+            return locationIdx - snapshot.rowStart(getRowIdx());
+        }
+
+        /**
+         * Retrieves the unit's width, in feet
+         *
+         * @return      the unit's width
+         */
+        public int getWidth() {
+            return snapshot.file.getInt(at());
+        }
+
+        /**
+         * Retrieves the unit's length, in feet
+         *
+         * @return      the unit's length
+         */
+        public int getLength() {
+            return snapshot.file.getInt(at() + 4);
+        }
+
+        /**
+         * Retrieves the unit's height, in feet
+         *
+         * @return      the unit's height
+         */
+        public int getHeight() {
+            return snapshot.file.getInt(at() + 8);
+        }
+
+        /**
+         * Retrieves the unit's type
+         *
+         * @return      the unit's type
+         */
+        public StorageUnit.UnitType getType() {
+            return UNIT_TYPES[snapshot.file.getInt(at() + 12)];
+        }
+
+        /**
+         * Finds whether the unit is rented
+         *
+         * @return      true, if the unit is rented; false otherwise
+         */
+        public boolean isRented() {
+            return snapshot.file.getInt(at() + 16) >= 0;
+        }
+
+        /**
+         * Retrieves the customer renting the unit
+         *
+         * @return      the unit's customer, or null if not rented
+         */
+        public CustomerView getCustomer() {
+            return snapshot.getCustomer(snapshot.file.getInt(at() + 16));
+        }
+
+        /**
+         * Retrieves the start of the unit's rental
+         *
+         * @return      the rental start date, or null if not rented
+         */
+        public LocalDate getRentalStart() {
+            return isRented() ? LocalDate.ofEpochDay(snapshot.file.getLong(at() + 24)) : null;
+        }
+
+        /**
+         * Retrieves the unit's price
+         *
+         * @return      the unit's price
+         */
+        public double getPrice() {
+            return Money.toDollars(getPriceCents());
+        }
+
+        /**
+         * Retrieves the unit's price in cents
+         *
+         * @return      the unit's price in cents, or 0 if not rented
+         */
+        public long getPriceCents() {
+            return snapshot.file.getLong(at() + 32);
+        }
+
+        /**
+         * Compares this unit with another object; two views are equal when they
+         * are of the same unit of the same snapshot
+         *
+         * @param   other   the object to compare with
+         * @return          true, if other views the same unit
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof UnitView)) {
+                return false;
+            }
+            UnitView otherUnit = (UnitView) other;
+            return snapshot == otherUnit.snapshot && locationIdx == otherUnit.locationIdx;
+        }
+
+        /**
+         * Works out a hash code consistent with equals
+         *
+         * @return      the hash code
+         */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(snapshot) * 31 + locationIdx;
+        }
+
+        /**
+         * Finds the unit's record in the file
+         *
+         * @return      where the record starts
+         */
+        private int at() {
+            return snapshot.unitsAt + UNIT_BYTES * locationIdx;
+        }
+    }
+
+    /**
+     * One customer of a snapshot
+     */
+    public static final class CustomerView {
+        /** the snapshot holding the customer */
+        private final LocationSnapshot snapshot;
+        /** the customer's id at the location */
+        private final int customerId;
+
+        /**
+         * CustomerView Constructor
+         *
+         * @param   snapshot        the snapshot holding the customer
+         * @param   customerId      the customer's id
+         */
+        CustomerView(LocationSnapshot snapshot, int customerId) {
+            this.snapshot = snapshot;
+            this.customerId = customerId;
+        }
+
+        /**
+         * Retrieves the customer's id at the location
+         *
+         * @return      the customer's id
+         */
+        public int getId() {
+            return customerId;
+        }
+
+        /**
+         * Retrieves the customer's name
+         *
+         * @return      the name
+         */
+        public String getName() {
+            return snapshot.stringAt(snapshot.file.getInt(at()));
+        }
+
+        /**
+         * Retrieves the customer's phone number
+         *
+         * @return      the phone number
+         */
+        public String getPhone() {
+            return snapshot.phoneOf(customerId);
+        }
+
+        /**
+         * Retrieves the customer's balance
+         *
+         * @return      the balance
+         */
+        public double getBalance() {
+            return Money.toDollars(getBalanceCents());
+        }
+
+        /**
+         * Retrieves the customer's balance, in cents
+         *
+         * @return      the balance, in cents
+         */
+        public long getBalanceCents() {
+            return snapshot.file.getLong(at() + 8);
+        }
+
+        /**
+         * Compares this customer with another object; two views are equal when
+         * they are of the same customer of the same snapshot
+         *
+         * @param   other   the object to compare with
+         * @return          true, if other views the same customer
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CustomerView)) {
+                return false;
+            }
+            CustomerView otherCustomer = (CustomerView) other;
+            return snapshot == otherCustomer.snapshot && customerId == otherCustomer.customerId;
+        }
+
+        /**
+         * Works out a hash code consistent with equals
+         *
+         * @return      the hash code
+         */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(snapshot) * 31 + customerId;
+        }
+
+        /**
+         * Finds the customer's record in the file
+         *
+         * @return      where the record starts
+         */
+        private int at() {
+            return snapshot.customersAt + CUSTOMER_BYTES * customerId;
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * The test class LocationSnapshotTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class LocationSnapshotTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 15);
+
+    private StorageLocation testLoc;
+    private Customer pat;
+    private Customer chris;
+    private Path file;
+
+    /**
+     * Default constructor for test class LocationSnapshotTest
+     */
+    public LocationSnapshotTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testLoc = new StorageLocation(StorageLocationTest.DESIGNATION);
+        pat   = new Customer("Pat Perkins",   "425-555-1314");
+        chris = new Customer("Chris Connoly", "425-555-3141");
+        file = Files.createTempFile("location", ".snap");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testEmptyLocation() throws IOException {
+        LocationSnapshot snapshot = snapshotOf(testLoc);
+        assertEquals(StorageLocationTest.DESIGNATION, snapshot.getDesignation());
+        assertEquals(testLoc.getRowCount(), snapshot.getRowCount());
+        assertEquals(testLoc.getUnitCount(), snapshot.getUnitCount());
+        assertEquals(0, snapshot.getCustomerCount());
+        assertEquals(testLoc.getUnitCount(), snapshot.getEmptyUnitCount());
+        assertEquals(0, snapshot.getOccupiedUnitCount(null));
+        assertEquals(0, snapshot.getContractedRentCents());
+        assertSameState(testLoc, snapshot);
+    }
+
+    @Test
+    public void testQueriesMatchLocation() throws IOException {
+        testLoc.addCustomer(new Customer(StorageLocationTest.CUST_NAME, StorageLocationTest.CUST_PHONE));
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, START, 9995);
+        testLoc.getStorageUnit(0, 1).rentForCents(chris, START.minusYears(3), 12000);
+        testLoc.getStorageUnit(11, 19).rentForCents(pat, START.plusMonths(1), 15050);
+        testLoc.getStorageUnit(5, 5).rentForCents(chris, START, 5000);
+        testLoc.getStorageUnit(5, 5).release(START.plusDays(40));
+        testLoc.chargeMonthlyRentCents();
+        pat.creditCents(100000);
+
+        LocationSnapshot snapshot = snapshotOf(testLoc);
+        assertSameState(testLoc, snapshot);
+        assertEquals(testLoc.getMetrics().getContractedRentCents(), snapshot.getContractedRentCents());
+        assertEquals(testLoc.getMetrics().getContractedRent(), snapshot.getContractedRent(),
+                     StorageLocationTest.DOLLAR_VARIANCE);
+        assertEquals(3, snapshot.getOccupiedUnitCount(null));
+
+        LocationSnapshot.CustomerView patView = snapshot.findCustomerByPhone("425-555-1314");
+        assertEquals("Pat Perkins", patView.getName());
+        assertEquals(pat.getBalanceCents(), patView.getBalanceCents());
+        assertTrue(patView.getBalance() < 0);
+        LocationSnapshot.UnitView[] patUnits = snapshot.getCustomerUnits(patView);
+        assertEquals(2, patUnits.length);
+        assertEquals(snapshot.getStorageUnit(0, 0), patUnits[0]);
+        assertEquals(11, patUnits[1].getRowIdx());
+        assertEquals(19, patUnits[1].getSpaceIdx());
+        assertEquals(START.plusMonths(1), patUnits[1].getRentalStart());
+        assertEquals(150.50, patUnits[1].getPrice(), StorageLocationTest.DOLLAR_VARIANCE);
+        assertEquals(patView, patUnits[1].getCustomer());
+        assertNull(snapshot.findCustomerByPhone("425-555-0000"));
+        assertNull(snapshot.getCustomer(snapshot.getCustomerCount()));
+    }
+
+    @Test
+    public void testCustomLayout() throws IOException {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(3, 8, 8, 8, StorageUnit.UnitType.STANDARD);
+        layout.addRow();
+        layout.addRow();
+        layout.addUnits(2, 8, 8, 8, StorageUnit.UnitType.STANDARD);
+        layout.addUnits(4, 12, 16, 10, StorageUnit.UnitType.TEMPERATURE);
+        StorageLocation loc = new StorageLocation("OR03Salem", layout);
+        loc.getStorageUnit(2, 4).rentForCents(pat, START, 20000);
+
+        LocationSnapshot snapshot = snapshotOf(loc);
+        assertEquals(3, snapshot.getRowCount());
+        assertEquals(0, snapshot.getUnitsPerRowCount(1));
+        LocationSnapshot.UnitView unit = snapshot.getStorageUnit(2, 5);
+        assertEquals(2, unit.getRowIdx());
+        assertEquals(5, unit.getSpaceIdx());
+        assertEquals(StorageUnit.UnitType.TEMPERATURE, unit.getType());
+        assertEquals(16, unit.getLength());
+        assertEquals(10, unit.getHeight());
+        assertEquals(3, snapshot.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(1, snapshot.getOccupiedUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(0, snapshot.getOccupiedUnitCount(StorageUnit.UnitType.STANDARD));
+        assertSameState(loc, snapshot);
+    }
+
+    @Test
+    public void testUnchangedByLaterRentals() throws IOException {
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, START, 9995);
+        LocationSnapshot snapshot = snapshotOf(testLoc);
+        testLoc.getStorageUnit(0, 1).rentForCents(chris, START, 9995);
+        testLoc.getStorageUnit(0, 0).release(START.plusDays(10));
+        assertTrue(snapshot.getStorageUnit(0, 0).isRented());
+        assertFalse(snapshot.getStorageUnit(0, 1).isRented());
+        assertEquals(1, snapshot.getCustomerCount());
+
+        // writing again replaces the file, while the snapshot already open keeps its copy
+        LocationSnapshot rewritten = snapshotOf(testLoc);
+        assertFalse(rewritten.getStorageUnit(0, 0).isRented());
+        assertTrue(snapshot.getStorageUnit(0, 0).isRented());
+    }
+
+    @Test
+    public void testLargeLocation() throws IOException {
+        StorageLocation loc = Benchmark.buildLocation(20000);
+        LocationSnapshot snapshot = snapshotOf(loc);
+        assertSameState(loc, snapshot);
+        assertEquals(loc.getMetrics().getContractedRentCents(), snapshot.getContractedRentCents());
+    }
+
+    @Test
+    public void testFarFutureStart() throws IOException {
+        // start days past what an int holds are written whole
+        LocalDate farOff = LocalDate.of(9999999, 1, 1);
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, farOff, 9995);
+        LocationSnapshot snapshot = snapshotOf(testLoc);
+        assertEquals(farOff, snapshot.getStorageUnit(0, 0).getRentalStart());
+        assertEquals(9995, snapshot.getStorageUnit(0, 0).getPriceCents());
+        assertSameState(testLoc, snapshot);
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IOException.class)
+    public void testNotASnapshot() throws IOException {
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        LocationSnapshot.open(file);
+    }
+
+    @Test (expected = IOException.class)
+    public void testLaterVersion() throws IOException {
+        LocationSnapshot.write(testLoc, file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[4] = 3;
+        Files.write(file, bytes);
+        LocationSnapshot.open(file);
+    }
+
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testGetStorageUnitBadSpace() throws IOException {
+        LocationSnapshot snapshot = snapshotOf(testLoc);
+        snapshot.getStorageUnit(0, snapshot.getUnitsPerRowCount(0));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testCustomerUnitsOtherSnapshot() throws IOException {
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, START, 9995);
+        LocationSnapshot snapshot = snapshotOf(testLoc);
+        snapshotOf(testLoc).getCustomerUnits(snapshot.getCustomer(0));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testWriteLocationNull() throws IOException {
+        LocationSnapshot.write(null, file);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Writes a location's snapshot to the test file and opens it
+     *
+     * @param   location    the location
+     * @return              the snapshot
+     * @throws  IOException if the snapshot can't be written or read
+     */
+    private LocationSnapshot snapshotOf(StorageLocation location) throws IOException {
+        LocationSnapshot.write(location, file);
+        return LocationSnapshot.open(file);
+    }
+
+    /**
+     * Checks that a snapshot answers queries as its location does
+     *
+     * @param   expected    the location
+     * @param   actual      the snapshot of it
+     */
+    private static void assertSameState(StorageLocation expected, LocationSnapshot actual) {
+        assertEquals(expected.getDesignation(), actual.getDesignation());
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        assertEquals(expected.getCustomerCount(), actual.getCustomerCount());
+        for (int rowIdx = 0; rowIdx < expected.getRowCount(); rowIdx++) {
+            assertEquals(expected.getUnitsPerRowCount(rowIdx), actual.getUnitsPerRowCount(rowIdx));
+            for (int spaceIdx = 0; spaceIdx < expected.getUnitsPerRowCount(rowIdx); spaceIdx++) {
+                LocationSnapshot.UnitView actualUnit = actual.getStorageUnit(rowIdx, spaceIdx);
+                assertEquals(rowIdx, actualUnit.getRowIdx());
+                assertEquals(spaceIdx, actualUnit.getSpaceIdx());
+                assertSameUnit(expected.getStorageUnit(rowIdx, spaceIdx), actualUnit);
+            }
+        }
+        for (int customerId = 0; customerId < expected.getCustomerCount(); customerId++) {
+            Customer expectedCust = expected.getCustomer(customerId);
+            LocationSnapshot.CustomerView actualCust = actual.getCustomer(customerId);
+            assertEquals(customerId, actualCust.getId());
+            assertEquals(expectedCust.getName(), actualCust.getName());
+            assertEquals(expectedCust.getPhone(), actualCust.getPhone());
+            assertEquals(expectedCust.getBalanceCents(), actualCust.getBalanceCents());
+            assertEquals(actualCust, actual.findCustomerByPhone(expectedCust.getPhone()));
+            assertEquals(expected.getCustomerUnitCount(expectedCust), actual.getCustomerUnitCount(actualCust));
+            assertEquals(expected.getCustomerUnitCount(expectedCust), actual.getCustomerUnits(actualCust).length);
+        }
+        assertSameUnits(expected, expected.getEmptyUnits(), actual.getEmptyUnits());
+        for (StorageUnit.UnitType unitType : StorageUnit.UnitType.values()) {
+            assertSameUnits(expected, expected.getEmptyUnits(unitType), actual.getEmptyUnits(unitType));
+            assertEquals(expected.getEmptyUnitCount(unitType), actual.getEmptyUnitCount(unitType));
+        }
+    }
+
+    /**
+     * Checks that lists of units hold the same units in the same order
+     *
+     * @param   location    the location
+     * @param   expected    the location's units
+     * @param   actual      the snapshot's units
+     */
+    private static void assertSameUnits(StorageLocation location, StorageUnit[] expected,
+                                        LocationSnapshot.UnitView[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int unitIdx = 0; unitIdx < expected.length; unitIdx++) {
+            assertEquals(expected[unitIdx], location.getStorageUnit(actual[unitIdx].getRowIdx(),
+                                                                    actual[unitIdx].getSpaceIdx()));
+        }
+    }
+
+    /**
+     * Checks that a snapshot's unit matches the location's
+     *
+     * @param   expected    the location's unit
+     * @param   actual      the snapshot's unit
+     */
+    private static void assertSameUnit(StorageUnit expected, LocationSnapshot.UnitView actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getLength(), actual.getLength());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getRentalStart(), actual.getRentalStart());
+        assertEquals(expected.getPriceCents(), actual.getPriceCents());
+        assertEquals(expected.getCustomer() != null, actual.isRented());
+        if (expected.getCustomer() != null) {
+            assertEquals(expected.getCustomer().getPhone(), actual.getCustomer().getPhone());
+        }
+    }
+
+}
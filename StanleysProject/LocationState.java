@@ -0,0 +1,89 @@
+/**
+ * A copy of a storage location's rentals and customers, taken all at once, for
+ * writing out without holding the location up while it is written.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class LocationState {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the location's customers, by id */
+    final Customer[] customers;
+    /** the id of the customer renting each unit, or UnitStore.NO_CUSTOMER */
+    final int[] unitCustomerIds;
+    /** the rental start of each rented unit, as an epoch day */
+    final long[] unitStartDays;
+    /** the monthly price of each rented unit, in cents */
+    final long[] unitPriceCents;
+    /** each unit's finished rentals as from RentalHistory.getRecordData, or null if not copied */
+    final long[][] histories;
+    /** the location's base price, in cents */
+    final long basePriceCents;
+    /** the location's multi-unit discount, in basis points */
+    final long discountBasisPoints;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * LocationState Constructor; copies a location's state under its lock
+     *
+     * @param   location        the location to copy
+     * @param   withHistory     true to copy each unit's finished rentals as well
+     */
+    LocationState(StorageLocation location, boolean withHistory) {
+        int unitCount = location.getUnitCount();
+        unitCustomerIds = new int[unitCount];
+        unitStartDays   = new long[unitCount];
+        unitPriceCents  = new long[unitCount];
+        histories       = withHistory ? new long[unitCount][] : null;
+        // the location's lock, then its registry's, as when renting files a new customer
+        synchronized (location) {
+            long[] state = new long[4];
+            RentalHistory history = location.units.getHistory();
+            for (int locationIdx = 0; locationIdx < unitCount; locationIdx++) {
+                while (!location.units.readRental(locationIdx, state)) {
+                    Thread.yield();
+                }
+                unitCustomerIds[locationIdx] = (int) state[0];
+                unitStartDays[locationIdx]   = state[1];
+                unitPriceCents[locationIdx]  = state[2];
+                if (withHistory) {
+                    histories[locationIdx] = history.getRecordData(locationIdx);
+                }
+            }
+            // the customers last, so that every customer a unit refers to is included
+            CustomerRegistry registry = location.getCustomerRegistry();
+            synchronized (registry) {
+                customers = new Customer[registry.getCustomerCount()];
+                for (int customerId = 0; customerId < customers.length; customerId++) {
+                    customers[customerId] = registry.getCustomer(customerId);
+                }
+            }
+            basePriceCents      = location.pricing.getBasePriceCents();
+            discountBasisPoints = location.pricing.getDiscountBasisPoints();
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Counts the rented units
+     *
+     * @return      the number of units with a customer
+     */
+    int getRentedCount() {
+        int rentedCount = 0;
+        for (int customerId : unitCustomerIds) {
+            if (customerId >= 0) {
+                rentedCount++;
+            }
+        }
+        return rentedCount;
+    }
+
+}
@@ -30,17 +30,17 @@ public class Main {
         System.out.print('\u000c');
         System.out.printf("Storage Location : %s\n",  loc1.getDesignation());
         System.out.printf("Customer count   : %3d\n", loc1.getCustomerCount());
-        System.out.printf("Empty unit count : %3d\n", loc1.getEmptyUnits().length);
+        System.out.printf("Empty unit count : %3d\n", loc1.getEmptyUnitCount());
         
         // Rent some units and display some unit info
         System.out.println("\nRenting two units to Pat Perkins");        
         Customer pat = loc1.getCustomer(0);
         loc1.getStorageUnit(1, 5).rent(pat, LocalDate.now(), 199.95);
         loc1.getStorageUnit(1, 6).rent(pat, LocalDate.now(), 199.95);
-        System.out.printf("Empty count               : %3d\n", loc1.getEmptyUnits().length);
+        System.out.printf("Empty count               : %3d\n", loc1.getEmptyUnitCount());
         System.out.printf("Pat's unit count          : %3d\n", loc1.getCustomerUnits(loc1.getCustomer(0)).length);
-        System.out.printf("Empty standard unit count : %3d\n", loc1.getEmptyUnits(StorageUnit.UnitType.STANDARD).length);
-        System.out.printf("Empty humidity unit count : %3d\n", loc1.getEmptyUnits(StorageUnit.UnitType.HUMIDITY).length);
+        System.out.printf("Empty standard unit count : %3d\n", loc1.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        System.out.printf("Empty humidity unit count : %3d\n", loc1.getEmptyUnitCount(StorageUnit.UnitType.HUMIDITY));
         
         System.out.println("\nShowing storage units, rented and unrented");        
         System.out.println(loc1.getStorageUnit(1, 5));
@@ -52,6 +52,16 @@ public class Main {
         double total = loc1.chargeMonthlyRent();
         System.out.printf("Pat's balance after charging monthly rent  :  $%,7.2f\n", pat.getBalance());        
         System.out.printf("Total rent charged for all units           :  $%,7.2f\n", total);
+
+        // Gather several locations into the chain and ask about them all at once
+        StorageChain chain = new StorageChain();
+        chain.addLocation(loc1);
+        chain.addLocation(new StorageLocation("WA12Kirkland"));
+        chain.addLocation(new StorageLocation("OR03Salem"));
+        System.out.printf("\nLocations in the chain                      : %3d\n", chain.getLocationCount());
+        System.out.printf("Empty temperature units across WA          : %3d\n", 
+                          chain.getEmptyUnitCount("WA", StorageUnit.UnitType.TEMPERATURE));
+        System.out.printf("Empty units across the chain               : %3d\n", chain.getEmptyUnitCount());
     }
 
 }
@@ -0,0 +1,87 @@
+/**
+ * Helpers for amounts of money held as a whole number of cents in a long.
+ *
+ * Balances, prices and billing totals are kept in cents so that sums are exact
+ * no matter how many amounts are added, and so that billing never allocates;
+ * the double-based accessors elsewhere are conversions made at the edges.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public final class Money {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of cents in a dollar */
+    public static final long CENTS_PER_DOLLAR = 100;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * Money Constructor; not used, as the class holds only static helpers
+     */
+    private Money() {
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Converts a dollar amount to cents, rounding to the nearest cent.  Callers
+     * that refuse negative amounts should check the dollars, not the cents, or a
+     * tiny negative amount such as -0.004 is taken for zero.
+     *
+     * @param   dollars     the amount in dollars; must be a finite number; must
+     *                      round to a number of cents that fits in a long
+     * @return              the amount in cents
+     */
+    public static long toCents(double dollars) {
+        if (Double.isNaN(dollars) || Double.isInfinite(dollars)) {
+            throw new IllegalArgumentException("Amounts must be finite numbers");
+        }
+        double cents = dollars * CENTS_PER_DOLLAR;
+        // Math.round would quietly give Long.MIN_VALUE or Long.MAX_VALUE beyond this
+        if (!(Math.abs(cents) < 0x1p63)) {
+            throw new IllegalArgumentException("Amount " + dollars + " is too large");
+        }
+        return Math.round(cents);
+    }
+
+    /**
+     * Converts an amount in cents to dollars
+     *
+     * @param   cents       the amount in cents
+     * @return              the amount in dollars
+     */
+    public static double toDollars(long cents) {
+        return cents / (double) CENTS_PER_DOLLAR;
+    }
+
+    /**
+     * Adds two amounts in cents, refusing to overflow
+     *
+     * @param   cents           the first amount
+     * @param   moreCents       the amount to add
+     * @return                  the sum, in cents
+     */
+    public static long add(long cents, long moreCents) {
+        return Math.addExact(cents, moreCents);
+    }
+
+    /**
+     * Formats an amount in cents as dollars and cents, e.g. "1234.50" or "-0.05"
+     *
+     * @param   cents       the amount in cents
+     * @return              the amount, formatted with two decimal places
+     */
+    public static String format(long cents) {
+        // split before dropping the sign, as Long.MIN_VALUE has no positive counterpart
+        long dollars = Math.abs(cents / CENTS_PER_DOLLAR);
+        long remainder = Math.abs(cents % CENTS_PER_DOLLAR);
+        String sign = (cents < 0) ? "-" : "";
+        return sign + dollars + "." + String.format("%02d", remainder);
+    }
+
+}
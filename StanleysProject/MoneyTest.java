@@ -0,0 +1,80 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class MoneyTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class MoneyTest {
+
+    /**
+     * Default constructor for test class MoneyTest
+     */
+    public MoneyTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testConversions() {
+        assertEquals(19995, Money.toCents(199.95));
+        assertEquals(11111, Money.toCents(111.11));
+        assertEquals(-5,    Money.toCents(-0.05));
+        assertEquals(0,     Money.toCents(0.004));
+        assertEquals(199.95, Money.toDollars(19995), 0.0);
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("199.95", Money.format(19995));
+        assertEquals("0.05",   Money.format(5));
+        assertEquals("-12.30", Money.format(-1230));
+        assertEquals("0.00",   Money.format(0));
+        assertEquals("-92233720368547758.08", Money.format(Long.MIN_VALUE));
+        assertEquals("92233720368547758.07",  Money.format(Long.MAX_VALUE));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testToCentsNaN() {
+        Money.toCents(Double.NaN);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testToCentsTooLarge() {
+        Money.toCents(1e17);
+    }
+
+    @Test (expected = ArithmeticException.class)
+    public void testAddOverflow() {
+        Money.add(Long.MAX_VALUE, 1);
+    }
+
+}
@@ -0,0 +1,212 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Works out the monthly price of a location's units.
+ *
+ * A unit's list price starts from the location's base price, which is the price of
+ * a standard 4 x 8 x 8 unit, scaled by the unit's volume.  Humidity- and temperature-
+ * controlled units carry a surcharge, and the price then moves with the location's
+ * occupancy: it drops when the location is less than half full and rises as it fills.
+ * A customer who already rents at the location gets the multi-unit discount.
+ *
+ * The list price depends only on the unit's shape and the occupancy band, so quotes
+ * are remembered per (shape, band).  Occupancy moving to another band simply selects
+ * other entries; only a change to the base price throws the remembered quotes away.
+ * Quoting takes no locks.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class PricingEngine {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the volume of a unit charged exactly the base price, in cubic feet (4 x 8 x 8) */
+    static final long BASE_VOLUME = 256;
+    /** the surcharge for each unit type, in percent; indexed by unit type ordinal */
+    static final int[] TYPE_SURCHARGE_PCT = { 0, 10, 25 };
+    /** the occupancy, in percent, at which each band above the first begins */
+    static final int[] BAND_START_PCT = { 50, 80, 95 };
+    /** the price adjustment in each occupancy band, in percent */
+    static final int[] BAND_ADJUST_PCT = { -10, 0, 10, 20 };
+    /** the band whose adjustment is zero, used when there's no location to fill */
+    static final int NEUTRAL_BAND = 1;
+    /** the number of basis points (hundredths of a percent) in a whole */
+    static final long BASIS_POINTS = 10000;
+    /** marks a quote that hasn't been worked out yet */
+    private static final long NOT_QUOTED = -1;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the shapes of the location's units */
+    private UnitSizeIndex shapes;
+    /** the base price and the quotes remembered for it, replaced together */
+    private volatile PriceTable table;
+    /** the multi-unit discount, in basis points */
+    private volatile long discountBasisPoints;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * PricingEngine Constructor
+     *
+     * @param   shapes                  the shapes of the location's units
+     * @param   basePriceCents          the price of a standard unit, in cents
+     * @param   discountBasisPoints     the multi-unit discount, in basis points
+     */
+    PricingEngine(UnitSizeIndex shapes, long basePriceCents, long discountBasisPoints) {
+        this.shapes = shapes;
+        this.discountBasisPoints = discountBasisPoints;
+        setBasePriceCents(basePriceCents);
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the price of a standard unit
+     *
+     * @return      the base price, in cents
+     */
+    long getBasePriceCents() {
+        return table.basePriceCents;
+    }
+
+    /**
+     * Retrieves the multi-unit discount
+     *
+     * @return      the discount, in basis points
+     */
+    long getDiscountBasisPoints() {
+        return discountBasisPoints;
+    }
+
+    /**
+     * Changes the price of a standard unit, discarding the remembered quotes
+     *
+     * @param   cents   the new base price, in cents
+     */
+    void setBasePriceCents(long cents) {
+        table = new PriceTable(cents, shapes.getShapeCount() * BAND_ADJUST_PCT.length);
+    }
+
+    /**
+     * Changes the multi-unit discount
+     *
+     * @param   basisPoints     the new discount, in basis points
+     */
+    void setDiscountBasisPoints(long basisPoints) {
+        discountBasisPoints = basisPoints;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Quotes the list price of a shape in an occupancy band
+     *
+     * @param   shapeId     the shape number
+     * @param   band        the occupancy band
+     * @return              the monthly price, in cents
+     */
+    long quoteCents(int shapeId, int band) {
+        PriceTable current = table;
+        int quoteIdx = shapeId * BAND_ADJUST_PCT.length + band;
+        long cents = current.quotes.get(quoteIdx);
+        if (cents == NOT_QUOTED) {
+            // two threads may both work out a missing quote; they get the same answer
+            cents = listPriceCents(current.basePriceCents, shapes.getShapeWidth(shapeId), 
+                                   shapes.getShapeLength(shapeId), shapes.getShapeHeight(shapeId), 
+                                   shapes.getShapeType(shapeId), band);
+            current.quotes.set(quoteIdx, cents);
+        }
+        return cents;
+    }
+
+    /**
+     * Applies the multi-unit discount to a price
+     *
+     * @param   cents   the undiscounted price, in cents
+     * @return          the discounted price, in cents
+     */
+    long discountCents(long cents) {
+        return applyBasisPoints(cents, BASIS_POINTS - discountBasisPoints);
+    }
+
+    /**
+     * Finds the occupancy band of a location
+     *
+     * @param   rentedCount     the number of units rented
+     * @param   unitCount       the number of units at the location
+     * @return                  the occupancy band, from 0 (emptiest) up
+     */
+    static int occupancyBand(int rentedCount, int unitCount) {
+        int band = 0;
+        while (band < BAND_START_PCT.length && rentedCount * 100L >= BAND_START_PCT[band] * (long) unitCount) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * Works out the list price of a unit
+     *
+     * @param   basePriceCents  the price of a standard unit, in cents
+     * @param   width           the unit's width, in feet
+     * @param   length          the unit's length, in feet
+     * @param   height          the unit's height, in feet
+     * @param   unitType        the unit's type
+     * @param   band            the location's occupancy band
+     * @return                  the monthly price, in cents
+     */
+    static long listPriceCents(long basePriceCents, int width, int length, int height,
+                               StorageUnit.UnitType unitType, int band) {
+        long volume = (long) width * length * height;
+        long sizedCents = (Math.multiplyExact(basePriceCents, volume) + BASE_VOLUME / 2) / BASE_VOLUME;
+        long typedCents = applyBasisPoints(sizedCents, 100 * (100 + TYPE_SURCHARGE_PCT[unitType.ordinal()]));
+        return applyBasisPoints(typedCents, 100 * (100 + BAND_ADJUST_PCT[band]));
+    }
+
+    /**
+     * Takes a proportion of an amount, rounding to the nearest cent
+     *
+     * @param   cents           the amount, in cents
+     * @param   basisPoints     the proportion, in basis points
+     * @return                  the proportion of the amount, in cents
+     */
+    private static long applyBasisPoints(long cents, long basisPoints) {
+        return (Math.multiplyExact(cents, basisPoints) + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    //---------------------------------------------------------------------
+    //          PRICE TABLES
+    //---------------------------------------------------------------------
+    /**
+     * A base price and the quotes worked out from it so far
+     */
+    private static class PriceTable {
+        /** the price of a standard unit, in cents */
+        final long basePriceCents;
+        /** the list price of each shape in each band, in cents, or NOT_QUOTED;
+         *  by shape number * band count + band */
+        final AtomicLongArray quotes;
+
+        /**
+         * PriceTable Constructor; no quotes have been worked out yet
+         *
+         * @param   basePriceCents  the price of a standard unit, in cents
+         * @param   quoteCount      the number of (shape, band) pairs
+         */
+        PriceTable(long basePriceCents, int quoteCount) {
+            this.basePriceCents = basePriceCents;
+            this.quotes = new AtomicLongArray(quoteCount);
+            for (int quoteIdx = 0; quoteIdx < quoteCount; quoteIdx++) {
+                quotes.set(quoteIdx, NOT_QUOTED);
+            }
+        }
+    }
+
+}
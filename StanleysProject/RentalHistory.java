@@ -0,0 +1,329 @@
+import java.util.Arrays;
+
+/**
+ * Keeps every finished rental of a store's units, and answers how many units were
+ * rented, and for how much, on any past date.
+ *
+ * Finished rentals are appended to fixed-size segments of parallel primitive arrays,
+ * so each costs a few array entries rather than an object.  Each record links back
+ * to the unit's previous record, so one unit's history is read without searching.
+ *
+ * For dates, every rental adds a change on the day it starts and takes it back on
+ * the day it ends.  Running totals are kept for each day on which something changes,
+ * in day order, and a change is added to the totals of its day and every later one,
+ * so a question about any date is answered by a binary search instead of by
+ * replaying the rentals.  Nearly every change falls on the latest day (today), so
+ * keeping the totals up to date costs a few additions rather than a rebuild.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class RentalHistory {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the number of bits of a record number that give its place in its segment */
+    static final int SEGMENT_BITS = 10;
+    /** the number of records in each segment */
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    /** the record number that stands for "no record" */
+    static final int NO_RECORD = -1;
+    /** the number of totals kept for each day: a count of units by type ordinal, then the rent */
+    private static final int TOTALS_WIDTH = StorageUnit.UnitType.values().length + 1;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the sizes and types of the units */
+    private FacilityLayout layout;
+    /** the segments of records; only the last may be part-full */
+    private Segment[] segments;
+    /** the number of records */
+    private int recordCount;
+    /** the number of each unit's latest record, or NO_RECORD; by the unit's slot */
+    private int[] latestRecords;
+    /** the epoch days on which something changes, in order; the first dayCount are in use */
+    private long[] totalDays;
+    /** the number of days on which something changes */
+    private int dayCount;
+    /** the running totals at the end of each of totalDays, TOTALS_WIDTH to a day: the
+        number of units rented by type ordinal, then the contracted rent in cents */
+    private long[] totals;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * RentalHistory Constructor; creates an empty history
+     *
+     * @param   layout      the (sealed) sizes and types of the units
+     */
+    RentalHistory(FacilityLayout layout) {
+        this.layout = layout;
+        segments = new Segment[1];
+        recordCount = 0;
+        latestRecords = new int[layout.getUnitCount()];
+        Arrays.fill(latestRecords, NO_RECORD);
+        totalDays = new long[16];
+        dayCount = 0;
+        totals = new long[totalDays.length * TOTALS_WIDTH];
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Counts the finished rentals
+     *
+     * @return      the number of records
+     */
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Retrieves the finished rentals of one unit
+     *
+     * @param   idx         the unit's slot
+     * @param   customers   the registry resolving the records' customer ids
+     * @return              an array of the unit's rentals, oldest first
+     */
+    synchronized RentalRecord[] getRecords(int idx, CustomerRegistry customers) {
+        int count = 0;
+        for (int recordNo = latestRecords[idx]; recordNo != NO_RECORD; recordNo = segmentOf(recordNo).prevRecords[slotOf(recordNo)]) {
+            count++;
+        }
+        RentalRecord[] records = new RentalRecord[count];
+        for (int recordNo = latestRecords[idx]; recordNo != NO_RECORD; recordNo = segmentOf(recordNo).prevRecords[slotOf(recordNo)]) {
+            Segment segment = segmentOf(recordNo);
+            int slot = slotOf(recordNo);
+            records[--count] = new RentalRecord(customers.getCustomer(segment.customerIds[slot]),
+                                                segment.startDays[slot], segment.endDays[slot],
+                                                segment.priceCents[slot]);
+        }
+        return records;
+    }
+
+    /**
+     * Retrieves the finished rentals of one unit as plain numbers, for writing out
+     *
+     * @param   idx     the unit's slot
+     * @return          the customer id, start epoch day, end epoch day and price in cents
+     *                  of each rental, oldest first; or null if the unit has none
+     */
+    synchronized long[] getRecordData(int idx) {
+        int count = 0;
+        for (int recordNo = latestRecords[idx]; recordNo != NO_RECORD; recordNo = segmentOf(recordNo).prevRecords[slotOf(recordNo)]) {
+            count++;
+        }
+        if (count == 0) {
+            return null;
+        }
+        long[] data = new long[count * 4];
+        for (int recordNo = latestRecords[idx]; recordNo != NO_RECORD; recordNo = segmentOf(recordNo).prevRecords[slotOf(recordNo)]) {
+            Segment segment = segmentOf(recordNo);
+            int slot = slotOf(recordNo);
+            int dataIdx = --count * 4;
+            data[dataIdx]     = segment.customerIds[slot];
+            data[dataIdx + 1] = segment.startDays[slot];
+            data[dataIdx + 2] = segment.endDays[slot];
+            data[dataIdx + 3] = segment.priceCents[slot];
+        }
+        return data;
+    }
+
+    /**
+     * Finds the end of a unit's latest finished rental
+     *
+     * @param   idx     the unit's slot
+     * @return          the epoch day the rental ended, or Long.MIN_VALUE if the unit has
+     *                  no finished rentals
+     */
+    synchronized long getLatestEndDay(int idx) {
+        int recordNo = latestRecords[idx];
+        return (recordNo == NO_RECORD) ? Long.MIN_VALUE : segmentOf(recordNo).endDays[slotOf(recordNo)];
+    }
+
+    /**
+     * Counts the units rented at the end of a day
+     *
+     * @param   day         the epoch day of interest
+     * @param   typeIdx     the ordinal of the type of unit to count, or -1 for every type
+     * @return              the number of units rented
+     */
+    synchronized int getRentedCount(long day, int typeIdx) {
+        int dayIdx = dayIdxAt(day);
+        if (dayIdx < 0) {
+            return 0;
+        }
+        int rowStart = dayIdx * TOTALS_WIDTH;
+        if (typeIdx >= 0) {
+            return (int) totals[rowStart + typeIdx];
+        }
+        int rentedCount = 0;
+        for (int countIdx = 0; countIdx < TOTALS_WIDTH - 1; countIdx++) {
+            rentedCount += totals[rowStart + countIdx];
+        }
+        return rentedCount;
+    }
+
+    /**
+     * Adds up the monthly rent of the units rented at the end of a day
+     *
+     * @param   day     the epoch day of interest
+     * @return          the contracted monthly rent, in cents
+     */
+    synchronized long getRentCents(long day) {
+        int dayIdx = dayIdxAt(day);
+        return (dayIdx < 0) ? 0 : totals[dayIdx * TOTALS_WIDTH + TOTALS_WIDTH - 1];
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Records that a unit has been rented
+     *
+     * @param   idx         the unit's slot
+     * @param   startDay    the epoch day the rental starts
+     * @param   cents       the monthly price of the rental, in cents
+     */
+    synchronized void rentalStarted(int idx, long startDay, long cents) {
+        addChange(startDay, idx, 1, cents);
+    }
+
+    /**
+     * Records that a unit's rental has finished, appending it to the unit's history
+     *
+     * @param   idx         the unit's slot
+     * @param   customerId  the id of the customer who rented the unit
+     * @param   startDay    the epoch day the rental started
+     * @param   endDay      the epoch day the rental ended
+     * @param   cents       the monthly price of the rental, in cents
+     */
+    synchronized void rentalEnded(int idx, int customerId, long startDay, long endDay, long cents) {
+        int recordNo = recordCount;
+        int segIdx = recordNo >>> SEGMENT_BITS;
+        if (segIdx == segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        if (segments[segIdx] == null) {
+            segments[segIdx] = new Segment();
+        }
+        Segment segment = segments[segIdx];
+        int slot = slotOf(recordNo);
+        segment.customerIds[slot] = customerId;
+        segment.startDays[slot]   = startDay;
+        segment.endDays[slot]     = endDay;
+        segment.priceCents[slot]  = cents;
+        segment.prevRecords[slot] = latestRecords[idx];
+        latestRecords[idx] = recordNo;
+        recordCount++;
+        addChange(endDay, idx, -1, -cents);
+    }
+
+    /**
+     * Adds a change to the running totals of its day and of every later day
+     *
+     * @param   day             the epoch day of the change
+     * @param   idx             the slot of the unit that changed
+     * @param   unitDelta       the change to the number of units rented
+     * @param   centsDelta      the change to the contracted rent, in cents
+     */
+    private void addChange(long day, int idx, int unitDelta, long centsDelta) {
+        int dayIdx;
+        if (dayCount > 0 && totalDays[dayCount - 1] == day) {
+            // the usual case: another change today
+            dayIdx = dayCount - 1;
+        } else {
+            dayIdx = Arrays.binarySearch(totalDays, 0, dayCount, day);
+            if (dayIdx < 0) {
+                dayIdx = -dayIdx - 1;
+                insertDay(dayIdx, day);
+            }
+        }
+        int countIdx = layout.getType(idx).ordinal();
+        for (int rowStart = dayIdx * TOTALS_WIDTH; rowStart < dayCount * TOTALS_WIDTH; rowStart += TOTALS_WIDTH) {
+            totals[rowStart + countIdx] += unitDelta;
+            totals[rowStart + TOTALS_WIDTH - 1] += centsDelta;
+        }
+    }
+
+    /**
+     * Makes room for a new day among the days with changes, starting it with the
+     * totals of the day before
+     *
+     * @param   dayIdx      the new day's place in totalDays
+     * @param   day         the epoch day
+     */
+    private void insertDay(int dayIdx, long day) {
+        if (dayCount == totalDays.length) {
+            totalDays = Arrays.copyOf(totalDays, totalDays.length * 2);
+            totals = Arrays.copyOf(totals, totalDays.length * TOTALS_WIDTH);
+        }
+        System.arraycopy(totalDays, dayIdx, totalDays, dayIdx + 1, dayCount - dayIdx);
+        System.arraycopy(totals, dayIdx * TOTALS_WIDTH, totals, (dayIdx + 1) * TOTALS_WIDTH,
+                         (dayCount - dayIdx) * TOTALS_WIDTH);
+        totalDays[dayIdx] = day;
+        if (dayIdx == 0) {
+            Arrays.fill(totals, 0, TOTALS_WIDTH, 0);
+        } else {
+            System.arraycopy(totals, (dayIdx - 1) * TOTALS_WIDTH, totals, dayIdx * TOTALS_WIDTH, TOTALS_WIDTH);
+        }
+        dayCount++;
+    }
+
+    /**
+     * Finds the last day with changes on or before a day
+     *
+     * @param   day     the epoch day of interest
+     * @return          the place in totalDays of that day, or -1 if nothing had
+     *                  happened by then
+     */
+    private int dayIdxAt(long day) {
+        int dayIdx = Arrays.binarySearch(totalDays, 0, dayCount, day);
+        // not a day with changes: use the last one before it
+        return (dayIdx >= 0) ? dayIdx : -dayIdx - 2;
+    }
+
+    /**
+     * Finds the segment holding a record
+     *
+     * @param   recordNo    the record's number
+     * @return              the record's segment
+     */
+    private Segment segmentOf(int recordNo) {
+        return segments[recordNo >>> SEGMENT_BITS];
+    }
+
+    /**
+     * Finds a record's place within its segment
+     *
+     * @param   recordNo    the record's number
+     * @return              the record's slot in its segment
+     */
+    private static int slotOf(int recordNo) {
+        return recordNo & (SEGMENT_SIZE - 1);
+    }
+
+    //---------------------------------------------------------------------
+    //          SEGMENTS
+    //---------------------------------------------------------------------
+    /**
+     * SEGMENT_SIZE records, in parallel arrays
+     */
+    private static class Segment {
+        /** the id of each record's customer */
+        final int[] customerIds = new int[SEGMENT_SIZE];
+        /** the epoch day each rental started; a long, as LocalDate goes well past the days an int holds */
+        final long[] startDays = new long[SEGMENT_SIZE];
+        /** the epoch day each rental ended */
+        final long[] endDays = new long[SEGMENT_SIZE];
+        /** the monthly price of each rental, in cents */
+        final long[] priceCents = new long[SEGMENT_SIZE];
+        /** the number of the same unit's previous record, or NO_RECORD */
+        final int[] prevRecords = new int[SEGMENT_SIZE];
+    }
+
+}
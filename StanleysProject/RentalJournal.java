@@ -0,0 +1,867 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps a storage location's rentals, rental history, customers and balances on
+ * disk, so they survive a restart.
+ *
+ * The journal listens to its location and appends a compact binary record for every
+ * change (customer added or updated, unit rented or released, customer charged or
+ * credited, prices changed) to an append-only file.  Records are gathered in a buffer and written to
+ * the file channel in batches; sync makes everything written so far durable, so a
+ * caller can commit a whole group of changes with a single disk flush.
+ *
+ * Now and then the journal should be compacted with snapshot, which writes the
+ * location's whole state to a snapshot file and starts an empty journal.  Recovery
+ * loads the latest snapshot and replays only the journal written since, so startup
+ * time depends on how much has changed since the snapshot, not on the location's
+ * history.  The snapshot and the journal share a generation number, so a journal left
+ * over from before a snapshot (after a crash part-way through taking one) is ignored;
+ * a record torn by a crash part-way through writing it is dropped.
+ *
+ * Each location keeps its own journal, so a customer renting at several locations is
+ * restored as a separate customer at each of them.  A customer's charges and credits
+ * are journaled once, by the first location the customer was registered at; the
+ * other locations record the customer's balance as it stands when the customer is
+ * added and at each snapshot.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class RentalJournal implements LocationListener, Closeable {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the name of the snapshot file within the journal's directory */
+    public static final String SNAPSHOT_FILE = "snapshot.bin";
+    /** the name of the journal file within the journal's directory */
+    public static final String JOURNAL_FILE  = "journal.bin";
+    /** the size of the buffer in which records are gathered before being written */
+    public static final int BUFFER_BYTES = 64 * 1024;
+
+    /** the name under which a snapshot is written before it replaces the last one */
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+    /** identifies a snapshot file */
+    private static final int SNAPSHOT_MAGIC = 0x53534E50;
+    /** identifies a journal file */
+    private static final int JOURNAL_MAGIC  = 0x53534A4E;
+    /** the version of the file formats written */
+    private static final int FORMAT_VERSION = 3;
+    /** the size of a journal file's header: magic, format version and generation */
+    private static final int JOURNAL_HEADER_BYTES = 16;
+    /** the size of each record's header: length and type */
+    private static final int RECORD_HEADER_BYTES  = 5;
+
+    /** record type: customer added (id, name, phone, balance in cents) */
+    private static final byte CUSTOMER_ADDED   = 1;
+    /** record type: customer updated (id, name, phone) */
+    private static final byte CUSTOMER_UPDATED = 2;
+    /** record type: unit rented (location index, customer id, start epoch day, price in cents) */
+    private static final byte UNIT_RENTED      = 3;
+    /** record type: unit released (location index, end epoch day) */
+    private static final byte UNIT_RELEASED    = 4;
+    /** record type: customer charged (id, cents) */
+    private static final byte CHARGED          = 5;
+    /** record type: customer credited (id, cents) */
+    private static final byte CREDITED         = 6;
+    /** record type: prices changed (base price in cents, discount in basis points) */
+    private static final byte PRICING_CHANGED  = 7;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the location being journaled */
+    private StorageLocation location;
+    /** the directory holding the snapshot and journal files */
+    private Path directory;
+    /** the journal file, positioned at its end */
+    private FileChannel channel;
+    /** the records not yet written to the journal file */
+    private ByteBuffer buffer;
+    /** the generation of the current snapshot and journal */
+    private long generation;
+    /** the number of records journaled since the last snapshot */
+    private long recordsSinceSnapshot;
+    /** the first error met while writing, after which the journal stops recording */
+    private IOException failure;
+    /** whether the journal has been closed */
+    private boolean closed;
+
+    // The journal's own copy of the location's state, exactly as recorded so far,
+    // from which snapshots are taken without having to lock the location.
+    /** the name of each customer, by id */
+    private List<String> names;
+    /** the phone number of each customer, by id */
+    private List<String> phones;
+    /** the balance of each customer in cents, by id */
+    private long[] balances;
+    /** the customers whose balances are journaled by another location, by id (null for the rest) */
+    private List<Customer> visitors;
+    /** the id of the customer renting each unit, or UnitStore.NO_CUSTOMER */
+    private int[] unitCustomerIds;
+    /** the rental start of each rented unit, as an epoch day */
+    private long[] unitStartDays;
+    /** the monthly price of each rented unit, in cents */
+    private long[] unitPriceCents;
+    /** the finished rentals of each unit */
+    private RentalHistory history;
+    /** the monthly price of a standard unit, in cents */
+    private long basePriceCents;
+    /** the multi-unit discount, in basis points */
+    private long discountBasisPoints;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * RentalJournal Constructor; copies the location's current prices, units and
+     * rental history, which must not change until the journal is listening to the
+     * location.  The customers are copied as the location introduces them.
+     *
+     * @param   location    the location to journal
+     * @param   directory   the directory holding the snapshot and journal files
+     */
+    private RentalJournal(StorageLocation location, Path directory) {
+        this.location  = location;
+        this.directory = directory;
+        buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        basePriceCents      = location.pricing.getBasePriceCents();
+        discountBasisPoints = location.pricing.getDiscountBasisPoints();
+
+        int customerCount = location.getCustomerCount();
+        names    = new ArrayList<>(customerCount);
+        phones   = new ArrayList<>(customerCount);
+        balances = new long[Math.max(16, customerCount)];
+        visitors = new ArrayList<>(customerCount);
+
+        int unitCount = location.getUnitCount();
+        unitCustomerIds = new int[unitCount];
+        unitStartDays   = new long[unitCount];
+        unitPriceCents  = new long[unitCount];
+        long[] state = new long[4];
+        for (int locationIdx = 0; locationIdx < unitCount; locationIdx++) {
+            while (!location.units.readRental(locationIdx, state)) {
+                Thread.yield();
+            }
+            unitCustomerIds[locationIdx] = (int) state[0];
+            unitStartDays[locationIdx]   = state[1];
+            unitPriceCents[locationIdx]  = state[2];
+        }
+
+        history = new RentalHistory(location.getLayout());
+        RentalHistory locationHistory = location.units.getHistory();
+        for (int locationIdx = 0; locationIdx < unitCount; locationIdx++) {
+            long[] records = locationHistory.getRecordData(locationIdx);
+            if (records != null) {
+                addHistory(history, locationIdx, records);
+            }
+        }
+    }
+
+    /**
+     * Starts journaling a location in a directory, taking a first snapshot of its
+     * current state; any snapshot and journal already in the directory are replaced.
+     * Customers may be added, charged and credited by other threads while this runs,
+     * but the location's units should not be rented or released, nor its prices
+     * changed, until it returns.
+     *
+     * @param   location    the location to journal; must not be null
+     * @param   directory   the directory for the snapshot and journal files; must not be null
+     * @return              the journal, listening to the location
+     * @throws  IOException if the files can't be written
+     */
+    public static RentalJournal create(StorageLocation location, Path directory) throws IOException {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        Files.createDirectories(directory);
+        RentalJournal journal = new RentalJournal(location, directory);
+        // changes reported before the journal file is open go into the first snapshot
+        location.addListenerWithCustomers(journal);
+        try {
+            synchronized (journal) {
+                journal.writeSnapshot(1);
+                journal.startJournal(1);
+            }
+        } catch (IOException e) {
+            location.removeListener(journal);
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Restores a location from the snapshot and journal in a directory, and carries
+     * on journaling it there
+     *
+     * @param   directory   the directory written by a journal; must not be null
+     * @return              the journal, listening to the restored location
+     * @throws  IOException if the snapshot is missing or unreadable
+     */
+    public static RentalJournal recover(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        long[] generation = new long[1];
+        StorageLocation location = readSnapshot(directory.resolve(SNAPSHOT_FILE), generation);
+        Path journalPath = directory.resolve(JOURNAL_FILE);
+        long validEnd = Files.exists(journalPath) ? replay(location, journalPath, generation[0]) : 0;
+
+        RentalJournal journal = new RentalJournal(location, directory);
+        location.addListenerWithCustomers(journal);
+        synchronized (journal) {
+            if (validEnd > 0) {
+                journal.generation = generation[0];
+                journal.channel = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+                // drop anything after the last whole record
+                journal.channel.truncate(validEnd);
+                journal.channel.position(validEnd);
+            } else {
+                journal.startJournal(generation[0]);
+            }
+        }
+        return journal;
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the location being journaled
+     *
+     * @return      the journaled location
+     */
+    public StorageLocation getLocation() {
+        return location;
+    }
+
+    /**
+     * Counts the records journaled since the last snapshot, so a caller can decide
+     * when to take the next one
+     *
+     * @return      the number of records since the last snapshot
+     */
+    public synchronized long getRecordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    //---------------------------------------------------------------------
+    //          LISTENER METHODS
+    //---------------------------------------------------------------------
+    @Override
+    public synchronized void customerAdded(StorageLocation loc, int customerId, Customer customer,
+                                           long balance) {
+        if (customerId != names.size()) {
+            return;
+        }
+        String name  = customer.getName();
+        String phone = customer.getPhone();
+        names.add(name);
+        phones.add(phone);
+        visitors.add((customer.getHomeRegistry() == loc.getCustomerRegistry()) ? null : customer);
+        if (customerId == balances.length) {
+            balances = Arrays.copyOf(balances, balances.length * 2);
+        }
+        balances[customerId] = balance;
+
+        byte[] nameBytes  = name.getBytes(StandardCharsets.UTF_8);
+        byte[] phoneBytes = phone.getBytes(StandardCharsets.UTF_8);
+        if (startRecord(CUSTOMER_ADDED, 20 + nameBytes.length + phoneBytes.length)) {
+            buffer.putInt(customerId);
+            putBytes(nameBytes);
+            putBytes(phoneBytes);
+            buffer.putLong(balance);
+        }
+    }
+
+    @Override
+    public synchronized void customerUpdated(StorageLocation loc, int customerId, Customer customer) {
+        if (customerId < 0 || customerId >= names.size()) {
+            return;
+        }
+        String name  = customer.getName();
+        String phone = customer.getPhone();
+        names.set(customerId, name);
+        phones.set(customerId, phone);
+
+        byte[] nameBytes  = name.getBytes(StandardCharsets.UTF_8);
+        byte[] phoneBytes = phone.getBytes(StandardCharsets.UTF_8);
+        if (startRecord(CUSTOMER_UPDATED, 12 + nameBytes.length + phoneBytes.length)) {
+            buffer.putInt(customerId);
+            putBytes(nameBytes);
+            putBytes(phoneBytes);
+        }
+    }
+
+    @Override
+    public synchronized void unitRented(StorageLocation loc, int locationIdx, int customerId,
+                                        long rentalStartDay, long priceCents) {
+        unitCustomerIds[locationIdx] = customerId;
+        unitStartDays[locationIdx]   = rentalStartDay;
+        unitPriceCents[locationIdx]  = priceCents;
+        if (startRecord(UNIT_RENTED, 24)) {
+            buffer.putInt(locationIdx);
+            buffer.putInt(customerId);
+            buffer.putLong(rentalStartDay);
+            buffer.putLong(priceCents);
+        }
+    }
+
+    @Override
+    public synchronized void unitReleased(StorageLocation loc, int locationIdx, int customerId,
+                                          long rentalEndDay, long priceCents) {
+        history.rentalEnded(locationIdx, customerId, unitStartDays[locationIdx], rentalEndDay, priceCents);
+        unitCustomerIds[locationIdx] = UnitStore.NO_CUSTOMER;
+        unitStartDays[locationIdx]   = 0;
+        unitPriceCents[locationIdx]  = 0;
+        if (startRecord(UNIT_RELEASED, 12)) {
+            buffer.putInt(locationIdx);
+            buffer.putLong(rentalEndDay);
+        }
+    }
+
+    @Override
+    public synchronized void pricingChanged(StorageLocation loc, long newBasePriceCents, long newDiscountBasisPoints) {
+        basePriceCents      = newBasePriceCents;
+        discountBasisPoints = newDiscountBasisPoints;
+        if (startRecord(PRICING_CHANGED, 16)) {
+            buffer.putLong(newBasePriceCents);
+            buffer.putLong(newDiscountBasisPoints);
+        }
+    }
+
+    @Override
+    public synchronized void customerCharged(StorageLocation loc, int customerId, long cents) {
+        balanceChanged(CHARGED, customerId, cents);
+    }
+
+    @Override
+    public synchronized void customerCredited(StorageLocation loc, int customerId, long cents) {
+        balanceChanged(CREDITED, customerId, cents);
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Writes the buffered records to the journal file, without waiting for them
+     * to reach the disk
+     *
+     * @throws  IOException if the journal can't be written, now or earlier
+     */
+    public synchronized void flush() throws IOException {
+        checkUsable();
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the buffered records to the journal file and waits until everything
+     * journaled so far is on the disk
+     *
+     * @throws  IOException if the journal can't be written, now or earlier
+     */
+    public synchronized void sync() throws IOException {
+        flush();
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the location's state as journaled so far and starts an
+     * empty journal, so that recovery need replay only what follows
+     *
+     * @throws  IOException if the snapshot or journal can't be written
+     */
+    public synchronized void snapshot() throws IOException {
+        checkUsable();
+        try {
+            writeBuffer();
+            writeSnapshot(generation + 1);
+            // from here on, recovery ignores the old journal even if the reset below is lost
+            channel.truncate(0);
+            channel.position(0);
+            writeJournalHeader(generation + 1);
+            channel.force(true);
+            generation++;
+            recordsSinceSnapshot = 0;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Stops journaling the location, making everything journaled so far durable
+     *
+     * @throws  IOException if the journal can't be written, now or earlier
+     */
+    @Override
+    public void close() throws IOException {
+        location.removeListener(this);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    sync();
+                }
+            } finally {
+                closed = true;
+                channel.close();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Records a change to a customer's balance
+     *
+     * @param   type            CHARGED or CREDITED
+     * @param   customerId      the customer's id
+     * @param   cents           the amount charged or credited, in cents
+     */
+    private void balanceChanged(byte type, int customerId, long cents) {
+        if (customerId < 0 || customerId >= names.size()) {
+            // not introduced yet; the balance it is introduced with will include this
+            return;
+        }
+        if (visitors.get(customerId) != null) {
+            // journaled by the customer's home location
+            return;
+        }
+        balances[customerId] += (type == CHARGED) ? cents : -cents;
+        if (startRecord(type, 12)) {
+            buffer.putInt(customerId);
+            buffer.putLong(cents);
+        }
+    }
+
+    /**
+     * Makes room in the buffer for a record and writes the record's header; the
+     * caller then writes exactly payloadBytes of payload
+     *
+     * @param   type            the record type
+     * @param   payloadBytes    the size of the record's payload
+     * @return                  true, if the payload should be written; false, if
+     *                          the journal has stopped recording
+     */
+    private boolean startRecord(byte type, int payloadBytes) {
+        if (failure != null || closed || channel == null) {
+            // stopped, or not started yet, when the state being copied includes the change
+            return false;
+        }
+        int recordBytes = RECORD_HEADER_BYTES + payloadBytes;
+        try {
+            if (buffer.remaining() < recordBytes) {
+                writeBuffer();
+                if (buffer.capacity() < recordBytes) {
+                    buffer = ByteBuffer.allocateDirect(recordBytes);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            return false;
+        }
+        buffer.putInt(1 + payloadBytes);
+        buffer.put(type);
+        recordsSinceSnapshot++;
+        return true;
+    }
+
+    /**
+     * Writes a length-prefixed run of bytes to the buffer
+     *
+     * @param   bytes   the bytes to write
+     */
+    private void putBytes(byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the buffered records to the journal file and empties the buffer
+     *
+     * @throws  IOException if the journal can't be written
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Throws if the journal has been closed or has failed
+     *
+     * @throws  IOException if the journal failed earlier
+     */
+    private void checkUsable() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The journal has been closed");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Opens an empty journal file of the given generation
+     *
+     * @param   newGeneration   the generation of the current snapshot
+     * @throws  IOException     if the journal can't be written
+     */
+    private void startJournal(long newGeneration) throws IOException {
+        channel = FileChannel.open(directory.resolve(JOURNAL_FILE), StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        writeJournalHeader(newGeneration);
+        channel.force(true);
+        generation = newGeneration;
+    }
+
+    /**
+     * Writes a journal file header at the channel's position
+     *
+     * @param   newGeneration   the generation of the journal
+     * @throws  IOException     if the header can't be written
+     */
+    private void writeJournalHeader(long newGeneration) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+        header.putInt(JOURNAL_MAGIC).putInt(FORMAT_VERSION).putLong(newGeneration).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    /**
+     * Writes the journaled state to a new snapshot file, which replaces the last one
+     * only once it is complete and on the disk
+     *
+     * @param   newGeneration   the generation of the snapshot
+     * @throws  IOException     if the snapshot can't be written
+     */
+    private void writeSnapshot(long newGeneration) throws IOException {
+        Path tempPath = directory.resolve(SNAPSHOT_TEMP_FILE);
+        try (FileChannel snapshotChannel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                            Channels.newOutputStream(snapshotChannel), BUFFER_BYTES));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(newGeneration);
+            out.writeUTF(location.getDesignation());
+            out.writeLong(basePriceCents);
+            out.writeLong(discountBasisPoints);
+            writeLayout(out, location.getLayout());
+
+            out.writeInt(names.size());
+            for (int customerId = 0; customerId < names.size(); customerId++) {
+                out.writeUTF(names.get(customerId));
+                out.writeUTF(phones.get(customerId));
+                Customer visitor = visitors.get(customerId);
+                out.writeLong((visitor == null) ? balances[customerId] : visitor.getBalanceCents());
+            }
+
+            int rentedCount = 0;
+            for (int customerId : unitCustomerIds) {
+                if (customerId != UnitStore.NO_CUSTOMER) {
+                    rentedCount++;
+                }
+            }
+            out.writeInt(rentedCount);
+            for (int locationIdx = 0; locationIdx < unitCustomerIds.length; locationIdx++) {
+                if (unitCustomerIds[locationIdx] != UnitStore.NO_CUSTOMER) {
+                    out.writeInt(locationIdx);
+                    out.writeInt(unitCustomerIds[locationIdx]);
+                    out.writeLong(unitStartDays[locationIdx]);
+                    out.writeLong(unitPriceCents[locationIdx]);
+                }
+            }
+
+            long[][] histories = new long[unitCustomerIds.length][];
+            int historyCount = 0;
+            for (int locationIdx = 0; locationIdx < histories.length; locationIdx++) {
+                histories[locationIdx] = history.getRecordData(locationIdx);
+                if (histories[locationIdx] != null) {
+                    historyCount++;
+                }
+            }
+            out.writeInt(historyCount);
+            for (int locationIdx = 0; locationIdx < histories.length; locationIdx++) {
+                long[] records = histories[locationIdx];
+                if (records != null) {
+                    out.writeInt(locationIdx);
+                    out.writeInt(records.length / 4);
+                    for (int dataIdx = 0; dataIdx < records.length; dataIdx += 4) {
+                        out.writeInt((int) records[dataIdx]);
+                        out.writeLong(records[dataIdx + 1]);
+                        out.writeLong(records[dataIdx + 2]);
+                        out.writeLong(records[dataIdx + 3]);
+                    }
+                }
+            }
+            out.flush();
+            snapshotChannel.force(true);
+        }
+        Files.move(tempPath, directory.resolve(SNAPSHOT_FILE),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a layout as rows of runs of identical units
+     *
+     * @param   out         the snapshot being written
+     * @param   layout      the layout to write
+     * @throws  IOException if the snapshot can't be written
+     */
+    private static void writeLayout(DataOutputStream out, FacilityLayout layout) throws IOException {
+        out.writeInt(layout.getRowCount());
+        int segIdx = 0;
+        for (int rowIdx = 0; rowIdx < layout.getRowCount(); rowIdx++) {
+            int rowEnd = layout.getRowStart(rowIdx + 1);
+            // a segment may run on from one row into the next, so cut it at the row's end
+            List<int[]> runs = new ArrayList<>();
+            int runStart = layout.getRowStart(rowIdx);
+            while (runStart < rowEnd) {
+                while (layout.getSegmentEnd(segIdx) <= runStart) {
+                    segIdx++;
+                }
+                int runEnd = Math.min(rowEnd, layout.getSegmentEnd(segIdx));
+                runs.add(new int[] { runStart, runEnd - runStart });
+                runStart = runEnd;
+            }
+            out.writeInt(runs.size());
+            for (int[] run : runs) {
+                out.writeInt(run[1]);
+                out.writeInt(layout.getWidth(run[0]));
+                out.writeInt(layout.getLength(run[0]));
+                out.writeInt(layout.getHeight(run[0]));
+                out.writeByte(layout.getType(run[0]).ordinal());
+            }
+        }
+    }
+
+    /**
+     * Builds a location from a snapshot file
+     *
+     * @param   snapshotPath    the snapshot file
+     * @param   generation      receives the snapshot's generation
+     * @return                  the location, without listeners
+     * @throws  IOException     if the snapshot is missing or unreadable
+     */
+    private static StorageLocation readSnapshot(Path snapshotPath, long[] generation) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                        Files.newInputStream(snapshotPath), BUFFER_BYTES))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(snapshotPath + " is not a rental snapshot");
+            }
+            generation[0] = in.readLong();
+            String designation = in.readUTF();
+            long basePriceCents = in.readLong();
+            long discountBasisPoints = in.readLong();
+
+            FacilityLayout layout = new FacilityLayout();
+            StorageUnit.UnitType[] types = StorageUnit.UnitType.values();
+            int rowCount = in.readInt();
+            for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+                layout.addRow();
+                int runCount = in.readInt();
+                for (int runIdx = 0; runIdx < runCount; runIdx++) {
+                    int count  = in.readInt();
+                    int width  = in.readInt();
+                    int length = in.readInt();
+                    int height = in.readInt();
+                    layout.addUnits(count, width, length, height, types[in.readByte()]);
+                }
+            }
+            StorageLocation location = new StorageLocation(designation, layout);
+            location.pricing.setBasePriceCents(basePriceCents);
+            location.pricing.setDiscountBasisPoints(discountBasisPoints);
+
+            int customerCount = in.readInt();
+            for (int customerId = 0; customerId < customerCount; customerId++) {
+                Customer customer = new Customer(in.readUTF(), in.readUTF());
+                setBalance(customer, in.readLong());
+                location.addCustomer(customer);
+            }
+            int rentedCount = in.readInt();
+            for (int rentalIdx = 0; rentalIdx < rentedCount; rentalIdx++) {
+                int locationIdx = in.readInt();
+                Customer customer = location.getCustomer(in.readInt());
+                LocalDate start = LocalDate.ofEpochDay(in.readLong());
+                location.unitAt(locationIdx).rentForCents(customer, start, in.readLong());
+            }
+            int historyCount = in.readInt();
+            for (int unitNo = 0; unitNo < historyCount; unitNo++) {
+                int locationIdx = in.readInt();
+                long[] records = new long[in.readInt() * 4];
+                for (int dataIdx = 0; dataIdx < records.length; dataIdx += 4) {
+                    records[dataIdx]     = in.readInt();
+                    records[dataIdx + 1] = in.readLong();
+                    records[dataIdx + 2] = in.readLong();
+                    records[dataIdx + 3] = in.readLong();
+                }
+                addHistory(location.units.getHistory(), locationIdx, records);
+            }
+            return location;
+        }
+    }
+
+    /**
+     * Applies the records of a journal file to a location, stopping at the first
+     * torn record
+     *
+     * @param   location        the location restored from the snapshot
+     * @param   journalPath     the journal file
+     * @param   generation      the generation of the snapshot
+     * @return                  the end of the last whole record, or 0 if the journal
+     *                          belongs to another generation and was ignored
+     * @throws  IOException     if the journal can't be read
+     */
+    private static long replay(StorageLocation location, Path journalPath, long generation) throws IOException {
+        try (FileChannel journalChannel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            MappedByteBuffer records = journalChannel.map(FileChannel.MapMode.READ_ONLY, 0, journalChannel.size());
+            if (records.remaining() < JOURNAL_HEADER_BYTES || records.getInt() != JOURNAL_MAGIC
+                    || records.getInt() != FORMAT_VERSION || records.getLong() != generation) {
+                return 0;
+            }
+            while (records.remaining() >= RECORD_HEADER_BYTES) {
+                int recordStart = records.position();
+                int length = records.getInt();
+                if (length < 1 || length > records.remaining()) {
+                    records.position(recordStart);
+                    break;
+                }
+                byte type = records.get();
+                applyRecord(location, type, records);
+                records.position(recordStart + 4 + length);
+            }
+            return records.position();
+        }
+    }
+
+    /**
+     * Applies one journal record to a location
+     *
+     * @param   location    the location being restored
+     * @param   type        the record type
+     * @param   records     the journal, positioned at the record's payload
+     */
+    private static void applyRecord(StorageLocation location, byte type, ByteBuffer records) {
+        switch (type) {
+            case CUSTOMER_ADDED: {
+                records.getInt();
+                Customer customer = new Customer(getString(records), getString(records));
+                setBalance(customer, records.getLong());
+                location.addCustomer(customer);
+                break;
+            }
+            case CUSTOMER_UPDATED: {
+                Customer customer = location.getCustomer(records.getInt());
+                customer.setName(getString(records));
+                customer.setPhone(getString(records));
+                break;
+            }
+            case UNIT_RENTED: {
+                StorageUnit unit = location.unitAt(records.getInt());
+                Customer customer = location.getCustomer(records.getInt());
+                LocalDate start = LocalDate.ofEpochDay(records.getLong());
+                unit.rentForCents(customer, start, records.getLong());
+                break;
+            }
+            case UNIT_RELEASED: {
+                StorageUnit unit = location.unitAt(records.getInt());
+                unit.release(LocalDate.ofEpochDay(records.getLong()));
+                break;
+            }
+            case CHARGED:
+                location.getCustomer(records.getInt()).chargeCents(records.getLong());
+                break;
+            case CREDITED:
+                location.getCustomer(records.getInt()).creditCents(records.getLong());
+                break;
+            case PRICING_CHANGED:
+                location.pricing.setBasePriceCents(records.getLong());
+                location.pricing.setDiscountBasisPoints(records.getLong());
+                break;
+            default:
+                // written by a later version; skip it
+                break;
+        }
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string from a journal
+     *
+     * @param   records     the journal, positioned at the string
+     * @return              the string
+     */
+    private static String getString(ByteBuffer records) {
+        byte[] bytes = new byte[records.getInt()];
+        records.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Files a unit's finished rentals in a history
+     *
+     * @param   history         the history
+     * @param   locationIdx     the unit's location index
+     * @param   records         the unit's rentals, laid out as by RentalHistory.getRecordData
+     */
+    private static void addHistory(RentalHistory history, int locationIdx, long[] records) {
+        for (int dataIdx = 0; dataIdx < records.length; dataIdx += 4) {
+            history.rentalStarted(locationIdx, records[dataIdx + 1], records[dataIdx + 3]);
+            history.rentalEnded(locationIdx, (int) records[dataIdx], records[dataIdx + 1],
+                                records[dataIdx + 2], records[dataIdx + 3]);
+        }
+    }
+
+    /**
+     * Sets the balance of a customer who isn't yet registered anywhere
+     *
+     * @param   customer        the new customer
+     * @param   cents           the balance to give the customer, in cents
+     */
+    static void setBalance(Customer customer, long cents) {
+        if (cents >= 0) {
+            customer.chargeCents(cents);
+        } else {
+            customer.creditCents(-cents);
+        }
+    }
+
+}
@@ -0,0 +1,318 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * The test class RentalJournalTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class RentalJournalTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 15);
+
+    private Path testDir;
+    private StorageLocation testLoc;
+    private Customer pat;
+    private Customer chris;
+
+    /**
+     * Default constructor for test class RentalJournalTest
+     */
+    public RentalJournalTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testDir = Files.createTempDirectory("journal");
+        testLoc = new StorageLocation("WA12Kirkland");
+        pat   = new Customer("Pat Perkins",   "425-555-1314");
+        chris = new Customer("Chris Connoly", "425-555-3141");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() throws IOException {
+        // the deepest paths first, so each directory is empty by the time it's deleted
+        Path[] paths;
+        try (Stream<Path> walk = Files.walk(testDir)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toArray(Path[]::new);
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testRecoverFromSnapshot() throws IOException {
+        testLoc.addCustomer(pat);
+        testLoc.getStorageUnit(0, 3).rentForCents(pat, START, 7500);
+        pat.chargeCents(1234);
+        RentalJournal.create(testLoc, testDir).close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(testLoc, recovered.getLocation());
+        recovered.close();
+    }
+
+    @Test
+    public void testReplayJournal() throws IOException {
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        makeChanges();
+        journal.close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(testLoc, recovered.getLocation());
+        assertEquals(testLoc.getDesignation(), recovered.getLocation().getDesignation());
+        recovered.close();
+    }
+
+    @Test
+    public void testReplayAfterSnapshot() throws IOException {
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        makeChanges();
+        journal.snapshot();
+        assertEquals(0, journal.getRecordsSinceSnapshot());
+        testLoc.getStorageUnit(5, 5).rentForCents(chris, START.plusDays(3), 8800);
+        chris.creditCents(500);
+        assertEquals(2, journal.getRecordsSinceSnapshot());
+        journal.close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(testLoc, recovered.getLocation());
+        recovered.close();
+    }
+
+    @Test
+    public void testRecoveredJournalKeepsRecording() throws IOException {
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        makeChanges();
+        journal.close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        StorageLocation recoveredLoc = recovered.getLocation();
+        recoveredLoc.getStorageUnit(7, 1).rentForCents(recoveredLoc.getCustomer(0), START, 4200);
+        recoveredLoc.chargeMonthlyRentCents();
+        recovered.close();
+
+        RentalJournal again = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(recoveredLoc, again.getLocation());
+        again.close();
+    }
+
+    @Test
+    public void testTornRecordIgnored() throws IOException {
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        makeChanges();
+        journal.close();
+
+        // the start of a record whose body never reached the disk
+        try (FileChannel channel = FileChannel.open(testDir.resolve(RentalJournal.JOURNAL_FILE),
+                                                    StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(7);
+            torn.putInt(25).put((byte) 3).put((byte) 0).put((byte) 0).flip();
+            channel.write(torn);
+        }
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        StorageLocation recoveredLoc = recovered.getLocation();
+        LocationAssert.assertSameState(testLoc, recoveredLoc);
+        recoveredLoc.getCustomer(1).chargeCents(99);
+        recovered.close();
+
+        RentalJournal again = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(recoveredLoc, again.getLocation());
+        again.close();
+    }
+
+    @Test
+    public void testReleaseEndsRecovered() throws IOException {
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        makeChanges();
+        StorageUnit unit = testLoc.getStorageUnit(0, 1);
+        assertTrue(unit.release(START.plusMonths(2)));
+        journal.close();
+
+        // replayed releases end when they ended, not on the day of recovery
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        StorageLocation recoveredLoc = recovered.getLocation();
+        LocationAssert.assertSameState(testLoc, recoveredLoc);
+        RentalRecord[] history = recoveredLoc.getStorageUnit(0, 1).getRentalHistory();
+        assertEquals(1, history.length);
+        assertEquals(START.plusMonths(2), history[0].getRentalEnd());
+
+        // and the history is carried through a snapshot
+        recovered.snapshot();
+        recovered.close();
+        RentalJournal again = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(testLoc, again.getLocation());
+        assertEquals(0, again.getRecordsSinceSnapshot());
+        again.close();
+    }
+
+    @Test
+    public void testPricingRecovered() throws IOException {
+        testLoc.setUnitBasePrice(120.00);
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        testLoc.setUnitBasePrice(150.00);
+        testLoc.setMultiUnitDiscount(0.25);
+        assertEquals(2, journal.getRecordsSinceSnapshot());
+        journal.close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(testLoc, recovered.getLocation());
+        assertEquals(15000, recovered.getLocation().getUnitBasePriceCents());
+        recovered.snapshot();
+        recovered.close();
+
+        RentalJournal again = RentalJournal.recover(testDir);
+        LocationAssert.assertSameState(testLoc, again.getLocation());
+        assertEquals(0.25, again.getLocation().getMultiUnitDiscount(), 0.0001);
+        again.close();
+    }
+
+    @Test
+    public void testBalanceJournaledOnce() throws IOException {
+        StorageLocation otherLoc = new StorageLocation("WA14Redmond");
+        testLoc.addCustomer(pat);
+        otherLoc.addCustomer(pat);
+        RentalJournal journal = RentalJournal.create(testLoc, testDir.resolve("home"));
+        RentalJournal otherJournal = RentalJournal.create(otherLoc, testDir.resolve("other"));
+        pat.chargeCents(2500);
+        pat.creditCents(1000);
+        // only the location pat first registered at journals pat's balance
+        assertEquals(2, journal.getRecordsSinceSnapshot());
+        assertEquals(0, otherJournal.getRecordsSinceSnapshot());
+        otherJournal.snapshot();
+        journal.close();
+        otherJournal.close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir.resolve("home"));
+        assertEquals(1500, recovered.getLocation().getCustomer(0).getBalanceCents());
+        recovered.close();
+        // the other location has the balance as of its snapshot
+        RentalJournal otherRecovered = RentalJournal.recover(testDir.resolve("other"));
+        assertEquals(1500, otherRecovered.getLocation().getCustomer(0).getBalanceCents());
+        otherRecovered.close();
+    }
+
+    @Test
+    public void testBillingWhileStarting() throws Exception {
+        // customers are charged throughout; each charge must be in the first snapshot
+        // or in the journal, never both and never neither
+        Customer[] custs = new Customer[200];
+        for (int custIdx = 0; custIdx < custs.length; custIdx++) {
+            custs[custIdx] = new Customer("Renter " + custIdx, String.format("425-555-%04d", custIdx));
+        }
+        for (int custIdx = 0; custIdx < 100; custIdx++) {
+            testLoc.addCustomer(custs[custIdx]);
+        }
+        AtomicBoolean billing = new AtomicBoolean(true);
+        Thread[] chargers = new Thread[4];
+        for (int threadIdx = 0; threadIdx < chargers.length; threadIdx++) {
+            int firstIdx = threadIdx;
+            chargers[threadIdx] = new Thread(() -> {
+                for (int custIdx = firstIdx; billing.get(); custIdx = (custIdx + 7) % custs.length) {
+                    custs[custIdx].chargeCents(1);
+                }
+            });
+            chargers[threadIdx].start();
+        }
+        RentalJournal journal = RentalJournal.create(testLoc, testDir);
+        for (int custIdx = 100; custIdx < custs.length; custIdx++) {
+            testLoc.addCustomer(custs[custIdx]);
+        }
+        billing.set(false);
+        for (Thread charger : chargers) {
+            charger.join();
+        }
+        journal.close();
+
+        RentalJournal recovered = RentalJournal.recover(testDir);
+        for (int custIdx = 0; custIdx < custs.length; custIdx++) {
+            assertEquals(custs[custIdx].getBalanceCents(),
+                         recovered.getLocation().getCustomer(custIdx).getBalanceCents());
+        }
+        recovered.close();
+    }
+
+    @Test
+    public void testCustomLayout() throws IOException {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(3, 8, 8, 8, StorageUnit.UnitType.STANDARD);
+        layout.addRow();
+        layout.addUnits(2, 8, 8, 8, StorageUnit.UnitType.STANDARD);
+        layout.addUnits(4, 12, 16, 10, StorageUnit.UnitType.TEMPERATURE);
+        StorageLocation loc = new StorageLocation("OR03Salem", layout);
+        RentalJournal.create(loc, testDir).close();
+
+        RentalJournal journal = RentalJournal.recover(testDir);
+        FacilityLayout recovered = journal.getLocation().getLayout();
+        journal.close();
+        assertEquals(2, recovered.getRowCount());
+        assertEquals(3, recovered.getUnitsInRow(0));
+        assertEquals(6, recovered.getUnitsInRow(1));
+        assertEquals(StorageUnit.UnitType.TEMPERATURE, recovered.getType(recovered.getLocationIdx(1, 2)));
+        assertEquals(16, recovered.getLength(recovered.getLocationIdx(1, 5)));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testCreateLocationNull() throws IOException {
+        RentalJournal.create(null, testDir);
+    }
+
+    @Test (expected = IOException.class)
+    public void testRecoverWithoutSnapshot() throws IOException {
+        RentalJournal.recover(testDir);
+    }
+
+    //--------------------------------------------------------------
+    //      Helpers
+    //--------------------------------------------------------------
+
+    /**
+     * Makes one of each kind of change to the test location
+     */
+    private void makeChanges() {
+        testLoc.addCustomer(pat);
+        testLoc.getStorageUnit(0, 0).rentForCents(pat, START, 9995);
+        testLoc.getStorageUnit(0, 1).rentForCents(chris, START, 12000);
+        testLoc.getStorageUnit(11, 19).rentForCents(pat, START.plusMonths(1), 15050);
+        testLoc.chargeMonthlyRentCents();
+        pat.creditCents(10000);
+        testLoc.getStorageUnit(0, 0).release();
+        chris.setName("Christopher Connoly");
+        chris.setPhone("425-555-0000");
+    }
+
+}
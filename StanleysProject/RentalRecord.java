@@ -0,0 +1,101 @@
+import java.time.LocalDate;
+
+/**
+ * One finished rental of a storage unit: who rented it, from when until when,
+ * and at what monthly price
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class RentalRecord {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the customer who rented the unit */
+    private Customer customer;
+    /** the epoch day the rental started */
+    private long startDay;
+    /** the epoch day the rental ended */
+    private long endDay;
+    /** the monthly price of the rental, in cents */
+    private long priceCents;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * RentalRecord Constructor
+     *
+     * @param   customer        the customer who rented the unit
+     * @param   startDay        the epoch day the rental started
+     * @param   endDay          the epoch day the rental ended
+     * @param   priceCents      the monthly price of the rental, in cents
+     */
+    RentalRecord(Customer customer, long startDay, long endDay, long priceCents) {
+        this.customer = customer;
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.priceCents = priceCents;
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the customer who rented the unit
+     *
+     * @return      the customer
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Retrieves the start of the rental
+     *
+     * @return      the first day of the rental
+     */
+    public LocalDate getRentalStart() {
+        return LocalDate.ofEpochDay(startDay);
+    }
+
+    /**
+     * Retrieves the end of the rental
+     *
+     * @return      the day the unit was released, the first day it was no longer rented
+     */
+    public LocalDate getRentalEnd() {
+        return LocalDate.ofEpochDay(endDay);
+    }
+
+    /**
+     * Retrieves the monthly price of the rental
+     *
+     * @return      the price
+     */
+    public double getPrice() {
+        return Money.toDollars(priceCents);
+    }
+
+    /**
+     * Retrieves the monthly price of the rental, in cents
+     *
+     * @return      the price, in cents
+     */
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    /**
+     * Describes the rental
+     *
+     * @return      e.g. "Pat Perkins, 2026-01-15 to 2026-03-01, $99.95"
+     */
+    @Override
+    public String toString() {
+        return customer.getName() + ", " + getRentalStart() + " to " + getRentalEnd()
+               + ", $" + Money.format(priceCents);
+    }
+
+}
@@ -0,0 +1,329 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every storage location in the chain, by designation and by state.
+ *
+ * Locations are held in one shard per state (the two letters that start each
+ * designation), so work on locations in different states never contends for the
+ * same lock, and a shard's lock is only taken to add or remove a location; lookups
+ * take no lock at all.  Each shard listens to its locations and keeps running counts
+ * of their empty units by type, so questions like "how many empty TEMPERATURE units
+ * are there in WA?" are answered from the counts instead of by visiting every
+ * location.  The counts are striped LongAdders, so rentals at a state's busy
+ * locations don't all fight over one counter, and are summed when read.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class StorageChain {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the shard for each state holding at least one location, by state code */
+    private ConcurrentMap<String, StateShard> shards;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * StorageChain Constructor; creates a chain with no locations
+     */
+    public StorageChain() {
+        shards = new ConcurrentHashMap<>();
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves a location by designation
+     *
+     * @param   designation     the location's designation
+     * @return                  the location, or null if the chain has none by that designation
+     */
+    public StorageLocation getLocation(String designation) {
+        if (designation == null || designation.length() < 2) {
+            return null;
+        }
+        StateShard shard = shards.get(designation.substring(0, 2));
+        return (shard == null) ? null : shard.getLocation(designation);
+    }
+
+    /**
+     * Counts the locations in the chain
+     *
+     * @return      the number of locations
+     */
+    public int getLocationCount() {
+        int locationCount = 0;
+        for (StateShard shard : shards.values()) {
+            locationCount += shard.getLocationCount();
+        }
+        return locationCount;
+    }
+
+    /**
+     * Retrieves all of the chain's locations, ordered by designation
+     *
+     * @return      an array of the locations
+     */
+    public StorageLocation[] getLocations() {
+        List<StorageLocation> locations = new ArrayList<>();
+        for (String state : getStates()) {
+            for (StorageLocation location : getLocations(state)) {
+                locations.add(location);
+            }
+        }
+        return locations.toArray(new StorageLocation[locations.size()]);
+    }
+
+    /**
+     * Retrieves the chain's locations in one state, ordered by designation
+     *
+     * @param   state   the two-letter state code, e.g. "WA"
+     * @return          an array of the state's locations (empty if there are none)
+     */
+    public StorageLocation[] getLocations(String state) {
+        StateShard shard = shards.get(state);
+        return (shard == null) ? new StorageLocation[0] : shard.getLocations();
+    }
+
+    /**
+     * Retrieves the states in which the chain has locations
+     *
+     * @return      an array of the two-letter state codes, in alphabetical order
+     */
+    public String[] getStates() {
+        List<String> states = new ArrayList<>();
+        for (Map.Entry<String, StateShard> entry : new TreeMap<>(shards).entrySet()) {
+            if (entry.getValue().getLocationCount() > 0) {
+                states.add(entry.getKey());
+            }
+        }
+        return states.toArray(new String[states.size()]);
+    }
+
+    /**
+     * Counts the empty units across the whole chain
+     *
+     * @return      the number of empty units
+     */
+    public long getEmptyUnitCount() {
+        long emptyCount = 0;
+        for (StateShard shard : shards.values()) {
+            emptyCount += shard.getEmptyUnitCount();
+        }
+        return emptyCount;
+    }
+
+    /**
+     * Counts the empty units of one type across the whole chain
+     *
+     * @param   unitType    the type of unit of interest
+     * @return              the number of empty units of that type
+     */
+    public long getEmptyUnitCount(StorageUnit.UnitType unitType) {
+        long emptyCount = 0;
+        for (StateShard shard : shards.values()) {
+            emptyCount += shard.getEmptyUnitCount(unitType);
+        }
+        return emptyCount;
+    }
+
+    /**
+     * Counts the empty units at the chain's locations in one state
+     *
+     * @param   state   the two-letter state code, e.g. "WA"
+     * @return          the number of empty units in that state
+     */
+    public long getEmptyUnitCount(String state) {
+        StateShard shard = shards.get(state);
+        return (shard == null) ? 0 : shard.getEmptyUnitCount();
+    }
+
+    /**
+     * Counts the empty units of one type at the chain's locations in one state
+     *
+     * @param   state       the two-letter state code, e.g. "WA"
+     * @param   unitType    the type of unit of interest
+     * @return              the number of empty units of that type in that state
+     */
+    public long getEmptyUnitCount(String state, StorageUnit.UnitType unitType) {
+        StateShard shard = shards.get(state);
+        return (shard == null) ? 0 : shard.getEmptyUnitCount(unitType);
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Adds a location to the chain
+     *
+     * @param   location    the location to add; must not be null; must not have the
+     *                      same designation as a location already in the chain
+     */
+    public void addLocation(StorageLocation location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location must not be null");
+        }
+        StateShard shard = shards.computeIfAbsent(location.getState(), state -> new StateShard());
+        shard.addLocation(location);
+    }
+
+    /**
+     * Removes a location from the chain
+     *
+     * @param   designation     the designation of the location to remove
+     * @return                  the removed location, or null if the chain had none
+     *                          by that designation
+     */
+    public StorageLocation removeLocation(String designation) {
+        if (designation == null || designation.length() < 2) {
+            return null;
+        }
+        StateShard shard = shards.get(designation.substring(0, 2));
+        return (shard == null) ? null : shard.removeLocation(designation);
+    }
+
+    //---------------------------------------------------------------------
+    //          SHARDS
+    //---------------------------------------------------------------------
+    /**
+     * Holds the chain's locations in one state, and keeps count of their empty units
+     */
+    private static class StateShard implements LocationListener {
+        /** the state's locations, by designation; read without locking */
+        private final ConcurrentSkipListMap<String, StorageLocation> locations = new ConcurrentSkipListMap<>();
+        /** the number of empty units of each type at the state's locations; by type ordinal */
+        private final LongAdder[] emptyCountByType;
+
+        /**
+         * StateShard Constructor; creates a shard with no locations
+         */
+        StateShard() {
+            emptyCountByType = new LongAdder[StorageUnit.UnitType.values().length];
+            for (int typeIdx = 0; typeIdx < emptyCountByType.length; typeIdx++) {
+                emptyCountByType[typeIdx] = new LongAdder();
+            }
+        }
+
+        /**
+         * Retrieves a location by designation
+         *
+         * @param   designation     the location's designation
+         * @return                  the location, or null if there is none
+         */
+        StorageLocation getLocation(String designation) {
+            return locations.get(designation);
+        }
+
+        /**
+         * Counts the state's locations
+         *
+         * @return      the number of locations
+         */
+        int getLocationCount() {
+            return locations.size();
+        }
+
+        /**
+         * Retrieves the state's locations, ordered by designation
+         *
+         * @return      an array of the locations
+         */
+        StorageLocation[] getLocations() {
+            // the map's size is counted by walking it, so let toArray size the array
+            return locations.values().toArray(new StorageLocation[0]);
+        }
+
+        /**
+         * Counts the empty units at the state's locations
+         *
+         * @return      the number of empty units
+         */
+        long getEmptyUnitCount() {
+            long emptyCount = 0;
+            for (LongAdder typeCount : emptyCountByType) {
+                emptyCount += typeCount.sum();
+            }
+            return emptyCount;
+        }
+
+        /**
+         * Counts the empty units of one type at the state's locations
+         *
+         * @param   unitType    the type of unit of interest
+         * @return              the number of empty units of that type
+         */
+        long getEmptyUnitCount(StorageUnit.UnitType unitType) {
+            return emptyCountByType[unitType.ordinal()].sum();
+        }
+
+        /**
+         * Adds a location, counting its empty units
+         *
+         * @param   location    the location to add
+         */
+        synchronized void addLocation(StorageLocation location) {
+            if (locations.containsKey(location.getDesignation())) {
+                throw new IllegalArgumentException("The chain already has a location " + location.getDesignation());
+            }
+            locations.put(location.getDesignation(), location);
+            // holding the location's lock, no rental can fall between counting and listening
+            synchronized (location) {
+                location.addListener(this);
+                adjustEmptyCounts(location, 1);
+            }
+        }
+
+        /**
+         * Removes a location, no longer counting its empty units
+         *
+         * @param   designation     the designation of the location to remove
+         * @return                  the removed location, or null if there was none
+         */
+        synchronized StorageLocation removeLocation(String designation) {
+            StorageLocation location = locations.remove(designation);
+            if (location != null) {
+                synchronized (location) {
+                    location.removeListener(this);
+                    adjustEmptyCounts(location, -1);
+                }
+            }
+            return location;
+        }
+
+        /**
+         * Adds or subtracts a location's empty units to or from the state's counts
+         *
+         * @param   location    the location
+         * @param   sign        1 to add the location's units, -1 to subtract them
+         */
+        private void adjustEmptyCounts(StorageLocation location, int sign) {
+            for (StorageUnit.UnitType unitType : StorageUnit.UnitType.values()) {
+                emptyCountByType[unitType.ordinal()].add(sign * location.getEmptyUnitCount(unitType));
+            }
+        }
+
+        @Override
+        public void unitRented(StorageLocation location, int locationIdx, int customerId,
+                               long rentalStartDay, long priceCents) {
+            emptyCountByType[location.getLayout().getType(locationIdx).ordinal()].decrement();
+        }
+
+        @Override
+        public void unitReleased(StorageLocation location, int locationIdx, int customerId,
+                                 long rentalEndDay, long priceCents) {
+            emptyCountByType[location.getLayout().getType(locationIdx).ordinal()].increment();
+        }
+    }
+
+}
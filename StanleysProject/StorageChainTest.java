@@ -0,0 +1,123 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+
+/**
+ * The test class StorageChainTest.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class StorageChainTest {
+
+    private StorageChain testChain;
+    private StorageLocation issaquah;
+    private StorageLocation kirkland;
+    private StorageLocation salem;
+    private Customer testCust;
+
+    /**
+     * Default constructor for test class StorageChainTest
+     */
+    public StorageChainTest() {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testChain = new StorageChain();
+        issaquah = new StorageLocation("WA23Issaquah");
+        kirkland = new StorageLocation("WA12Kirkland");
+        salem    = new StorageLocation("OR03Salem");
+        testChain.addLocation(issaquah);
+        testChain.addLocation(kirkland);
+        testChain.addLocation(salem);
+        testCust = new Customer("Pat Perkins", "425-555-1314");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      General Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testGetLocation() {
+        assertSame(kirkland, testChain.getLocation("WA12Kirkland"));
+        assertSame(salem, testChain.getLocation("OR03Salem"));
+        assertNull(testChain.getLocation("WA99Nowhere"));
+        assertNull(testChain.getLocation("CA01Fresno"));
+        assertEquals(3, testChain.getLocationCount());
+    }
+
+    @Test
+    public void testGetLocationsByState() {
+        assertArrayEquals(new String[] { "OR", "WA" }, testChain.getStates());
+        assertArrayEquals(new StorageLocation[] { kirkland, issaquah }, testChain.getLocations("WA"));
+        assertArrayEquals(new StorageLocation[] { salem, kirkland, issaquah }, testChain.getLocations());
+        assertEquals(0, testChain.getLocations("CA").length);
+    }
+
+    @Test
+    public void testEmptyUnitCounts() {
+        int perLocation = issaquah.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE);
+        assertEquals(2 * perLocation, testChain.getEmptyUnitCount("WA", StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(3 * perLocation, testChain.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(3 * issaquah.getUnitCount(), testChain.getEmptyUnitCount());
+        assertEquals(0, testChain.getEmptyUnitCount("CA"));
+    }
+
+    @Test
+    public void testEmptyUnitCountsFollowRentals() {
+        StorageUnit unit = kirkland.getStorageUnit(11, 0);
+        StorageUnit.UnitType unitType = unit.getType();
+        long before = testChain.getEmptyUnitCount("WA", unitType);
+        unit.rent(testCust, LocalDate.now(), 149.95);
+        assertEquals(before - 1, testChain.getEmptyUnitCount("WA", unitType));
+        assertEquals(2L * issaquah.getUnitCount() - 1, testChain.getEmptyUnitCount("WA"));
+        assertEquals(salem.getUnitCount(), testChain.getEmptyUnitCount("OR"));
+        unit.release();
+        assertEquals(before, testChain.getEmptyUnitCount("WA", unitType));
+    }
+
+    @Test
+    public void testRemoveLocation() {
+        kirkland.getStorageUnit(0, 0).rent(testCust, LocalDate.now(), 99.95);
+        assertSame(kirkland, testChain.removeLocation("WA12Kirkland"));
+        assertNull(testChain.getLocation("WA12Kirkland"));
+        assertEquals(issaquah.getUnitCount(), testChain.getEmptyUnitCount("WA"));
+
+        // changes at a removed location are no longer counted
+        kirkland.getStorageUnit(0, 0).release();
+        assertEquals(issaquah.getUnitCount(), testChain.getEmptyUnitCount("WA"));
+        assertNull(testChain.removeLocation("WA12Kirkland"));
+    }
+
+    //--------------------------------------------------------------
+    //      Precondition Tests
+    //--------------------------------------------------------------
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddLocationNull() {
+        testChain.addLocation(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddLocationTwice() {
+        testChain.addLocation(new StorageLocation("WA23Issaquah"));
+    }
+
+}
@@ -1,3 +1,14 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Represents a storage location for Stanley's Storage Spots
  *
@@ -9,11 +20,11 @@ public class StorageLocation  {
     //---------------------------------------------------------------------
     //          CONSTANTS
     //---------------------------------------------------------------------
-    /** the number of rows of units in this location */
+    /** the number of rows of units in a location using the standard layout */
     public static final int NUM_ROWS      =  12;
-    /** the number of rental units in each row */
+    /** the number of rental units in each row of the standard layout */
     public static final int NUM_SPACES    =  20;
-    /** the initial number of customers */
+    /** the number of customers a location was once limited to; locations now grow as needed */
     public static final int NUM_CUSTOMERS = 100;
     /** the row at which standard units begin */
     public static final int ROW_START_STD = 0;
@@ -21,24 +32,64 @@ public class StorageLocation  {
     public static final int ROW_START_HUM = 6;
     /** the row at which temp units begin */
     public static final int ROW_START_TMP = 8;
+    /** the monthly price of a standard 4 x 8 x 8 unit, unless the location sets its own */
+    public static final double DEFAULT_UNIT_BASE_PRICE     = 100.00;
+    /** the discount on each unit rented by a customer who already rents here, as a fraction */
+    public static final double DEFAULT_MULTI_UNIT_DISCOUNT = 0.10;
 
     //---------------------------------------------------------------------
     //          INSTANCE DATA
     //---------------------------------------------------------------------
     /** this unit's designation per company guidelines */
     String locationDesignation;
-    /** stores all units managed by this location */
-    StorageUnit[][] units;
+    /** the arrangement of rows and units at this location */
+    FacilityLayout layout;
+    /** the size, type and rental state of every unit, by location index */
+    UnitStore units;
     /** maintains the customers for this location */
-    Customer[] customers;
-    /** the number of customers at this location (may be less than array size) */
-    int customerCount;
+    CustomerRegistry customers;
+    /** the available units, by location index (row-major order) */
+    BitSet freeUnits;
+    /** the available units of each type, by location index; indexed by unit type ordinal */
+    BitSet[] freeUnitsByType;
+    /** the number of available units of each type; indexed by unit type ordinal */
+    int[] freeCountByType;
+    /** the available units, by size */
+    UnitSizeIndex freeUnitsBySize;
+    /** the runs of adjacent available units in each row */
+    FreeRunIndex freeRuns;
+    /** the number of units rented, as last recorded in the indexes */
+    volatile int rentedUnitCount;
+    /** the number of units of each type; indexed by unit type ordinal */
+    int[] unitCountByType;
+    /** the monthly rent of all rented units in cents, as last recorded in the indexes */
+    long contractedRentCents;
+    /** the metrics as of the last change to the indexes, or null until they're next asked for */
+    volatile LocationMetrics metrics;
+    /** works out the prices of this location's units */
+    PricingEngine pricing;
+    /** the units currently rented by each customer, in the order they were rented */
+    Map<Customer, List<StorageUnit>> unitsByCustomer;
+    /** the customer id of each unit as last recorded in the indexes */
+    int[] indexedCustomerIds;
+    /** the store version of each unit as last recorded in the indexes */
+    int[] indexedVersions;
+    /** the price in cents of each unit as last recorded in the indexes */
+    long[] indexedPriceCents;
+    /** receives each unit's rental state as it is read for the indexes */
+    long[] rentalState;
+    /** the listeners told about changes to this location */
+    List<LocationListener> listeners;
+    /** the ids of the customers whose units are locked until they catch up on their rent */
+    Set<Integer> lockedCustomerIds;
+    /** times this location's busiest operations, when switched on */
+    Instrumentation instrumentation;
 
     //---------------------------------------------------------------------
     //          CONSTRUCTORS
     //---------------------------------------------------------------------
     /**
-     * StorageLocation Constructor
+     * StorageLocation Constructor; creates a location using the standard layout
      *
      * @param   locationDesignation     the company's designation (name) for this location;
      *                                  must not be null or empty; must match the required
@@ -46,28 +97,99 @@ public class StorageLocation  {
      *                                  followed by an additional string representing city
      */
     public StorageLocation(String locationDesignation) {
-        if (locationDesignation == null || locationDesignation.isEmpty()) {
-            throw new IllegalArgumentException("The location designation can't be empty or null");
+        this(locationDesignation, FacilityLayout.standardLayout());
+    }
+
+    /**
+     * StorageLocation Constructor; creates a location using the standard layout
+     *
+     * @param   locationDesignation     the company's designation (name) for this location;
+     *                                  must not be null or empty; must match the required
+     *                                  format, two upper-case letters followed by two digits,
+     *                                  followed by an additional string representing city
+     * @param   unitBasePrice           the monthly price of a standard 4 x 8 x 8 unit, from 
+     *                                  which all of the location's prices are worked out;
+     *                                  must not be negative
+     */
+    public StorageLocation(String locationDesignation, double unitBasePrice) {
+        this(locationDesignation, FacilityLayout.standardLayout(), unitBasePrice);
+    }
+
+    /**
+     * StorageLocation Constructor
+     *
+     * @param   locationDesignation     the company's designation (name) for this location;
+     *                                  must not be null or empty; must match the required
+     *                                  format, two upper-case letters followed by two digits,
+     *                                  followed by an additional string representing city
+     * @param   layout                  the arrangement of rows and units at this location;
+     *                                  must not be null; is sealed against further changes
+     */
+    public StorageLocation(String locationDesignation, FacilityLayout layout) {
+        this(locationDesignation, layout, DEFAULT_UNIT_BASE_PRICE);
+    }
+
+    /**
+     * StorageLocation Constructor
+     *
+     * @param   locationDesignation     the company's designation (name) for this location;
+     *                                  must not be null or empty; must match the required
+     *                                  format, two upper-case letters followed by two digits,
+     *                                  followed by an additional string representing city
+     * @param   layout                  the arrangement of rows and units at this location;
+     *                                  must not be null; is sealed against further changes
+     * @param   unitBasePrice           the monthly price of a standard 4 x 8 x 8 unit, from 
+     *                                  which all of the location's prices are worked out;
+     *                                  must not be negative
+     */
+    public StorageLocation(String locationDesignation, FacilityLayout layout, double unitBasePrice) {
+        checkDesignation(locationDesignation);
+        if (layout == null) {
+            throw new IllegalArgumentException("The layout must not be null");
         }
-        if (!locationDesignation.matches("[A-Z]{2}[0-9]{2}[A-Za-z ]+")) {
-            throw new IllegalArgumentException("Designation doesn't match required pattern");
+        if (unitBasePrice < 0) {
+            throw new IllegalArgumentException("The base price must not be negative");
         }
+        long basePriceCents = Money.toCents(unitBasePrice);
+        layout.seal();
         this.locationDesignation = locationDesignation;
-        customers = new Customer[NUM_CUSTOMERS];
-        customerCount = 0;
-
-        units = new StorageUnit[NUM_ROWS][NUM_SPACES];
-        for (int rowIdx = 0; rowIdx < units.length; rowIdx++) {
-            for (int spaceIdx = 0; spaceIdx < units[rowIdx].length; spaceIdx++) {
-                if (rowIdx >= ROW_START_TMP) {
-                    units[rowIdx][spaceIdx] = new StorageUnit(4, 8, 8, StorageUnit.UnitType.TEMPERATURE);
-                } else if (rowIdx >= ROW_START_HUM) {
-                    units[rowIdx][spaceIdx] = new StorageUnit(4, 8, 8, StorageUnit.UnitType.HUMIDITY);
-                } else {
-                    units[rowIdx][spaceIdx] = new StorageUnit(4, 8, 8, StorageUnit.UnitType.STANDARD);
-                }
-            }
+        this.layout = layout;
+        customers = new CustomerRegistry(this);
+
+        // every unit starts out available; unit objects are only views, built when asked for
+        int unitCount = layout.getUnitCount();
+        int typeCount = StorageUnit.UnitType.values().length;
+        units = new UnitStore(this, layout, customers);
+        freeUnits = new BitSet(unitCount);
+        freeUnits.set(0, unitCount);
+        freeUnitsByType = new BitSet[typeCount];
+        freeCountByType = new int[typeCount];
+        freeUnitsBySize = new UnitSizeIndex(layout);
+        freeRuns = new FreeRunIndex(layout);
+        rentedUnitCount = 0;
+        unitCountByType = new int[typeCount];
+        contractedRentCents = 0;
+        metrics = null;
+        pricing = new PricingEngine(freeUnitsBySize, basePriceCents, 
+                                    Math.round(DEFAULT_MULTI_UNIT_DISCOUNT * PricingEngine.BASIS_POINTS));
+        unitsByCustomer = new HashMap<>();
+        indexedCustomerIds = new int[unitCount];
+        Arrays.fill(indexedCustomerIds, UnitStore.NO_CUSTOMER);
+        indexedVersions = new int[unitCount];
+        indexedPriceCents = new long[unitCount];
+        rentalState = new long[4];
+        listeners = new CopyOnWriteArrayList<>();
+        lockedCustomerIds = ConcurrentHashMap.newKeySet();
+        instrumentation = new Instrumentation(locationDesignation);
+        for (int typeIdx = 0; typeIdx < typeCount; typeIdx++) {
+            freeUnitsByType[typeIdx] = new BitSet(unitCount);
+        }
+        for (int segIdx = 0; segIdx < layout.getSegmentCount(); segIdx++) {
+            int typeIdx = layout.getSegmentType(segIdx).ordinal();
+            freeUnitsByType[typeIdx].set(layout.getSegmentStart(segIdx), layout.getSegmentEnd(segIdx));
+            freeCountByType[typeIdx] += layout.getSegmentEnd(segIdx) - layout.getSegmentStart(segIdx);
         }
+        System.arraycopy(freeCountByType, 0, unitCountByType, 0, typeCount);
     }
 
     //---------------------------------------------------------------------
@@ -83,107 +205,601 @@ public class StorageLocation  {
         return locationDesignation;
     }
 
+    /**
+     * Retrieves the state the location is in, from the start of its designation
+     * 
+     * @return      the two-letter state code, e.g. "WA"
+     */
+    public String getState() {
+        return locationDesignation.substring(0, 2);
+    }
+
+    /**
+     * Retrieves the arrangement of rows and units at this location
+     * 
+     * @return      the location's (sealed) layout
+     */
+    public FacilityLayout getLayout() {
+        return layout;
+    }
+
     /**
      * Retrieves the number of rows in this location
      * 
      * @return      the number of rows
      */
     public int getRowCount() {
-        return units.length;
+        return layout.getRowCount();
     }
 
     /**
-     * Retrieves the number of units in each row
+     * Retrieves the number of units in the first row; with the standard layout,
+     * every row holds this many units
      * 
-     * @return      the number of units in a row
+     * @return      the number of units in the first row
      */
     public int getUnitsPerRowCount() {
-        return units[0].length;
+        return getUnitsPerRowCount(0);
+    }
+
+    /**
+     * Retrieves the number of units in a specific row
+     * 
+     * @param   rowIdx      the row of interest
+     * @return              the number of units in that row
+     */
+    public int getUnitsPerRowCount(int rowIdx) {
+        return layout.getUnitsInRow(rowIdx);
+    }
+
+    /**
+     * Retrieves the total number of units in this location
+     * 
+     * @return      the number of units across all rows
+     */
+    public int getUnitCount() {
+        return layout.getUnitCount();
     }
     
     /**
-     * Retrieves a specific storage unit from the unit array
+     * Retrieves a specific storage unit
      *
      * @param   rowIdx      the row on which the unit sits
      * @param   spaceIdx    the space the unit occupies within the row
      * @return              the requested unit
      */
     public StorageUnit getStorageUnit(int rowIdx, int spaceIdx) {
-        return units[rowIdx][spaceIdx];
+        return unitAt(layout.getLocationIdx(rowIdx, spaceIdx));
     }
 
     /**
-     * Retrieves a specific customer from the customer array
+     * Retrieves a specific customer by index (the customer's id in this location)
      *
      * @param   custIdx     the index of the desired customer
-     * @return              the specified customer
+     * @return              the specified customer, or null if there is no such customer
      */
     public Customer getCustomer(int custIdx) {
-        return customers[custIdx];
+        return customers.getCustomer(custIdx);
     }
 
     /**
-     * Counts the number of customers currently in the array
+     * Counts the number of customers currently at this location
      *
      * @return      the current customer count
      */
     public int getCustomerCount() {
-        return customerCount;
+        return customers.getCustomerCount();
+    }
+
+    /**
+     * Retrieves the registry of this location's customers, for lookups by id, 
+     * phone number or name
+     *
+     * @return      the location's customer registry
+     */
+    public CustomerRegistry getCustomerRegistry() {
+        return customers;
+    }
+
+    /**
+     * Retrieves the timing of this location's busiest operations, which can be
+     * switched on and off while the location is in use
+     *
+     * @return      the location's instrumentation
+     */
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * Finds whether a customer's units are locked, because the customer has fallen
+     * behind on their rent
+     *
+     * @param   customer    the customer of interest
+     * @return              true, if the customer's units here are locked; false, if not,
+     *                      or if the customer isn't one of this location's
+     */
+    public boolean isCustomerLocked(Customer customer) {
+        int customerId = customers.getCustomerId(customer);
+        return customerId >= 0 && lockedCustomerIds.contains(customerId);
+    }
+
+    /**
+     * Retrieves a customer by phone number
+     *
+     * @param   phone       the phone number to look up
+     * @return              the customer with that phone number, or null if there is none
+     */
+    public Customer findCustomerByPhone(String phone) {
+        return customers.findByPhone(phone);
+    }
+
+    /**
+     * Finds the smallest empty unit at least as big as a customer needs
+     * 
+     * @param   minWidth        the least acceptable width, in feet; must not be negative
+     * @param   minLength       the least acceptable length, in feet; must not be negative
+     * @param   minHeight       the least acceptable height, in feet; must not be negative
+     * @param   unitType        the type of unit wanted, or null for any type
+     * @return                  the empty unit with the smallest floor area (then volume)
+     *                          meeting the needs, or null if none is available
+     */
+    public StorageUnit findSmallestUnit(int minWidth, int minLength, int minHeight, StorageUnit.UnitType unitType) {
+        StorageUnit[] found = findSmallestUnits(minWidth, minLength, minHeight, unitType, 1);
+        return (found.length == 0) ? null : found[0];
+    }
+
+    /**
+     * Finds the smallest empty units at least as big as a customer needs, smallest
+     * floor area first, then smallest volume
+     * 
+     * @param   minWidth        the least acceptable width, in feet; must not be negative
+     * @param   minLength       the least acceptable length, in feet; must not be negative
+     * @param   minHeight       the least acceptable height, in feet; must not be negative
+     * @param   unitType        the type of unit wanted, or null for any type
+     * @param   maxResults      the most units to return; must not be negative
+     * @return                  an array of (at most maxResults) empty units meeting the needs
+     */
+    public synchronized StorageUnit[] findSmallestUnits(int minWidth, int minLength, int minHeight, 
+                                                        StorageUnit.UnitType unitType, int maxResults) {
+        if (minWidth < 0 || minLength < 0 || minHeight < 0) {
+            throw new IllegalArgumentException("Dimensions must not be negative");
+        }
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Result limit must not be negative");
+        }
+        int[] found = freeUnitsBySize.findSmallest(minWidth, minLength, minHeight, unitType, maxResults);
+        StorageUnit[] fitting = new StorageUnit[found.length];
+        for (int unitIdx = 0; unitIdx < found.length; unitIdx++) {
+            fitting[unitIdx] = unitAt(found[unitIdx]);
+        }
+        return fitting;
+    }
+
+    /**
+     * Finds a block of empty units of one type side by side in a single row, taken
+     * from the shortest run of empty units that is long enough, so longer runs are
+     * kept for larger requests
+     * 
+     * @param   unitType    the type of unit wanted; must not be null
+     * @param   count       the number of adjacent units wanted; must be over 0
+     * @return              the units, in row order, or an empty array if no row
+     *                      has enough adjacent empty units of the type
+     */
+    public synchronized StorageUnit[] findAdjacentUnits(StorageUnit.UnitType unitType, int count) {
+        if (unitType == null) {
+            throw new IllegalArgumentException("Unit type must not be null");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("Unit count must be > 0");
+        }
+        int runStart = freeRuns.findRun(unitType, count);
+        if (runStart < 0) {
+            return new StorageUnit[0];
+        }
+        StorageUnit[] adjacent = new StorageUnit[count];
+        for (int unitIdx = 0; unitIdx < count; unitIdx++) {
+            adjacent[unitIdx] = unitAt(runStart + unitIdx);
+        }
+        return adjacent;
+    }
+
+    /**
+     * Finds the cheapest empty units at least as big as a customer needs and within
+     * the customer's budget, at current list prices; cheapest first, then smallest
+     * 
+     * @param   minWidth        the least acceptable width, in feet; must not be negative
+     * @param   minLength       the least acceptable length, in feet; must not be negative
+     * @param   minHeight       the least acceptable height, in feet; must not be negative
+     * @param   unitType        the type of unit wanted, or null for any type
+     * @param   maxPriceCents   the most the customer will pay each month, in cents
+     * @param   maxResults      the most units to return; must not be negative
+     * @return                  an array of (at most maxResults) empty units meeting the needs
+     */
+    public synchronized StorageUnit[] findCheapestUnits(int minWidth, int minLength, int minHeight, 
+                                                        StorageUnit.UnitType unitType, long maxPriceCents, 
+                                                        int maxResults) {
+        if (minWidth < 0 || minLength < 0 || minHeight < 0) {
+            throw new IllegalArgumentException("Dimensions must not be negative");
+        }
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Result limit must not be negative");
+        }
+        final int band = PricingEngine.occupancyBand(rentedUnitCount, getUnitCount());
+        int[] found = freeUnitsBySize.findCheapest(minWidth, minLength, minHeight, unitType, maxPriceCents, 
+                                                   maxResults, shapeId -> pricing.quoteCents(shapeId, band));
+        StorageUnit[] fitting = new StorageUnit[found.length];
+        for (int unitIdx = 0; unitIdx < found.length; unitIdx++) {
+            fitting[unitIdx] = unitAt(found[unitIdx]);
+        }
+        return fitting;
+    }
+
+    /**
+     * Retrieves the monthly price of a standard 4 x 8 x 8 unit at this location,
+     * from which the prices of all of its units are worked out
+     * 
+     * @return      the location's base price
+     */
+    public double getUnitBasePrice() {
+        return Money.toDollars(pricing.getBasePriceCents());
+    }
+
+    /**
+     * Retrieves the monthly price of a standard 4 x 8 x 8 unit at this location, in cents
+     * 
+     * @return      the location's base price, in cents
+     */
+    public long getUnitBasePriceCents() {
+        return pricing.getBasePriceCents();
+    }
+
+    /**
+     * Retrieves the discount on each unit rented by a customer who already rents 
+     * here (or rents several units at once)
+     * 
+     * @return      the discount, as a fraction of the price (0.10 is 10% off)
+     */
+    public double getMultiUnitDiscount() {
+        return pricing.getDiscountBasisPoints() / (double) PricingEngine.BASIS_POINTS;
+    }
+
+    /**
+     * Quotes the current monthly price of one of this location's units for a customer:
+     * its list price at the location's current occupancy, less the multi-unit discount
+     * if the customer already rents here
+     * 
+     * @param   locationIdx     the unit's location index
+     * @param   customer        the customer asking, or null for the list price
+     * @return                  the quoted price, in cents
+     */
+    long quotePriceCents(int locationIdx, Customer customer) {
+        int band = PricingEngine.occupancyBand(rentedUnitCount, getUnitCount());
+        long cents = pricing.quoteCents(freeUnitsBySize.getShapeId(locationIdx), band);
+        if (customer != null && getCustomerUnitCount(customer) > 0) {
+            cents = pricing.discountCents(cents);
+        }
+        return cents;
     }
 
     //---------------------------------------------------------------------
     //          OTHER METHODS
     //---------------------------------------------------------------------
     /**
-     * Adds a customer to the customer array
+     * Changes the monthly price of a standard 4 x 8 x 8 unit at this location; units
+     * already rented keep the price they were rented at
+     * 
+     * @param   unitBasePrice   the new base price; must not be negative
+     */
+    public void setUnitBasePrice(double unitBasePrice) {
+        if (unitBasePrice < 0) {
+            throw new IllegalArgumentException("The base price must not be negative");
+        }
+        long basePriceCents = Money.toCents(unitBasePrice);
+        synchronized (this) {
+            pricing.setBasePriceCents(basePriceCents);
+            pricingChanged();
+        }
+    }
+
+    /**
+     * Changes the discount on each unit rented by a customer who already rents here
+     * 
+     * @param   discount    the discount, as a fraction of the price; must be from 0 to 1
+     */
+    public void setMultiUnitDiscount(double discount) {
+        if (!(discount >= 0 && discount <= 1)) {
+            throw new IllegalArgumentException("The discount must be from 0 to 1");
+        }
+        synchronized (this) {
+            pricing.setDiscountBasisPoints(Math.round(discount * PricingEngine.BASIS_POINTS));
+            pricingChanged();
+        }
+    }
+
+    /**
+     * Tells the listeners the location's current prices; the caller holds this
+     * location's lock
+     */
+    private void pricingChanged() {
+        for (LocationListener listener : listeners) {
+            listener.pricingChanged(this, pricing.getBasePriceCents(), pricing.getDiscountBasisPoints());
+        }
+    }
+
+    /**
+     * Registers a listener to be told about changes to this location
+     *
+     * @param   listener    the listener to add; must not be null
+     */
+    public void addListener(LocationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener to be told about changes to this location, first telling
+     * it about each of the location's current customers through customerAdded, in id
+     * order.  Each customer is introduced with its balance held still, so every charge
+     * and credit is either counted in the balance it is introduced with or reported
+     * after it, never both; a listener ignores the charges and credits of customers
+     * it hasn't been introduced to yet.  Customers may be added, charged and credited
+     * while this runs.
+     *
+     * @param   listener    the listener to add; must not be null
+     */
+    public void addListenerWithCustomers(LocationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        // the location's lock, then its registry's, as when they call the listener methods
+        synchronized (this) {
+            synchronized (customers) {
+                listeners.add(listener);
+                for (int customerId = 0; customerId < customers.getCustomerCount(); customerId++) {
+                    int introducedId = customerId;
+                    Customer customer = customers.getCustomer(customerId);
+                    customer.holdBalance(balanceCents ->
+                            listener.customerAdded(this, introducedId, customer, balanceCents));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops telling a listener about changes to this location
      *
-     * @param   customer    the customer to add; must not be null
+     * @param   listener    the listener to remove
+     */
+    public void removeListener(LocationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a customer to this location; adding a customer a second time has no effect
+     *
+     * @param   customer    the customer to add; must not be null; must not share a phone
+     *                      number with another customer of this location
      * @return              the index at which the customer was added
      */
     public int addCustomer(Customer customer) {
-        if (customer == null) {
-            throw new IllegalArgumentException("Customer reference must not be null");
+        return customers.addCustomer(customer);
+    }
+
+    /**
+     * Rents a group of this location's units to one customer, all at once or not at
+     * all.  The whole group is claimed before any of it is rented, and the location's
+     * indexes are brought up to date for the whole group under one lock, so other
+     * renters and queries never see part of the group rented.
+     *
+     * @param   batch           the units to rent; must not be null, contain null, contain
+     *                          a unit twice, or contain a unit from another location
+     * @param   customer        the renting customer; must not be null, or have their
+     *                          units here locked
+     * @param   rentalStart     the start date of the rentals; must not be null
+     * @param   priceCents      the monthly price of each unit, in cents
+     * @return                  true, if every unit was rented; false, if any was already
+     *                          rented, in which case none were
+     */
+    public synchronized boolean rentUnits(StorageUnit[] batch, Customer customer, 
+                                          LocalDate rentalStart, long priceCents) {
+        int[] locationIdxs = toLocationIdxs(batch);
+        checkRental(customer, rentalStart);
+        long[] prices = new long[locationIdxs.length];
+        Arrays.fill(prices, priceCents);
+        return rentAll(locationIdxs, customer, rentalStart, prices);
+    }
+
+    /**
+     * Rents a group of this location's units to one customer at their quoted prices,
+     * all at once or not at all.  Every unit but the first gets the multi-unit discount,
+     * and so does the first if the customer already rents here.
+     *
+     * @param   batch           the units to rent; must not be null, contain null, contain
+     *                          a unit twice, or contain a unit from another location
+     * @param   customer        the renting customer; must not be null, or have their
+     *                          units here locked
+     * @param   rentalStart     the start date of the rentals; must not be null
+     * @return                  true, if every unit was rented; false, if any was already
+     *                          rented, in which case none were
+     */
+    public synchronized boolean rentUnits(StorageUnit[] batch, Customer customer, LocalDate rentalStart) {
+        int[] locationIdxs = toLocationIdxs(batch);
+        checkRental(customer, rentalStart);
+        int band = PricingEngine.occupancyBand(rentedUnitCount, getUnitCount());
+        boolean isRenting = getCustomerUnitCount(customer) > 0;
+        long[] prices = new long[locationIdxs.length];
+        for (int unitIdx = 0; unitIdx < locationIdxs.length; unitIdx++) {
+            prices[unitIdx] = pricing.quoteCents(freeUnitsBySize.getShapeId(locationIdxs[unitIdx]), band);
+            if (unitIdx > 0 || isRenting) {
+                prices[unitIdx] = pricing.discountCents(prices[unitIdx]);
+            }
+        }
+        return rentAll(locationIdxs, customer, rentalStart, prices);
+    }
+
+    /**
+     * Rents a number of empty units of one type to a customer, all at once or not at
+     * all, choosing units side by side in a single row when there are enough (from
+     * the shortest run that is long enough, leaving longer runs for larger requests)
+     *
+     * @param   unitType        the type of unit to rent; must not be null
+     * @param   count           the number of units to rent; must be over 0
+     * @param   customer        the renting customer; must not be null, or have their
+     *                          units here locked
+     * @param   rentalStart     the start date of the rentals; must not be null
+     * @param   priceCents      the monthly price of each unit, in cents
+     * @return                  the rented units, or an empty array if there weren't
+     *                          enough empty units of the type
+     */
+    public StorageUnit[] rentUnitsOfType(StorageUnit.UnitType unitType, int count, Customer customer, 
+                                         LocalDate rentalStart, long priceCents) {
+        if (unitType == null) {
+            throw new IllegalArgumentException("Unit type must not be null");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("Unit count must be > 0");
+        }
+        checkRental(customer, rentalStart);
+        while (true) {
+            // the lock is let go between attempts, so a unit rented meanwhile can be indexed
+            synchronized (this) {
+                int[] locationIdxs = chooseUnits(unitType, count);
+                if (locationIdxs == null) {
+                    return new StorageUnit[0];
+                }
+                long[] prices = new long[count];
+                Arrays.fill(prices, priceCents);
+                if (rentAll(locationIdxs, customer, rentalStart, prices)) {
+                    StorageUnit[] rented = new StorageUnit[count];
+                    for (int unitIdx = 0; unitIdx < count; unitIdx++) {
+                        rented[unitIdx] = unitAt(locationIdxs[unitIdx]);
+                    }
+                    return rented;
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases a group of units rented by one customer, all at once or not at all
+     *
+     * @param   batch       the units to release; must not be null, contain null, contain
+     *                      a unit twice, or contain a unit from another location
+     * @param   customer    the customer renting the units; must not be null
+     * @return              true, if every unit was released; false, if any wasn't rented
+     *                      by the customer, in which case none were released
+     */
+    public boolean releaseUnits(StorageUnit[] batch, Customer customer) {
+        return releaseUnitsOn(batch, customer, null);
+    }
+
+    /**
+     * Releases a group of units rented by one customer as of a given date, all at once 
+     * or not at all
+     *
+     * @param   batch       the units to release; must not be null, contain null, contain
+     *                      a unit twice, or contain a unit from another location
+     * @param   customer    the customer renting the units; must not be null
+     * @param   rentalEnd   the day the rentals end; must not be null; must not be before
+     *                      any of their starts
+     * @return              true, if every unit was released; false, if any wasn't rented
+     *                      by the customer, in which case none were released
+     */
+    public boolean releaseUnits(StorageUnit[] batch, Customer customer, LocalDate rentalEnd) {
+        if (rentalEnd == null) {
+            throw new IllegalArgumentException("rentalEnd must not be null");
+        }
+        return releaseUnitsOn(batch, customer, rentalEnd);
+    }
+
+    /**
+     * Counts the units that were rented at the end of a past (or future) day, from the
+     * rentals' history rather than by visiting the units
+     *
+     * @param   asOf        the day of interest; must not be null
+     * @param   unitType    the type of units to count; pass null for wildcard (any type of unit)
+     * @return              the number of units of that type rented on that day
+     */
+    public int getOccupiedUnitCount(LocalDate asOf, StorageUnit.UnitType unitType) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("asOf must not be null");
+        }
+        return units.getHistory().getRentedCount(asOf.toEpochDay(), (unitType == null) ? -1 : unitType.ordinal());
+    }
+
+    /**
+     * Adds up the monthly rent of the units that were rented at the end of a past (or 
+     * future) day, from the rentals' history rather than by visiting the units
+     *
+     * @param   asOf    the day of interest; must not be null
+     * @return          the contracted monthly rent on that day
+     */
+    public double getContractedRent(LocalDate asOf) {
+        return Money.toDollars(getContractedRentCents(asOf));
+    }
+
+    /**
+     * Adds up the monthly rent of the units that were rented at the end of a day, in cents
+     *
+     * @param   asOf    the day of interest; must not be null
+     * @return          the contracted monthly rent on that day, in cents
+     */
+    public long getContractedRentCents(LocalDate asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("asOf must not be null");
         }
-        customers[customerCount] = customer;
-        return customerCount++;
+        return units.getHistory().getRentCents(asOf.toEpochDay());
     }
 
     /**
-     * Searches for units that are rented by a specific customer, returning them in an array
+     * Retrieves the units that are rented by a specific customer, returning them in an array
+     * in the order they were rented
      *
      * @param       customer    the customer whose units are of interest; must not be null
      * @return                  an array of storage units belonging to that customer
      */
     public StorageUnit[] getCustomerUnits(Customer customer) {
+        if (!instrumentation.isEnabled()) {
+            return listCustomerUnits(customer);
+        }
+        long startNanos = System.nanoTime();
+        StorageUnit[] custUnits = listCustomerUnits(customer);
+        instrumentation.record(Instrumentation.Operation.GET_CUSTOMER_UNITS, startNanos);
+        return custUnits;
+    }
+
+    /**
+     * Builds the array of a customer's units for getCustomerUnits
+     *
+     * @param       customer    the customer whose units are of interest
+     * @return                  an array of storage units belonging to that customer
+     */
+    private synchronized StorageUnit[] listCustomerUnits(Customer customer) {
         if (customer == null) {
             return null;
         }
-        
-        // Count the units
-        int unitCount = 0;
-        for (int rowIdx = 0; rowIdx < units.length; rowIdx++) {
-            for (int spaceIdx = 0; spaceIdx < units[rowIdx].length; spaceIdx++) {
-                if (units[rowIdx][spaceIdx].getCustomer() != null && units[rowIdx][spaceIdx].getCustomer() == customer) {
-                    unitCount++;
-                }
-            }
+        List<StorageUnit> custUnits = unitsByCustomer.get(customer);
+        if (custUnits == null) {
+            return new StorageUnit[0];
         }
+        return custUnits.toArray(new StorageUnit[custUnits.size()]);
+    }
 
-        // Create the array
-        StorageUnit[] custUnits = new StorageUnit[unitCount];
-        if (unitCount > 0) {
-            // Fill the array
-            int unitIdx = 0;
-            for (int rowIdx = 0; rowIdx < units.length; rowIdx++) {
-                for (int spaceIdx = 0; spaceIdx < units[rowIdx].length; spaceIdx++) {
-                    if (units[rowIdx][spaceIdx].getCustomer() != null && units[rowIdx][spaceIdx].getCustomer() == customer) {
-                        custUnits[unitIdx] = units[rowIdx][spaceIdx];
-                        unitIdx++;
-                    }
-                }
-            }
+    /**
+     * Counts the units that are rented by a specific customer, without building an array of them
+     *
+     * @param       customer    the customer whose units are of interest; must not be null
+     * @return                  the number of units rented by that customer
+     */
+    public synchronized int getCustomerUnitCount(Customer customer) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer reference must not be null");
         }
-        return custUnits;
+        List<StorageUnit> custUnits = unitsByCustomer.get(customer);
+        return (custUnits == null) ? 0 : custUnits.size();
     }
 
     /**
@@ -202,69 +818,446 @@ public class StorageLocation  {
      * @return              an array of available storage units of the specified type
      */
     public StorageUnit[] getEmptyUnits(StorageUnit.UnitType unitType) {
-        // count the units
-        int unitCount = 0;
-        for (int rowIdx = 0; rowIdx < units.length; rowIdx++) {
-            for (int spaceIdx = 0; spaceIdx < units[rowIdx].length; spaceIdx++) {
-                if (unitType != null) {
-                    // looking for a specific type of unit
-                    if (units[rowIdx][spaceIdx].getType() == unitType && units[rowIdx][spaceIdx].getCustomer() == null) {
-                        unitCount++;
-                    }
-                } else {
-                    // no type of unit sought
-                    if (units[rowIdx][spaceIdx].getCustomer() == null) {
-                        unitCount++;
-                    }
-                }
-            }
+        if (!instrumentation.isEnabled()) {
+            return listEmptyUnits(unitType);
         }
+        long startNanos = System.nanoTime();
+        StorageUnit[] emptyUnits = listEmptyUnits(unitType);
+        instrumentation.record(Instrumentation.Operation.GET_EMPTY_UNITS, startNanos);
+        return emptyUnits;
+    }
 
-        // create the array
-        StorageUnit[] emptyUnits = new StorageUnit[unitCount];
-
-        if (unitCount > 0) {
-            int unitIdx = 0;
-            for (int rowIdx = 0; rowIdx < units.length; rowIdx++) {
-                for (int spaceIdx = 0; spaceIdx < units[rowIdx].length; spaceIdx++) {
-                    if (unitType != null) {
-                        // looking for a specific type of unit
-                        if (units[rowIdx][spaceIdx].getType() == unitType && units[rowIdx][spaceIdx].getCustomer() == null) {
-                            emptyUnits[unitIdx] = units[rowIdx][spaceIdx];
-                            unitIdx++;
-                        }
-                    } else {
-                        // no type of unit sought
-                        if (units[rowIdx][spaceIdx].getCustomer() == null) {
-                            emptyUnits[unitIdx] = units[rowIdx][spaceIdx];
-                            unitIdx++;
-                        }
-                    }
-                }
-            }
+    /**
+     * Builds the array of available units for getEmptyUnits
+     *
+     * @param   unitType    the type of units for which to search, or null for any type
+     * @return              an array of available storage units of the specified type
+     */
+    private synchronized StorageUnit[] listEmptyUnits(StorageUnit.UnitType unitType) {
+        BitSet free = (unitType == null) ? freeUnits : freeUnitsByType[unitType.ordinal()];
+        StorageUnit[] emptyUnits = new StorageUnit[getEmptyUnitCount(unitType)];
+        int unitIdx = 0;
+        for (int locationIdx = free.nextSetBit(0); locationIdx >= 0; locationIdx = free.nextSetBit(locationIdx + 1)) {
+            emptyUnits[unitIdx++] = unitAt(locationIdx);
         }
-
-        // return the array
         return emptyUnits;
     }
 
+    /**
+     * Counts the available storage units, without building an array of them
+     *
+     * @return      the number of available storage units
+     */
+    public int getEmptyUnitCount() {
+        return getEmptyUnitCount(null);
+    }
+
+    /**
+     * Counts the available storage units of the specified type, without building an array of them
+     *
+     * @param   unitType    the type of units to count; pass null for wildcard (any type of unit)
+     * @return              the number of available storage units of the specified type
+     */
+    public synchronized int getEmptyUnitCount(StorageUnit.UnitType unitType) {
+        if (unitType != null) {
+            return freeCountByType[unitType.ordinal()];
+        }
+        int unitCount = 0;
+        for (int count : freeCountByType) {
+            unitCount += count;
+        }
+        return unitCount;
+    }
+
+    /**
+     * Takes a snapshot of this location's occupancy and contracted rent.  The figures
+     * are kept up to date as units are rented and released, and the snapshot is reused
+     * until the next change, so this can be polled often without visiting the units.
+     *
+     * @return      the location's current metrics
+     */
+    public LocationMetrics getMetrics() {
+        LocationMetrics current = metrics;
+        return (current != null) ? current : takeMetrics();
+    }
+
     /**
      * Charges all customers their monthly rent
      *
      * @return      the total amount of rent charged to all customers
      */
     public double chargeMonthlyRent() {
-        double totalRentCharged = 0.00;
-        for (StorageUnit[] unitArray : units) {
-            for (StorageUnit unit : unitArray) {
-                if (unit.getCustomer() != null) {
-                    Double unitRent = unit.getPrice();
-                    unit.getCustomer().charge(unitRent);
-                    totalRentCharged += unitRent;
+        return Money.toDollars(chargeMonthlyRentCents());
+    }
+
+    /**
+     * Charges all customers their monthly rent, totalling in cents
+     *
+     * @return      the total amount of rent charged to all customers, in cents
+     */
+    public long chargeMonthlyRentCents() {
+        if (!instrumentation.isEnabled()) {
+            return units.chargeRent();
+        }
+        long startNanos = System.nanoTime();
+        long totalCents = units.chargeRent();
+        instrumentation.record(Instrumentation.Operation.CHARGE_MONTHLY_RENT, startNanos);
+        return totalCents;
+    }
+
+    /**
+     * Charges customers the monthly rent for the units on a range of rows; the 
+     * billing engine uses this to bill parts of a large location in parallel
+     *
+     * @param   fromRow     the first row to charge
+     * @param   toRow       the row just past the last one to charge
+     * @return              the total amount of rent charged for those rows, in cents
+     */
+    long chargeMonthlyRentCents(int fromRow, int toRow) {
+        return units.chargeRent(layout.getRowStart(fromRow), layout.getRowStart(toRow));
+    }
+
+    //---------------------------------------------------------------------
+    //          UNIT INDEXES
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves a view of the unit at a location index
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the unit at that index
+     */
+    StorageUnit unitAt(int locationIdx) {
+        return new StorageUnit(units, locationIdx);
+    }
+
+    /**
+     * Brings the availability and customer indexes up to date after one of this
+     * location's units has been rented or released, and tells the listeners.
+     *
+     * Rentals change the unit store without holding this location's lock, so the
+     * notifications for two quick changes to one unit may arrive in either order.
+     * Rather than apply each change blindly, the index compares the unit's current
+     * state with the state it last recorded and applies the difference; whichever
+     * notification arrives last leaves the index matching the unit.
+     *
+     * @param   locationIdx     the location index of the unit that changed
+     */
+    synchronized void unitChanged(int locationIdx) {
+        indexChange(locationIdx, true);
+    }
+
+    /**
+     * Brings the indexes up to date after many units have been rented or released
+     * straight in the unit store, as by a bulk load.  Each unit is indexed as by
+     * unitChanged, except that the runs of free units are worked out once at the
+     * end rather than split and joined unit by unit.
+     *
+     * @param   changed     the location indexes of the units that changed
+     */
+    synchronized void unitsChanged(BitSet changed) {
+        for (int locationIdx = changed.nextSetBit(0); locationIdx >= 0; 
+                 locationIdx = changed.nextSetBit(locationIdx + 1)) {
+            indexChange(locationIdx, false);
+        }
+        freeRuns = new FreeRunIndex(layout, freeUnits);
+    }
+
+    /**
+     * Applies the difference between a unit's state and the state the indexes last
+     * recorded for it, for unitChanged and unitsChanged; the caller holds this
+     * location's lock
+     *
+     * @param   locationIdx     the location index of the unit that changed
+     * @param   updateRuns      true to split or join the unit's run of free units;
+     *                          false if the caller rebuilds the runs afterwards
+     */
+    private void indexChange(int locationIdx, boolean updateRuns) {
+        if (!units.readRental(locationIdx, rentalState) || (int) rentalState[3] == indexedVersions[locationIdx]) {
+            // still changing (its changer will report again), or already up to date
+            return;
+        }
+        int customerId = (int) rentalState[0];
+        int indexedId  = indexedCustomerIds[locationIdx];
+        StorageUnit unit = unitAt(locationIdx);
+        if (indexedId != UnitStore.NO_CUSTOMER) {
+            Customer formerCustomer = customers.getCustomer(indexedId);
+            List<StorageUnit> custUnits = unitsByCustomer.get(formerCustomer);
+            custUnits.remove(unit);
+            if (custUnits.isEmpty()) {
+                unitsByCustomer.remove(formerCustomer);
+            }
+            contractedRentCents -= indexedPriceCents[locationIdx];
+            if (!listeners.isEmpty()) {
+                // the release filed the rental before freeing the unit, so it is the latest
+                long endDay = units.getHistory().getLatestEndDay(locationIdx);
+                for (LocationListener listener : listeners) {
+                    listener.unitReleased(this, locationIdx, indexedId, endDay, indexedPriceCents[locationIdx]);
                 }
             }
         }
-        return totalRentCharged;
+        if (customerId != UnitStore.NO_CUSTOMER) {
+            Customer customer = customers.getCustomer(customerId);
+            List<StorageUnit> custUnits = unitsByCustomer.get(customer);
+            if (custUnits == null) {
+                custUnits = new ArrayList<>(2);
+                unitsByCustomer.put(customer, custUnits);
+            }
+            custUnits.add(unit);
+            contractedRentCents += rentalState[2];
+            for (LocationListener listener : listeners) {
+                listener.unitRented(this, locationIdx, customerId, rentalState[1], rentalState[2]);
+            }
+        }
+        markFree(unit, customerId == UnitStore.NO_CUSTOMER, updateRuns);
+        indexedCustomerIds[locationIdx] = customerId;
+        indexedVersions[locationIdx]    = (int) rentalState[3];
+        indexedPriceCents[locationIdx]  = rentalState[2];
+        metrics = null;
+    }
+
+    /**
+     * Takes a fresh metrics snapshot from the indexes, unless another caller just has
+     *
+     * @return      the location's current metrics
+     */
+    private synchronized LocationMetrics takeMetrics() {
+        if (metrics == null) {
+            int[] occupiedCountByType = new int[unitCountByType.length];
+            for (int typeIdx = 0; typeIdx < unitCountByType.length; typeIdx++) {
+                occupiedCountByType[typeIdx] = unitCountByType[typeIdx] - freeCountByType[typeIdx];
+            }
+            metrics = new LocationMetrics(locationDesignation, unitCountByType, occupiedCountByType,
+                                          contractedRentCents, unitsByCustomer.size());
+        }
+        return metrics;
+    }
+
+    /**
+     * Locks or unlocks the units of one of this location's customers
+     *
+     * @param   customerId      the customer's id
+     * @param   locked          true to lock the customer's units, false to unlock them
+     */
+    void setCustomerLocked(int customerId, boolean locked) {
+        if (locked) {
+            lockedCustomerIds.add(customerId);
+        } else {
+            lockedCustomerIds.remove(customerId);
+        }
+    }
+
+    /**
+     * Tells the listeners that a customer has been added to this location; the
+     * caller holds the customer's balance still
+     *
+     * @param   customerId      the id the customer was given
+     * @param   customer        the customer
+     * @param   balanceCents    the customer's balance, from which its charges and
+     *                          credits are reported
+     */
+    void customerAdded(int customerId, Customer customer, long balanceCents) {
+        for (LocationListener listener : listeners) {
+            listener.customerAdded(this, customerId, customer, balanceCents);
+        }
+    }
+
+    /**
+     * Tells the listeners that one of this location's customers has new details
+     *
+     * @param   customerId      the customer's id
+     * @param   customer        the customer
+     */
+    void customerUpdated(int customerId, Customer customer) {
+        for (LocationListener listener : listeners) {
+            listener.customerUpdated(this, customerId, customer);
+        }
+    }
+
+    /**
+     * Tells the listeners that one of this location's customers has been charged or credited
+     *
+     * @param   customerId      the customer's id
+     * @param   deltaCents      the change to the customer's balance, in cents
+     */
+    void customerBalanceChanged(int customerId, long deltaCents) {
+        if (listeners.isEmpty()) {
+            // the usual case while billing; don't make an iterator for nothing
+            return;
+        }
+        for (LocationListener listener : listeners) {
+            if (deltaCents >= 0) {
+                listener.customerCharged(this, customerId, deltaCents);
+            } else {
+                listener.customerCredited(this, customerId, -deltaCents);
+            }
+        }
+    }
+
+    /**
+     * Rents a group of units and brings the indexes up to date for all of them; 
+     * the caller holds this location's lock
+     *
+     * @param   locationIdxs    the units' location indexes
+     * @param   customer        the renting customer
+     * @param   rentalStart     the start date of the rentals
+     * @param   prices          the monthly price of each unit in cents, in the same order
+     * @return                  true, if every unit was rented; false, if none were
+     */
+    private boolean rentAll(int[] locationIdxs, Customer customer, LocalDate rentalStart, long[] prices) {
+        if (!units.rentAll(locationIdxs, customer, rentalStart, prices)) {
+            return false;
+        }
+        for (int locationIdx : locationIdxs) {
+            unitChanged(locationIdx);
+        }
+        return true;
+    }
+
+    /**
+     * Releases a group of units for releaseUnits
+     *
+     * @param   batch       the units to release
+     * @param   customer    the customer renting the units
+     * @param   rentalEnd   the day the rentals end, or null for today (or their starts, if later)
+     * @return              true, if every unit was released; false, if none were
+     */
+    private synchronized boolean releaseUnitsOn(StorageUnit[] batch, Customer customer, LocalDate rentalEnd) {
+        int[] locationIdxs = toLocationIdxs(batch);
+        if (customer == null) {
+            throw new IllegalArgumentException("customer must not be null");
+        }
+        if (!units.releaseAll(locationIdxs, customer, rentalEnd)) {
+            return false;
+        }
+        for (int locationIdx : locationIdxs) {
+            unitChanged(locationIdx);
+        }
+        return true;
+    }
+
+    /**
+     * Checks a group of units given to a batch operation and finds their location indexes
+     *
+     * @param   batch   the units of the batch
+     * @return          the units' location indexes, in the same order
+     */
+    private int[] toLocationIdxs(StorageUnit[] batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Units must not be null");
+        }
+        int[] locationIdxs = new int[batch.length];
+        BitSet seen = new BitSet();
+        for (int unitIdx = 0; unitIdx < batch.length; unitIdx++) {
+            if (batch[unitIdx] == null || batch[unitIdx].getStorageLocation() != this) {
+                throw new IllegalArgumentException("Units must all belong to this location");
+            }
+            locationIdxs[unitIdx] = batch[unitIdx].getLocationIdx();
+            if (seen.get(locationIdxs[unitIdx])) {
+                throw new IllegalArgumentException("Units must not be given twice");
+            }
+            seen.set(locationIdxs[unitIdx]);
+        }
+        return locationIdxs;
+    }
+
+    /**
+     * Checks a location designation against the company's guidelines
+     *
+     * @param   locationDesignation     the designation to check
+     */
+    static void checkDesignation(String locationDesignation) {
+        if (locationDesignation == null || locationDesignation.isEmpty()) {
+            throw new IllegalArgumentException("The location designation can't be empty or null");
+        }
+        if (!locationDesignation.matches("[A-Z]{2}[0-9]{2}[A-Za-z ]+")) {
+            throw new IllegalArgumentException("Designation doesn't match required pattern");
+        }
+    }
+
+    /**
+     * Checks the customer and start date given for a rental, refusing customers whose
+     * units are locked
+     *
+     * @param   customer        the renting customer
+     * @param   rentalStart     the start date of the rental
+     */
+    private void checkRental(Customer customer, LocalDate rentalStart) {
+        if (customer == null) {
+            throw new IllegalArgumentException("customer must not be null");
+        }
+        if (rentalStart == null) {
+            throw new IllegalArgumentException("rentalStart must not be null");
+        }
+        checkNotLocked(customer);
+    }
+
+    /**
+     * Refuses a new rental to a customer whose units are locked
+     *
+     * @param   customer        the renting customer
+     */
+    void checkNotLocked(Customer customer) {
+        if (isCustomerLocked(customer)) {
+            throw new IllegalArgumentException("Customer is locked until they catch up on their rent");
+        }
+    }
+
+    /**
+     * Chooses empty units of one type to rent together: the shortest run of enough
+     * units side by side in a row, or failing that the first units found
+     *
+     * @param   unitType    the type of unit wanted
+     * @param   count       the number of units wanted
+     * @return              the chosen units' location indexes, or null if there
+     *                      aren't enough empty units of the type
+     */
+    private int[] chooseUnits(StorageUnit.UnitType unitType, int count) {
+        if (freeCountByType[unitType.ordinal()] < count) {
+            return null;
+        }
+        int[] locationIdxs = new int[count];
+        int runStart = freeRuns.findRun(unitType, count);
+        if (runStart >= 0) {
+            for (int unitIdx = 0; unitIdx < count; unitIdx++) {
+                locationIdxs[unitIdx] = runStart + unitIdx;
+            }
+            return locationIdxs;
+        }
+        BitSet free = freeUnitsByType[unitType.ordinal()];
+        int locationIdx = -1;
+        for (int unitIdx = 0; unitIdx < count; unitIdx++) {
+            locationIdx = free.nextSetBit(locationIdx + 1);
+            locationIdxs[unitIdx] = locationIdx;
+        }
+        return locationIdxs;
+    }
+
+    /**
+     * Records whether a unit is available in the availability index, keeping the
+     * per-type counts in step; marking a unit with its current state has no effect
+     *
+     * @param   unit            the unit to record
+     * @param   free            true, if the unit is available; false, if it is rented
+     * @param   updateRuns      true to update the runs of free units as well
+     */
+    private void markFree(StorageUnit unit, boolean free, boolean updateRuns) {
+        int locationIdx = unit.getLocationIdx();
+        if (freeUnits.get(locationIdx) == free) {
+            return;
+        }
+        freeUnits.set(locationIdx, free);
+        freeUnitsByType[unit.getType().ordinal()].set(locationIdx, free);
+        freeCountByType[unit.getType().ordinal()] += free ? 1 : -1;
+        freeUnitsBySize.setFree(locationIdx, free);
+        rentedUnitCount += free ? -1 : 1;
+        if (!updateRuns) {
+            return;
+        }
+        if (free) {
+            freeRuns.unitReleased(locationIdx);
+        } else {
+            freeRuns.unitRented(locationIdx);
+        }
     }
 
 }
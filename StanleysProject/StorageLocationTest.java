@@ -3,6 +3,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import java.time.LocalDate;
+import java.util.Random;
 
 /**
  * The test class StorageLocationTest.
@@ -63,6 +64,17 @@ public class StorageLocationTest {
         assertEquals(1, testLoc.getCustomerCount());
     }
 
+    @Test
+    public void testAddManyCustomers() {
+        for (int custIdx = 0; custIdx < 5 * StorageLocation.NUM_CUSTOMERS; custIdx++) {
+            assertEquals(custIdx, testLoc.addCustomer(new Customer("Customer " + custIdx, "555-" + custIdx)));
+        }
+        assertEquals(5 * StorageLocation.NUM_CUSTOMERS, testLoc.getCustomerCount());
+        assertEquals("Customer 321", testLoc.getCustomer(321).getName());
+        assertEquals(testLoc.getCustomer(321), testLoc.findCustomerByPhone("555-321"));
+        assertNull(testLoc.getCustomer(5 * StorageLocation.NUM_CUSTOMERS));
+    }
+
     @Test
     public void testGetCustomerUnits() {
         Customer cust2 = new Customer("Jane Doe", "425-555-1212");
@@ -79,6 +91,30 @@ public class StorageLocationTest {
         assertNull(custUnits);
     }
     
+    @Test
+    public void testGetCustomerUnitsAfterRelease() {
+        Customer cust2 = new Customer("Jane Doe", "425-555-1212");
+        testLoc.getStorageUnit(1, 1).rent(testCust, LocalDate.now(), 123.45);
+        testLoc.getStorageUnit(3, 7).rent(testCust, LocalDate.now(), 123.45);
+        testLoc.getStorageUnit(9, 2).rent(cust2,    LocalDate.now(), 123.45);
+        assertEquals(2, testLoc.getCustomerUnitCount(testCust));
+        assertEquals(1, testLoc.getCustomerUnitCount(cust2));
+        
+        testLoc.getStorageUnit(1, 1).release();
+        StorageUnit[] custUnits = testLoc.getCustomerUnits(testCust);
+        assertEquals(1, custUnits.length);
+        assertEquals(testLoc.getStorageUnit(3, 7), custUnits[0]);
+        
+        // re-renting a released unit moves it to the new customer
+        testLoc.getStorageUnit(1, 1).rent(cust2, LocalDate.now(), 123.45);
+        assertEquals(1, testLoc.getCustomerUnitCount(testCust));
+        assertEquals(2, testLoc.getCustomerUnitCount(cust2));
+        
+        testLoc.getStorageUnit(3, 7).release();
+        assertEquals(0, testLoc.getCustomerUnits(testCust).length);
+        assertEquals(0, testLoc.getCustomerUnitCount(testCust));
+    }
+    
     @Test
     public void testGetEmptyUnitsNoParams() {
         StorageUnit[] empties = testLoc.getEmptyUnits();
@@ -123,6 +159,318 @@ public class StorageLocationTest {
         }
     }
     
+    @Test
+    public void testGetEmptyUnitCount() {
+        assertEquals(testLoc.getRowCount() * testLoc.getUnitsPerRowCount(), testLoc.getEmptyUnitCount());
+        assertEquals(6 * 20, testLoc.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        
+        StorageUnit unit = testLoc.getStorageUnit(1, 1);
+        unit.rent(testCust, LocalDate.now(), 0.01);
+        assertEquals(testLoc.getRowCount() * testLoc.getUnitsPerRowCount() - 1, testLoc.getEmptyUnitCount());
+        assertEquals(6 * 20 - 1, testLoc.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        assertEquals(2 * 20,     testLoc.getEmptyUnitCount(StorageUnit.UnitType.HUMIDITY));
+        assertEquals(testLoc.getEmptyUnits(StorageUnit.UnitType.STANDARD).length, 
+                     testLoc.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        
+        // failed rentals and releases must not disturb the counts
+        assertFalse(unit.rent(testCust, LocalDate.now(), 0.01));
+        assertEquals(6 * 20 - 1, testLoc.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        assertTrue(unit.release());
+        assertFalse(unit.release());
+        assertEquals(6 * 20, testLoc.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        assertEquals(testLoc.getRowCount() * testLoc.getUnitsPerRowCount(), testLoc.getEmptyUnitCount());
+    }
+    
+    @Test
+    public void testCustomLayout() {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(2, 4, 8, 8,    StorageUnit.UnitType.STANDARD);
+        layout.addUnits(1, 12, 16, 10, StorageUnit.UnitType.TEMPERATURE);
+        layout.addRow();
+        layout.addUnits(40, 4, 4, 8,   StorageUnit.UnitType.HUMIDITY);
+        StorageLocation loc = new StorageLocation(DESIGNATION, layout);
+        
+        assertTrue(layout.isSealed());
+        assertEquals(2,  loc.getRowCount());
+        assertEquals(3,  loc.getUnitsPerRowCount(0));
+        assertEquals(40, loc.getUnitsPerRowCount(1));
+        assertEquals(43, loc.getUnitCount());
+        assertEquals(43, loc.getEmptyUnitCount());
+        assertEquals(1,  loc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        
+        StorageUnit unit = loc.getStorageUnit(0, 2);
+        assertEquals(12, unit.getWidth());
+        assertEquals(StorageUnit.UnitType.TEMPERATURE, unit.getType());
+        assertEquals(unit, loc.getStorageUnit(0, 2));
+        assertSame(loc, unit.getStorageLocation());
+        
+        unit.rent(testCust, LocalDate.now(), 75.00);
+        assertEquals(0,  loc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(0,  loc.getEmptyUnits(StorageUnit.UnitType.TEMPERATURE).length);
+        assertEquals(75.00, loc.chargeMonthlyRent(), DOLLAR_VARIANCE);
+    }
+    
+    @Test
+    public void testLargeLocation() {
+        FacilityLayout layout = new FacilityLayout();
+        for (int rowIdx = 0; rowIdx < 400; rowIdx++) {
+            layout.addRow();
+            layout.addUnits(250, 4, 8, 8, StorageUnit.UnitType.STANDARD);
+        }
+        StorageLocation loc = new StorageLocation(DESIGNATION, layout);
+        assertEquals(100000, loc.getEmptyUnitCount());
+        
+        loc.getStorageUnit(399, 249).rent(testCust, LocalDate.now(), 10.00);
+        loc.getStorageUnit(0, 0).rent(testCust, LocalDate.now(), 20.00);
+        assertEquals(99998, loc.getEmptyUnitCount(StorageUnit.UnitType.STANDARD));
+        assertEquals(30.00, loc.chargeMonthlyRent(), DOLLAR_VARIANCE);
+        assertEquals(30.00, testCust.getBalance(),   DOLLAR_VARIANCE);
+        assertEquals(1, loc.getCustomerCount());
+    }
+    
+    @Test
+    public void testFindSmallestUnits() {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(3, 12, 16, 10, StorageUnit.UnitType.STANDARD);
+        layout.addUnits(2, 8, 8, 8,    StorageUnit.UnitType.STANDARD);
+        layout.addUnits(2, 8, 8, 8,    StorageUnit.UnitType.TEMPERATURE);
+        layout.addRow();
+        layout.addUnits(2, 8, 12, 8,   StorageUnit.UnitType.STANDARD);
+        layout.addUnits(4, 4, 8, 8,    StorageUnit.UnitType.STANDARD);
+        StorageLocation loc = new StorageLocation(DESIGNATION, layout);
+
+        // the 8x8s come before the 8x12s, which come before the 12x16s
+        StorageUnit[] found = loc.findSmallestUnits(8, 8, 0, StorageUnit.UnitType.STANDARD, 5);
+        assertEquals(5, found.length);
+        assertEquals(loc.getStorageUnit(0, 3), found[0]);
+        assertEquals(loc.getStorageUnit(0, 4), found[1]);
+        assertEquals(loc.getStorageUnit(1, 0), found[2]);
+        assertEquals(loc.getStorageUnit(1, 1), found[3]);
+        assertEquals(loc.getStorageUnit(0, 0), found[4]);
+
+        assertEquals(loc.getStorageUnit(0, 5), loc.findSmallestUnit(6, 6, 8, StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(loc.getStorageUnit(1, 2), loc.findSmallestUnit(0, 0, 0, null));
+        assertEquals(3, loc.findSmallestUnits(10, 10, 10, null, 10).length);
+        assertNull(loc.findSmallestUnit(8, 8, 12, null));
+
+        // rented units drop out of the search, and return when released
+        loc.getStorageUnit(0, 3).rent(testCust, LocalDate.now(), 80.00);
+        assertEquals(loc.getStorageUnit(0, 4), loc.findSmallestUnit(8, 8, 0, StorageUnit.UnitType.STANDARD));
+        loc.getStorageUnit(0, 3).release();
+        assertEquals(loc.getStorageUnit(0, 3), loc.findSmallestUnit(8, 8, 0, StorageUnit.UnitType.STANDARD));
+    }
+
+    @Test
+    public void testRentUnits() {
+        Customer cust2 = new Customer("Jane Doe", "206-555-1234");
+        StorageUnit[] batch = { testLoc.getStorageUnit(1, 5), testLoc.getStorageUnit(1, 6),
+                                testLoc.getStorageUnit(3, 0) };
+        assertTrue(testLoc.rentUnits(batch, testCust, LocalDate.now(), 19995));
+        assertEquals(3, testLoc.getCustomerUnitCount(testCust));
+        assertEquals(1, testLoc.getCustomerCount());
+        assertEquals(237, testLoc.getEmptyUnitCount());
+
+        // one unit of the second batch is taken, so none of it is rented
+        StorageUnit[] overlapping = { testLoc.getStorageUnit(1, 7), testLoc.getStorageUnit(1, 6) };
+        assertFalse(testLoc.rentUnits(overlapping, cust2, LocalDate.now(), 19995));
+        assertNull(testLoc.getStorageUnit(1, 7).getCustomer());
+        assertEquals(testCust, testLoc.getStorageUnit(1, 6).getCustomer());
+        assertEquals(237, testLoc.getEmptyUnitCount());
+        assertEquals(3 * 199.95, testLoc.chargeMonthlyRent(), DOLLAR_VARIANCE);
+    }
+
+    @Test
+    public void testRentUnitsOfType() {
+        // break up the first temperature row so the run has to come from the next one
+        testLoc.getStorageUnit(StorageLocation.ROW_START_TMP, 10).rent(testCust, LocalDate.now(), 1.00);
+        StorageUnit[] rented = testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, 15, testCust,
+                                                       LocalDate.now(), 5000);
+        assertEquals(15, rented.length);
+        for (int unitIdx = 0; unitIdx < rented.length; unitIdx++) {
+            assertEquals(testLoc.getStorageUnit(StorageLocation.ROW_START_TMP + 1, unitIdx), rented[unitIdx]);
+            assertEquals(testCust, rented[unitIdx].getCustomer());
+        }
+
+        // too many for any one row, but still enough in all
+        int emptyTemp = testLoc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE);
+        assertEquals(25, testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, 25, testCust,
+                                                 LocalDate.now(), 5000).length);
+        assertEquals(emptyTemp - 25, testLoc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+
+        // and more than there are leaves everything alone
+        assertEquals(0, testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, emptyTemp, testCust,
+                                                LocalDate.now(), 5000).length);
+        assertEquals(emptyTemp - 25, testLoc.getEmptyUnitCount(StorageUnit.UnitType.TEMPERATURE));
+    }
+
+    @Test
+    public void testReleaseUnits() {
+        Customer cust2 = new Customer("Jane Doe", "206-555-1234");
+        StorageUnit[] batch = { testLoc.getStorageUnit(0, 0), testLoc.getStorageUnit(0, 1) };
+        testLoc.rentUnits(batch, testCust, LocalDate.now(), 10000);
+        testLoc.getStorageUnit(0, 2).rent(cust2, LocalDate.now(), 100.00);
+
+        StorageUnit[] mixed = { testLoc.getStorageUnit(0, 1), testLoc.getStorageUnit(0, 2) };
+        assertFalse(testLoc.releaseUnits(mixed, testCust));
+        assertEquals(2, testLoc.getCustomerUnitCount(testCust));
+        assertEquals(cust2, testLoc.getStorageUnit(0, 2).getCustomer());
+
+        assertTrue(testLoc.releaseUnits(batch, testCust));
+        assertEquals(0, testLoc.getCustomerUnitCount(testCust));
+        assertEquals(239, testLoc.getEmptyUnitCount());
+        assertFalse(testLoc.releaseUnits(batch, testCust));
+    }
+
+    @Test
+    public void testFindAdjacentUnits() {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(4, 4, 8, 8,  StorageUnit.UnitType.STANDARD);
+        layout.addUnits(3, 8, 8, 8,  StorageUnit.UnitType.STANDARD);
+        layout.addUnits(2, 8, 8, 8,  StorageUnit.UnitType.HUMIDITY);
+        layout.addUnits(5, 4, 8, 8,  StorageUnit.UnitType.STANDARD);
+        layout.addRow();
+        layout.addUnits(6, 4, 8, 8,  StorageUnit.UnitType.STANDARD);
+        StorageLocation loc = new StorageLocation(DESIGNATION, layout);
+
+        // the shortest run long enough: 5 at the end of row 0, not the 7 at its start
+        StorageUnit[] found = loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 5);
+        assertEquals(5, found.length);
+        assertEquals(loc.getStorageUnit(0, 9), found[0]);
+        assertEquals(loc.getStorageUnit(0, 13), found[4]);
+        assertEquals(loc.getStorageUnit(0, 0), loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 7)[0]);
+        assertEquals(0, loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 8).length);
+        assertEquals(0, loc.findAdjacentUnits(StorageUnit.UnitType.HUMIDITY, 3).length);
+
+        // renting splits the runs; releasing joins them again
+        loc.getStorageUnit(1, 2).rent(testCust, LocalDate.now(), 10.00);
+        loc.getStorageUnit(0, 11).rent(testCust, LocalDate.now(), 10.00);
+        assertEquals(loc.getStorageUnit(0, 0), loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 5)[0]);
+        assertEquals(loc.getStorageUnit(1, 3), loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 3)[0]);
+        loc.getStorageUnit(0, 11).release();
+        assertEquals(loc.getStorageUnit(0, 9), loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 5)[0]);
+        loc.getStorageUnit(1, 2).release();
+        assertEquals(loc.getStorageUnit(1, 0), loc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 6)[0]);
+    }
+
+    @Test
+    public void testFindAdjacentUnitsMatchesScan() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            StorageUnit unit = testLoc.getStorageUnit(random.nextInt(StorageLocation.NUM_ROWS), 
+                                                      random.nextInt(StorageLocation.NUM_SPACES));
+            if (unit.getCustomer() == null) {
+                unit.rent(testCust, LocalDate.now(), 1.00);
+            } else {
+                unit.release();
+            }
+            int count = 1 + random.nextInt(6);
+            StorageUnit.UnitType unitType = StorageUnit.UnitType.values()[round % 3];
+            StorageUnit[] found = testLoc.findAdjacentUnits(unitType, count);
+
+            // the shortest run of at least count empty units, found by scanning every row
+            int bestRow = -1;
+            int bestSpace = -1;
+            int bestLength = Integer.MAX_VALUE;
+            for (int rowIdx = 0; rowIdx < testLoc.getRowCount(); rowIdx++) {
+                int runLength = 0;
+                for (int spaceIdx = 0; spaceIdx <= StorageLocation.NUM_SPACES; spaceIdx++) {
+                    StorageUnit scanned = (spaceIdx < StorageLocation.NUM_SPACES) 
+                                          ? testLoc.getStorageUnit(rowIdx, spaceIdx) : null;
+                    if (scanned != null && scanned.getType() == unitType && scanned.getCustomer() == null) {
+                        runLength++;
+                    } else {
+                        if (runLength >= count && runLength < bestLength) {
+                            bestLength = runLength;
+                            bestRow = rowIdx;
+                            bestSpace = spaceIdx - runLength;
+                        }
+                        runLength = 0;
+                    }
+                }
+            }
+            if (bestRow < 0) {
+                assertEquals(0, found.length);
+            } else {
+                assertEquals(testLoc.getStorageUnit(bestRow, bestSpace), found[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testUnitPrices() {
+        assertEquals(100.00, testLoc.getUnitBasePrice(), DOLLAR_VARIANCE);
+        assertEquals(0.10, testLoc.getMultiUnitDiscount(), 0.0001);
+
+        // an empty location is in the lowest occupancy band, 10% off list
+        assertEquals(9000,  testLoc.getStorageUnit(0, 0).calcUnitSpecificPriceCents());
+        assertEquals(9900,  testLoc.getStorageUnit(StorageLocation.ROW_START_HUM, 0).calcUnitSpecificPriceCents());
+        assertEquals(11250, testLoc.getStorageUnit(StorageLocation.ROW_START_TMP, 0).calcUnitSpecificPriceCents());
+
+        // half full is list price, and 95% full is 20% over
+        int unitCount = testLoc.getUnitCount();
+        StorageUnit[] first = new StorageUnit[unitCount / 2];
+        for (int unitIdx = 0; unitIdx < first.length; unitIdx++) {
+            first[unitIdx] = testLoc.getStorageUnit(unitIdx / StorageLocation.NUM_SPACES, unitIdx % StorageLocation.NUM_SPACES);
+        }
+        testLoc.rentUnits(first, new Customer("Jane Doe", "206-555-1234"), LocalDate.now(), 100);
+        StorageUnit last = testLoc.getStorageUnit(StorageLocation.NUM_ROWS - 1, StorageLocation.NUM_SPACES - 1);
+        assertEquals(12500, last.calcUnitSpecificPriceCents());
+        testLoc.rentUnitsOfType(StorageUnit.UnitType.HUMIDITY,    40, testCust, LocalDate.now(), 100);
+        testLoc.rentUnitsOfType(StorageUnit.UnitType.TEMPERATURE, 68, testCust, LocalDate.now(), 100);
+        assertEquals(15000, last.calcUnitSpecificPriceCents());
+
+        // a new base price takes effect at once
+        testLoc.setUnitBasePrice(80.00);
+        assertEquals(80.00, testLoc.getUnitBasePrice(), DOLLAR_VARIANCE);
+        assertEquals(12000, last.calcUnitSpecificPriceCents());
+    }
+
+    @Test
+    public void testRentAtQuotedPrice() {
+        StorageUnit first = testLoc.getStorageUnit(0, 0);
+        assertTrue(first.rent(testCust, LocalDate.now()));
+        assertEquals(9000, first.getPriceCents());
+
+        // a second unit gets the multi-unit discount
+        StorageUnit second = testLoc.getStorageUnit(0, 1);
+        assertTrue(second.rent(testCust, LocalDate.now()));
+        assertEquals(8100, second.getPriceCents());
+
+        // and so does every unit after the first of a batch
+        Customer cust2 = new Customer("Jane Doe", "206-555-1234");
+        testLoc.setMultiUnitDiscount(0.25);
+        StorageUnit[] batch = { testLoc.getStorageUnit(1, 0), testLoc.getStorageUnit(1, 1) };
+        assertTrue(testLoc.rentUnits(batch, cust2, LocalDate.now()));
+        assertEquals(9000, batch[0].getPriceCents());
+        assertEquals(6750, batch[1].getPriceCents());
+    }
+
+    @Test
+    public void testFindCheapestUnits() {
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(2, 8, 8, 8,   StorageUnit.UnitType.TEMPERATURE);
+        layout.addUnits(2, 8, 12, 8,  StorageUnit.UnitType.STANDARD);
+        layout.addUnits(2, 8, 8, 8,   StorageUnit.UnitType.STANDARD);
+        StorageLocation loc = new StorageLocation(DESIGNATION, layout, 50.00);
+
+        // 8x8x8 standard is 2 base units, 8x12x8 is 3, and 8x8x8 temperature is 2.5
+        StorageUnit[] found = loc.findCheapestUnits(8, 8, 8, null, Long.MAX_VALUE, 6);
+        assertEquals(6, found.length);
+        assertEquals(loc.getStorageUnit(0, 4), found[0]);
+        assertEquals(loc.getStorageUnit(0, 0), found[2]);
+        assertEquals(loc.getStorageUnit(0, 2), found[4]);
+        assertEquals(9000, found[0].calcUnitSpecificPriceCents());
+
+        // within a budget of $115 only the standard 8x8s and the temperature units qualify
+        assertEquals(4, loc.findCheapestUnits(8, 8, 8, null, 11500, 10).length);
+        assertEquals(2, loc.findCheapestUnits(8, 10, 8, null, 20000, 10).length);
+        assertEquals(0, loc.findCheapestUnits(8, 8, 8, null, 8999, 10).length);
+    }
+
     @Test
     public void testChargeMonthlyRent() {
         Customer cust2 = new Customer("Jane Doe", "206-555-1234");
@@ -137,7 +485,114 @@ public class StorageLocationTest {
         assertEquals(111.11 + 222.22, testLoc.getCustomer(0).getBalance(),  DOLLAR_VARIANCE);
         assertEquals(333.33,          testLoc.getCustomer(1).getBalance(),  DOLLAR_VARIANCE);
     }
-    
+
+    @Test
+    public void testOccupancyAsOf() {
+        Customer cust2 = new Customer("Jane Doe", "206-555-1234");
+        LocalDate jan = LocalDate.of(2025, 1, 1);
+        StorageUnit humUnit = testLoc.getStorageUnit(StorageLocation.ROW_START_HUM, 0);
+        testLoc.getStorageUnit(0, 0).rent(testCust, jan, 100.00);
+        testLoc.getStorageUnit(0, 1).rent(cust2, jan.plusMonths(1), 50.00);
+        humUnit.rent(cust2, jan.plusMonths(2), 125.00);
+        testLoc.getStorageUnit(0, 0).release(jan.plusMonths(3));
+        StorageUnit[] batch = { testLoc.getStorageUnit(0, 1), humUnit };
+        assertTrue(testLoc.releaseUnits(batch, cust2, jan.plusMonths(5)));
+        testLoc.getStorageUnit(0, 0).rent(cust2, jan.plusMonths(4), 80.00);
+
+        assertEquals(0, testLoc.getOccupiedUnitCount(jan.minusDays(1), null));
+        assertEquals(1, testLoc.getOccupiedUnitCount(jan, null));
+        assertEquals(10000, testLoc.getContractedRentCents(jan));
+        assertEquals(3, testLoc.getOccupiedUnitCount(jan.plusMonths(2), null));
+        assertEquals(1, testLoc.getOccupiedUnitCount(jan.plusMonths(2), StorageUnit.UnitType.HUMIDITY));
+        assertEquals(275.00, testLoc.getContractedRent(jan.plusMonths(2).plusDays(10)), DOLLAR_VARIANCE);
+        // a rental ends on the morning of its release date
+        assertEquals(2, testLoc.getOccupiedUnitCount(jan.plusMonths(3), null));
+        assertEquals(3, testLoc.getOccupiedUnitCount(jan.plusMonths(4), null));
+        assertEquals(1, testLoc.getOccupiedUnitCount(jan.plusMonths(5), null));
+        assertEquals(8000, testLoc.getContractedRentCents(LocalDate.of(2030, 1, 1)));
+        assertEquals(0, testLoc.getOccupiedUnitCount(jan.plusYears(9), StorageUnit.UnitType.HUMIDITY));
+    }
+
+    @Test
+    public void testOccupancyAsOfMatchesHistory() {
+        // random rentals and releases, checked day by day against the units' own records
+        Random random = new Random(18);
+        LocalDate firstDay = LocalDate.of(2024, 1, 1);
+        for (int batch = 0; batch < 4; batch++) {
+            for (int step = 0; step < 100; step++) {
+                StorageUnit unit = testLoc.unitAt(random.nextInt(30));
+                LocalDate day = firstDay.plusDays(random.nextInt(200));
+                if (unit.getCustomer() == null) {
+                    unit.rentForCents(testCust, day, 1000 + random.nextInt(9000));
+                } else if (!day.isBefore(unit.getRentalStart())) {
+                    unit.release(day);
+                }
+            }
+            // queries between the batches of changes see every change so far
+            for (int dayIdx = -1; dayIdx < 210; dayIdx += 7) {
+                LocalDate day = firstDay.plusDays(dayIdx);
+                int expectedCount = 0;
+                long expectedCents = 0;
+                for (int locationIdx = 0; locationIdx < 30; locationIdx++) {
+                    StorageUnit unit = testLoc.unitAt(locationIdx);
+                    for (RentalRecord record : unit.getRentalHistory()) {
+                        if (!day.isBefore(record.getRentalStart()) && day.isBefore(record.getRentalEnd())) {
+                            expectedCount++;
+                            expectedCents += record.getPriceCents();
+                        }
+                    }
+                    if (unit.getCustomer() != null && !day.isBefore(unit.getRentalStart())) {
+                        expectedCount++;
+                        expectedCents += unit.getPriceCents();
+                    }
+                }
+                assertEquals(expectedCount, testLoc.getOccupiedUnitCount(day, null));
+                assertEquals(expectedCents, testLoc.getContractedRentCents(day));
+            }
+        }
+    }
+
+    @Test
+    public void testGetMetrics() {
+        Customer cust2 = new Customer("Jane Doe", "206-555-1234");
+        LocationMetrics empty = testLoc.getMetrics();
+        assertEquals(DESIGNATION, empty.getDesignation());
+        assertEquals(240, empty.getUnitCount());
+        assertEquals(40, empty.getUnitCount(StorageUnit.UnitType.HUMIDITY));
+        assertEquals(0, empty.getOccupiedUnitCount());
+        assertEquals(0.0, empty.getOccupancy(), DOLLAR_VARIANCE);
+        assertSame(empty, testLoc.getMetrics());
+
+        testLoc.getStorageUnit(0, 0).rent(testCust, LocalDate.now(), 100.00);
+        StorageUnit[] batch = { testLoc.getStorageUnit(StorageLocation.ROW_START_HUM, 0),
+                                testLoc.getStorageUnit(StorageLocation.ROW_START_HUM, 1) };
+        testLoc.rentUnits(batch, cust2, LocalDate.now(), 12500);
+        LocationMetrics metrics = testLoc.getMetrics();
+        assertEquals(3, metrics.getOccupiedUnitCount());
+        assertEquals(1, metrics.getOccupiedUnitCount(StorageUnit.UnitType.STANDARD));
+        assertEquals(2, metrics.getOccupiedUnitCount(StorageUnit.UnitType.HUMIDITY));
+        assertEquals(0, metrics.getOccupiedUnitCount(StorageUnit.UnitType.TEMPERATURE));
+        assertEquals(0.05, metrics.getOccupancy(StorageUnit.UnitType.HUMIDITY), DOLLAR_VARIANCE);
+        assertEquals(350.00, metrics.getContractedRent(), DOLLAR_VARIANCE);
+        assertEquals(2, metrics.getRentingCustomerCount());
+        assertEquals(0, empty.getOccupiedUnitCount());
+
+        // the figures match a full scan of the units
+        long scannedCents = 0;
+        for (int locationIdx = 0; locationIdx < testLoc.getUnitCount(); locationIdx++) {
+            scannedCents += testLoc.unitAt(locationIdx).getPriceCents();
+        }
+        assertEquals(scannedCents, metrics.getContractedRentCents());
+        assertEquals(testLoc.getUnitCount() - testLoc.getEmptyUnitCount(), metrics.getOccupiedUnitCount());
+
+        testLoc.getStorageUnit(0, 0).release();
+        testLoc.getStorageUnit(StorageLocation.ROW_START_HUM, 0).release();
+        metrics = testLoc.getMetrics();
+        assertEquals(1, metrics.getOccupiedUnitCount());
+        assertEquals(12500, metrics.getContractedRentCents());
+        assertEquals(1, metrics.getRentingCustomerCount());
+    }
+
     
     //-----------------------------------------------------------------------
     //          PRECONDITION TESTS    
@@ -173,4 +628,51 @@ public class StorageLocationTest {
         StorageLocation testLoc = new StorageLocation("WA23");
     }
     
+    @Test (expected = IllegalArgumentException.class) 
+    public void testConstrLayoutNull() {
+        StorageLocation testLoc = new StorageLocation(DESIGNATION, null);
+    }
+    
+    @Test (expected = IllegalArgumentException.class) 
+    public void testFindSmallestUnitsNegative() {
+        testLoc.findSmallestUnits(-4, 8, 8, null, 1);
+    }
+    
+    @Test (expected = IllegalArgumentException.class) 
+    public void testRentUnitsTwice() {
+        StorageUnit unit = testLoc.getStorageUnit(0, 0);
+        testLoc.rentUnits(new StorageUnit[] { unit, unit }, testCust, LocalDate.now(), 100);
+    }
+    
+    @Test (expected = IllegalArgumentException.class) 
+    public void testRentUnitsOtherLocation() {
+        StorageUnit unit = new StorageLocation("WA23Issaquah").getStorageUnit(0, 0);
+        testLoc.rentUnits(new StorageUnit[] { unit }, testCust, LocalDate.now(), 100);
+    }
+    
+    @Test (expected = IllegalArgumentException.class) 
+    public void testFindAdjacentUnitsNone() {
+        testLoc.findAdjacentUnits(StorageUnit.UnitType.STANDARD, 0);
+    }
+    
+    @Test (expected = IllegalArgumentException.class) 
+    public void testOccupancyAsOfNull() {
+        testLoc.getOccupiedUnitCount(null, null);
+    }
+
+    @Test (expected = IllegalArgumentException.class) 
+    public void testConstrBasePriceNegative() {
+        StorageLocation testLoc = new StorageLocation(DESIGNATION, -1.00);
+    }
+    
+    @Test (expected = IllegalArgumentException.class) 
+    public void testSetMultiUnitDiscountOverOne() {
+        testLoc.setMultiUnitDiscount(1.5);
+    }
+    
+    @Test (expected = IndexOutOfBoundsException.class) 
+    public void testGetStorageUnitOutOfRange() {
+        testLoc.getStorageUnit(0, testLoc.getUnitsPerRowCount(0));
+    }
+    
 }
@@ -20,26 +20,16 @@ public class StorageUnit  {
     //----------------------------------------------------------------
     //          INSTANCE DATA
     //----------------------------------------------------------------
-    /** the width of the unit */
-    private int width;
-    /** the length of the unit */    
-    private int length;
-    /** the height of the unit */
-    private int height;
-    /** the price for this unit */
-    private double price;
-    /** the type of unit */
-    private UnitType type;
-    /** the customer renting this unit */
-    private Customer customer;
-    /** the rental start date for this unit */
-    private LocalDate rentalStart;
+    /** the store holding this unit's size, type and rental state */
+    private final UnitStore store;
+    /** this unit's slot in the store, which is also its location index */
+    private final int locationIdx;
 
     //----------------------------------------------------------------
     //          CONSTRUCTORS
     //----------------------------------------------------------------
     /**
-     * StorageUnit Constructor
+     * StorageUnit Constructor; creates a stand-alone unit, not part of any location
      *
      * @param   width       the storage unit's width, in feet; must be over 0 and evenly divisible by 4
      * @param   length      the storage unit's length, in feet; must be over 0 and evenly divisible by 4
@@ -47,27 +37,23 @@ public class StorageUnit  {
      * @param   type        the type of this storage unit
      */
     public StorageUnit(int width, int length, int height, UnitType type) {
-        if (width <= 0 || length <= 0 || height <= 0) {
-            throw new IllegalArgumentException("All dimensions must be > 0");
-        }
-        if (width % 4 != 0 || length % 4 != 0) {
-            throw new IllegalArgumentException("width and length must be a multiple of 4");
-        }
-        if (height % 2 != 0) {
-            throw new IllegalArgumentException("height must be a multiple of 2");
-        }
-        if (type == null) {
-            throw new IllegalArgumentException("type must be non-null");
-        }
-
-        this.width  = width;
-        this.length = length;
-        this.height = height;
-        this.type   = type;
+        FacilityLayout layout = new FacilityLayout();
+        layout.addRow();
+        layout.addUnits(1, width, length, height, type);
+        layout.seal();
+        this.store       = new UnitStore(null, layout, CustomerRegistry.forStandAloneUnit());
+        this.locationIdx = 0;
+    }
 
-        this.customer    = null;
-        this.rentalStart = null;
-        this.price       = 0.00;
+    /**
+     * StorageUnit Constructor; creates a view of one unit held in a location's store
+     *
+     * @param   store           the store holding the unit
+     * @param   locationIdx     the unit's slot in the store
+     */
+    StorageUnit(UnitStore store, int locationIdx) {
+        this.store       = store;
+        this.locationIdx = locationIdx;
     }
 
     //----------------------------------------------------------------
@@ -79,7 +65,7 @@ public class StorageUnit  {
      * @return  the unit's width
      */
     public int getWidth() {
-        return width;
+        return store.getLayout().getWidth(locationIdx);
     }
 
     /**
@@ -88,7 +74,7 @@ public class StorageUnit  {
      * @return  the unit's length
      */
     public int getLength() {
-        return length;
+        return store.getLayout().getLength(locationIdx);
     }
 
     /**
@@ -97,7 +83,7 @@ public class StorageUnit  {
      * @return  the unit's height
      */
     public int getHeight() {
-        return height;
+        return store.getLayout().getHeight(locationIdx);
     }
 
     /**
@@ -106,7 +92,7 @@ public class StorageUnit  {
      * @return  the unit's type
      */
     public UnitType getType() {
-        return type;
+        return store.getLayout().getType(locationIdx);
     }
 
     /**
@@ -115,7 +101,44 @@ public class StorageUnit  {
      * @return  the unit's price
      */
     public double getPrice() {
-        return price;
+        return Money.toDollars(getPriceCents());
+    }
+
+    /**
+     * Works out the unit's current monthly list price, from its location's base price, 
+     * its size and type, and how full its location is
+     *
+     * @return  the unit's list price
+     */
+    public double calcUnitSpecificPrice() {
+        return Money.toDollars(calcUnitSpecificPriceCents());
+    }
+
+    /**
+     * Works out the unit's current monthly list price in cents; a unit that doesn't 
+     * belong to a location is priced from the default base price
+     *
+     * @return  the unit's list price, in cents
+     */
+    public long calcUnitSpecificPriceCents() {
+        StorageLocation location = store.getLocation();
+        if (location != null) {
+            return location.quotePriceCents(locationIdx, null);
+        }
+        FacilityLayout layout = store.getLayout();
+        return PricingEngine.listPriceCents(Money.toCents(StorageLocation.DEFAULT_UNIT_BASE_PRICE),
+                                            layout.getWidth(locationIdx), layout.getLength(locationIdx),
+                                            layout.getHeight(locationIdx), layout.getType(locationIdx),
+                                            PricingEngine.NEUTRAL_BAND);
+    }
+
+    /**
+     * Retrieves the unit's price in cents
+     *
+     * @return  the unit's price, in cents
+     */
+    public long getPriceCents() {
+        return store.getPriceCents(locationIdx);
     }
 
     /**
@@ -124,7 +147,7 @@ public class StorageUnit  {
      * @return  the unit's customer, or null if not rented
      */
     public Customer getCustomer() {
-        return customer;
+        return store.getCustomer(locationIdx);
     }
 
     /**
@@ -133,48 +156,218 @@ public class StorageUnit  {
      * @return  the unit's rental start date
      */
     public LocalDate getRentalStart() {
-        return rentalStart;
+        return store.getRentalStart(locationIdx);
+    }
+
+    /**
+     * Finds whether the unit is locked, because its customer has fallen behind on their rent
+     *
+     * @return  true, if the unit is rented to a customer whose units are locked; false otherwise
+     */
+    public boolean isLocked() {
+        StorageLocation location = store.getLocation();
+        if (location == null) {
+            return false;
+        }
+        int customerId = store.getCustomerId(locationIdx);
+        return customerId >= 0 && location.lockedCustomerIds.contains(customerId);
+    }
+
+    /**
+     * Retrieves the location that manages this unit
+     *
+     * @return  the unit's storage location, or null if the unit is not part of a location
+     */
+    public StorageLocation getStorageLocation() {
+        return store.getLocation();
+    }
+
+    /**
+     * Retrieves this unit's position within its location's unit index
+     *
+     * @return  the unit's location index; always 0 if the unit is not part of a location
+     */
+    int getLocationIdx() {
+        return locationIdx;
     }
 
     //----------------------------------------------------------------
     //          OTHER METHODS
     //----------------------------------------------------------------
     /**
-     * Rents the unit to the specified customer
+     * Rents the unit to the specified customer; a unit belonging to a location
+     * also files the customer with that location.  Safe to call from several 
+     * threads at once: exactly one competing renter succeeds.
      *
-     * @param   customer        the customer to whom the unit has been rented
+     * @param   customer        the customer to whom the unit has been rented; must not be null
      * @param   rentalStart     the start data of the rental; must not be null
      * @param   price           the monthly price at which the unit has been rented
      * @return                  true, if the unit was successfully rented; false, if already rented and not available
      */
     public boolean rent(Customer customer, LocalDate rentalStart, double price) {
+        return rentForCents(customer, rentalStart, Money.toCents(price));
+    }
+
+    /**
+     * Rents the unit to the specified customer at its quoted price (see calcUnitSpecificPrice,
+     * less the location's multi-unit discount if the customer already rents there); 
+     * otherwise the same as rent
+     *
+     * @param   customer        the customer to whom the unit has been rented; must not be null
+     * @param   rentalStart     the start data of the rental; must not be null
+     * @return                  true, if the unit was successfully rented; false, if already rented and not available
+     */
+    public boolean rent(Customer customer, LocalDate rentalStart) {
+        StorageLocation location = store.getLocation();
+        long priceCents = (location == null) ? calcUnitSpecificPriceCents() 
+                                             : location.quotePriceCents(locationIdx, customer);
+        return rentForCents(customer, rentalStart, priceCents);
+    }
+
+    /**
+     * Rents the unit to the specified customer at a price given in cents; otherwise
+     * the same as rent
+     *
+     * @param   customer        the customer to whom the unit has been rented; must not be null,
+     *                          or have their units at the unit's location locked
+     * @param   rentalStart     the start data of the rental; must not be null
+     * @param   priceCents      the monthly price at which the unit has been rented, in cents
+     * @return                  true, if the unit was successfully rented; false, if already rented and not available
+     */
+    public boolean rentForCents(Customer customer, LocalDate rentalStart, long priceCents) {
+        if (customer == null) {
+            throw new IllegalArgumentException("customer must not be null");
+        }
         if (rentalStart == null) {
             throw new IllegalArgumentException("rentalStart must not be null");
         }
-        if (this.customer != null) {
-            return false;
+        StorageLocation location = store.getLocation();
+        if (location != null) {
+            location.checkNotLocked(customer);
         }
-        this.customer    = customer;
-        this.rentalStart = rentalStart;
-        this.price       = price;
-        return true;
+        if (location == null || !location.instrumentation.isEnabled()) {
+            return rentIn(location, customer, rentalStart, priceCents);
+        }
+        long startNanos = System.nanoTime();
+        boolean rented = rentIn(location, customer, rentalStart, priceCents);
+        location.instrumentation.record(Instrumentation.Operation.RENT, startNanos);
+        return rented;
     }
 
     /**
-     * Releases ("un-rents") the unit, making it available for rent
+     * Releases ("un-rents") the unit, making it available for rent.  The rental is
+     * filed in the unit's history as ending today, or on its start date if it was
+     * rented ahead and hasn't begun yet.
      * 
      * @return  true, if release could be completed; false, if unit wasn't rented to begin with
      */
     public boolean release() {
-        if (this.customer == null) {
+        return releaseOn(null);
+    }
+
+    /**
+     * Releases ("un-rents") the unit as of a given date, making it available for rent
+     * and filing the rental in the unit's history
+     *
+     * @param   rentalEnd   the day the rental ends, the first day the unit is no longer
+     *                      rented; must not be null; must not be before the rental's start
+     * @return              true, if release could be completed; false, if unit wasn't rented to begin with
+     */
+    public boolean release(LocalDate rentalEnd) {
+        if (rentalEnd == null) {
+            throw new IllegalArgumentException("rentalEnd must not be null");
+        }
+        return releaseOn(rentalEnd);
+    }
+
+    /**
+     * Retrieves the unit's finished rentals; its current rental, if any, isn't included
+     *
+     * @return      an array of the unit's past rentals, oldest first
+     */
+    public RentalRecord[] getRentalHistory() {
+        return store.getHistory().getRecords(locationIdx, store.getCustomers());
+    }
+
+    /**
+     * Releases the unit, timing the release if its location's instrumentation is on
+     *
+     * @param   rentalEnd   the day the rental ends, or null for today (or its start, if later)
+     * @return              true, if release could be completed; false, if unit wasn't rented to begin with
+     */
+    private boolean releaseOn(LocalDate rentalEnd) {
+        StorageLocation location = store.getLocation();
+        if (location == null || !location.instrumentation.isEnabled()) {
+            return releaseIn(location, rentalEnd);
+        }
+        long startNanos = System.nanoTime();
+        boolean released = releaseIn(location, rentalEnd);
+        location.instrumentation.record(Instrumentation.Operation.RELEASE, startNanos);
+        return released;
+    }
+
+    /**
+     * Rents the unit in its store and brings its location's indexes up to date
+     *
+     * @param   location        the unit's location, or null if it stands alone
+     * @param   customer        the renting customer
+     * @param   rentalStart     the start date of the rental
+     * @param   priceCents      the monthly price of the rental, in cents
+     * @return                  true, if the unit was rented; false, if already rented
+     */
+    private boolean rentIn(StorageLocation location, Customer customer, LocalDate rentalStart, long priceCents) {
+        if (!store.rent(locationIdx, customer, rentalStart, priceCents)) {
+            return false;
+        }
+        if (location != null) {
+            location.unitChanged(locationIdx);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the unit in its store and brings its location's indexes up to date
+     *
+     * @param   location    the unit's location, or null if it stands alone
+     * @param   rentalEnd   the day the rental ends, or null for today (or its start, if later)
+     * @return              true, if the unit was released; false, if it wasn't rented
+     */
+    private boolean releaseIn(StorageLocation location, LocalDate rentalEnd) {
+        if (store.release(locationIdx, rentalEnd) == null) {
             return false;
         }
-        this.customer    = null;
-        this.rentalStart = null;
-        this.price       = 0.00;
+        if (location != null) {
+            location.unitChanged(locationIdx);
+        }
         return true;
     }
 
+    /**
+     * Compares this unit with another object; two units are equal when they
+     * are views of the same slot in the same store
+     *
+     * @param   other   the object to compare with
+     * @return          true, if the other object is a view of the same unit
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof StorageUnit)) {
+            return false;
+        }
+        StorageUnit otherUnit = (StorageUnit) other;
+        return store == otherUnit.store && locationIdx == otherUnit.locationIdx;
+    }
+
+    /**
+     * Computes a hash code consistent with equals
+     *
+     * @return  the unit's hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + locationIdx;
+    }
+
     /**
      * Represents the current state of the unit in string format
      *
@@ -185,7 +378,7 @@ public class StorageUnit  {
         if (getCustomer() == null) {
             info += "available";
         } else {
-            info += "rented to " + getCustomer().getName() + " for $" + String.format("%.2f", this.getPrice());
+            info += "rented to " + getCustomer().getName() + " for $" + Money.format(this.getPriceCents());
         }
         return info;
     }
@@ -0,0 +1,164 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress tests for renting and releasing units from many threads at once.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class StorageUnitConcurrencyTest {
+
+    public static int THREAD_COUNT = 8;
+    public static String DESIGNATION = "AZ23West Peoria";
+
+    private StorageLocation testLoc;
+    private Customer[] testCusts;
+
+    /**
+     * Default constructor for test class StorageUnitConcurrencyTest
+     */
+    public StorageUnitConcurrencyTest() {
+    }
+
+    /**
+     * Sets up the test fixture: a standard location and one customer per thread
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        testLoc = new StorageLocation(DESIGNATION);
+        testCusts = new Customer[THREAD_COUNT];
+        for (int threadIdx = 0; threadIdx < THREAD_COUNT; threadIdx++) {
+            testCusts[threadIdx] = new Customer("Booker " + threadIdx, "555-000" + threadIdx);
+            testLoc.addCustomer(testCusts[threadIdx]);
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+
+    //--------------------------------------------------------------
+    //      Stress Tests
+    //--------------------------------------------------------------
+
+    @Test
+    public void testNoDoubleRental() throws InterruptedException {
+        final int unitCount = testLoc.getUnitCount();
+        final AtomicInteger[] winners = new AtomicInteger[unitCount];
+        for (int unitIdx = 0; unitIdx < unitCount; unitIdx++) {
+            winners[unitIdx] = new AtomicInteger();
+        }
+        // every thread tries to rent every unit
+        StressRunner.runTogether(THREAD_COUNT, new StressRunner.ThreadJob() {
+            public void run(int threadIdx) {
+                for (int rowIdx = 0; rowIdx < testLoc.getRowCount(); rowIdx++) {
+                    for (int spaceIdx = 0; spaceIdx < testLoc.getUnitsPerRowCount(rowIdx); spaceIdx++) {
+                        if (testLoc.getStorageUnit(rowIdx, spaceIdx).rent(testCusts[threadIdx], LocalDate.now(), 1.00)) {
+                            winners[rowIdx * testLoc.getUnitsPerRowCount(rowIdx) + spaceIdx].incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+
+        int rentedCount = 0;
+        for (AtomicInteger winner : winners) {
+            assertEquals(1, winner.get());
+        }
+        for (Customer cust : testCusts) {
+            for (StorageUnit unit : testLoc.getCustomerUnits(cust)) {
+                assertEquals(cust, unit.getCustomer());
+                rentedCount++;
+            }
+        }
+        assertEquals(unitCount, rentedCount);
+        assertEquals(0, testLoc.getEmptyUnitCount());
+        assertEquals(unitCount * 1.00, testLoc.chargeMonthlyRent(), 0.001);
+    }
+
+    @Test
+    public void testRentReleaseChurn() throws InterruptedException {
+        final StorageUnit[] hotUnits = new StorageUnit[4];
+        for (int unitIdx = 0; unitIdx < hotUnits.length; unitIdx++) {
+            hotUnits[unitIdx] = testLoc.getStorageUnit(0, unitIdx);
+        }
+        final AtomicInteger rentals  = new AtomicInteger();
+        final AtomicInteger releases = new AtomicInteger();
+        // threads fight over a handful of units, renting and releasing them repeatedly
+        StressRunner.runTogether(THREAD_COUNT, new StressRunner.ThreadJob() {
+            public void run(int threadIdx) {
+                for (int round = 0; round < 20000; round++) {
+                    StorageUnit unit = hotUnits[round % hotUnits.length];
+                    if (unit.rent(testCusts[threadIdx], LocalDate.now(), 1.00)) {
+                        rentals.incrementAndGet();
+                    }
+                    if (round % 3 == threadIdx % 3 && unit.release()) {
+                        releases.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // every successful rental was either released or is still in place
+        int stillRented = 0;
+        for (StorageUnit unit : hotUnits) {
+            if (unit.getCustomer() != null) {
+                stillRented++;
+            }
+        }
+        assertEquals(rentals.get() - releases.get(), stillRented);
+
+        // and the location's indexes agree with the units themselves
+        assertEquals(testLoc.getUnitCount() - stillRented, testLoc.getEmptyUnitCount());
+        int indexedCount = 0;
+        for (Customer cust : testCusts) {
+            for (StorageUnit unit : testLoc.getCustomerUnits(cust)) {
+                assertEquals(cust, unit.getCustomer());
+                indexedCount++;
+            }
+        }
+        assertEquals(stillRented, indexedCount);
+    }
+
+    @Test
+    public void testBatchesAllOrNothing() throws InterruptedException {
+        // each thread wants a block of 5 in row 0, and neighbouring threads' blocks overlap
+        final StorageUnit[][] blocks = new StorageUnit[THREAD_COUNT][5];
+        for (int threadIdx = 0; threadIdx < THREAD_COUNT; threadIdx++) {
+            for (int unitIdx = 0; unitIdx < 5; unitIdx++) {
+                blocks[threadIdx][unitIdx] = testLoc.getStorageUnit(0, 2 * threadIdx + unitIdx);
+            }
+        }
+        final boolean[] won = new boolean[THREAD_COUNT];
+        StressRunner.runTogether(THREAD_COUNT, new StressRunner.ThreadJob() {
+            public void run(int threadIdx) {
+                won[threadIdx] = testLoc.rentUnits(blocks[threadIdx], testCusts[threadIdx], LocalDate.now(), 100);
+            }
+        });
+
+        // every block is either wholly rented by its thread or not rented by it at all
+        int rentedCount = 0;
+        for (int threadIdx = 0; threadIdx < THREAD_COUNT; threadIdx++) {
+            for (StorageUnit unit : blocks[threadIdx]) {
+                assertEquals(won[threadIdx], testCusts[threadIdx].equals(unit.getCustomer()));
+            }
+            assertEquals(won[threadIdx] ? 5 : 0, testLoc.getCustomerUnitCount(testCusts[threadIdx]));
+            rentedCount += won[threadIdx] ? 5 : 0;
+        }
+        assertTrue(rentedCount > 0);
+        assertEquals(testLoc.getUnitCount() - rentedCount, testLoc.getEmptyUnitCount());
+    }
+
+}
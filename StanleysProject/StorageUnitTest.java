@@ -68,6 +68,103 @@ public class StorageUnitTest {
     }
     
     
+    @Test
+    public void testCalcUnitSpecificPrice() {
+        // 320 cubic feet is 1.25 standard units, and humidity control adds 10%
+        StorageUnit testUnit = new StorageUnit(4, 8, 10, StorageUnit.UnitType.HUMIDITY);
+        assertEquals(13750,  testUnit.calcUnitSpecificPriceCents());
+        assertEquals(137.50, testUnit.calcUnitSpecificPrice(), 0.001);
+
+        Customer testCust = new Customer("Reagan Rochester", "206-555-1212");
+        assertTrue(testUnit.rent(testCust, LocalDate.now()));
+        assertEquals(13750, testUnit.getPriceCents());
+    }
+
+    @Test
+    public void testRentTwice() {
+        StorageUnit testUnit = new StorageUnit(4, 8, 10, StorageUnit.UnitType.STANDARD);        
+        Customer testCust = new Customer("Reagan Rochester", "206-555-1212");
+        Customer otherCust = new Customer("Kim Kowalski", "206-555-3434");
+        assertTrue(testUnit.rent(testCust, LocalDate.of(2018, 01, 01), 150.75));
+        assertFalse(testUnit.rent(otherCust, LocalDate.of(2018, 02, 01), 99.00));
+        assertEquals(testCust, testUnit.getCustomer());
+        assertTrue(testUnit.release());
+        assertFalse(testUnit.release());
+        assertTrue(testUnit.rent(otherCust, LocalDate.of(2018, 02, 01), 99.00));
+        assertEquals(otherCust, testUnit.getCustomer());
+        assertNull(testUnit.getStorageLocation());
+    }
+
+    @Test
+    public void testRentalHistory() {
+        StorageUnit testUnit = new StorageUnit(4, 8, 10, StorageUnit.UnitType.STANDARD);
+        Customer testCust = new Customer("Reagan Rochester", "206-555-1212");
+        Customer otherCust = new Customer("Kim Kowalski", "206-555-3434");
+        assertEquals(0, testUnit.getRentalHistory().length);
+
+        testUnit.rent(testCust, LocalDate.of(2018, 1, 1), 150.75);
+        assertTrue(testUnit.release(LocalDate.of(2018, 6, 1)));
+        testUnit.rent(otherCust, LocalDate.of(2018, 7, 15), 99.00);
+        assertTrue(testUnit.release(LocalDate.of(2019, 1, 1)));
+        testUnit.rent(testCust, LocalDate.of(2019, 2, 1), 120.00);
+
+        // the current rental isn't history yet
+        RentalRecord[] history = testUnit.getRentalHistory();
+        assertEquals(2, history.length);
+        assertEquals(testCust, history[0].getCustomer());
+        assertEquals(LocalDate.of(2018, 1, 1), history[0].getRentalStart());
+        assertEquals(LocalDate.of(2018, 6, 1), history[0].getRentalEnd());
+        assertEquals(15075, history[0].getPriceCents());
+        assertEquals(otherCust, history[1].getCustomer());
+        assertEquals(LocalDate.of(2019, 1, 1), history[1].getRentalEnd());
+        assertEquals(99.00, history[1].getPrice(), 0.001);
+    }
+
+    @Test
+    public void testReleaseBeforeStart() {
+        // a rental booked ahead and given up before it begins ends on its start date
+        StorageUnit testUnit = new StorageUnit(4, 8, 10, StorageUnit.UnitType.STANDARD);
+        Customer testCust = new Customer("Reagan Rochester", "206-555-1212");
+        LocalDate booked = LocalDate.now().plusMonths(2);
+        testUnit.rent(testCust, booked, 150.75);
+        assertTrue(testUnit.release());
+        assertEquals(booked, testUnit.getRentalHistory()[0].getRentalEnd());
+    }
+
+    @Test
+    public void testReleaseFarFuture() {
+        // a start date past the days an int holds must not wedge the unit on release
+        StorageUnit testUnit = new StorageUnit(4, 8, 10, StorageUnit.UnitType.STANDARD);
+        Customer testCust = new Customer("Reagan Rochester", "206-555-1212");
+        LocalDate farOff = LocalDate.of(9999999, 1, 1);
+        assertTrue(testUnit.rent(testCust, farOff, 10));
+        assertTrue(testUnit.release());
+        assertNull(testUnit.getCustomer());
+        RentalRecord[] history = testUnit.getRentalHistory();
+        assertEquals(farOff, history[0].getRentalStart());
+        assertEquals(farOff, history[0].getRentalEnd());
+
+        assertTrue(testUnit.rent(testCust, farOff.plusDays(1), 10));
+        assertTrue(testUnit.release(farOff.plusDays(30)));
+        assertEquals(farOff.plusDays(30), testUnit.getRentalHistory()[1].getRentalEnd());
+    }
+    
+    
+    @Test
+    public void testStandAloneRentersNotFiled() {
+        // a stand-alone unit only numbers its renters, without filing them by phone
+        StorageUnit testUnit = new StorageUnit(4, 8, 10, StorageUnit.UnitType.STANDARD);
+        Customer testCust = new Customer("Reagan Rochester", "206-555-1212");
+        Customer otherCust = new Customer("Robin Rochester", "206-555-1212");
+        assertTrue(testUnit.rent(testCust, LocalDate.of(2018, 1, 1), 150.75));
+        assertTrue(testUnit.release(LocalDate.of(2018, 6, 1)));
+        assertTrue(testUnit.rent(otherCust, LocalDate.of(2018, 7, 1), 150.75));
+        testCust.setPhone("206-555-3434");
+        assertEquals(otherCust, testUnit.getCustomer());
+        assertEquals(testCust, testUnit.getRentalHistory()[0].getCustomer());
+    }
+    
+    
     //--------------------------------------------------------------
     //      Precondition Tests
     //--------------------------------------------------------------
@@ -107,4 +204,17 @@ public class StorageUnitTest {
         StorageUnit testUnit = new StorageUnit(8, 8, 8, null);
     }
 
+    @Test (expected = IllegalArgumentException.class)
+    public void testReleaseEndBeforeStart() {
+        StorageUnit testUnit = new StorageUnit(8, 8, 8, StorageUnit.UnitType.STANDARD);
+        testUnit.rent(new Customer("Reagan Rochester", "206-555-1212"), LocalDate.of(2018, 2, 1), 99.00);
+        testUnit.release(LocalDate.of(2018, 1, 31));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testRentCustomerNull() {
+        StorageUnit testUnit = new StorageUnit(8, 8, 8, StorageUnit.UnitType.STANDARD);
+        testUnit.rent(null, LocalDate.of(2018, 01, 01), 150.75);
+    }
+
 }
@@ -0,0 +1,66 @@
+import static org.junit.Assert.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the jobs of the stress tests (StorageUnitConcurrencyTest, CustomerConcurrencyTest
+ * and the like) on several threads released together.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class StressRunner {
+
+    //---------------------------------------------------------------------
+    //          INTERFACES
+    //---------------------------------------------------------------------
+    /** a job run by each thread of a stress test */
+    public interface ThreadJob {
+        void run(int threadIdx) throws Exception;
+    }
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * StressRunner Constructor; not used, as every method is static
+     */
+    private StressRunner() {
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Runs the same job on a number of threads, released together, waits for all of
+     * them, and fails if any of them threw
+     *
+     * @param   threadCount     the number of threads to run
+     * @param   job             the job to run, given the thread's index
+     */
+    public static void runTogether(int threadCount, final ThreadJob job) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        for (int threadIdx = 0; threadIdx < threadCount; threadIdx++) {
+            final int idx = threadIdx;
+            threads[threadIdx] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        job.run(idx);
+                    } catch (Throwable e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[threadIdx].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+    }
+
+}
@@ -0,0 +1,317 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Indexes the available units of a location by size, so the smallest free units
+ * meeting a customer's needs can be found without scanning every unit.
+ *
+ * A location is built from a handful of distinct unit shapes (width, length, height
+ * and type), however many units it has.  The index keeps one bucket of free units per
+ * shape, with the buckets sorted by floor area and then by volume.  A search binary
+ * searches for the first bucket with enough floor area and walks upward, skipping
+ * buckets of the wrong type or proportions, so it visits a few buckets rather than
+ * every unit.
+ *
+ * The index isn't thread-safe; its location guards it with its own lock.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class UnitSizeIndex {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the layout whose units are indexed */
+    private FacilityLayout layout;
+    /** the distinct unit shapes, smallest floor area (then volume) first */
+    private Shape[] shapes;
+    /** the floor area of each shape, in the same order, for binary search */
+    private long[] shapeAreas;
+    /** the shape of each of the layout's segments */
+    private Shape[] shapeOfSegment;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * UnitSizeIndex Constructor; every unit starts out free
+     *
+     * @param   layout      the (sealed) layout of the units to index
+     */
+    UnitSizeIndex(FacilityLayout layout) {
+        this.layout = layout;
+        shapeOfSegment = new Shape[layout.getSegmentCount()];
+        List<Shape> distinct = new ArrayList<>();
+        for (int segIdx = 0; segIdx < layout.getSegmentCount(); segIdx++) {
+            int first = layout.getSegmentStart(segIdx);
+            Shape shape = new Shape(layout.getWidth(first), layout.getLength(first),
+                                    layout.getHeight(first), layout.getSegmentType(segIdx));
+            int shapeIdx = distinct.indexOf(shape);
+            if (shapeIdx < 0) {
+                distinct.add(shape);
+            } else {
+                shape = distinct.get(shapeIdx);
+            }
+            shapeOfSegment[segIdx] = shape;
+            shape.firstIdx = Math.min(shape.firstIdx, first);
+            shape.free.set(first, layout.getSegmentEnd(segIdx));
+            shape.freeCount += layout.getSegmentEnd(segIdx) - first;
+        }
+        shapes = distinct.toArray(new Shape[distinct.size()]);
+        Arrays.sort(shapes, Comparator.comparingLong((Shape shape) -> shape.area)
+                                      .thenComparingLong(shape -> shape.volume)
+                                      .thenComparing(shape -> shape.type));
+        shapeAreas = new long[shapes.length];
+        for (int shapeIdx = 0; shapeIdx < shapes.length; shapeIdx++) {
+            shapeAreas[shapeIdx] = shapes[shapeIdx].area;
+            shapes[shapeIdx].id = shapeIdx;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Counts the distinct unit shapes; shapes are numbered from 0, smallest first.
+     * The shapes never change, so they may be read without the location's lock.
+     *
+     * @return      the number of shapes
+     */
+    int getShapeCount() {
+        return shapes.length;
+    }
+
+    /**
+     * Finds the shape of a unit
+     *
+     * @param   locationIdx     the unit's location index
+     * @return                  the unit's shape number
+     */
+    int getShapeId(int locationIdx) {
+        return shapeOfSegment[layout.getSegmentOf(locationIdx)].id;
+    }
+
+    /**
+     * Retrieves the width of a shape
+     *
+     * @param   shapeId     the shape number
+     * @return              the shape's width, in feet
+     */
+    int getShapeWidth(int shapeId) {
+        return shapes[shapeId].width;
+    }
+
+    /**
+     * Retrieves the length of a shape
+     *
+     * @param   shapeId     the shape number
+     * @return              the shape's length, in feet
+     */
+    int getShapeLength(int shapeId) {
+        return shapes[shapeId].length;
+    }
+
+    /**
+     * Retrieves the height of a shape
+     *
+     * @param   shapeId     the shape number
+     * @return              the shape's height, in feet
+     */
+    int getShapeHeight(int shapeId) {
+        return shapes[shapeId].height;
+    }
+
+    /**
+     * Retrieves the unit type of a shape
+     *
+     * @param   shapeId     the shape number
+     * @return              the shape's unit type
+     */
+    StorageUnit.UnitType getShapeType(int shapeId) {
+        return shapes[shapeId].type;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Records whether a unit is free
+     *
+     * @param   locationIdx     the unit's location index
+     * @param   free            true, if the unit is now free; false, if it is rented
+     */
+    void setFree(int locationIdx, boolean free) {
+        Shape shape = shapeOfSegment[layout.getSegmentOf(locationIdx)];
+        if (shape.free.get(locationIdx) != free) {
+            shape.free.set(locationIdx, free);
+            shape.freeCount += free ? 1 : -1;
+        }
+    }
+
+    /**
+     * Finds the smallest free units at least as big as asked for, smallest floor area
+     * first, then smallest volume, then in location order
+     *
+     * @param   minWidth        the least acceptable width, in feet
+     * @param   minLength       the least acceptable length, in feet
+     * @param   minHeight       the least acceptable height, in feet
+     * @param   unitType        the type of unit wanted, or null for any type
+     * @param   maxResults      the most units to find
+     * @return                  the location indexes of (at most maxResults) fitting units
+     */
+    int[] findSmallest(int minWidth, int minLength, int minHeight, StorageUnit.UnitType unitType, int maxResults) {
+        int[] found = new int[maxResults];
+        int foundCount = 0;
+        for (int shapeIdx = firstShapeWithArea((long) minWidth * minLength);
+                shapeIdx < shapes.length && foundCount < maxResults; shapeIdx++) {
+            Shape shape = shapes[shapeIdx];
+            if (shape.freeCount == 0 || !shape.fits(minWidth, minLength, minHeight, unitType)) {
+                continue;
+            }
+            for (int locationIdx = shape.free.nextSetBit(shape.firstIdx); locationIdx >= 0 && foundCount < maxResults;
+                    locationIdx = shape.free.nextSetBit(locationIdx + 1)) {
+                found[foundCount++] = locationIdx;
+            }
+        }
+        return (foundCount == maxResults) ? found : Arrays.copyOf(found, foundCount);
+    }
+
+    /**
+     * Finds the cheapest free units at least as big as asked for and within a budget,
+     * cheapest first, then smallest, then in location order
+     *
+     * @param   minWidth        the least acceptable width, in feet
+     * @param   minLength       the least acceptable length, in feet
+     * @param   minHeight       the least acceptable height, in feet
+     * @param   unitType        the type of unit wanted, or null for any type
+     * @param   maxPriceCents   the most the unit may cost each month, in cents
+     * @param   maxResults      the most units to find
+     * @param   priceOfShape    gives the current monthly price of each shape, in cents
+     * @return                  the location indexes of (at most maxResults) fitting units
+     */
+    int[] findCheapest(int minWidth, int minLength, int minHeight, StorageUnit.UnitType unitType,
+                       long maxPriceCents, int maxResults, IntToLongFunction priceOfShape) {
+        List<Shape> candidates = new ArrayList<>();
+        for (int shapeIdx = firstShapeWithArea((long) minWidth * minLength); shapeIdx < shapes.length; shapeIdx++) {
+            Shape shape = shapes[shapeIdx];
+            if (shape.freeCount > 0 && shape.fits(minWidth, minLength, minHeight, unitType)) {
+                shape.price = priceOfShape.applyAsLong(shape.id);
+                if (shape.price <= maxPriceCents) {
+                    candidates.add(shape);
+                }
+            }
+        }
+        // the shapes are already smallest first, and the sort is stable
+        candidates.sort(Comparator.comparingLong((Shape shape) -> shape.price));
+
+        int[] found = new int[maxResults];
+        int foundCount = 0;
+        for (Shape shape : candidates) {
+            for (int locationIdx = shape.free.nextSetBit(shape.firstIdx); locationIdx >= 0 && foundCount < maxResults;
+                    locationIdx = shape.free.nextSetBit(locationIdx + 1)) {
+                found[foundCount++] = locationIdx;
+            }
+        }
+        return (foundCount == maxResults) ? found : Arrays.copyOf(found, foundCount);
+    }
+
+    /**
+     * Finds the first shape with at least a given floor area
+     *
+     * @param   minArea     the least acceptable floor area, in square feet
+     * @return              the index of the first such shape, or the shape count if none
+     */
+    private int firstShapeWithArea(long minArea) {
+        int shapeIdx = Arrays.binarySearch(shapeAreas, minArea);
+        if (shapeIdx < 0) {
+            return -shapeIdx - 1;
+        }
+        // the search may land on any of several shapes with that area
+        while (shapeIdx > 0 && shapeAreas[shapeIdx - 1] == minArea) {
+            shapeIdx--;
+        }
+        return shapeIdx;
+    }
+
+    //---------------------------------------------------------------------
+    //          SHAPES
+    //---------------------------------------------------------------------
+    /**
+     * One distinct unit shape, and the free units having it
+     */
+    private static class Shape {
+        /** the shape's width, in feet */
+        final int width;
+        /** the shape's length, in feet */
+        final int length;
+        /** the shape's height, in feet */
+        final int height;
+        /** the shape's unit type */
+        final StorageUnit.UnitType type;
+        /** the shape's floor area, in square feet */
+        final long area;
+        /** the shape's volume, in cubic feet */
+        final long volume;
+        /** the location indexes of the free units of this shape */
+        final BitSet free = new BitSet();
+        /** the number of free units of this shape */
+        int freeCount;
+        /** the location index of the first unit of this shape, where searches start */
+        int firstIdx = Integer.MAX_VALUE;
+        /** the shape's number, its position in size order */
+        int id;
+        /** the shape's price in cents, as last found by a search by price */
+        long price;
+
+        /**
+         * Shape Constructor
+         *
+         * @param   width       the width, in feet
+         * @param   length      the length, in feet
+         * @param   height      the height, in feet
+         * @param   type        the unit type
+         */
+        Shape(int width, int length, int height, StorageUnit.UnitType type) {
+            this.width  = width;
+            this.length = length;
+            this.height = height;
+            this.type   = type;
+            this.area   = (long) width * length;
+            this.volume = area * height;
+        }
+
+        /**
+         * Decides whether units of this shape meet a request
+         *
+         * @param   minWidth        the least acceptable width, in feet
+         * @param   minLength       the least acceptable length, in feet
+         * @param   minHeight       the least acceptable height, in feet
+         * @param   unitType        the type of unit wanted, or null for any type
+         * @return                  true, if the shape is big enough and of the right type
+         */
+        boolean fits(int minWidth, int minLength, int minHeight, StorageUnit.UnitType unitType) {
+            return width >= minWidth && length >= minLength && height >= minHeight
+                    && (unitType == null || type == unitType);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Shape)) {
+                return false;
+            }
+            Shape shape = (Shape) other;
+            return width == shape.width && length == shape.length && height == shape.height && type == shape.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((width * 31 + length) * 31 + height) * 31 + type.ordinal();
+        }
+    }
+
+}
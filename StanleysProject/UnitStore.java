@@ -0,0 +1,450 @@
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Holds the state of a set of storage units in parallel primitive arrays ("columns"),
+ * one slot per unit.  Sizes and types come from the units' FacilityLayout; the rental
+ * state (customer id, rental start day and price in cents) lives in the store itself.
+ *
+ * StorageUnit objects are lightweight views onto a slot of a store, so a location's
+ * units cost a few array entries each instead of an object graph, and whole-location
+ * passes such as billing become straight sweeps over the columns.
+ *
+ * Renting and releasing are lock-free.  A unit's customer id moves between states
+ * by compare-and-set: a renter claims a free slot by moving it to PENDING, fills in
+ * the start day and price, then publishes the customer id; releasing runs the same
+ * steps in reverse.  Only one of any number of competing renters can win the claim,
+ * so a unit can never be rented twice.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+class UnitStore {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the customer id recorded for a unit that isn't rented */
+    static final int NO_CUSTOMER = -1;
+    /** the customer id recorded while a unit is part-way through being rented or released */
+    static final int PENDING     = -2;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** today's epoch day, then the times in milliseconds at which today starts and ends,
+     *  so releases needn't pay for working out the date from the clock each time */
+    private static volatile long[] today = { 0, 0, 0 };
+    /** the location whose units these are, or null for a stand-alone unit */
+    private StorageLocation location;
+    /** the sizes and types of the units */
+    private FacilityLayout layout;
+    /** the registry resolving the customer ids held in the store */
+    private CustomerRegistry customers;
+    /** the id of the customer renting each unit, or NO_CUSTOMER, or PENDING */
+    private final AtomicIntegerArray customerIds;
+    /** the rental start of each rented unit, as an epoch day; published by customerIds */
+    private final long[] rentalStartDays;
+    /** the monthly price of each rented unit, in cents; published by customerIds */
+    private final long[] priceCents;
+    /** counts the rentals and releases of each unit; published by customerIds */
+    private final int[] versions;
+    /** the units' finished rentals, and their rentals by date */
+    private final RentalHistory history;
+
+    //---------------------------------------------------------------------
+    //          CONSTRUCTORS
+    //---------------------------------------------------------------------
+    /**
+     * UnitStore Constructor; every unit starts out available
+     *
+     * @param   location    the location whose units these are, or null for a stand-alone unit
+     * @param   layout      the (sealed) sizes and types of the units
+     * @param   customers   the registry in which renting customers are filed
+     */
+    UnitStore(StorageLocation location, FacilityLayout layout, CustomerRegistry customers) {
+        this.location  = location;
+        this.layout    = layout;
+        this.customers = customers;
+        customerIds     = new AtomicIntegerArray(layout.getUnitCount());
+        rentalStartDays = new long[layout.getUnitCount()];
+        priceCents      = new long[layout.getUnitCount()];
+        versions        = new int[layout.getUnitCount()];
+        history         = new RentalHistory(layout);
+        for (int idx = 0; idx < customerIds.length(); idx++) {
+            customerIds.set(idx, NO_CUSTOMER);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    //          ACCESSORS
+    //---------------------------------------------------------------------
+    /**
+     * Retrieves the location whose units these are
+     *
+     * @return      the owning location, or null for a stand-alone unit
+     */
+    StorageLocation getLocation() {
+        return location;
+    }
+
+    /**
+     * Retrieves the sizes and types of the units
+     *
+     * @return      the store's layout
+     */
+    FacilityLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Retrieves the number of units in the store
+     *
+     * @return      the number of slots
+     */
+    int size() {
+        return customerIds.length();
+    }
+
+    /**
+     * Retrieves the history of the units' rentals
+     *
+     * @return      the rental history
+     */
+    RentalHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Retrieves the registry resolving the customer ids held in the store
+     *
+     * @return      the customer registry
+     */
+    CustomerRegistry getCustomers() {
+        return customers;
+    }
+
+    /**
+     * Retrieves the id of the customer renting a unit
+     *
+     * @param   idx     the unit's slot
+     * @return          the customer's id in the store's registry, NO_CUSTOMER if not rented,
+     *                  or PENDING if the unit is part-way through being rented or released
+     */
+    int getCustomerId(int idx) {
+        return customerIds.get(idx);
+    }
+
+    /**
+     * Retrieves the customer renting a unit
+     *
+     * @param   idx     the unit's slot
+     * @return          the unit's customer, or null if not (or not yet) rented
+     */
+    Customer getCustomer(int idx) {
+        int customerId = customerIds.get(idx);
+        return (customerId < 0) ? null : customers.getCustomer(customerId);
+    }
+
+    /**
+     * Retrieves the start of a unit's current rental
+     *
+     * @param   idx     the unit's slot
+     * @return          the rental start date, or null if not (or not yet) rented
+     */
+    LocalDate getRentalStart(int idx) {
+        if (customerIds.get(idx) < 0) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(rentalStartDays[idx]);
+    }
+
+    /**
+     * Retrieves the monthly price of a unit's current rental
+     *
+     * @param   idx     the unit's slot
+     * @return          the unit's price in cents, or 0 if not (or not yet) rented
+     */
+    long getPriceCents(int idx) {
+        if (customerIds.get(idx) < 0) {
+            return 0;
+        }
+        return priceCents[idx];
+    }
+
+    /**
+     * Reads a unit's whole rental state at once, without locking.  The read fails
+     * if the unit is part-way through a change, or changes while being read; the
+     * thread making the change will report it, so callers can simply give up.
+     *
+     * @param   idx         the unit's slot
+     * @param   state       receives the customer id (or NO_CUSTOMER), the rental start
+     *                      epoch day, the price in cents and the unit's version, in that order
+     * @return              true, if the state was read; false, if it was changing
+     */
+    boolean readRental(int idx, long[] state) {
+        int customerId = customerIds.get(idx);
+        if (customerId == PENDING) {
+            return false;
+        }
+        int version = versions[idx];
+        state[0] = customerId;
+        state[1] = rentalStartDays[idx];
+        state[2] = priceCents[idx];
+        state[3] = version;
+        return customerIds.get(idx) == customerId && versions[idx] == version;
+    }
+
+    //---------------------------------------------------------------------
+    //          OTHER METHODS
+    //---------------------------------------------------------------------
+    /**
+     * Rents a unit to a customer, filing the customer in the store's registry if needed
+     *
+     * @param   idx             the unit's slot
+     * @param   customer        the renting customer
+     * @param   rentalStart     the start date of the rental
+     * @param   cents           the monthly price of the rental, in cents
+     * @return                  true, if the unit was rented; false, if it was already rented
+     */
+    boolean rent(int idx, Customer customer, LocalDate rentalStart, long cents) {
+        if (!customerIds.compareAndSet(idx, NO_CUSTOMER, PENDING)) {
+            return false;
+        }
+        int customerId;
+        try {
+            customerId = customers.addCustomer(customer);
+        } catch (RuntimeException e) {
+            customerIds.set(idx, NO_CUSTOMER);
+            throw e;
+        }
+        rentalStartDays[idx] = rentalStart.toEpochDay();
+        priceCents[idx]      = cents;
+        versions[idx]++;
+        // the volatile write publishes the start day and price along with the customer
+        customerIds.set(idx, customerId);
+        history.rentalStarted(idx, rentalStartDays[idx], cents);
+        return true;
+    }
+
+    /**
+     * Releases a unit, filing its rental in the history and clearing its rental state
+     *
+     * @param   idx         the unit's slot
+     * @param   rentalEnd   the end date of the rental, which must not be before its start;
+     *                      or null for today, or the start if the rental hasn't begun yet
+     * @return              the customer who was renting the unit, or null if it wasn't rented
+     */
+    Customer release(int idx, LocalDate rentalEnd) {
+        long today = todayEpochDay();
+        while (true) {
+            int customerId = customerIds.get(idx);
+            if (customerId == NO_CUSTOMER) {
+                return null;
+            }
+            if (customerId == PENDING) {
+                // another thread is part-way through renting or releasing; let it finish
+                Thread.yield();
+            } else if (customerIds.compareAndSet(idx, customerId, PENDING)) {
+                long endDay = endDayOf(rentalEnd, rentalStartDays[idx], today);
+                if (endDay < rentalStartDays[idx]) {
+                    customerIds.set(idx, customerId);
+                    throw new IllegalArgumentException("A rental can't end before it starts");
+                }
+                try {
+                    history.rentalEnded(idx, customerId, rentalStartDays[idx], endDay, priceCents[idx]);
+                } catch (RuntimeException | Error e) {
+                    // put the rental back, or the slot would be PENDING for good
+                    customerIds.set(idx, customerId);
+                    throw e;
+                }
+                rentalStartDays[idx] = 0;
+                priceCents[idx]      = 0;
+                versions[idx]++;
+                customerIds.set(idx, NO_CUSTOMER);
+                return customers.getCustomer(customerId);
+            }
+        }
+    }
+
+    /**
+     * Rents a group of units to one customer, or none of them.  Every unit is claimed
+     * before any is filled in, so a competing renter either loses to the whole group
+     * or causes the whole group to be given back.
+     *
+     * @param   idxs            the units' slots; no slot may appear twice
+     * @param   customer        the renting customer
+     * @param   rentalStart     the start date of the rentals
+     * @param   cents           the monthly price of each rental in cents, in the same order
+     * @return                  true, if every unit was rented; false, if any was already
+     *                          rented, in which case none were
+     */
+    boolean rentAll(int[] idxs, Customer customer, LocalDate rentalStart, long[] cents) {
+        for (int claimed = 0; claimed < idxs.length; claimed++) {
+            if (!customerIds.compareAndSet(idxs[claimed], NO_CUSTOMER, PENDING)) {
+                unclaim(idxs, claimed, NO_CUSTOMER);
+                return false;
+            }
+        }
+        int customerId;
+        try {
+            customerId = customers.addCustomer(customer);
+        } catch (RuntimeException e) {
+            unclaim(idxs, idxs.length, NO_CUSTOMER);
+            throw e;
+        }
+        long startDay = rentalStart.toEpochDay();
+        for (int unitIdx = 0; unitIdx < idxs.length; unitIdx++) {
+            int idx = idxs[unitIdx];
+            rentalStartDays[idx] = startDay;
+            priceCents[idx]      = cents[unitIdx];
+            versions[idx]++;
+            customerIds.set(idx, customerId);
+            history.rentalStarted(idx, startDay, cents[unitIdx]);
+        }
+        return true;
+    }
+
+    /**
+     * Releases a group of units rented by one customer, or none of them
+     *
+     * @param   idxs        the units' slots; no slot may appear twice
+     * @param   customer    the customer renting the units
+     * @param   rentalEnd   the end date of the rentals, which must not be before any of
+     *                      their starts; or null for today, or the start of any rental
+     *                      that hasn't begun yet
+     * @return              true, if every unit was released; false, if any wasn't
+     *                      rented by the customer, in which case none were released
+     */
+    boolean releaseAll(int[] idxs, Customer customer, LocalDate rentalEnd) {
+        long today = todayEpochDay();
+        int customerId = customers.getCustomerId(customer);
+        if (customerId < 0) {
+            return false;
+        }
+        for (int claimed = 0; claimed < idxs.length; claimed++) {
+            int idx = idxs[claimed];
+            while (!customerIds.compareAndSet(idx, customerId, PENDING)) {
+                if (customerIds.get(idx) != PENDING) {
+                    unclaim(idxs, claimed, customerId);
+                    return false;
+                }
+                // another thread is part-way through renting or releasing; let it finish
+                Thread.yield();
+            }
+        }
+        for (int idx : idxs) {
+            if (endDayOf(rentalEnd, rentalStartDays[idx], today) < rentalStartDays[idx]) {
+                unclaim(idxs, idxs.length, customerId);
+                throw new IllegalArgumentException("A rental can't end before it starts");
+            }
+        }
+        for (int unitIdx = 0; unitIdx < idxs.length; unitIdx++) {
+            int idx = idxs[unitIdx];
+            try {
+                history.rentalEnded(idx, customerId, rentalStartDays[idx],
+                                    endDayOf(rentalEnd, rentalStartDays[idx], today), priceCents[idx]);
+            } catch (RuntimeException | Error e) {
+                // the units not yet released go back to the customer, rather than staying PENDING for good
+                for (int restIdx = unitIdx; restIdx < idxs.length; restIdx++) {
+                    customerIds.set(idxs[restIdx], customerId);
+                }
+                throw e;
+            }
+            rentalStartDays[idx] = 0;
+            priceCents[idx]      = 0;
+            versions[idx]++;
+            customerIds.set(idx, NO_CUSTOMER);
+        }
+        return true;
+    }
+
+    /**
+     * Finds today's epoch day in the default time zone, working it out again only
+     * when the day has changed
+     *
+     * @return      today's epoch day
+     */
+    private static long todayEpochDay() {
+        long[] cached = today;
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis < cached[1] || nowMillis >= cached[2]) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = Instant.ofEpochMilli(nowMillis).atZone(zone).toLocalDate();
+            cached = new long[] { date.toEpochDay(), 
+                                  date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                                  date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() };
+            today = cached;
+        }
+        return cached[0];
+    }
+
+    /**
+     * Works out the epoch day a rental ends
+     *
+     * @param   rentalEnd   the end date given, or null for today (or the start, if later)
+     * @param   startDay    the epoch day the rental started
+     * @param   today       today's epoch day
+     * @return              the epoch day the rental ends
+     */
+    private static long endDayOf(LocalDate rentalEnd, long startDay, long today) {
+        return (rentalEnd == null) ? Math.max(today, startDay) : rentalEnd.toEpochDay();
+    }
+
+    /**
+     * Gives back the slots claimed so far by a group rental or release
+     *
+     * @param   idxs            the group's slots
+     * @param   claimedCount    the number of slots claimed, from the start of idxs
+     * @param   customerId      the customer id the slots held before being claimed
+     */
+    private void unclaim(int[] idxs, int claimedCount, int customerId) {
+        for (int claimed = 0; claimed < claimedCount; claimed++) {
+            customerIds.set(idxs[claimed], customerId);
+        }
+    }
+
+    /**
+     * Charges every renting customer the monthly price of each unit they rent,
+     * sweeping the slots in order
+     *
+     * @return      the total amount charged, in cents
+     */
+    long chargeRent() {
+        return chargeRent(0, customerIds.length());
+    }
+
+    /**
+     * Charges renting customers the monthly price of each unit they rent within a
+     * range of slots, sweeping the range in order; sweeps over different ranges 
+     * may run at the same time
+     *
+     * @param   fromIdx     the first slot to charge
+     * @param   toIdx       the slot just past the last one to charge
+     * @return              the total amount charged for the range, in cents
+     */
+    long chargeRent(int fromIdx, int toIdx) {
+        long totalRentCharged = 0;
+        long[] state = new long[4];
+        for (int idx = fromIdx; idx < toIdx; idx++) {
+            // the customer and price must come from the same rental, so a unit
+            // changing hands mid-read is read again; one part-way through is skipped
+            while (!readRental(idx, state)) {
+                if (customerIds.get(idx) == PENDING) {
+                    state[0] = NO_CUSTOMER;
+                    break;
+                }
+            }
+            int customerId = (int) state[0];
+            if (customerId >= 0) {
+                long unitRent = state[2];
+                customers.getPublishedCustomer(customerId).chargeCents(unitRent);
+                totalRentCharged = Money.add(totalRentCharged, unitRent);
+            }
+        }
+        return totalRentCharged;
+    }
+
+}
@@ -0,0 +1,78 @@
+import benchmarks.Facility;
+import java.time.LocalDate;
+
+/**
+ * A benchmark facility for the JMH benchmarks in the benchmarks package, which
+ * create it by name as they can't name it in code.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public class JmhFacility implements Facility {
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the facility */
+    private StorageLocation loc;
+    /** the customer with the most units */
+    private Customer busyCust;
+    /** the empty unit rented and released over and over */
+    private StorageUnit churnUnit;
+    /** the customer renting the churned unit */
+    private Customer churnCust;
+    /** the start date of the churned unit's rentals */
+    private LocalDate today;
+    /** the number of customers added, which numbers their phones */
+    private long phoneSeq;
+
+    //---------------------------------------------------------------------
+    //          BENCHMARKED OPERATIONS
+    //---------------------------------------------------------------------
+    @Override
+    public void build(int size) {
+        loc = Benchmark.buildLocation(size);
+        busyCust = loc.getCustomer(0);
+        churnUnit = loc.getEmptyUnits()[0];
+        churnCust = new Customer("Churn Customer", "555-0000");
+        today = LocalDate.now();
+        phoneSeq = 0;
+    }
+
+    @Override
+    public void setInstrumented(boolean enabled) {
+        loc.getInstrumentation().setEnabled(enabled);
+    }
+
+    @Override
+    public int getEmptyUnits() {
+        return loc.getEmptyUnits().length;
+    }
+
+    @Override
+    public int getEmptyUnitsOfType() {
+        return loc.getEmptyUnits(StorageUnit.UnitType.TEMPERATURE).length;
+    }
+
+    @Override
+    public int getCustomerUnits() {
+        return loc.getCustomerUnits(busyCust).length;
+    }
+
+    @Override
+    public int addCustomer() {
+        return loc.addCustomer(new Customer("Bench Customer", "p" + phoneSeq++));
+    }
+
+    @Override
+    public long chargeMonthlyRent() {
+        return loc.chargeMonthlyRentCents();
+    }
+
+    @Override
+    public int rentAndRelease() {
+        churnUnit.rentForCents(churnCust, today, 9995);
+        return churnUnit.release() ? 1 : 0;
+    }
+
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+/**
+ * One benchmark facility, and the operations the JMH benchmarks time on it.
+ *
+ * JMH only runs benchmarks in a named package, and code in a named package can't
+ * name the project's classes, which are all in the default package, so the
+ * benchmarks reach them through this interface.  JmhFacility, in the default
+ * package, implements it.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+public interface Facility {
+
+    /**
+     * Builds the facility afresh (see Benchmark.buildLocation)
+     *
+     * @param   size    the number of units in the facility
+     */
+    void build(int size);
+
+    /**
+     * Switches the facility's instrumentation on or off
+     *
+     * @param   enabled     true to time the facility's operations, false not to
+     */
+    void setInstrumented(boolean enabled);
+
+    /**
+     * Lists the facility's empty units
+     *
+     * @return  the number of empty units
+     */
+    int getEmptyUnits();
+
+    /**
+     * Lists the facility's empty units of one type
+     *
+     * @return  the number of empty units of the type
+     */
+    int getEmptyUnitsOfType();
+
+    /**
+     * Lists the units of the facility's busiest customer
+     *
+     * @return  the number of the customer's units
+     */
+    int getCustomerUnits();
+
+    /**
+     * Adds a new customer to the facility
+     *
+     * @return  the customer's id
+     */
+    int addCustomer();
+
+    /**
+     * Charges a month's rent for every rented unit
+     *
+     * @return  the total charged, in cents
+     */
+    long chargeMonthlyRent();
+
+    /**
+     * Rents an empty unit and releases it again
+     *
+     * @return  1 if the unit was released, 0 if not
+     */
+    int rentAndRelease();
+
+}
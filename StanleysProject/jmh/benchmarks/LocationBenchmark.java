@@ -0,0 +1,134 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the hot paths of StorageLocation and StorageUnit, at the same
+ * facility sizes as Benchmark's.  Build with "mvn -Pjmh package" and run with
+ * "java -jar target/benchmarks.jar", adding e.g. "-p size=240" for one size, or
+ * "-p instrumented=false,true" to see what the location's instrumentation costs.
+ *
+ * Adding customers grows the facility, so addCustomer times a batch of additions
+ * to a freshly built facility per iteration rather than running for a fixed time.
+ *
+ * @author      agent
+ * @version     2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationBenchmark {
+
+    //---------------------------------------------------------------------
+    //          CONSTANTS
+    //---------------------------------------------------------------------
+    /** the class implementing Facility, in the default package */
+    public static final String FACILITY_CLASS = "JmhFacility";
+    /** the number of customers added in each addCustomer iteration */
+    public static final int CUSTOMER_BATCH = 10000;
+
+    //---------------------------------------------------------------------
+    //          INSTANCE DATA
+    //---------------------------------------------------------------------
+    /** the number of units in the facility */
+    @Param({ "240", "10000", "100000" })
+    public int size;
+    /** whether the facility's instrumentation is on */
+    @Param({ "false" })
+    public boolean instrumented;
+
+    /** the facility, built once per run */
+    private Facility facility;
+
+    //---------------------------------------------------------------------
+    //          SET-UP
+    //---------------------------------------------------------------------
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        facility = newFacility(size);
+        facility.setInstrumented(instrumented);
+    }
+
+    /**
+     * Creates a benchmark facility
+     *
+     * @param   size    the number of units in the facility
+     * @return          the facility
+     * @throws  ReflectiveOperationException    if FACILITY_CLASS can't be created
+     */
+    static Facility newFacility(int size) throws ReflectiveOperationException {
+        Facility facility = Class.forName(FACILITY_CLASS).asSubclass(Facility.class)
+                                 .getDeclaredConstructor().newInstance();
+        facility.build(size);
+        return facility;
+    }
+
+    //---------------------------------------------------------------------
+    //          BENCHMARKS
+    //---------------------------------------------------------------------
+    @Benchmark
+    public int getEmptyUnits() {
+        return facility.getEmptyUnits();
+    }
+
+    @Benchmark
+    public int getEmptyUnitsOfType() {
+        return facility.getEmptyUnitsOfType();
+    }
+
+    @Benchmark
+    public int getCustomerUnits() {
+        return facility.getCustomerUnits();
+    }
+
+    @Benchmark
+    public long chargeMonthlyRent() {
+        return facility.chargeMonthlyRent();
+    }
+
+    @Benchmark
+    public int rentAndRelease() {
+        return facility.rentAndRelease();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10, batchSize = CUSTOMER_BATCH)
+    @Measurement(iterations = 10, batchSize = CUSTOMER_BATCH)
+    public int addCustomer(GrowingFacility growing) {
+        return growing.facility.addCustomer();
+    }
+
+    //---------------------------------------------------------------------
+    //          STATES
+    //---------------------------------------------------------------------
+    /** a facility built afresh for every iteration, for benchmarks that grow it */
+    @State(Scope.Thread)
+    public static class GrowingFacility {
+        /** the facility */
+        private Facility facility;
+
+        @Setup(Level.Iteration)
+        public void setUp(LocationBenchmark benchmark) throws ReflectiveOperationException {
+            facility = newFacility(benchmark.size);
+            facility.setInstrumented(benchmark.instrumented);
+        }
+    }
+
+}